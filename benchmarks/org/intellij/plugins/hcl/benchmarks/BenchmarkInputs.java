@@ -0,0 +1,108 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Synthetic inputs, generated so results do not depend on test data changes.
+ */
+public final class BenchmarkInputs {
+  private BenchmarkInputs() {
+  }
+
+  public static final String REPRESENTATIVE = "representative";
+  public static final String HUGE_HEREDOC = "huge-heredoc";
+  public static final String DEEP_INTERPOLATION = "deep-interpolation";
+
+  /**
+   * About {@code size} characters of text of given kind
+   */
+  @NotNull
+  public static String generate(@NotNull String kind, int size) {
+    switch (kind) {
+      case REPRESENTATIVE:
+        return representative(size);
+      case HUGE_HEREDOC:
+        return hugeHeredoc(size);
+      case DEEP_INTERPOLATION:
+        return deepInterpolation(size);
+      default:
+        throw new IllegalArgumentException("Unknown input kind: " + kind);
+    }
+  }
+
+  @NotNull
+  private static String representative(int size) {
+    StringBuilder sb = new StringBuilder(size + 1024);
+    for (int i = 0; sb.length() < size; i++) {
+      sb.append("# Instance number ").append(i).append('\n');
+      sb.append("resource \"aws_instance\" \"web_").append(i).append("\" {\n");
+      sb.append("  ami           = \"${data.aws_ami.ubuntu.id}\"\n");
+      sb.append("  instance_type = \"${var.instance_type}\"\n");
+      sb.append("  count         = ").append(i % 4).append('\n');
+      sb.append("  subnet_id     = \"${element(module.vpc.public_subnets, count.index)}\"\n");
+      sb.append("  tags {\n");
+      sb.append("    Name = \"web-${count.index}-").append(i).append("\"\n");
+      sb.append("    Size = 10KB\n");
+      sb.append("  }\n");
+      sb.append("  security_groups = [\"${aws_security_group.web.id}\", \"sg-").append(i).append("\"]\n");
+      sb.append("  user_data = <<EOF\n#!/bin/bash\necho \"${var.greeting}\" > /tmp/hello\nEOF\n");
+      sb.append("}\n\n");
+      sb.append("variable \"var_").append(i).append("\" {\n  default = \"").append(i).append("\"\n}\n\n");
+    }
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String hugeHeredoc(int size) {
+    StringBuilder sb = new StringBuilder(size + 1024);
+    sb.append("resource \"aws_iam_policy\" \"huge\" {\n  policy = <<POLICY\n");
+    for (int i = 0; sb.length() < size; i++) {
+      sb.append("    { \"Effect\": \"Allow\", \"Action\": \"s3:GetObject\", \"Resource\": \"arn:aws:s3:::bucket-${var.env}/")
+          .append(i).append("/*\" },\n");
+    }
+    sb.append("POLICY\n}\n");
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String deepInterpolation(int size) {
+    StringBuilder sb = new StringBuilder(size + 1024);
+    for (int i = 0; sb.length() < size; i++) {
+      sb.append("output \"nested_").append(i).append("\" {\n  value = \"");
+      sb.append(deepInterpolationExpression(64));
+      sb.append("\"\n}\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * {@code ${f("${f("${...}")}")}} nested {@code depth} times
+   */
+  @NotNull
+  public static String deepInterpolationExpression(int depth) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      sb.append("${lookup(var.map, \"");
+    }
+    sb.append("key");
+    for (int i = 0; i < depth; i++) {
+      sb.append("\")}");
+    }
+    return sb.toString();
+  }
+}
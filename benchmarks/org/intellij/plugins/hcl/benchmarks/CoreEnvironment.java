@@ -0,0 +1,51 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import com.intellij.core.CoreApplicationEnvironment;
+import com.intellij.core.CoreProjectEnvironment;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.intellij.plugins.hcl.HCLParserDefinition;
+import org.intellij.plugins.hcl.terraform.config.TerraformParserDefinition;
+import org.intellij.plugins.hil.HILParserDefinition;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Minimal headless platform environment, enough for parsing and model loading without starting whole IDE
+ */
+public final class CoreEnvironment {
+  private final Disposable myDisposable = Disposer.newDisposable();
+  private final CoreProjectEnvironment myProjectEnvironment;
+
+  public CoreEnvironment() {
+    CoreApplicationEnvironment application = new CoreApplicationEnvironment(myDisposable);
+    application.registerParserDefinition(new HCLParserDefinition());
+    application.registerParserDefinition(new TerraformParserDefinition());
+    application.registerParserDefinition(new HILParserDefinition());
+    myProjectEnvironment = new CoreProjectEnvironment(myDisposable, application);
+  }
+
+  @NotNull
+  public Project getProject() {
+    return myProjectEnvironment.getProject();
+  }
+
+  public void dispose() {
+    Disposer.dispose(myDisposable);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import com.intellij.lexer.Lexer;
+import org.intellij.plugins.hcl.HCLLexer;
+import org.intellij.plugins.hcl.terraform.config.TerraformParserDefinition;
+import org.intellij.plugins.hil.ILLanguageInjector;
+import org.intellij.plugins.hil.psi.HILLexer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexer throughput, 'bytes' secondary metric is the number of input characters processed per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+  @Param({BenchmarkInputs.REPRESENTATIVE, BenchmarkInputs.HUGE_HEREDOC, BenchmarkInputs.DEEP_INTERPOLATION})
+  public String input;
+
+  @Param({"1048576"})
+  public int size;
+
+  private String myText;
+  private String myInterpolation;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long bytes;
+  }
+
+  @Setup
+  public void setUp() {
+    myText = BenchmarkInputs.generate(input, size);
+    myInterpolation = "\"" + BenchmarkInputs.deepInterpolationExpression(size / 32) + "\"";
+  }
+
+  @Benchmark
+  public int hclLexer(Counters counters) {
+    counters.bytes += myText.length();
+    return lex(new HCLLexer(TerraformParserDefinition.Companion.getLexerCapabilities()), myText);
+  }
+
+  @Benchmark
+  public int hilLexer(Counters counters) {
+    counters.bytes += myInterpolation.length();
+    return lex(new HILLexer(), myInterpolation);
+  }
+
+  @Benchmark
+  public int ilRangesInText(Counters counters) {
+    counters.bytes += myText.length();
+    return ILLanguageInjector.Companion.getILRangesInText(myText).size();
+  }
+
+  private static int lex(Lexer lexer, CharSequence text) {
+    int count = 0;
+    lexer.start(text);
+    while (lexer.getTokenType() != null) {
+      count++;
+      lexer.advance();
+    }
+    return count;
+  }
+}
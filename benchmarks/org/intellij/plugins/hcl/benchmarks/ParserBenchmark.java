@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import org.intellij.plugins.hcl.HCLParser;
+import org.intellij.plugins.hcl.terraform.config.TerraformParserDefinition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build AST of a file, includes lexing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+  @Param({BenchmarkInputs.REPRESENTATIVE, BenchmarkInputs.HUGE_HEREDOC, BenchmarkInputs.DEEP_INTERPOLATION})
+  public String input;
+
+  @Param({"1048576"})
+  public int size;
+
+  private CoreEnvironment myEnvironment;
+  private ParserDefinition myDefinition;
+  private String myText;
+
+  @Setup
+  public void setUp() {
+    myEnvironment = new CoreEnvironment();
+    myDefinition = new TerraformParserDefinition();
+    myText = BenchmarkInputs.generate(input, size);
+  }
+
+  @TearDown
+  public void tearDown() {
+    myEnvironment.dispose();
+  }
+
+  @Benchmark
+  public ASTNode parse() {
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(myDefinition, myDefinition.createLexer(myEnvironment.getProject()), myText);
+    return new HCLParser().parse(myDefinition.getFileNodeType(), builder);
+  }
+}
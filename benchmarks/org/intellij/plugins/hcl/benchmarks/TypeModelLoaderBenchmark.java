@@ -0,0 +1,63 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import org.intellij.plugins.hcl.terraform.config.model.TypeModel;
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelLoader;
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of bundled model. 'cold' is the first load in a fresh JVM, 'warm' is a load after JIT warm up.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TypeModelLoaderBenchmark {
+  private CoreEnvironment myEnvironment;
+  private Map<String, TypeModelProvider.Additional> myExternal;
+
+  @Setup
+  public void setUp() {
+    myEnvironment = new CoreEnvironment();
+    myExternal = new TypeModelProvider().getExternal();
+  }
+
+  @TearDown
+  public void tearDown() {
+    myEnvironment.dispose();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(5)
+  public TypeModel cold() {
+    return new TypeModelLoader(myExternal).load();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 3, time = 5)
+  @Measurement(iterations = 5, time = 5)
+  @Fork(1)
+  public TypeModel warm() {
+    return new TypeModelLoader(myExternal).load();
+  }
+}
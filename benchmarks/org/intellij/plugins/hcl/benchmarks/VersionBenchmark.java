@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.benchmarks;
+
+import org.intellij.plugins.hcl.terraform.config.model.version.Version;
+import org.intellij.plugins.hcl.terraform.config.model.version.VersionConstraint;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionBenchmark {
+  private static final String[] VERSIONS = {"0.11.13", "1.2.0-beta.5+metadata", "1.0", "2.3.4.5", "0.12.0-rc1"};
+  private static final String CONSTRAINT = ">= 0.11.0, < 0.13.0, != 0.11.5, ~> 0.11";
+
+  private Version[] myParsed;
+  private VersionConstraint myConstraint;
+
+  @Setup
+  public void setUp() {
+    myParsed = new Version[VERSIONS.length];
+    for (int i = 0; i < VERSIONS.length; i++) {
+      myParsed[i] = Version.Companion.parse(VERSIONS[i]);
+    }
+    myConstraint = VersionConstraint.Companion.parse(CONSTRAINT);
+  }
+
+  @Benchmark
+  public void parseVersion(Blackhole blackhole) {
+    for (String version : VERSIONS) {
+      blackhole.consume(Version.Companion.parse(version));
+    }
+  }
+
+  @Benchmark
+  public VersionConstraint parseConstraint() {
+    return VersionConstraint.Companion.parse(CONSTRAINT);
+  }
+
+  @Benchmark
+  public void checkConstraint(Blackhole blackhole) {
+    for (Version version : myParsed) {
+      blackhole.consume(myConstraint.check(version));
+    }
+  }
+}
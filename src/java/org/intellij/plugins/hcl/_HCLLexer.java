@@ -450,10 +450,27 @@ public class _HCLLexer implements FlexLexer {
       return 1;
     }
     private IElementType eods() {
-      yybegin(YYINITIAL); stringType = StringType.None; zzStartRead = stringStart; return DOUBLE_QUOTED_STRING;
+      yybegin(YYINITIAL); stringType = StringType.None; zzStartRead = splitStrings ? fragmentStart : stringStart; return DOUBLE_QUOTED_STRING;
     }
     private IElementType eoss() {
-      yybegin(YYINITIAL); stringType = StringType.None; zzStartRead = stringStart; return SINGLE_QUOTED_STRING;
+      yybegin(YYINITIAL); stringType = StringType.None; zzStartRead = splitStrings ? fragmentStart : stringStart; return SINGLE_QUOTED_STRING;
+    }
+    // Highlighting lexer returns strings in fragments split at interpolation boundaries,
+    // it can be restarted at any of them, see HCLLexer.isRestartableState
+    boolean splitStrings = false;
+    int fragmentStart = -1;
+
+    private boolean canSplit() {
+      // Deeper interpolations do not fit into lexer state
+      return splitStrings && hil < 0x3F;
+    }
+    private boolean isFragmentBeforeMatch() {
+      return canSplit() && zzStartRead > fragmentStart;
+    }
+    private IElementType fragment() {
+      zzStartRead = fragmentStart;
+      fragmentStart = zzMarkedPos;
+      return stringType == StringType.SingleQ ? SINGLE_QUOTED_STRING : DOUBLE_QUOTED_STRING;
     }
     private IElementType eoil() {
       hil=0; return stringType == StringType.SingleQ ? eoss(): eods();
@@ -802,12 +819,12 @@ public class _HCLLexer implements FlexLexer {
             // fall through
           case 44: break;
           case 8: 
-            { stringType = StringType.SingleQ; stringStart = zzStartRead; yybegin(S_STRING);
+            { stringType = StringType.SingleQ; stringStart = zzStartRead; fragmentStart = zzStartRead; yybegin(S_STRING);
             } 
             // fall through
           case 45: break;
           case 9: 
-            { stringType = StringType.DoubleQ; stringStart = zzStartRead; yybegin(D_STRING);
+            { stringType = StringType.DoubleQ; stringStart = zzStartRead; fragmentStart = zzStartRead; yybegin(D_STRING);
             } 
             // fall through
           case 46: break;
@@ -857,7 +874,7 @@ public class _HCLLexer implements FlexLexer {
             // fall through
           case 55: break;
           case 19: 
-            { if (hil_dec() <= 0) yybegin(stringType == StringType.SingleQ ? S_STRING: D_STRING);
+            { if (hil_dec() <= 0) yybegin(stringType == StringType.SingleQ ? S_STRING: D_STRING); if (canSplit()) return fragment();
             } 
             // fall through
           case 56: break;
@@ -943,7 +960,7 @@ public class _HCLLexer implements FlexLexer {
             // fall through
           case 67: break;
           case 31: 
-            { if (withInterpolationLanguage) {hil_inc(); yybegin(HIL_EXPRESSION);}
+            { if (withInterpolationLanguage) { if (isFragmentBeforeMatch()) { yypushback(yylength()); return fragment(); } hil_inc(); yybegin(HIL_EXPRESSION);}
             } 
             // fall through
           case 68: break;
@@ -958,7 +975,7 @@ public class _HCLLexer implements FlexLexer {
             // fall through
           case 70: break;
           case 34: 
-            { hil_inc();
+            { if (isFragmentBeforeMatch()) { yypushback(yylength()); return fragment(); } hil_inc();
             } 
             // fall through
           case 71: break;
@@ -32,6 +32,8 @@ public class TerraformSettingsPanel implements ConfigurableUi<TerraformToolProje
   private final Project myProject;
   private JPanel myWholePanel;
   private TextFieldWithBrowseButton myTerraformPathField;
+  private JCheckBox myUseBuiltinFormatterCheckBox;
+  private JSpinner myMaxConcurrentProcessesSpinner;
   private JButton myReloadTerraformMetadataModelButton;
 
   public TerraformSettingsPanel(@NotNull Project project) {
@@ -51,23 +53,34 @@ public class TerraformSettingsPanel implements ConfigurableUi<TerraformToolProje
         TextComponentAccessor.TEXT_FIELD_WHOLE_TEXT
     );
     myReloadTerraformMetadataModelButton.addActionListener(e -> reloadModel());
+    myMaxConcurrentProcessesSpinner.setModel(new SpinnerNumberModel(TerraformToolProjectSettings.DEFAULT_MAX_CONCURRENT_PROCESSES, 1, 64, 1));
 
     return myWholePanel;
   }
 
   @Override
   public boolean isModified(@NotNull TerraformToolProjectSettings settings) {
-    return !Comparing.equal(myTerraformPathField.getText(), settings.getTerraformPath());
+    return !Comparing.equal(myTerraformPathField.getText(), settings.getTerraformPath())
+        || myUseBuiltinFormatterCheckBox.isSelected() != settings.isUseBuiltinFormatter()
+        || getMaxConcurrentProcesses() != settings.getMaxConcurrentProcesses();
   }
 
   @Override
   public void apply(@NotNull TerraformToolProjectSettings settings) {
     settings.setTerraformPath(myTerraformPathField.getText());
+    settings.setUseBuiltinFormatter(myUseBuiltinFormatterCheckBox.isSelected());
+    settings.setMaxConcurrentProcesses(getMaxConcurrentProcesses());
   }
 
   @Override
   public void reset(@NotNull TerraformToolProjectSettings settings) {
     myTerraformPathField.setText(settings.getTerraformPath());
+    myUseBuiltinFormatterCheckBox.setSelected(settings.isUseBuiltinFormatter());
+    myMaxConcurrentProcessesSpinner.setValue(settings.getMaxConcurrentProcesses());
+  }
+
+  private int getMaxConcurrentProcesses() {
+    return ((Number)myMaxConcurrentProcessesSpinner.getValue()).intValue();
   }
 
   private void reloadModel() {
@@ -32,6 +32,8 @@ import java.io.File;
     storages = @Storage("terraform.xml")
 )
 public class TerraformToolProjectSettings implements PersistentStateComponent<TerraformToolProjectSettings.State> {
+  public static final int DEFAULT_MAX_CONCURRENT_PROCESSES = 4;
+
   private State myState = new State();
 
   public static TerraformToolProjectSettings getInstance(@NotNull final Project project) {
@@ -47,6 +49,8 @@ public class TerraformToolProjectSettings implements PersistentStateComponent<Te
   @Override
   public void loadState(@NotNull State state) {
     myState.myTerraformPath = state.myTerraformPath;
+    myState.myUseBuiltinFormatter = state.myUseBuiltinFormatter;
+    myState.myMaxConcurrentProcesses = state.myMaxConcurrentProcesses;
   }
 
   public String getTerraformPath() {
@@ -57,8 +61,32 @@ public class TerraformToolProjectSettings implements PersistentStateComponent<Te
     myState.myTerraformPath = terraformPath;
   }
 
+  /**
+   * Whether 'terraform fmt' actions should use in-process formatter instead of running terraform executable
+   */
+  public boolean isUseBuiltinFormatter() {
+    return myState.myUseBuiltinFormatter;
+  }
+
+  public void setUseBuiltinFormatter(boolean useBuiltinFormatter) {
+    myState.myUseBuiltinFormatter = useBuiltinFormatter;
+  }
+
+  /**
+   * Maximum number of terraform processes started by IDE actions which could run simultaneously
+   */
+  public int getMaxConcurrentProcesses() {
+    return Math.max(1, myState.myMaxConcurrentProcesses);
+  }
+
+  public void setMaxConcurrentProcesses(int maxConcurrentProcesses) {
+    myState.myMaxConcurrentProcesses = Math.max(1, maxConcurrentProcesses);
+  }
+
   public static class State {
     public String myTerraformPath = getDefaultTerraformPath();
+    public boolean myUseBuiltinFormatter = true;
+    public int myMaxConcurrentProcesses = DEFAULT_MAX_CONCURRENT_PROCESSES;
   }
 
   public static String getDefaultTerraformPath() {
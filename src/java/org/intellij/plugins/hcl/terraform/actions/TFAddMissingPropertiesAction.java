@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.actions;
+
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.intellij.plugins.hcl.terraform.TerraformConstants;
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType;
+import org.intellij.plugins.hcl.terraform.config.inspection.AddMissingPropertiesProcessor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adds missing required properties to all blocks in selected Terraform files and directories,
+ * see {@link AddMissingPropertiesProcessor}.
+ */
+public class TFAddMissingPropertiesAction extends DumbAwareAction {
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    boolean enabled = e.getProject() != null && files != null &&
+                      Arrays.stream(files).anyMatch(file -> file.isDirectory() || file.getFileType() == TerraformFileType.INSTANCE);
+    e.getPresentation().setEnabled(enabled);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    VirtualFile[] selected = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    if (project == null || selected == null) return;
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, AddMissingPropertiesProcessor.TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        List<VirtualFile> files = AddMissingPropertiesProcessor.collectFiles(Arrays.asList(selected));
+        AddMissingPropertiesProcessor.Statistics statistics = new AddMissingPropertiesProcessor(project).run(files, indicator);
+        String message = statistics.getBlocks() == 0
+                         ? "No missing required properties found"
+                         : "Added missing properties to " + statistics.getBlocks() + " blocks in " + statistics.getFiles() + " files";
+        Notifications.Bus.notify(TerraformConstants.EXECUTION_NOTIFICATION_GROUP.createNotification(
+          AddMissingPropertiesProcessor.TITLE, message, NotificationType.INFORMATION, null), project);
+      }
+    });
+  }
+}
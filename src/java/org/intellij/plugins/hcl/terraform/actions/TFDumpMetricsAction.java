@@ -0,0 +1,60 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.actions;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Internal action: writes JSON report of {@link TerraformMetrics} into the log directory and opens it.
+ */
+public class TFDumpMetricsAction extends DumbAwareAction {
+  private static final Logger LOG = Logger.getInstance(TFDumpMetricsAction.class);
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    String name = "terraform-metrics-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+    File file = new File(PathManager.getLogPath(), name);
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      TerraformMetrics.writeJson(writer);
+    } catch (IOException ex) {
+      LOG.warn("Cannot write Terraform metrics to " + file, ex);
+      Messages.showErrorDialog(project, "Cannot write Terraform metrics: " + ex.getMessage(), "Terraform Metrics");
+      return;
+    }
+    VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+    if (project != null && virtualFile != null) {
+      FileEditorManager.getInstance(project).openFile(virtualFile, true);
+    } else {
+      Messages.showInfoMessage(project, "Terraform metrics written to " + file, "Terraform Metrics");
+    }
+  }
+}
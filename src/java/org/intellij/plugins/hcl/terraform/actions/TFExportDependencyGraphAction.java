@@ -0,0 +1,93 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.actions;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.intellij.plugins.hcl.psi.HCLFile;
+import org.intellij.plugins.hcl.terraform.config.TerraformLanguage;
+import org.intellij.plugins.hcl.terraform.config.model.Module;
+import org.intellij.plugins.hcl.terraform.config.model.ModuleDependencyGraph;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes {@link ModuleDependencyGraph} of module containing selected file or directory in Graphviz DOT format.
+ */
+public class TFExportDependencyGraphAction extends DumbAwareAction {
+  private static final Logger LOG = Logger.getInstance(TFExportDependencyGraphAction.class);
+  private static final String TITLE = "Export Terraform Dependency Graph";
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabled(findModule(e) != null);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    Module module = findModule(e);
+    if (project == null || module == null) return;
+
+    String name = module.getItem().getName();
+    String dot = module.getDependencyGraph().toDot(name);
+
+    FileSaverDescriptor descriptor = new FileSaverDescriptor(TITLE, "Select file to save graph in DOT format", "dot");
+    VirtualFile base = module.getItem().getVirtualFile();
+    VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+        .save(base == null || base.isDirectory() ? base : base.getParent(), name + ".dot");
+    if (wrapper == null) return;
+    File file = wrapper.getFile();
+    try {
+      FileUtil.writeToFile(file, dot);
+    } catch (IOException ex) {
+      LOG.warn("Cannot write dependency graph to " + file, ex);
+      Messages.showErrorDialog(project, "Cannot write dependency graph: " + ex.getMessage(), TITLE);
+      return;
+    }
+    wrapper.getVirtualFile(true);
+  }
+
+  @Nullable
+  private static Module findModule(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    if (project == null || file == null || !file.isValid()) return null;
+    PsiManager manager = PsiManager.getInstance(project);
+    if (file.isDirectory()) {
+      PsiDirectory directory = manager.findDirectory(file);
+      return directory == null ? null : new Module(directory);
+    }
+    PsiFile psiFile = manager.findFile(file);
+    if (!(psiFile instanceof HCLFile) || psiFile.getLanguage() != TerraformLanguage.INSTANCE) return null;
+    return Module.Companion.getModule(psiFile);
+  }
+}
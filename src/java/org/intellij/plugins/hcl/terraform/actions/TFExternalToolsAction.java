@@ -36,6 +36,7 @@ import com.intellij.util.ExceptionUtil;
 import org.intellij.plugins.hcl.HCLFileType;
 import org.intellij.plugins.hcl.terraform.TerraformConstants;
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType;
+import org.intellij.plugins.hcl.terraform.util.TFExecutionQueue;
 import org.intellij.plugins.hcl.terraform.util.TFExecutor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -111,11 +112,19 @@ public abstract class TFExternalToolsAction extends DumbAwareAction {
       FileDocumentManager.getInstance().saveAllDocuments();
     }
 
-    createExecutor(project, module, title, virtualFile).executeWithProgress(withProgress,
-        aBoolean -> {
-          consumer.consume(aBoolean);
-          VfsUtil.markDirtyAndRefresh(true, true, true, virtualFile);
-        });
+    Consumer<Boolean> refreshingConsumer = aBoolean -> {
+      consumer.consume(aBoolean);
+      VfsUtil.markDirtyAndRefresh(true, true, true, virtualFile);
+    };
+    String filePath = virtualFile.getCanonicalPath();
+    if (withProgress || filePath == null) {
+      createExecutor(project, module, title, virtualFile).executeWithProgress(withProgress, refreshingConsumer);
+    } else {
+      // Non-modal requests are debounced and merged, so saving or reformatting many files does not start a process storm
+      VirtualFile parent = virtualFile.getParent();
+      TFExecutionQueue.getInstance(project).submit(title, parent != null ? parent.getPath() : null, filePath,
+          path -> createExecutor(project, module, title, path), refreshingConsumer);
+    }
     return true;
   }
 
@@ -20,6 +20,8 @@ import com.intellij.CommonBundle;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.text.StringUtil;
@@ -37,6 +39,8 @@ import com.intellij.util.PairConsumer;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.ui.UIUtil;
 import org.intellij.plugins.hcl.psi.HCLFile;
+import org.intellij.plugins.hcl.terraform.TerraformToolProjectSettings;
+import org.intellij.plugins.hcl.terraform.config.formatter.TerraformFmt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -85,7 +89,9 @@ public class TFFmtCheckinFactory extends CheckinHandlerFactory {
         if (enabled(panel)) {
           final Ref<Boolean> success = Ref.create(true);
           FileDocumentManager.getInstance().saveAllDocuments();
-          for (PsiFile file : getPsiFiles()) {
+          if (TerraformToolProjectSettings.getInstance(panel.getProject()).isUseBuiltinFormatter()) {
+            success.set(formatWithBuiltinFormatter());
+          } else for (PsiFile file : getPsiFiles()) {
             VirtualFile virtualFile = file.getVirtualFile();
             new TFFmtFileAction().doSomething(virtualFile, ModuleUtilCore.findModuleForPsiElement(file), file.getProject(), "Terraform fmt", true,
                 result -> {
@@ -115,6 +121,14 @@ public class TFFmtCheckinFactory extends CheckinHandlerFactory {
         return ReturnResult.CANCEL;
       }
 
+      private boolean formatWithBuiltinFormatter() {
+        final List<VirtualFile> files = ContainerUtil.map(getPsiFiles(), PsiFile::getVirtualFile);
+        final Project project = panel.getProject();
+        return ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            () -> TerraformFmt.formatFiles(project, files, ProgressManager.getInstance().getProgressIndicator()),
+            "Terraform fmt", true, project);
+      }
+
       @NotNull
       private List<PsiFile> getPsiFiles() {
         Collection<VirtualFile> files = panel.getVirtualFiles();
@@ -15,13 +15,35 @@
  */
 package org.intellij.plugins.hcl.terraform.actions;
 
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Consumer;
+import org.intellij.plugins.hcl.terraform.TerraformToolProjectSettings;
+import org.intellij.plugins.hcl.terraform.config.formatter.TerraformFmt;
 import org.intellij.plugins.hcl.terraform.util.TFExecutor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+
 public class TFFmtFileAction extends TFExternalToolsAction {
+  @Override
+  protected boolean doSomething(@NotNull VirtualFile virtualFile,
+                                @Nullable Module module,
+                                @NotNull Project project,
+                                @NotNull String title,
+                                boolean withProgress,
+                                @NotNull Consumer<Boolean> consumer) {
+    if (!TerraformToolProjectSettings.getInstance(project).isUseBuiltinFormatter()) {
+      return super.doSomething(virtualFile, module, project, title, withProgress, consumer);
+    }
+    FileDocumentManager.getInstance().saveAllDocuments();
+    TerraformFmt.formatFilesInBackground(project, Collections.singletonList(virtualFile), title, consumer);
+    return true;
+  }
+
   @Override
   @NotNull
   protected TFExecutor createExecutor(@NotNull Project project, @Nullable Module module, @NotNull String title, @NotNull String filePath) {
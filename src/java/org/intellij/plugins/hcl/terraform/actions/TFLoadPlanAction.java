@@ -0,0 +1,173 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.actions;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.intellij.plugins.hcl.terraform.TerraformConstants;
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType;
+import org.intellij.plugins.hcl.terraform.plan.StdoutPipeListener;
+import org.intellij.plugins.hcl.terraform.plan.TerraformPlan;
+import org.intellij.plugins.hcl.terraform.plan.TerraformPlanService;
+import org.intellij.plugins.hcl.terraform.util.TFExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Loads changes from saved plan file (binary one, via 'terraform show -json') or from its JSON representation
+ * and shows them in editor, see {@link org.intellij.plugins.hcl.terraform.plan.TerraformPlanAnnotator}
+ */
+public class TFLoadPlanAction extends DumbAwareAction {
+  private static final Logger LOG = Logger.getInstance(TFLoadPlanAction.class);
+  private static final String TITLE = "Load Terraform Plan";
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabled(e.getProject() != null);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    if (project == null) return;
+    VirtualFile directory = getRootModule(e, project);
+    if (directory == null || !directory.isInLocalFileSystem()) return;
+    FileChooserDescriptor descriptor = new FileChooserDescriptor(true, false, false, false, false, false)
+        .withTitle(TITLE)
+        .withDescription("Select plan file saved with 'terraform plan -out' or its 'terraform show -json' output");
+    VirtualFile file = FileChooser.chooseFile(descriptor, project, directory);
+    if (file == null || !file.isInLocalFileSystem()) return;
+
+    if ("json".equalsIgnoreCase(file.getExtension())) {
+      loadInBackground(project, VfsUtilCore.virtualToIoFile(file), directory);
+      return;
+    }
+    showInBackground(project, file, directory);
+  }
+
+  /**
+   * Plan file could be saved anywhere (e.g. '-out=/tmp/x.plan'), so root module is the one of the current Terraform file
+   * or directory, otherwise user is asked for it
+   */
+  @Nullable
+  private static VirtualFile getRootModule(@NotNull AnActionEvent e, @NotNull Project project) {
+    VirtualFile context = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    if (context != null) {
+      if (context.isDirectory()) return context;
+      if (context.getFileType() == TerraformFileType.INSTANCE) return context.getParent();
+    }
+    FileChooserDescriptor descriptor = FileChooserDescriptorFactory.createSingleFolderDescriptor()
+        .withTitle(TITLE)
+        .withDescription("Select root module directory the plan was created in");
+    return FileChooser.chooseFile(descriptor, project, project.getBaseDir());
+  }
+
+  /**
+   * Parses 'terraform show -json' output while it is produced, without storing it in memory or in a file
+   */
+  private static void showInBackground(@NotNull Project project, @NotNull VirtualFile file, @NotNull VirtualFile directory) {
+    StdoutPipeListener pipe = new StdoutPipeListener();
+    TFExecutor executor = TFExecutor.in(project, null)
+        .withPresentableName("terraform show")
+        .withWorkDirectory(directory.getPath())
+        .withParameters("show", "-json", file.getPath())
+        .disablePty()
+        .withStreamingOutput()
+        .withProcessListener(pipe)
+        .showOutputOnError();
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+      @Override
+      public void onCancel() {
+        ProcessHandler handler = executor.getProcessHandler();
+        if (handler != null) handler.destroyProcess();
+      }
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        Future<TerraformPlan> parsed = ApplicationManager.getApplication().executeOnPooledThread(() -> {
+          try (Reader reader = pipe.getReader()) {
+            return TerraformPlan.parse(reader);
+          }
+        });
+        try {
+          if (!executor.execute()) return;
+          setPlan(project, parsed.get(), directory);
+        } catch (ExecutionException e) {
+          error(project, "Cannot read plan: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+          throw new ProcessCanceledException(e);
+        } finally {
+          // Unblocks process output if parser stopped reading it
+          parsed.cancel(true);
+          try {
+            pipe.getReader().close();
+          } catch (IOException ignored) {
+          }
+        }
+      }
+    });
+  }
+
+  private static void loadInBackground(@NotNull Project project, @NotNull File json, @NotNull VirtualFile directory) {
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, TITLE, true) {
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        try (Reader reader = Files.newBufferedReader(json.toPath(), StandardCharsets.UTF_8)) {
+          setPlan(project, TerraformPlan.parse(reader), directory);
+        } catch (ProcessCanceledException e) {
+          throw e;
+        } catch (IOException | RuntimeException e) {
+          error(project, "Cannot read plan: " + e.getMessage());
+        }
+      }
+    });
+  }
+
+  private static void setPlan(@NotNull Project project, @NotNull TerraformPlan plan, @NotNull VirtualFile directory) {
+    TerraformPlanService.getInstance(project).setPlan(plan, directory);
+    LOG.debug("Loaded plan with " + plan.getSize() + " changed resources");
+  }
+
+  private static void error(@NotNull Project project, String message) {
+    Notifications.Bus.notify(TerraformConstants.EXECUTION_NOTIFICATION_GROUP.createNotification(TITLE, message, NotificationType.ERROR, null), project);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.actions;
+
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.codeInsight.navigation.NavigationUtil;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.plugins.hcl.psi.HCLBlock;
+import org.intellij.plugins.hcl.psi.HCLFile;
+import org.intellij.plugins.hcl.terraform.config.TerraformLanguage;
+import org.intellij.plugins.hcl.terraform.config.model.ExtensionsKt;
+import org.intellij.plugins.hcl.terraform.config.model.ModuleDependencyGraph;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Shows popup with resources, data sources and modules the one under caret depends on,
+ * see {@link ModuleDependencyGraph}. {@link TFShowDependentsAction} shows ones depending on it.
+ */
+public class TFShowDependenciesAction extends DumbAwareAction {
+  private final boolean myDependents;
+
+  public TFShowDependenciesAction() {
+    this(false);
+  }
+
+  protected TFShowDependenciesAction(boolean dependents) {
+    myDependents = dependents;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(e.getData(CommonDataKeys.EDITOR) != null && isTerraformFile(e.getData(CommonDataKeys.PSI_FILE)));
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Editor editor = e.getData(CommonDataKeys.EDITOR);
+    PsiFile file = e.getData(CommonDataKeys.PSI_FILE);
+    if (editor == null || !isTerraformFile(file)) return;
+
+    HCLBlock block = findTopLevelBlock(file.findElementAt(editor.getCaretModel().getOffset()));
+    ModuleDependencyGraph graph = block == null ? null : ExtensionsKt.getTerraformModule(block).getDependencyGraph();
+    ModuleDependencyGraph.Node node = graph == null ? null : graph.findNode(block);
+    if (node == null) {
+      HintManager.getInstance().showErrorHint(editor, "Place caret on resource, data source or module");
+      return;
+    }
+
+    List<ModuleDependencyGraph.Node> targets = myDependents ? graph.getDependents(node) : graph.getDependencies(node);
+    if (targets.isEmpty()) {
+      HintManager.getInstance().showInformationHint(editor, (myDependents ? "Nothing depends on '" : "No dependencies of '") + node.getAddress() + "'");
+      return;
+    }
+    PsiElement[] elements = ContainerUtil.flatten(ContainerUtil.map(targets, ModuleDependencyGraph.Node::getBlocks)).toArray(PsiElement.EMPTY_ARRAY);
+    String title = (myDependents ? "Dependents of '" : "Dependencies of '") + node.getAddress() + "'";
+    NavigationUtil.getPsiElementPopup(elements, title).showInBestPositionFor(editor);
+  }
+
+  private static boolean isTerraformFile(@Nullable PsiFile file) {
+    return file instanceof HCLFile && file.getLanguage() == TerraformLanguage.INSTANCE;
+  }
+
+  @Nullable
+  private static HCLBlock findTopLevelBlock(@Nullable PsiElement element) {
+    HCLBlock block = PsiTreeUtil.getParentOfType(element, HCLBlock.class, false);
+    while (block != null && !(block.getParent() instanceof HCLFile)) {
+      block = PsiTreeUtil.getParentOfType(block, HCLBlock.class, true);
+    }
+    return block;
+  }
+}
@@ -19,23 +19,160 @@ package org.intellij.plugins.hcl.terraform.util;
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 
-public class HistoryProcessListener extends ProcessAdapter {
-  private final ConcurrentLinkedQueue<Pair<ProcessEvent, Key>> myHistory = new ConcurrentLinkedQueue<>();
+/**
+ * Remembers process output to replay it later into a console.
+ * <p>
+ * Only last {@code memoryLimit} characters are kept in memory. If spill file is used, whole output is also written there,
+ * when more than {@code spillFileCharsLimit} characters were written to the file it is renamed to {@code <name>.1} and a new one
+ * is started, so at most two last parts of output are kept on disk. Spill files are deleted when listener is disposed.
+ */
+public class HistoryProcessListener extends ProcessAdapter implements Disposable {
+  private static final Logger LOG = Logger.getInstance(HistoryProcessListener.class);
+  public static final int DEFAULT_MEMORY_LIMIT = 1024 * 1024;
+  public static final long DEFAULT_SPILL_FILE_CHARS_LIMIT = 64L * 1024 * 1024;
+
+  private final int myMemoryLimit;
+  private final long mySpillFileCharsLimit;
+  private final ArrayDeque<Pair<String, Key>> myHistory = new ArrayDeque<>();
+  private int myHistorySize;
+  private long mySkipped;
+  private boolean myHasStdout;
+  private boolean myHasStderr;
+
+  @Nullable
+  private final File mySpillFile;
+  @Nullable
+  private Writer mySpillWriter;
+  private long mySpillFileChars;
+  private boolean myDisposed;
+
+  public HistoryProcessListener() {
+    this(DEFAULT_MEMORY_LIMIT, null, DEFAULT_SPILL_FILE_CHARS_LIMIT);
+  }
+
+  public HistoryProcessListener(int memoryLimit, @Nullable File spillFile, long spillFileCharsLimit) {
+    myMemoryLimit = memoryLimit;
+    mySpillFile = spillFile;
+    mySpillFileCharsLimit = spillFileCharsLimit;
+  }
+
+  /**
+   * Creates listener which spills output to a new temporary file, it should be disposed to delete the file
+   */
+  @NotNull
+  public static HistoryProcessListener withSpillFile() {
+    File file = null;
+    try {
+      file = FileUtil.createTempFile("terraform-output", ".log", false);
+    } catch (IOException e) {
+      LOG.warn("Cannot create file for terraform output", e);
+    }
+    return new HistoryProcessListener(DEFAULT_MEMORY_LIMIT, file, DEFAULT_SPILL_FILE_CHARS_LIMIT);
+  }
 
   @Override
-  public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
-    myHistory.add(Pair.create(event, outputType));
+  public synchronized void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+    String text = event.getText();
+    if (text == null || text.isEmpty()) return;
+    if (outputType == ProcessOutputTypes.STDOUT) {
+      myHasStdout = true;
+    } else if (outputType == ProcessOutputTypes.STDERR) {
+      myHasStderr = true;
+    }
+    spill(text);
+
+    myHistory.addLast(Pair.create(text, outputType));
+    myHistorySize += text.length();
+    while (myHistorySize > myMemoryLimit && myHistory.size() > 1) {
+      Pair<String, Key> removed = myHistory.removeFirst();
+      myHistorySize -= removed.first.length();
+      mySkipped += removed.first.length();
+    }
   }
 
-  public void apply(ProcessHandler listener) {
-    for (Pair<ProcessEvent, Key> pair : myHistory) {
-      listener.notifyTextAvailable(pair.getFirst().getText(), pair.getSecond());
+  @Override
+  public synchronized void processTerminated(@NotNull ProcessEvent event) {
+    closeSpillWriter();
+  }
+
+  private void spill(@NotNull String text) {
+    if (mySpillFile == null || myDisposed) return;
+    try {
+      if (mySpillWriter != null && mySpillFileChars > mySpillFileCharsLimit) {
+        closeSpillWriter();
+        File previous = getPreviousSpillFile(mySpillFile);
+        FileUtil.delete(previous);
+        FileUtil.rename(mySpillFile, previous);
+        mySpillFileChars = 0;
+      }
+      if (mySpillWriter == null) {
+        mySpillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(mySpillFile, true), StandardCharsets.UTF_8));
+      }
+      mySpillWriter.write(text);
+      mySpillFileChars += text.length();
+    } catch (IOException e) {
+      LOG.warn("Cannot write terraform output to " + mySpillFile, e);
+    }
+  }
+
+  private void closeSpillWriter() {
+    if (mySpillWriter == null) return;
+    try {
+      mySpillWriter.close();
+    } catch (IOException e) {
+      LOG.warn(e);
+    }
+    mySpillWriter = null;
+  }
+
+  @NotNull
+  private static File getPreviousSpillFile(@NotNull File spillFile) {
+    return new File(spillFile.getPath() + ".1");
+  }
+
+  @Override
+  public synchronized void dispose() {
+    myDisposed = true;
+    closeSpillWriter();
+    if (mySpillFile != null) {
+      FileUtil.delete(mySpillFile);
+      FileUtil.delete(getPreviousSpillFile(mySpillFile));
+    }
+  }
+
+  public synchronized boolean hasStdout() {
+    return myHasStdout;
+  }
+
+  public synchronized boolean hasStderr() {
+    return myHasStderr;
+  }
+
+  @Nullable
+  public File getSpillFile() {
+    return mySpillFile;
+  }
+
+  public synchronized void apply(ProcessHandler listener) {
+    if (mySkipped > 0) {
+      String location = mySpillFile != null ? ", output is saved to " + mySpillFile.getPath() : "";
+      listener.notifyTextAvailable("... " + mySkipped + " characters skipped" + location + "\n", ProcessOutputTypes.SYSTEM);
+    }
+    for (Pair<String, Key> pair : myHistory) {
+      listener.notifyTextAvailable(pair.getFirst(), pair.getSecond());
     }
   }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.util;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits text chunks of every output stream into lines and passes them to {@link TFOutputLineListener}.
+ * Only incomplete tail of each stream is kept in memory.
+ */
+public class LineSplittingProcessListener extends ProcessAdapter {
+  @NotNull
+  private final TFOutputLineListener myListener;
+  private final Map<Key, StreamState> myStreams = new LinkedHashMap<>();
+
+  public LineSplittingProcessListener(@NotNull TFOutputLineListener listener) {
+    myListener = listener;
+  }
+
+  @Override
+  public synchronized void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+    String text = event.getText();
+    if (text == null || text.isEmpty()) return;
+    StreamState state = myStreams.computeIfAbsent(outputType, k -> new StreamState());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\n' && state.afterCarriageReturn) {
+        // '\r\n', possibly split between chunks
+        state.afterCarriageReturn = false;
+        continue;
+      }
+      state.afterCarriageReturn = c == '\r';
+      if (c == '\n' || c == '\r') {
+        myListener.onLine(state.line.toString(), outputType);
+        state.line.setLength(0);
+      } else {
+        state.line.append(c);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void processTerminated(@NotNull ProcessEvent event) {
+    for (Map.Entry<Key, StreamState> entry : myStreams.entrySet()) {
+      if (entry.getValue().line.length() > 0) {
+        myListener.onLine(entry.getValue().line.toString(), entry.getKey());
+      }
+    }
+    myStreams.clear();
+  }
+
+  private static class StreamState {
+    final StringBuilder line = new StringBuilder();
+    boolean afterCarriageReturn;
+  }
+}
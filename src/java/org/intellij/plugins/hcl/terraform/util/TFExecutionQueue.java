@@ -0,0 +1,221 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.Alarm;
+import com.intellij.util.Consumer;
+import com.intellij.util.Function;
+import org.intellij.plugins.hcl.terraform.TerraformToolProjectSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.*;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits and debounces terraform processes started by IDE actions within a project.
+ * <p>
+ * Every {@link TFExecutor#execute()} takes a slot, at most {@link TerraformToolProjectSettings#getMaxConcurrentProcesses()}
+ * processes run at the same time, others wait for a free slot and get it in the order they asked for it.
+ * <p>
+ * Requests passed to {@link #submit} are debounced: repeated requests for the same command, working directory and file
+ * are merged into one run, which starts when there were no new such requests for {@link #DEBOUNCE_DELAY} ms.
+ */
+public class TFExecutionQueue implements Disposable {
+  private static final Logger LOG = Logger.getInstance(TFExecutionQueue.class);
+  static final int DEBOUNCE_DELAY = 300;
+
+  @NotNull
+  private final Project myProject;
+  @NotNull
+  private final Alarm myAlarm;
+  private final Object myLock = new Object();
+  private final Map<RequestKey, PendingRequest> myPending = new LinkedHashMap<>();
+  private final Slots mySlots = new Slots();
+  private int myLimit;
+
+  public TFExecutionQueue(@NotNull Project project) {
+    myProject = project;
+    myAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+  }
+
+  public static TFExecutionQueue getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, TFExecutionQueue.class);
+  }
+
+  /**
+   * Schedules execution of {@code command} on {@code filePath}.
+   *
+   * @param command       identifies command with all its options, e.g. action title. Only requests with same command are merged
+   * @param factory       creates executor for the file
+   * @param consumer      receives execution result of process which handled {@code filePath}
+   */
+  public void submit(@NotNull String command,
+                     @Nullable String workDirectory,
+                     @NotNull String filePath,
+                     @NotNull Function<String, TFExecutor> factory,
+                     @NotNull Consumer<Boolean> consumer) {
+    RequestKey key = new RequestKey(command, workDirectory, filePath);
+    synchronized (myLock) {
+      PendingRequest request = myPending.computeIfAbsent(key, k -> new PendingRequest(filePath, factory));
+      request.myConsumers.add(consumer);
+      request.myLastRequest = System.currentTimeMillis();
+    }
+    myAlarm.cancelAllRequests();
+    myAlarm.addRequest(this::flush, DEBOUNCE_DELAY);
+  }
+
+  private void flush() {
+    List<PendingRequest> ready = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    boolean hasPending;
+    synchronized (myLock) {
+      for (Iterator<PendingRequest> it = myPending.values().iterator(); it.hasNext(); ) {
+        PendingRequest request = it.next();
+        if (now - request.myLastRequest >= DEBOUNCE_DELAY) {
+          ready.add(request);
+          it.remove();
+        }
+      }
+      hasPending = !myPending.isEmpty();
+    }
+    if (hasPending) {
+      myAlarm.addRequest(this::flush, DEBOUNCE_DELAY);
+    }
+    if (myProject.isDisposed()) return;
+
+    for (PendingRequest request : ready) {
+      start(request.myFactory, request.myFilePath, request.myConsumers);
+    }
+  }
+
+  private void start(@NotNull Function<String, TFExecutor> factory,
+                     @NotNull String file,
+                     @NotNull List<Consumer<Boolean>> consumers) {
+    LOG.debug("Starting terraform for " + file + ", " + consumers.size() + " request(s) merged");
+    factory.fun(file).executeWithProgress(false, result -> {
+      for (Consumer<Boolean> consumer : consumers) {
+        consumer.consume(result);
+      }
+    });
+  }
+
+  /**
+   * Blocks until number of running processes is below the limit. Should be paired with {@link #release()}.
+   *
+   * @throws ProcessCanceledException if waiting thread was interrupted
+   */
+  void acquire() {
+    updateLimit(TerraformToolProjectSettings.getInstance(myProject).getMaxConcurrentProcesses());
+    try {
+      mySlots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessCanceledException(e);
+    }
+  }
+
+  void release() {
+    mySlots.release();
+  }
+
+  /**
+   * Applies changed limit: slots taken by already running processes are returned as usual, so running processes are not affected.
+   */
+  private void updateLimit(int limit) {
+    synchronized (myLock) {
+      int delta = Math.max(1, limit) - myLimit;
+      if (delta > 0) {
+        mySlots.release(delta);
+      } else if (delta < 0) {
+        mySlots.reducePermits(-delta);
+      }
+      myLimit += delta;
+    }
+  }
+
+  @TestOnly
+  int getWaitingCount() {
+    return mySlots.getQueueLength();
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (myLock) {
+      myPending.clear();
+    }
+  }
+
+  private static class Slots extends Semaphore {
+    private Slots() {
+      super(0, true);
+    }
+
+    @Override
+    protected void reducePermits(int reduction) {
+      super.reducePermits(reduction);
+    }
+  }
+
+  /**
+   * Identifies requests which are merged into one run
+   */
+  private static class RequestKey {
+    @NotNull private final String myCommand;
+    @Nullable private final String myWorkDirectory;
+    @NotNull private final String myFilePath;
+
+    private RequestKey(@NotNull String command, @Nullable String workDirectory, @NotNull String filePath) {
+      myCommand = command;
+      myWorkDirectory = workDirectory;
+      myFilePath = filePath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RequestKey key = (RequestKey)o;
+      return myCommand.equals(key.myCommand) && Objects.equals(myWorkDirectory, key.myWorkDirectory) && myFilePath.equals(key.myFilePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(myCommand, myWorkDirectory, myFilePath);
+    }
+  }
+
+  /**
+   * Merged requests for one file waiting for the debounce delay to pass
+   */
+  private static class PendingRequest {
+    @NotNull private final String myFilePath;
+    @NotNull private final Function<String, TFExecutor> myFactory;
+    private final List<Consumer<Boolean>> myConsumers = new ArrayList<>(1);
+    private long myLastRequest;
+
+    private PendingRequest(@NotNull String filePath, @NotNull Function<String, TFExecutor> factory) {
+      myFilePath = filePath;
+      myFactory = factory;
+    }
+  }
+}
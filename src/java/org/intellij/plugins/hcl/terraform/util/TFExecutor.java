@@ -57,8 +57,6 @@ public class TFExecutor {
   @NotNull
   private final ParametersList myParameterList = new ParametersList();
   @NotNull
-  private final ProcessOutput myProcessOutput = new ProcessOutput();
-  @NotNull
   private final Project myProject;
   @Nullable
   private String myWorkDirectory;
@@ -67,6 +65,7 @@ public class TFExecutor {
   private boolean myShowNotificationsOnSuccess;
   private GeneralCommandLine.ParentEnvironmentType myParentEnvironmentType = GeneralCommandLine.ParentEnvironmentType.CONSOLE;
   private boolean myPtyDisabled;
+  private boolean myStreamingOutput;
   @Nullable
   private String myExePath;
   @Nullable
@@ -148,6 +147,18 @@ public class TFExecutor {
     return this;
   }
 
+  /**
+   * Write whole output to a temporary file, so it is available even beyond the tail shown in console.
+   * Use for commands which may produce a lot of output, e.g. 'terraform plan'.
+   * Output is never collected in memory completely, add {@link #withProcessListener process listener}
+   * (e.g. {@link LineSplittingProcessListener}) to process it while it is produced.
+   */
+  @NotNull
+  public TFExecutor withStreamingOutput() {
+    myStreamingOutput = true;
+    return this;
+  }
+
   @NotNull
   public TFExecutor showOutputOnError() {
     myShowOutputOnError = true;
@@ -175,40 +186,51 @@ public class TFExecutor {
     GeneralCommandLine commandLine = null;
     try {
       commandLine = createCommandLine();
-      GeneralCommandLine finalCommandLine = commandLine;
-      myProcessHandler = new KillableColoredProcessHandler(finalCommandLine);
-      final HistoryProcessListener historyProcessListener = new HistoryProcessListener();
-      myProcessHandler.addProcessListener(historyProcessListener);
-      for (ProcessListener listener : myProcessListeners) {
-        myProcessHandler.addProcessListener(listener);
-      }
+      // Slot is taken before process is forked, so waiting requests do not start processes
+      TFExecutionQueue queue = TFExecutionQueue.getInstance(myProject);
+      queue.acquire();
+      try {
+        ProgressManager.checkCanceled();
+        GeneralCommandLine finalCommandLine = commandLine;
+        myProcessHandler = new KillableColoredProcessHandler(finalCommandLine);
+        final HistoryProcessListener historyProcessListener =
+            myStreamingOutput ? HistoryProcessListener.withSpillFile() : new HistoryProcessListener();
+        myProcessHandler.addProcessListener(historyProcessListener);
+        for (ProcessListener listener : myProcessListeners) {
+          myProcessHandler.addProcessListener(listener);
+        }
 
-      CapturingProcessAdapter processAdapter = new CapturingProcessAdapter(myProcessOutput) {
-        @Override
-        public void processTerminated(@NotNull ProcessEvent event) {
-          super.processTerminated(event);
-          boolean success = event.getExitCode() == 0 && myProcessOutput.getStderr().isEmpty();
-          boolean nothingToShow = myProcessOutput.getStdout().isEmpty() && myProcessOutput.getStderr().isEmpty();
-          boolean cancelledByUser = (event.getExitCode() == -1 || event.getExitCode() == 2) && nothingToShow;
-          result.set(success);
-          if (success) {
-            if (myShowNotificationsOnSuccess) {
-              showNotification("Finished successfully", NotificationType.INFORMATION);
-            }
-          } else if (cancelledByUser) {
-            if (myShowNotificationsOnError) {
-              showNotification("Interrupted", NotificationType.WARNING);
+        ProcessAdapter processAdapter = new ProcessAdapter() {
+          @Override
+          public void processTerminated(@NotNull ProcessEvent event) {
+            boolean success = event.getExitCode() == 0 && !historyProcessListener.hasStderr();
+            boolean nothingToShow = !historyProcessListener.hasStdout() && !historyProcessListener.hasStderr();
+            boolean cancelledByUser = (event.getExitCode() == -1 || event.getExitCode() == 2) && nothingToShow;
+            result.set(success);
+            if (success) {
+              if (myShowNotificationsOnSuccess) {
+                showNotification("Finished successfully", NotificationType.INFORMATION);
+              }
+            } else if (cancelledByUser) {
+              if (myShowNotificationsOnError) {
+                showNotification("Interrupted", NotificationType.WARNING);
+              }
+            } else if (myShowOutputOnError) {
+              // Spill file is deleted when console showing the output is closed
+              ApplicationManager.getApplication().invokeLater(() -> showOutput(myProcessHandler, historyProcessListener));
+              return;
             }
-          } else if (myShowOutputOnError) {
-            ApplicationManager.getApplication().invokeLater(() -> showOutput(myProcessHandler, historyProcessListener));
+            Disposer.dispose(historyProcessListener);
           }
-        }
-      };
-
-      myProcessHandler.addProcessListener(processAdapter);
-      myProcessHandler.startNotify();
-      ExecutionModes.SameThreadMode sameThreadMode = new ExecutionModes.SameThreadMode(getPresentableName());
-      ExecutionHelper.executeExternalProcess(myProject, myProcessHandler, sameThreadMode, commandLine);
+        };
+
+        myProcessHandler.addProcessListener(processAdapter);
+        myProcessHandler.startNotify();
+        ExecutionModes.SameThreadMode sameThreadMode = new ExecutionModes.SameThreadMode(getPresentableName());
+        ExecutionHelper.executeExternalProcess(myProject, myProcessHandler, sameThreadMode, commandLine);
+      } finally {
+        queue.release();
+      }
 
       LOGGER.debug("Finished `" + getPresentableName() + "` with result: " + result.get());
       return result.get();
@@ -278,12 +300,17 @@ public class TFExecutor {
   }
 
   private void showOutput(@NotNull OSProcessHandler originalHandler, @NotNull HistoryProcessListener historyProcessListener) {
+    if (myProject.isDisposed()) {
+      Disposer.dispose(historyProcessListener);
+      return;
+    }
     if (myShowOutputOnError) {
       BaseOSProcessHandler outputHandler = new KillableColoredProcessHandler(originalHandler.getProcess(), null);
       RunContentExecutor runContentExecutor = new RunContentExecutor(myProject, outputHandler)
           .withTitle(getPresentableName())
           .withActivateToolWindow(myShowOutputOnError);
       Disposer.register(myProject, runContentExecutor);
+      Disposer.register(runContentExecutor, historyProcessListener);
       runContentExecutor.run();
       historyProcessListener.apply(outputHandler);
     }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.util;
+
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives process output line by line as soon as each line is complete, see {@link LineSplittingProcessListener}.
+ */
+public interface TFOutputLineListener {
+  /**
+   * @param line       line text without line separator
+   * @param outputType {@link com.intellij.execution.process.ProcessOutputTypes} of the stream line came from
+   */
+  void onLine(@NotNull String line, @NotNull Key outputType);
+}
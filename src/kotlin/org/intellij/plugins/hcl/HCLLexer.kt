@@ -18,7 +18,22 @@ package org.intellij.plugins.hcl
 import com.intellij.lexer.FlexAdapter
 import java.util.*
 
-class HCLLexer(val capabilities: EnumSet<HCLCapability> = EnumSet.noneOf(HCLCapability::class.java)) : FlexAdapter(_HCLLexer(capabilities)) {
+/**
+ * State layout:
+ * - bits 0-7: JFlex state
+ * - inside heredoc (both before line and before line end): bits 8-14 marker length, bit 15 whether heredoc is indented,
+ *   bits 16-31 weak hash of marker. That is everything lexer needs to continue, so every heredoc token is a restart point,
+ *   see [isRestartableState]
+ * - inside strings: bit 15 single quoted, bit 14 in string, bits 8-13 interpolation depth. Strings are lexed as single tokens
+ *   unless [splitStrings] is set, in which case they are split before each `${` and after each `}` closing interpolation,
+ *   and every such fragment is a restart point
+ */
+class HCLLexer @JvmOverloads constructor(val capabilities: EnumSet<HCLCapability> = EnumSet.noneOf(HCLCapability::class.java),
+                                         val splitStrings: Boolean = false) : FlexAdapter(_HCLLexer(capabilities)) {
+
+  init {
+    flex.splitStrings = splitStrings
+  }
 
   companion object {
     private val STRING_START_MASK: Int = 0xFFFF shl 0x10 // 0xFFFF0000
@@ -31,6 +46,31 @@ class HCLLexer(val capabilities: EnumSet<HCLCapability> = EnumSet.noneOf(HCLCapa
     private val HEREDOC_MARKER_WEAK_HASH: Int = STRING_START_MASK // half of int
 
     private val JFLEX_STATE_MASK: Int = 0xFF
+
+    /**
+     * Whether lexing could be started at token with given state and produce same tokens as lexing from the beginning of text.
+     * True for top level tokens, for all tokens inside heredocs and for string fragments (only produced with [splitStrings]).
+     */
+    @JvmStatic
+    fun isRestartableState(state: Int): Boolean {
+      if (state == _HCLLexer.YYINITIAL) return true
+      if (state and IN_STRING != 0 && isLexerInStringOrHILState(state)) return true
+      return isLexerInHereDocLineState(state) && (state and HEREDOC_MARKER_LENGTH) != 0
+    }
+
+    private fun isLexerInStringOrHILState(state: Int): Boolean {
+      return when (state and JFLEX_STATE_MASK) {
+        _HCLLexer.S_STRING -> true
+        _HCLLexer.D_STRING -> true
+        _HCLLexer.HIL_EXPRESSION -> true
+        else -> false
+      }
+    }
+
+    private fun isLexerInHereDocLineState(state: Int): Boolean {
+      val flex = state and JFLEX_STATE_MASK
+      return flex == _HCLLexer.S_HEREDOC_LINE || flex == _HCLLexer.S_HEREDOC_LINE_END
+    }
   }
 
   override fun getFlex(): _HCLLexer {
@@ -47,29 +87,18 @@ class HCLLexer(val capabilities: EnumSet<HCLCapability> = EnumSet.noneOf(HCLCapa
       if (!isLexerInStringOrHILState(state) || state and IN_STRING == 0) {
         lexer.stringType = _HCLLexer.StringType.None
         lexer.stringStart = -1
+        lexer.fragmentStart = -1
         lexer.hil = 0
       } else {
         lexer.stringType = if (state and IN_SINGLE_QUOTED_STRING == 0) _HCLLexer.StringType.DoubleQ else _HCLLexer.StringType.SingleQ
-        lexer.stringStart = (state and STRING_START_MASK) ushr 0x10
+        lexer.stringStart = if (splitStrings) startOffset else (state and STRING_START_MASK) ushr 0x10
+        lexer.fragmentStart = startOffset
         lexer.hil = (state and HIL_MASK) ushr 8
       }
     }
     super.start(buffer, startOffset, endOffset, state and JFLEX_STATE_MASK)
   }
 
-  private fun isLexerInHereDocLineState(state: Int): Boolean {
-    return state and JFLEX_STATE_MASK == _HCLLexer.S_HEREDOC_LINE
-  }
-
-  private fun isLexerInStringOrHILState(state: Int): Boolean {
-    return when (state and JFLEX_STATE_MASK) {
-      _HCLLexer.S_STRING -> true
-      _HCLLexer.D_STRING -> true
-      _HCLLexer.HIL_EXPRESSION -> true
-      else -> false
-    }
-  }
-
   override fun getState(): Int {
     val lexer = flex
     var state = super.getState()
@@ -77,7 +106,7 @@ class HCLLexer(val capabilities: EnumSet<HCLCapability> = EnumSet.noneOf(HCLCapa
     state = state and JFLEX_STATE_MASK
     if (isLexerInHereDocLineState(state)) {
       state = state or (((lexer.myHereDocMarkerLength and 0x7F) shl 0x8 ) and HEREDOC_MARKER_LENGTH)
-      state = state or (((if (lexer.myHereDocIndented) 0x80 else 0x0) shl 0x8 ) and HEREDOC_MARKER_LENGTH)
+      if (lexer.myHereDocIndented) state = state or HEREDOC_MARKER_INDENTED
       state = state or (((lexer.myHereDocMarkerWeakHash and 0xFFFF) shl 0x10 ) and HEREDOC_MARKER_WEAK_HASH)
     } else if (capabilities.contains(HCLCapability.INTERPOLATION_LANGUAGE)) {
       val type = lexer.stringType!!
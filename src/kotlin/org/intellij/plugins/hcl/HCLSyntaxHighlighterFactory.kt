@@ -93,12 +93,24 @@ open class HCLSyntaxHighlighterFactory : SyntaxHighlighterFactory() {
     override fun getHighlightingLexer(): Lexer {
       val layeredLexer = LayeredLexer(lexer)
 
-      // TODO: Use custom StringLiteralLexer with \X, \U support
-      layeredLexer.registerSelfStoppingLayer(StringLiteralLexer('\"', HCLElementTypes.DOUBLE_QUOTED_STRING, false, "/vaUX", true, false), arrayOf(HCLElementTypes.DOUBLE_QUOTED_STRING), IElementType.EMPTY_ARRAY)
-      layeredLexer.registerSelfStoppingLayer(StringLiteralLexer('\'', HCLElementTypes.SINGLE_QUOTED_STRING, false, "/vaUX", true, false), arrayOf(HCLElementTypes.SINGLE_QUOTED_STRING), IElementType.EMPTY_ARRAY)
+      for (type in arrayOf(HCLElementTypes.DOUBLE_QUOTED_STRING, HCLElementTypes.SINGLE_QUOTED_STRING)) {
+        layeredLexer.registerSelfStoppingLayer(createStringLayerLexer(type)!!, arrayOf(type), IElementType.EMPTY_ARRAY)
+      }
       return layeredLexer
     }
 
+    /**
+     * Lexer splitting string token of given type into escapes and plain parts, `null` for other tokens
+     */
+    fun createStringLayerLexer(type: IElementType): Lexer? {
+      // TODO: Use custom StringLiteralLexer with \X, \U support
+      return when (type) {
+        HCLElementTypes.DOUBLE_QUOTED_STRING -> StringLiteralLexer('\"', HCLElementTypes.DOUBLE_QUOTED_STRING, false, "/vaUX", true, false)
+        HCLElementTypes.SINGLE_QUOTED_STRING -> StringLiteralLexer('\'', HCLElementTypes.SINGLE_QUOTED_STRING, false, "/vaUX", true, false)
+        else -> null
+      }
+    }
+
   }
 
   override fun getSyntaxHighlighter(project: Project?, virtualFile: VirtualFile?): SyntaxHighlighter {
@@ -33,4 +33,5 @@ object Icons {
   val PropertyBraces: Icon by lazy { IconLoader.getIcon("/hcl/property_braces.png") }
   val Array: Icon by lazy { AllIcons.Json.Array}
   val Object: Icon by lazy { AllIcons.Json.Object}
+  val Group: Icon by lazy { AllIcons.Nodes.Folder }
 }
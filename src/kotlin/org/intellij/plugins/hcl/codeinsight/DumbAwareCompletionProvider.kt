@@ -0,0 +1,42 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.codeinsight
+
+import com.intellij.codeInsight.completion.CompletionParameters
+import com.intellij.codeInsight.completion.CompletionProvider
+import com.intellij.codeInsight.completion.CompletionResultSet
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.IndexNotReadyException
+import com.intellij.util.ProcessingContext
+
+/**
+ * Completion contributors of this plugin are dumb aware: most providers need only PSI of current file and type model.
+ * Providers which may touch indices (e.g. through reference resolve) fall back to whatever they added before index was required.
+ */
+class DumbAwareCompletionProvider(private val delegate: CompletionProvider<CompletionParameters>) : CompletionProvider<CompletionParameters>() {
+  companion object {
+    private val LOG = Logger.getInstance(DumbAwareCompletionProvider::class.java)
+  }
+
+  override fun addCompletions(parameters: CompletionParameters, context: ProcessingContext?, result: CompletionResultSet) {
+    try {
+      delegate.addCompletionVariants(parameters, context ?: ProcessingContext(), result)
+    } catch (e: IndexNotReadyException) {
+      LOG.debug("Completion provider ${delegate.javaClass.simpleName} requires indices, skipped in dumb mode")
+      result.addLookupAdvertisement("Some variants are not available during indexing")
+    }
+  }
+}
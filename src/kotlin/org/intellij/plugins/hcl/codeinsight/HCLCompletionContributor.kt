@@ -17,23 +17,31 @@ package org.intellij.plugins.hcl.codeinsight
 
 import com.intellij.codeInsight.completion.*
 import com.intellij.codeInsight.lookup.LookupElementBuilder
+import com.intellij.openapi.project.DumbAware
+import com.intellij.patterns.ElementPattern
 import com.intellij.patterns.PlatformPatterns.psiElement
+import com.intellij.psi.PsiElement
 import com.intellij.util.ProcessingContext
 import org.intellij.plugins.hcl.psi.HCLArray
 import org.intellij.plugins.hcl.psi.HCLProperty
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 
 /**
  * Based on com.intellij.json.codeinsight.JsonCompletionContributor
  */
-open class HCLCompletionContributor : CompletionContributor() {
+open class HCLCompletionContributor : CompletionContributor(), DumbAware {
 
   private val AFTER_EQUALS_IN_PROPERTY = psiElement().afterLeaf("=").withSuperParent(2, HCLProperty::class.java)
   private val AFTER_COMMA_OR_BRACKET_IN_ARRAY = psiElement().afterLeaf(",", "[").withSuperParent(2, HCLArray::class.java)
 
   init {
-    extend(CompletionType.BASIC, AFTER_EQUALS_IN_PROPERTY, MyKeywordsCompletionProvider)
+    extendProvider(CompletionType.BASIC, AFTER_EQUALS_IN_PROPERTY, MyKeywordsCompletionProvider)
     // FIXME: Make it work
-    extend(CompletionType.BASIC, AFTER_COMMA_OR_BRACKET_IN_ARRAY, MyKeywordsCompletionProvider)
+    extendProvider(CompletionType.BASIC, AFTER_COMMA_OR_BRACKET_IN_ARRAY, MyKeywordsCompletionProvider)
+  }
+
+  protected fun extendProvider(type: CompletionType?, place: ElementPattern<out PsiElement>, provider: CompletionProvider<CompletionParameters>) {
+    extend(type, place, DumbAwareCompletionProvider(TerraformMetrics.instrument(provider)))
   }
 
   override fun beforeCompletion(context: CompletionInitializationContext) {
@@ -19,6 +19,7 @@ import com.intellij.lang.annotation.Annotation
 import com.intellij.lang.annotation.AnnotationHolder
 import com.intellij.lang.annotation.Annotator
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.project.DumbAware
 import com.intellij.psi.PsiElement
 import org.intellij.lang.annotations.Language
 import org.intellij.plugins.hcl.HCLSyntaxHighlighterFactory
@@ -29,7 +30,7 @@ import java.util.regex.Pattern
 /**
  * Inspired by com.intellij.json.codeinsight.JsonLiteralAnnotator
  */
-class HCLLiteralAnnotator : Annotator {
+class HCLLiteralAnnotator : Annotator, DumbAware {
   companion object {
     // TODO: Check HCL supported escapes
     @Language("RegExp")
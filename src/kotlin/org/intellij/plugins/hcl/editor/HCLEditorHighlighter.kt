@@ -0,0 +1,305 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.editor
+
+import com.intellij.lexer.Lexer
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.colors.EditorColorsScheme
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.ex.DocumentEx
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter
+import com.intellij.openapi.editor.highlighter.HighlighterClient
+import com.intellij.openapi.editor.highlighter.HighlighterIterator
+import com.intellij.openapi.editor.impl.EditorDocumentPriorities
+import com.intellij.openapi.editor.markup.TextAttributes
+import com.intellij.psi.tree.IElementType
+import com.intellij.util.ArrayUtil
+import org.intellij.plugins.hcl.HCLElementTypes
+import org.intellij.plugins.hcl.HCLLexer
+import org.intellij.plugins.hcl.HCLSyntaxHighlighterFactory
+import java.util.*
+
+/**
+ * Editor highlighter which remembers lexer state of every token. After a change it re-lexes from the closest token
+ * with restartable state (see [HCLLexer.isRestartableState]) instead of the closest top-level token
+ * and stops as soon as tokens match the previous ones again.
+ *
+ * Strings are lexed in fragments split at interpolation boundaries, and heredocs line by line,
+ * so a change inside a long string or heredoc re-lexes only the surrounding fragment or line,
+ * not the whole literal from its beginning as [LexerEditorHighlighter] does.
+ *
+ * Extends [LexerEditorHighlighter] only to be recognized as a lexer-based highlighter by the platform,
+ * tokens are kept and updated here, not in the segments of the superclass.
+ */
+class HCLEditorHighlighter(private val highlighter: HCLSyntaxHighlighterFactory.MySyntaxHighlighter,
+                           private var scheme: EditorColorsScheme) : LexerEditorHighlighter(highlighter, scheme) {
+  private val lexer = FragmentsLexer()
+  private val initialState: Int
+  private val attributes = HashMap<IElementType, TextAttributes>()
+  private var client: HighlighterClient? = null
+  // Document is known either from the editor or from the last change event, highlighter may be used without an editor
+  private var document: Document? = null
+  private var tokens = Tokens(1024)
+
+  init {
+    lexer.base.start(ArrayUtil.EMPTY_CHAR_SEQUENCE)
+    initialState = lexer.base.state
+  }
+
+  /**
+   * Splitting [HCLLexer] with string literal layers on top of it. Unlike [com.intellij.lexer.LayeredLexer]
+   * only the first token of a layer keeps the state of the base token, others are marked with [NOT_RESTARTABLE]
+   */
+  private inner class FragmentsLexer {
+    val base = HCLLexer(highlighter.lexer.capabilities, true)
+    private var layer: Lexer? = null
+
+    fun start(text: CharSequence, startOffset: Int, state: Int) {
+      base.start(text, startOffset, text.length, state)
+      layer = null
+      startLayer()
+    }
+
+    val tokenType: IElementType?
+      get() = layer?.tokenType ?: base.tokenType
+
+    val tokenStart: Int
+      get() = layer?.tokenStart ?: base.tokenStart
+
+    val tokenEnd: Int
+      get() = layer?.tokenEnd ?: base.tokenEnd
+
+    val state: Int
+      get() {
+        val layer = layer
+        return if (layer == null || layer.tokenStart == base.tokenStart) base.state else NOT_RESTARTABLE
+      }
+
+    fun advance() {
+      val layer = layer
+      if (layer != null) {
+        layer.advance()
+        if (layer.tokenType != null) return
+        this.layer = null
+      }
+      base.advance()
+      startLayer()
+    }
+
+    private fun startLayer() {
+      val type = base.tokenType ?: return
+      if (type != HCLElementTypes.DOUBLE_QUOTED_STRING && type != HCLElementTypes.SINGLE_QUOTED_STRING) return
+      val layer = highlighter.createStringLayerLexer(type) ?: return
+      layer.start(base.bufferSequence, base.tokenStart, base.tokenEnd)
+      if (layer.tokenType != null) this.layer = layer
+    }
+  }
+
+  /**
+   * Parallel arrays of tokens, state is the lexer state at token start
+   */
+  private class Tokens(capacity: Int) {
+    var count = 0
+    var starts = IntArray(capacity)
+    var ends = IntArray(capacity)
+    var states = IntArray(capacity)
+    var types = arrayOfNulls<IElementType>(capacity)
+
+    fun add(start: Int, end: Int, state: Int, type: IElementType) {
+      ensureCapacity(count + 1)
+      starts[count] = start
+      ends[count] = end
+      states[count] = state
+      types[count] = type
+      count++
+    }
+
+    fun ensureCapacity(capacity: Int) {
+      if (capacity <= starts.size) return
+      val size = Math.max(capacity, starts.size * 3 / 2)
+      starts = Arrays.copyOf(starts, size)
+      ends = Arrays.copyOf(ends, size)
+      states = Arrays.copyOf(states, size)
+      types = Arrays.copyOf(types, size)
+    }
+
+    /**
+     * Index of token containing [offset], or of the last token if offset is after the end of text
+     */
+    fun find(offset: Int): Int {
+      if (count == 0) return 0
+      var low = 0
+      var high = count - 1
+      while (low < high) {
+        val mid = (low + high + 1) ushr 1
+        if (starts[mid] <= offset) low = mid else high = mid - 1
+      }
+      return low
+    }
+
+    /**
+     * Replaces tokens in `[from, to)` with [replacement] and shifts tokens after [to] by [delta]
+     */
+    fun replace(from: Int, to: Int, replacement: Tokens, delta: Int) {
+      val tail = count - to
+      val newCount = from + replacement.count + tail
+      ensureCapacity(newCount)
+      val target = from + replacement.count
+      System.arraycopy(starts, to, starts, target, tail)
+      System.arraycopy(ends, to, ends, target, tail)
+      System.arraycopy(states, to, states, target, tail)
+      System.arraycopy(types, to, types, target, tail)
+      if (delta != 0) {
+        for (i in target until newCount) {
+          starts[i] += delta
+          ends[i] += delta
+        }
+      }
+      System.arraycopy(replacement.starts, 0, starts, from, replacement.count)
+      System.arraycopy(replacement.ends, 0, ends, from, replacement.count)
+      System.arraycopy(replacement.states, 0, states, from, replacement.count)
+      System.arraycopy(replacement.types, 0, types, from, replacement.count)
+      Arrays.fill(types, newCount, Math.max(newCount, count), null)
+      count = newCount
+    }
+  }
+
+  private fun isRestartable(state: Int): Boolean {
+    return state != NOT_RESTARTABLE && (state == initialState || HCLLexer.isRestartableState(state))
+  }
+
+  @Synchronized
+  override fun setText(text: CharSequence) {
+    val result = Tokens(Math.max(16, text.length / 8))
+    lexer.start(text, 0, initialState)
+    while (true) {
+      val type = lexer.tokenType ?: break
+      result.add(lexer.tokenStart, lexer.tokenEnd, lexer.state, type)
+      lexer.advance()
+    }
+    tokens = result
+  }
+
+  override fun beforeDocumentChange(event: DocumentEvent) {
+  }
+
+  companion object {
+    // Lexer state of string layer tokens after the first one in a fragment
+    private const val NOT_RESTARTABLE = -1
+  }
+
+  @Synchronized
+  override fun documentChanged(e: DocumentEvent) {
+    val document = e.document
+    this.document = document
+    val text = document.immutableCharSequence
+    if (tokens.count == 0 || document is DocumentEx && document.isInBulkUpdate) {
+      setText(text)
+      client?.repaint(0, text.length)
+      return
+    }
+    val oldChangeEnd = e.offset + e.oldLength
+    val delta = e.newLength - e.oldLength
+
+    // Previous token could be affected too, e.g. when identifier is typed right after another one
+    var first = Math.max(0, tokens.find(e.offset) - 1)
+    while (first > 0 && !isRestartable(tokens.states[first])) first--
+    val restartOffset = tokens.starts[first]
+
+    val relexed = Tokens(16)
+    var old = first
+    var matched = -1
+    lexer.start(text, restartOffset, tokens.states[first])
+    while (true) {
+      val type = lexer.tokenType ?: break
+      val start = lexer.tokenStart
+      val state = lexer.state
+      val oldStart = start - delta
+      if (oldStart >= oldChangeEnd && state != NOT_RESTARTABLE) {
+        while (old < tokens.count && tokens.starts[old] < oldStart) old++
+        if (old < tokens.count && tokens.starts[old] == oldStart && tokens.states[old] == state && tokens.types[old] == type) {
+          matched = old
+          break
+        }
+      }
+      relexed.add(start, lexer.tokenEnd, state, type)
+      lexer.advance()
+    }
+
+    tokens.replace(first, if (matched == -1) tokens.count else matched, relexed, delta)
+    val repaintEnd = if (matched == -1 || relexed.count == 0) text.length else relexed.ends[relexed.count - 1]
+    client?.repaint(restartOffset, repaintEnd)
+  }
+
+  override fun getPriority(): Int = EditorDocumentPriorities.LEXER_EDITOR
+
+  @Synchronized
+  override fun createIterator(startOffset: Int): HighlighterIterator {
+    return TokensIterator(tokens.find(startOffset))
+  }
+
+  @Synchronized
+  override fun setEditor(editor: HighlighterClient) {
+    super.setEditor(editor)
+    client = editor
+    document = editor.document
+  }
+
+  @Synchronized
+  private fun getAttachedDocument(): Document {
+    return document ?: throw IllegalStateException("Highlighter is attached neither to an editor nor to a document")
+  }
+
+  @Synchronized
+  override fun setColorScheme(scheme: EditorColorsScheme) {
+    super.setColorScheme(scheme)
+    this.scheme = scheme
+    attributes.clear()
+  }
+
+  @Synchronized
+  private fun getTokenAttributes(type: IElementType): TextAttributes {
+    return attributes.getOrPut(type) {
+      var result = TextAttributes()
+      for (key in highlighter.getTokenHighlights(type)) {
+        scheme.getAttributes(key)?.let { result = TextAttributes.merge(result, it) }
+      }
+      result
+    }
+  }
+
+  private inner class TokensIterator(private var index: Int) : HighlighterIterator {
+    override fun getTextAttributes(): TextAttributes = getTokenAttributes(tokenType)
+
+    override fun getStart(): Int = tokens.starts[index]
+
+    override fun getEnd(): Int = tokens.ends[index]
+
+    override fun getTokenType(): IElementType = tokens.types[index]!!
+
+    override fun advance() {
+      index++
+    }
+
+    override fun retreat() {
+      index--
+    }
+
+    override fun atEnd(): Boolean = index < 0 || index >= tokens.count
+
+    override fun getDocument(): Document = getAttachedDocument()
+  }
+}
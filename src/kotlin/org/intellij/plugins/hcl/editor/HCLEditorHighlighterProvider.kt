@@ -0,0 +1,36 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.editor
+
+import com.intellij.openapi.editor.colors.EditorColorsScheme
+import com.intellij.openapi.editor.highlighter.EditorHighlighter
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory
+import com.intellij.openapi.fileTypes.EditorHighlighterProvider
+import com.intellij.openapi.fileTypes.FileType
+import com.intellij.openapi.fileTypes.SyntaxHighlighterFactory
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import org.intellij.plugins.hcl.HCLSyntaxHighlighterFactory
+
+class HCLEditorHighlighterProvider : EditorHighlighterProvider {
+  override fun getEditorHighlighter(project: Project?, fileType: FileType, virtualFile: VirtualFile?, colors: EditorColorsScheme): EditorHighlighter {
+    val highlighter = SyntaxHighlighterFactory.getSyntaxHighlighter(fileType, project, virtualFile)
+    if (highlighter is HCLSyntaxHighlighterFactory.MySyntaxHighlighter) {
+      return HCLEditorHighlighter(highlighter, colors)
+    }
+    return EditorHighlighterFactory.getInstance().createEditorHighlighter(highlighter, colors)
+  }
+}
@@ -18,124 +18,136 @@ package org.intellij.plugins.hcl.editor
 import com.intellij.lang.ASTNode
 import com.intellij.lang.folding.CustomFoldingBuilder
 import com.intellij.lang.folding.FoldingDescriptor
-import com.intellij.lang.folding.NamedFoldingDescriptor
 import com.intellij.openapi.editor.Document
 import com.intellij.openapi.project.DumbAware
 import com.intellij.openapi.util.TextRange
 import com.intellij.psi.PsiElement
+import com.intellij.psi.TokenType
 import org.intellij.plugins.hcl.HCLElementTypes
-import org.intellij.plugins.hcl.psi.HCLArray
-import org.intellij.plugins.hcl.psi.HCLObject
-import org.intellij.plugins.hcl.psi.getNextSiblingNonWhiteSpace
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLValue
 
 class HCLFoldingBuilder : CustomFoldingBuilder(), DumbAware {
   override fun isRegionCollapsedByDefault(node: ASTNode): Boolean {
     return false
   }
 
+  /**
+   * Walks AST iteratively using sibling links, placeholders are computed later in [getLanguagePlaceholderText].
+   * Runs of line comments are folded only in full (non-[quick]) pass.
+   */
   override fun buildLanguageFoldRegions(descriptors: MutableList<FoldingDescriptor>, root: PsiElement, document: Document, quick: Boolean) {
-    collect(root, descriptors, HashSet())
-  }
-
-  private fun collect(element: PsiElement, descriptors: MutableList<FoldingDescriptor>, usedComments: MutableSet<PsiElement>) {
-    val node = element.node
-    when (node.elementType) {
-      HCLElementTypes.OBJECT -> {
-        if (isSpanMultipleLines(node) && element is HCLObject) {
-          val props = element.propertyList.size
-          val blocks = element.blockList.size
-          val count = props + blocks
-          when (count) {
-            0, 1 -> descriptors.add(NamedFoldingDescriptor(node, node.textRange, null, getCollapsedObjectPlaceholder(element)))
-            else -> descriptors.add(FoldingDescriptor(node, node.textRange))
-          }
-        }
-      }
-      HCLElementTypes.ARRAY -> {
-        if (isSpanMultipleLines(node) && element is HCLArray) {
-          val count = element.valueList.size
-          when (count) {
-            0, 1 -> descriptors.add(NamedFoldingDescriptor(node, node.textRange, null, getCollapsedArrayPlaceholder(element)))
-            else -> descriptors.add(FoldingDescriptor(node, node.textRange))
-          }
+    val rootNode = root.node ?: return
+    var node: ASTNode? = rootNode.firstChildNode
+    while (node != null) {
+      var current: ASTNode = node
+      when (current.elementType) {
+        HCLElementTypes.OBJECT, HCLElementTypes.ARRAY -> {
+          if (isSpanMultipleLines(current, document)) descriptors.add(FoldingDescriptor(current, current.textRange))
         }
-      }
-      HCLElementTypes.BLOCK_COMMENT -> descriptors.add(FoldingDescriptor(node, node.textRange))
-      HCLElementTypes.LINE_COMMENT -> {
-        if (usedComments.add(element)) {
-          if (!isCustomRegionElement(element)) {
-            var end: PsiElement? = null
-            var current: PsiElement? = element.getNextSiblingNonWhiteSpace()
-            while (current != null) {
-              if (current.node.elementType === HCLElementTypes.LINE_COMMENT) {
-                if (isCustomRegionElement(current)) {
-                  // Stop current folding
-                  usedComments.add(current)
-                  break
-                }
-                end = current
-                usedComments.add(current)
-                current = current.getNextSiblingNonWhiteSpace()
-                continue
-              }
-              break
-            }
-            if (end != null) {
-              val range = TextRange(element.textRange.startOffset, end.textRange.endOffset)
-              descriptors.add(FoldingDescriptor(element, range))
-            }
-          }
+        HCLElementTypes.BLOCK_COMMENT -> descriptors.add(FoldingDescriptor(current, current.textRange))
+        HCLElementTypes.LINE_COMMENT -> {
+          if (!quick) current = collectLineComments(current, descriptors)
         }
       }
+      node = next(current, rootNode)
+    }
+  }
+
+  /**
+   * Next node in depth-first order
+   */
+  private fun next(node: ASTNode, root: ASTNode): ASTNode? {
+    node.firstChildNode?.let { return it }
+    var current = node
+    while (current !== root) {
+      current.treeNext?.let { return it }
+      current = current.treeParent ?: return null
     }
+    return null
+  }
 
-    val childUsedCommends = HashSet<PsiElement>()
-    for (c in element.children) {
-      collect(c, descriptors, childUsedCommends)
+  /**
+   * Folds run of line comments started with [first]
+   * @return last comment of the run, so walk continues after it
+   */
+  private fun collectLineComments(first: ASTNode, descriptors: MutableList<FoldingDescriptor>): ASTNode {
+    if (isCustomRegionElement(first.psi)) return first
+    var end: ASTNode? = null
+    var current = getNextSiblingNonWhiteSpace(first)
+    while (current != null && current.elementType === HCLElementTypes.LINE_COMMENT) {
+      if (isCustomRegionElement(current.psi)) {
+        // Stop current folding, custom region comment is handled by CustomFoldingBuilder
+        break
+      }
+      end = current
+      current = getNextSiblingNonWhiteSpace(current)
     }
+    if (end == null) return first
+    descriptors.add(FoldingDescriptor(first, TextRange(first.startOffset, end.textRange.endOffset)))
+    return end
   }
 
-  private fun getCollapsedObjectPlaceholder(element: HCLObject, limit: Int = 30): String {
-    val props = element.propertyList.size
-    val blocks = element.blockList.size
-    if (props + blocks == 0) return "{}"
-    else if (props + blocks != 1) return "{...}"
+  private fun getNextSiblingNonWhiteSpace(node: ASTNode): ASTNode? {
+    var next = node.treeNext
+    while (next != null && next.elementType === TokenType.WHITE_SPACE) {
+      next = next.treeNext
+    }
+    return next
+  }
 
-    val prop = element.propertyList.firstOrNull()
-    if (prop != null) {
-      if (prop.textLength > limit) return "{...}"
-      return "{" + prop.text + "}"
+  private fun getCollapsedObjectPlaceholder(node: ASTNode, limit: Int = 30): String {
+    var single: ASTNode? = null
+    var child = node.firstChildNode
+    while (child != null) {
+      val type = child.elementType
+      if (type === HCLElementTypes.PROPERTY || type === HCLElementTypes.BLOCK) {
+        if (single != null) return "{...}"
+        single = child
+      }
+      child = child.treeNext
     }
-    val bl = element.blockList.firstOrNull()
-    if (bl != null) {
-      if (bl.name.length > limit) return "{...}"
-      val obj = bl.`object` ?: return "{...}"
-      val inner = getCollapsedObjectPlaceholder(obj, limit - (bl.name.length + 3))
-      return "{${bl.name} $inner}"
+    if (single == null) return "{}"
+
+    if (single.elementType === HCLElementTypes.PROPERTY) {
+      if (single.textLength > limit) return "{...}"
+      return "{" + single.text + "}"
     }
-    return "{}"
+    val block = single.psi as? HCLBlock ?: return "{...}"
+    if (block.name.length > limit) return "{...}"
+    val obj = block.`object` ?: return "{...}"
+    val inner = getCollapsedObjectPlaceholder(obj.node, limit - (block.name.length + 3))
+    return "{${block.name} $inner}"
   }
 
-  private fun getCollapsedArrayPlaceholder(element: HCLArray, limit: Int = 30): String {
-    val vals = element.valueList
-    if (vals.isEmpty()) return "[]"
-    if (vals.size > 1) return "[...]"
-    val node = vals.first().node
-    if (node.textLength > limit) return "[...]"
-    return "[${node.text}]"
+  private fun getCollapsedArrayPlaceholder(node: ASTNode, limit: Int = 30): String {
+    var single: ASTNode? = null
+    var child = node.firstChildNode
+    while (child != null) {
+      if (child.psi is HCLValue) {
+        if (single != null) return "[...]"
+        single = child
+      }
+      child = child.treeNext
+    }
+    if (single == null) return "[]"
+    if (single.textLength > limit) return "[...]"
+    return "[${single.text}]"
   }
 
   override fun getLanguagePlaceholderText(node: ASTNode, range: TextRange): String {
     return when (node.elementType) {
-      HCLElementTypes.ARRAY -> "[...]"
-      HCLElementTypes.OBJECT -> "{...}"
+      HCLElementTypes.ARRAY -> getCollapsedArrayPlaceholder(node)
+      HCLElementTypes.OBJECT -> getCollapsedObjectPlaceholder(node)
       HCLElementTypes.BLOCK_COMMENT -> "/*...*/"
       HCLElementTypes.LINE_COMMENT -> "//..."
       else -> "..."
     }
   }
 
-  private fun isSpanMultipleLines(node: ASTNode): Boolean {
-    return node.textContains('\n') || node.textContains('\r')
+  private fun isSpanMultipleLines(node: ASTNode, document: Document): Boolean {
+    val range = node.textRange
+    if (range.endOffset > document.textLength) return node.textContains('\n') || node.textContains('\r')
+    return document.getLineNumber(range.startOffset) != document.getLineNumber(range.endOffset)
   }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.formatter
+
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.IElementType
+import org.intellij.plugins.hcl.HCLCapability
+import org.intellij.plugins.hcl.HCLElementTypes.*
+import org.intellij.plugins.hcl.HCLLexer
+import java.util.*
+
+/**
+ * `terraform fmt`-like formatter which works on lexer tokens only, without PSI or formatting model,
+ * so it is cheap enough to run over many files in parallel.
+ *
+ * Line breaks are kept as in the source (with at most one empty line in a row), everything else is normalized:
+ * two spaces indents, spaces between tokens, trailing whitespaces and alignment of equals signs in consecutive
+ * single-line properties. These are the fixed `terraform fmt` rules, code style settings are not taken into account.
+ * Heredoc content is never touched.
+ *
+ * Like `terraform fmt` it does not touch text with lexer errors, [format] returns `null` for such text.
+ */
+class HCLCanonicalFormatter(private val capabilities: EnumSet<HCLCapability>) {
+  companion object {
+    private const val INDENT = "  "
+    private val KEY_TOKENS = setOf<IElementType>(ID, DOUBLE_QUOTED_STRING, SINGLE_QUOTED_STRING, NUMBER)
+  }
+
+  private class Line(val depth: Int, val raw: Boolean = false) {
+    val text = StringBuilder()
+    var firstType: IElementType? = null
+    var lastType: IElementType? = null
+    var tokens = 0
+    var keyLength = -1
+    var depthAfter = depth
+    var multiline = false
+    var padding = 0
+
+    val isEmpty: Boolean
+      get() = !raw && text.isEmpty()
+
+    val isAlignable: Boolean
+      get() = keyLength >= 0 && !multiline && depthAfter == depth
+  }
+
+  fun format(text: CharSequence): String? {
+    val lines = split(text) ?: return null
+    align(lines)
+    return render(lines)
+  }
+
+  private fun split(text: CharSequence): List<Line>? {
+    val lexer = HCLLexer(capabilities)
+    lexer.start(text)
+
+    val lines = ArrayList<Line>()
+    var line: Line? = null
+    var depth = 0
+    var hadSpace = false
+    var pendingEmptyLine = false
+    var inHeredoc = false
+
+    while (true) {
+      val type = lexer.tokenType ?: break
+      val token = text.subSequence(lexer.tokenStart, lexer.tokenEnd)
+      lexer.advance()
+
+      if (type == TokenType.BAD_CHARACTER) return null
+
+      if (inHeredoc) {
+        when (type) {
+          HD_LINE -> lines.add(Line(0, true).apply { this.text.append(token) })
+          HD_MARKER -> {
+            lines.add(Line(0, true).apply { this.text.append(token) })
+            inHeredoc = false
+          }
+        }
+        // Line breaks between heredoc lines (WHITE_SPACE after opening marker and HD_EOL) are restored on render
+        continue
+      }
+
+      if (type == TokenType.WHITE_SPACE) {
+        val breaks = countLineBreaks(token)
+        if (breaks == 0) {
+          hadSpace = true
+        } else {
+          line = null
+          hadSpace = false
+          if (breaks > 1 && lines.isNotEmpty()) pendingEmptyLine = true
+        }
+        continue
+      }
+
+      var current = line
+      if (current == null) {
+        if (pendingEmptyLine) {
+          lines.add(Line(0))
+          pendingEmptyLine = false
+        }
+        current = Line(Math.max(0, if (type == R_CURLY || type == R_BRACKET) depth - 1 else depth))
+        lines.add(current)
+        line = current
+      } else if (needSpace(current.lastType!!, type, hadSpace)) {
+        if (type == EQUALS && current.tokens == 1 && current.firstType in KEY_TOKENS) {
+          current.keyLength = current.text.length
+        }
+        current.text.append(' ')
+      }
+      hadSpace = false
+
+      current.text.append(token)
+      if (current.tokens == 0) current.firstType = type
+      current.lastType = type
+      current.tokens++
+
+      when (type) {
+        L_CURLY, L_BRACKET -> depth++
+        R_CURLY, R_BRACKET -> depth = Math.max(0, depth - 1)
+        BLOCK_COMMENT -> if (token.contains('\n')) current.multiline = true
+        HD_MARKER -> {
+          // Opening marker, rest of the heredoc goes line by line as is
+          current.multiline = true
+          inHeredoc = true
+          line = null
+        }
+      }
+      current.depthAfter = depth
+    }
+    return lines
+  }
+
+  private fun needSpace(prev: IElementType, current: IElementType, hadSpace: Boolean): Boolean {
+    if (prev == HD_START) return false
+    if (current == COMMA) return false
+    if (prev == L_BRACKET || current == R_BRACKET) return false
+    if (prev == L_CURLY && current == R_CURLY) return false
+    if (current == EQUALS || prev == EQUALS) return true
+    if (current == L_CURLY || prev == COMMA) return true
+    if (current == LINE_COMMENT || current == BLOCK_COMMENT) return true
+    // Keep tokens glued if they were, e.g. number with unit postfix when that capability is off
+    return hadSpace
+  }
+
+  private fun align(lines: List<Line>) {
+    var start = 0
+    while (start < lines.size) {
+      val first = lines[start]
+      if (!first.isAlignable) {
+        start++
+        continue
+      }
+      var end = start + 1
+      while (end < lines.size && lines[end].isAlignable && lines[end].depth == first.depth) end++
+      val width = (start until end).map { lines[it].keyLength }.max()!!
+      for (i in start until end) {
+        lines[i].padding = width - lines[i].keyLength
+      }
+      start = end
+    }
+  }
+
+  private fun render(lines: List<Line>): String {
+    var last = lines.size
+    while (last > 0 && lines[last - 1].isEmpty) last--
+
+    val sb = StringBuilder()
+    for (i in 0 until last) {
+      val line = lines[i]
+      if (line.raw) {
+        sb.append(line.text)
+      } else if (!line.isEmpty) {
+        for (j in 0 until line.depth) sb.append(INDENT)
+        val text = line.text
+        if (line.padding > 0) text.insert(line.keyLength, " ".repeat(line.padding))
+        var end = text.length
+        while (end > 0 && (text[end - 1] == ' ' || text[end - 1] == '\t')) end--
+        sb.append(text, 0, end)
+      }
+      sb.append('\n')
+    }
+    return sb.toString()
+  }
+
+  private fun countLineBreaks(whitespace: CharSequence): Int {
+    var count = 0
+    var i = 0
+    while (i < whitespace.length) {
+      val c = whitespace[i]
+      if (c == '\n') {
+        count++
+      } else if (c == '\r') {
+        count++
+        if (i + 1 < whitespace.length && whitespace[i + 1] == '\n') i++
+      }
+      i++
+    }
+    return count
+  }
+}
@@ -21,7 +21,11 @@ import com.intellij.openapi.editor.EditorModificationUtil
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.text.StringUtil
 import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import org.intellij.plugins.hcl.psi.*
+import org.intellij.plugins.hcl.terraform.config.model.ModelFQN
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
 
 class HCLQualifiedNameProvider : QualifiedNameProvider {
@@ -56,37 +60,49 @@ class HCLQualifiedNameProvider : QualifiedNameProvider {
     }
 
     fun getQualifiedModelName(element: PsiElement?): String? {
+      return getQualifiedModelFQN(element)?.toString()
+    }
+
+    /**
+     * Same as [getQualifiedModelName] in structured form, cached for blocks and properties until PSI modification
+     */
+    fun getQualifiedModelFQN(element: PsiElement?): ModelFQN? {
       if (element !is HCLElement) return null
 
       if (element is HCLStringLiteral || element is HCLIdentifier) {
         val parent = element.parent
         if (parent is HCLBlock) {
-          return getQualifiedModelName(parent)
+          return getQualifiedModelFQN(parent)
         } else if (parent is HCLProperty) {
-          return getQualifiedModelName(parent)
+          return getQualifiedModelFQN(parent)
         }
       }
       if (element is HCLBlock) {
-        return getModelFQN(element)
+        return CachedValuesManager.getCachedValue(element) {
+          CachedValueProvider.Result.create(computeModelFQN(element), PsiModificationTracker.MODIFICATION_COUNT)
+        }
       }
       if (element is HCLProperty) {
-        val parent = element.parent
-        if (parent is HCLBlock) { // Probably it's fake property, usual one would be under HCLObject
-          val pName = getQualifiedModelName(parent)
-          if (pName != null) {
-            return "$pName.${element.name}"
-          }
-        } else if (parent is HCLObject && parent.parent is HCLBlock) {
-          val pName = getQualifiedModelName(parent.parent)
-          if (pName != null) {
-            return "$pName.${element.name}"
-          }
-        } else return element.name
-        // TODO: Check cases when there no fqn of parent block
+        // Fake properties have no AST and are short-living, no need to cache
+        if (element.node == null) return computeModelFQN(element)
+        return CachedValuesManager.getCachedValue(element) {
+          CachedValueProvider.Result.create(computeModelFQN(element), PsiModificationTracker.MODIFICATION_COUNT)
+        }
       }
       return null
     }
 
+    private fun computeModelFQN(property: HCLProperty): ModelFQN? {
+      val parent = property.parent
+      if (parent is HCLBlock) { // Probably it's fake property, usual one would be under HCLObject
+        return getQualifiedModelFQN(parent)?.plus(property.name)
+      } else if (parent is HCLObject && parent.parent is HCLBlock) {
+        return getQualifiedModelFQN(parent.parent)?.plus(property.name)
+      }
+      // TODO: Check cases when there no fqn of parent block
+      return ModelFQN.of(listOf(property.name))
+    }
+
     fun getFQN(block: HCLBlock): String? {
       var elements = block.nameElements.asList()
 
@@ -102,29 +118,27 @@ class HCLQualifiedNameProvider : QualifiedNameProvider {
       return result
     }
 
-    fun getModelFQN(block: HCLBlock): String? {
+    private fun computeModelFQN(block: HCLBlock): ModelFQN? {
       var elements = block.nameElements.asList()
       val parent = block.parent
-      var prefix: String? = null
+      var prefix: ModelFQN? = null
 
       if (TerraformPatterns.ResourceRootBlock.accepts(block)
           || TerraformPatterns.DataSourceRootBlock.accepts(block)) {
         elements = elements.dropLast(1)
       } else if (parent !is HCLFile) {
         if (parent is HCLObject && parent.parent is HCLBlock) {
-          prefix = getQualifiedModelName(parent.parent)
+          prefix = getQualifiedModelFQN(parent.parent)
         } else {
           // TODO: Implement
         }
       }
-      val sb = StringBuilder()
+      val segments = ArrayList<String>()
       if (prefix != null) {
-        sb.append(prefix).append('.')
+        for (i in 0 until prefix.size) segments.add(prefix[i])
       }
-      elements.joinTo(sb, ".") { StringUtil.unescapeStringCharacters(HCLPsiUtil.stripQuotes(it.text)) }
-      val result = sb.toString()
-      if (result.isEmpty()) return null
-      return result
+      elements.mapTo(segments) { StringUtil.unescapeStringCharacters(HCLPsiUtil.stripQuotes(it.text)) }
+      return ModelFQN.of(segments)
     }
 
   }
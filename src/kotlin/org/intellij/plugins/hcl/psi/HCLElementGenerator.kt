@@ -15,11 +15,17 @@
  */
 package org.intellij.plugins.hcl.psi
 
+import com.intellij.lang.ASTFactory
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.text.StringUtil
 import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiErrorElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.source.DummyHolderFactory
+import com.intellij.psi.tree.IElementType
+import org.intellij.plugins.hcl.HCLElementTypes
 import org.intellij.plugins.hcl.HCLFileType
 
 /**
@@ -27,6 +33,27 @@ import org.intellij.plugins.hcl.HCLFileType
  * @author Vladislav Rassokhin
  */
 open class HCLElementGenerator(private val project: Project) {
+  companion object {
+    private val KEYWORDS = setOf("true", "false", "null")
+
+    /**
+     * Text of property as created by [createProperty]: name is quoted unless it's a plain identifier
+     */
+    @JvmStatic
+    fun getPropertyText(name: String, value: String): String {
+      return if (isIdentifier(name)) "$name = $value" else "\"$name\" = $value"
+    }
+
+    /**
+     * Text of empty block as created by [createBlock]
+     */
+    @JvmStatic
+    fun getBlockText(name: String) = "\"$name\" {}"
+
+    private fun isIdentifier(name: String): Boolean {
+      return name.matches("\\w*".toRegex())
+    }
+  }
 
   /**
    * Create lightweight in-memory [org.intellij.plugins.hcl.psi.HCLFile] filled with `content`.
@@ -58,6 +85,14 @@ open class HCLElementGenerator(private val project: Project) {
     return property.value as T
   }
 
+  /**
+   * Same as [createValue] for each of [contents], but all values are parsed from a single dummy file
+   */
+  fun <T : HCLValue> createValues(contents: List<String>): List<T> {
+    @Suppress("UNCHECKED_CAST")
+    return createProperties(contents.map { "foo" to it }).map { it.value as T }
+  }
+
   fun createObject(content: String): HCLObject {
     val file = createDummyFile("foo {$content}")
     val block = file.firstChild as HCLBlock
@@ -72,46 +107,105 @@ open class HCLElementGenerator(private val project: Project) {
    * @return HCL string literal created from given text
    */
   fun createStringLiteral(unescapedContent: String, quoteSymbol: Char? = '"'): HCLStringLiteral {
+    if (quoteSymbol != null && !unescapedContent.contains("\${")) {
+      // Without interpolations the whole literal is a single lexer token, no need to parse it
+      val tokenType = if (quoteSymbol == '\'') HCLElementTypes.SINGLE_QUOTED_STRING else HCLElementTypes.DOUBLE_QUOTED_STRING
+      val text = quoteSymbol + escape(unescapedContent, quoteSymbol) + quoteSymbol
+      return createSingleTokenElement(HCLElementTypes.STRING_LITERAL, tokenType, text)
+    }
     return createValue(buildString {
       if (quoteSymbol == null) {
         if (unescapedContent.length < 2) throw IllegalArgumentException()
         append(unescapedContent.first())
-        append(StringUtil.escapeStringCharacters(unescapedContent.substring(1..unescapedContent.lastIndex - 1)))
+        append(escape(unescapedContent.substring(1..unescapedContent.lastIndex - 1), unescapedContent.first()))
         append(unescapedContent.last())
       } else {
         append(quoteSymbol)
-        append(StringUtil.escapeStringCharacters(unescapedContent))
+        append(escape(unescapedContent, quoteSymbol))
         append(quoteSymbol)
       }
     })
   }
 
+  /**
+   * Escapes [content] of string literal quoted with [quoteSymbol], only that quote is escaped
+   */
+  private fun escape(content: String, quoteSymbol: Char): String {
+    return StringUtil.escapeStringCharacters(content.length, content, quoteSymbol.toString(), StringBuilder()).toString()
+  }
+
   fun createProperty(name: String, value: String): HCLProperty {
-    val s: String
-    if (isIdentifier(name)) {
-      s = "$name = $value"
-    } else {
-      s = "\"$name\" = $value"
-    }
-    val file = createDummyFile(s)
+    val file = createDummyFile(getPropertyText(name, value))
     return file.firstChild as HCLProperty
   }
 
-  private fun isIdentifier(name: String): Boolean {
-    return name.matches("\\w*".toRegex())
+  /**
+   * Creates properties from (name, value) pairs, all of them are parsed from a single dummy file.
+   * Prefer it over multiple [createProperty] calls when many properties are added at once.
+   */
+  fun createProperties(properties: List<Pair<String, String>>): List<HCLProperty> {
+    return createTopLevelElements(properties, { getPropertyText(it.first, it.second) }, { createProperty(it.first, it.second) })
+  }
+
+  private fun isIdToken(name: String): Boolean {
+    if (name.isEmpty() || name in KEYWORDS) return false
+    if (name[0] != '_' && !name[0].isLetter()) return false
+    return name.all { it.isLetterOrDigit() || it == '_' || it == '.' || it == '-' }
   }
 
   fun createBlock(name: String): HCLBlock {
-    val file = createDummyFile("\"$name\" {}")
+    val file = createDummyFile(getBlockText(name))
     return file.firstChild as HCLBlock
   }
 
+  /**
+   * Creates empty blocks, all of them are parsed from a single dummy file
+   */
+  fun createBlocks(names: List<String>): List<HCLBlock> {
+    return createTopLevelElements(names, { getBlockText(it) }, this::createBlock)
+  }
+
+  /**
+   * Parses text of each of [items] as a top-level element of single dummy file.
+   * If parsed elements do not match [items] one-to-one (e.g. due to incorrect text), falls back to [single] for each item.
+   */
+  private inline fun <S, reified T : HCLElement> createTopLevelElements(items: List<S>, text: (S) -> String, single: (S) -> T): List<T> {
+    if (items.size > 1) {
+      val file = createDummyFile(items.joinToString("\n", transform = text))
+      val children = file.children
+      val elements = children.filterIsInstance<T>()
+      if (elements.size == items.size && children.none { it is PsiErrorElement }) return elements
+    }
+    return items.map(single)
+  }
+
+  /**
+   * Empty file created by [createDummyFile], context of elements created without parsing,
+   * so they belong to the same language as parsed ones
+   */
+  private val tokenContext: PsiFile by lazy { createDummyFile("") }
+
+  /**
+   * Creates element consisting of a single token without parsing, [text] should be a correct token of [tokenType]
+   */
+  private fun <T : PsiElement> createSingleTokenElement(type: IElementType, tokenType: IElementType, text: String): T {
+    val holder = DummyHolderFactory.createHolder(PsiManager.getInstance(project), tokenContext).treeElement
+    val composite = ASTFactory.composite(type)
+    holder.rawAddChildren(composite)
+    composite.rawAddChildren(ASTFactory.leaf(tokenType, holder.charTable.intern(text)))
+    @Suppress("UNCHECKED_CAST")
+    return composite.psi as T
+  }
+
   fun createComma(): PsiElement {
     val array = createValue<HCLArray>("[1, 2]")
     return array.valueList[0].nextSibling
   }
 
   fun createIdentifier(name: String): HCLIdentifier {
+    if (isIdToken(name)) {
+      return createSingleTokenElement(HCLElementTypes.IDENTIFIER, HCLElementTypes.ID, name)
+    }
     val file = createDummyFile("$name=true")
     val property = file.firstChild as HCLProperty
     return property.nameElement as HCLIdentifier
@@ -15,6 +15,7 @@
  */
 package org.intellij.plugins.hcl.structureView
 
+import com.intellij.ide.projectView.PresentationData
 import com.intellij.ide.structureView.*
 import com.intellij.ide.util.treeView.smartTree.TreeElement
 import com.intellij.lang.PsiStructureViewFactory
@@ -23,7 +24,11 @@ import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.editor.Editor
 import com.intellij.psi.PsiFile
 import com.intellij.psi.util.PsiTreeUtil
+import org.intellij.plugins.hcl.HCLElementTypes
+import org.intellij.plugins.hcl.Icons
 import org.intellij.plugins.hcl.psi.*
+import org.intellij.plugins.hcl.terraform.config.TerraformLanguage
+import javax.swing.Icon
 
 class HCLStructureViewFactory : PsiStructureViewFactory {
   override fun getStructureViewBuilder(psiFile: PsiFile): StructureViewBuilder? {
@@ -35,7 +40,13 @@ class HCLStructureViewFactory : PsiStructureViewFactory {
   }
 }
 
-class HCLStructureViewModel(file: HCLFile, editor: Editor?) : StructureViewModelBase(file, editor, HCLStructureViewElement(file)), StructureViewModel.ElementInfoProvider, StructureViewModel.ExpandInfoProvider {
+class HCLStructureViewModel(file: HCLFile, editor: Editor?) : StructureViewModelBase(file, editor, createRoot(file)), StructureViewModel.ElementInfoProvider, StructureViewModel.ExpandInfoProvider {
+  companion object {
+    private fun createRoot(file: HCLFile): StructureViewTreeElement {
+      return if (file.language == TerraformLanguage) TerraformStructureViewRootElement(file) else HCLStructureViewElement(file)
+    }
+  }
+
   init {
     withSuitableClasses(HCLFile::class.java, HCLProperty::class.java, HCLObject::class.java, HCLArray::class.java, HCLBlock::class.java)
   }
@@ -45,7 +56,8 @@ class HCLStructureViewModel(file: HCLFile, editor: Editor?) : StructureViewModel
   }
 
   override fun isAlwaysShowsPlus(element: StructureViewTreeElement?): Boolean {
-    return false
+    // Groups are never empty, no need to compute children of collapsed group just to show '+'
+    return element is HCLStructureViewGroupElement
   }
 
   override fun isAutoExpand(element: StructureViewTreeElement): Boolean {
@@ -57,7 +69,12 @@ class HCLStructureViewModel(file: HCLFile, editor: Editor?) : StructureViewModel
   }
 }
 
-class HCLStructureViewElement(val element: HCLElement) : StructureViewTreeElement {
+/**
+ * Children are created only when node is expanded, presentation is computed once per element.
+ */
+open class HCLStructureViewElement(val element: HCLElement) : StructureViewTreeElement {
+  private var presentation: ItemPresentation? = null
+
   init {
     assert(PsiTreeUtil.instanceOf(element, HCLFile::class.java, HCLProperty::class.java, HCLObject::class.java, HCLArray::class.java, HCLBlock::class.java))
   }
@@ -79,30 +96,101 @@ class HCLStructureViewElement(val element: HCLElement) : StructureViewTreeElemen
   }
 
   override fun getPresentation(): ItemPresentation {
-    return element.presentation!!
+    presentation?.let { return it }
+    val original = element.presentation!!
+    val data = PresentationData(original.presentableText, original.locationString, original.getIcon(false), null)
+    presentation = data
+    return data
   }
 
   override fun getChildren(): Array<out TreeElement> {
-    val value: HCLElement
-    if (element is HCLProperty) {
-      value = element.value ?: return emptyArray()
-    } else if (element is HCLBlock) {
-      value = element.`object` ?: return emptyArray()
-    } else {
-      value = element
+    return getStructureChildren(element).map { HCLStructureViewElement(it) }.toTypedArray()
+  }
+
+  companion object {
+    /**
+     * Elements shown as children of [element] in structure view, collected by iterating over AST children
+     * without creating PSI for leaves.
+     */
+    fun getStructureChildren(element: HCLElement): List<HCLElement> {
+      val value: HCLElement = when (element) {
+        is HCLProperty -> element.value ?: return emptyList()
+        is HCLBlock -> element.`object` ?: return emptyList()
+        else -> element
+      }
+
+      val result = ArrayList<HCLElement>()
+      var child = value.node.firstChildNode
+      while (child != null) {
+        when (child.elementType) {
+          HCLElementTypes.OBJECT, HCLElementTypes.ARRAY, HCLElementTypes.PROPERTY, HCLElementTypes.BLOCK -> result.add(child.psi as HCLElement)
+        }
+        child = child.treeNext
+      }
+      return result
     }
+  }
+}
+
+/**
+ * Root of Terraform file: top-level `resource` blocks are grouped by resource type,
+ * `data`, `variable`, `output` and `module` blocks are grouped by kind, other elements are shown as is.
+ *
+ * Groups are computed in a single pass over top-level elements, blocks inside groups are not touched until group is expanded.
+ */
+class TerraformStructureViewRootElement(file: HCLFile) : HCLStructureViewElement(file) {
+  companion object {
+    private val GROUPED_KINDS = setOf("data", "variable", "output", "module")
+  }
 
-    val list: List<HCLStructureViewElement> = value.children.mapNotNull {
-      when (it) {
-        is HCLObject -> HCLStructureViewElement(it)
-        is HCLArray -> HCLStructureViewElement(it)
-        is HCLProperty -> HCLStructureViewElement(it)
-        is HCLBlock -> HCLStructureViewElement(it)
-        else -> null
+  override fun getChildren(): Array<out TreeElement> {
+    val groups = LinkedHashMap<String, MutableList<HCLBlock>>()
+    val result = ArrayList<TreeElement>()
+    for (child in getStructureChildren(element)) {
+      if (child is HCLBlock) {
+        val kind = child.getNameElementUnquoted(0)
+        val group = when (kind) {
+          "resource" -> child.getNameElementUnquoted(1)?.let { "resource $it" }
+          in GROUPED_KINDS -> kind
+          else -> null
+        }
+        if (group != null) {
+          groups.getOrPut(group) { ArrayList() }.add(child)
+          continue
+        }
       }
+      result.add(HCLStructureViewElement(child))
     }
+    val file = element as HCLFile
+    return (groups.map { (name, blocks) -> HCLStructureViewGroupElement(file, name, blocks) } + result).toTypedArray()
+  }
+}
+
+class HCLStructureViewGroupElement(file: HCLFile, val name: String, private val blocks: List<HCLBlock>) : StructureViewTreeElement, ItemPresentation {
+  // Stable between tree rebuilds, so expanded groups stay expanded after file modification
+  private data class Key(val file: HCLFile, val name: String)
+
+  private val key = Key(file, name)
+
+  override fun getValue(): Any? = key
+
+  override fun getPresentation(): ItemPresentation = this
 
-    return list.toTypedArray()
+  override fun getPresentableText(): String? = name
+
+  override fun getLocationString(): String? = blocks.size.toString()
+
+  override fun getIcon(unused: Boolean): Icon? = Icons.Group
+
+  override fun getChildren(): Array<out TreeElement> {
+    return blocks.filter { it.isValid }.map { HCLStructureViewElement(it) }.toTypedArray()
   }
 
+  override fun canNavigate(): Boolean = blocks.firstOrNull()?.canNavigate() ?: false
+
+  override fun canNavigateToSource(): Boolean = blocks.firstOrNull()?.canNavigateToSource() ?: false
+
+  override fun navigate(requestFocus: Boolean) {
+    blocks.firstOrNull()?.navigate(requestFocus)
+  }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config
+
+import org.intellij.plugins.hcl.navigation.HCLQualifiedNameProvider
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.psi.getNameElementUnquoted
+import org.intellij.plugins.hcl.terraform.config.model.ModelFQN
+import org.intellij.plugins.hcl.terraform.config.model.TypeModel
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider
+import java.util.*
+
+/**
+ * Rendered documentation of model types, keyed by kind of documented element and its model FQN
+ * (see [HCLQualifiedNameProvider.getQualifiedModelFQN]), e.g. property 'resource.aws_instance.ebs_block_device.device_name'.
+ *
+ * Entries are bound to the model they were rendered from: cache is dropped once [TypeModelProvider.getModel] returns
+ * another model instance, and explicitly by [TypeModelProvider.reloadModel].
+ */
+object TerraformDocumentationCache {
+  private const val CACHE_SIZE = 512
+
+  /**
+   * Blocks which properties depend on something besides the model,
+   * e.g. 'module' blocks depend on module source and 'connection' blocks on the value of its 'type' property.
+   */
+  private val NOT_MODEL_BLOCKS = setOf("module", "variable", "connection")
+
+  enum class Kind { BLOCK, PROPERTY }
+
+  private data class Key(val kind: Kind, val fqn: ModelFQN)
+
+  private var model: TypeModel? = null
+  private val cache = object : LinkedHashMap<Key, String>(CACHE_SIZE, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, String>?): Boolean = size > CACHE_SIZE
+  }
+
+  fun getOrCompute(model: TypeModel, kind: Kind, fqn: ModelFQN, compute: () -> String): String {
+    val key = Key(kind, fqn)
+    synchronized(cache) {
+      if (this.model !== model) {
+        cache.clear()
+        this.model = model
+      } else {
+        cache[key]?.let { return it }
+      }
+    }
+    val doc = compute()
+    synchronized(cache) {
+      if (this.model === model) cache[key] = doc
+    }
+    return doc
+  }
+
+  @JvmStatic
+  fun clear() {
+    synchronized(cache) {
+      cache.clear()
+      model = null
+    }
+  }
+
+  /**
+   * Model FQN of [block], or null if documentation of the block or its properties depends on something besides the model
+   */
+  fun getModelFQN(block: HCLBlock): ModelFQN? {
+    var current = block
+    while (true) {
+      if (current.getNameElementUnquoted(0) in NOT_MODEL_BLOCKS) return null
+      current = current.parent?.parent as? HCLBlock ?: break
+    }
+    // FQN of blocks outside of root blocks has no prefix, could be the same as of an unrelated root block
+    if (current.parent !is HCLFile) return null
+    return HCLQualifiedNameProvider.getQualifiedModelFQN(block)
+  }
+}
@@ -16,6 +16,7 @@
 package org.intellij.plugins.hcl.terraform.config
 
 import com.intellij.lang.documentation.AbstractDocumentationProvider
+import com.intellij.openapi.util.text.StringUtil
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiNameIdentifierOwner
 import org.intellij.plugins.hcl.psi.*
@@ -23,11 +24,44 @@ import org.intellij.plugins.hcl.terraform.config.codeinsight.ModelHelper
 import org.intellij.plugins.hcl.terraform.config.model.BlockType
 import org.intellij.plugins.hcl.terraform.config.model.PropertyType
 import org.intellij.plugins.hcl.terraform.config.model.TypeModel
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider
+import org.intellij.plugins.hcl.terraform.state.TerraformStateIndex
+import org.intellij.plugins.hcl.terraform.state.TerraformStateIndexManager
 
 class TerraformDocumentationProvider : AbstractDocumentationProvider() {
+  companion object {
+    private const val MAX_STATE_ATTRIBUTES = 50
+
+    /**
+     * Address of root 'resource' or 'data' block in state, e.g. 'aws_instance.web'
+     */
+    private fun getStateAddress(block: HCLBlock): String? {
+      if (block.parent !is HCLFile) return null
+      val type = block.getNameElementUnquoted(1) ?: return null
+      val name = block.getNameElementUnquoted(2) ?: return null
+      return when (block.getNameElementUnquoted(0)) {
+        "resource" -> "$type.$name"
+        "data" -> "data.$type.$name"
+        else -> null
+      }
+    }
+
+    private fun getStateIndex(element: PsiElement): TerraformStateIndex? {
+      val directory = element.containingFile?.originalFile?.virtualFile?.parent ?: return null
+      return TerraformStateIndexManager.getInstance().getIndex(directory)
+    }
+
+    private fun getStateValue(property: HCLProperty): String? {
+      val block = property.parent?.parent as? HCLBlock ?: return null
+      val address = getStateAddress(block) ?: return null
+      return getStateIndex(property)?.readAttribute(address, property.name)
+    }
+  }
+
   override fun getQuickNavigateInfo(element: PsiElement?, originalElement: PsiElement?): String? {
     if (element is HCLProperty) {
-      return "Property ${element.name}"
+      val value = getStateValue(element) ?: return "Property ${element.name}"
+      return "Property ${element.name} = ${StringUtil.first(value, 80, true)}"
     }
     return null
   }
@@ -38,18 +72,13 @@ class TerraformDocumentationProvider : AbstractDocumentationProvider() {
 
     if (element is HCLProperty) {
       val pp = element.parent?.parent as? HCLBlock ?: return null
-      val properties = ModelHelper.getBlockProperties(pp)
-      val property = properties.filterIsInstance(PropertyType::class.java).firstOrNull { it.name == element.name } ?: return "Unknown property ${element.name}"
+      val doc = getCachedDoc(pp, element.name) { generatePropertyDoc(pp, element.name) }
+      val state = getStateValue(element) ?: return doc
       return buildString {
-        append("Property ")
-        append(element.name)
-        append(" (")
-        append(property.type.name)
-        append(")")
-        if (property.description != null) {
-          append("<br/>")
-          append(property.description)
-        }
+        append(doc)
+        append("<br/>Value in state: <code>")
+        append(StringUtil.escapeXml(state))
+        append("</code>")
       }
     } else if (element is HCLBlock) {
       val pp = element.parent?.parent
@@ -73,22 +102,14 @@ class TerraformDocumentationProvider : AbstractDocumentationProvider() {
         return buildString {
           append("Block ")
           append(element.name)
-          if (block.description != null) {
+          block.description?.let {
             append("<br/>")
-            append(block.description)
+            append(it)
           }
+          appendStateAttributes(element)
         }
       }
-      val properties = ModelHelper.getBlockProperties(pp)
-      val block = properties.filterIsInstance(BlockType::class.java).firstOrNull { it.literal == element.getNameElementUnquoted(0) } ?: return "Unknown block ${element.name}"
-      return buildString {
-        append("Block ")
-        append(element.name)
-        if (block.description != null) {
-          append("<br/>")
-          append(block.description)
-        }
-      }
+      return getCachedDoc(element, null) { generateInnerBlockDoc(pp, element) }
     } else if (element is HCLStringLiteral || element is HCLIdentifier) {
       val parent = element.parent
       if (parent is PsiNameIdentifierOwner && parent.nameIdentifier === element) {
@@ -97,4 +118,60 @@ class TerraformDocumentationProvider : AbstractDocumentationProvider() {
     }
     return null
   }
+
+  /**
+   * Model part of the documentation is the same for all properties and blocks of the same model type,
+   * so it is cached by FQN, see [TerraformDocumentationCache]
+   */
+  private fun getCachedDoc(block: HCLBlock, property: String?, compute: () -> String): String {
+    val fqn = TerraformDocumentationCache.getModelFQN(block) ?: return compute()
+    val model = TypeModelProvider.getModel(block.project)
+    if (property == null) return TerraformDocumentationCache.getOrCompute(model, TerraformDocumentationCache.Kind.BLOCK, fqn, compute)
+    return TerraformDocumentationCache.getOrCompute(model, TerraformDocumentationCache.Kind.PROPERTY, fqn + property, compute)
+  }
+
+  private fun generatePropertyDoc(block: HCLBlock, name: String): String {
+    val properties = ModelHelper.getBlockProperties(block)
+    val property = properties.filterIsInstance(PropertyType::class.java).firstOrNull { it.name == name } ?: return "Unknown property $name"
+    return buildString {
+      append("Property ")
+      append(name)
+      append(" (")
+      append(property.type.name)
+      append(")")
+      property.description?.let {
+        append("<br/>")
+        append(it)
+      }
+    }
+  }
+
+  private fun generateInnerBlockDoc(parent: HCLBlock, element: HCLBlock): String {
+    val properties = ModelHelper.getBlockProperties(parent)
+    val block = properties.filterIsInstance(BlockType::class.java).firstOrNull { it.literal == element.getNameElementUnquoted(0) } ?: return "Unknown block ${element.name}"
+    return buildString {
+      append("Block ")
+      append(element.name)
+      block.description?.let {
+        append("<br/>")
+        append(it)
+      }
+    }
+  }
+
+  private fun StringBuilder.appendStateAttributes(block: HCLBlock) {
+    val address = getStateAddress(block) ?: return
+    val index = getStateIndex(block) ?: return
+    val names = index.find(address)?.names ?: return
+    val attributes = index.readAttributes(address, names.take(MAX_STATE_ATTRIBUTES).toSet()) ?: return
+    append("<br/><br/>State:<table>")
+    for ((name, value) in attributes) {
+      append("<tr><td><code>").append(StringUtil.escapeXml(name)).append("</code></td>")
+      append("<td><code>").append(StringUtil.escapeXml(value)).append("</code></td></tr>")
+    }
+    append("</table>")
+    if (names.size > MAX_STATE_ATTRIBUTES) {
+      append("and ").append(names.size - MAX_STATE_ATTRIBUTES).append(" more attributes")
+    }
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.fileEditor.FileEditorManager
+import com.intellij.openapi.fileEditor.impl.EditorHistoryManager
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.startup.StartupActivity
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiManager
+import org.intellij.plugins.hcl.terraform.config.model.Module
+import org.intellij.plugins.hcl.terraform.config.model.ModuleDetectionUtil
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider
+
+/**
+ * Loads type model on a pooled thread once project is opened, then resolves module blocks in directories of recently opened
+ * Terraform files, so first completion or highlighting does not pay for that.
+ * While model is loading, [TypeModelProvider.getModel] answers on EDT with partial model instead of waiting.
+ */
+class TerraformWarmUpActivity : StartupActivity {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformWarmUpActivity::class.java)
+    private const val MAX_DIRECTORIES = 20
+    private const val MAX_ATTEMPTS = 5
+  }
+
+  override fun runActivity(project: Project) {
+    val application = ApplicationManager.getApplication()
+    if (application.isUnitTestMode || project.isDisposed) return
+    ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Loading Terraform model", true) {
+      override fun run(indicator: ProgressIndicator) {
+        indicator.isIndeterminate = true
+        if (!TypeModelProvider.isModelLoaded()) {
+          indicator.text = "Loading Terraform model"
+          val start = System.currentTimeMillis()
+          val partial = TypeModelProvider.loadInBackground()
+          LOG.info("Terraform model loaded in ${System.currentTimeMillis() - start} ms")
+          if (partial) refreshOpenProjects()
+        }
+        indicator.checkCanceled()
+        warmUpModules(project, indicator)
+      }
+    })
+  }
+
+  private fun refreshOpenProjects() {
+    ApplicationManager.getApplication().invokeLater {
+      for (project in ProjectManager.getInstance().openProjects) {
+        if (project.isDisposed) continue
+        PsiManager.getInstance(project).dropPsiCaches()
+        DaemonCodeAnalyzer.getInstance(project).restart()
+      }
+    }
+  }
+
+  private fun warmUpModules(project: Project, indicator: ProgressIndicator) {
+    val directories = ApplicationManager.getApplication().runReadAction<List<VirtualFile>> {
+      if (project.isDisposed) return@runReadAction emptyList()
+      val files = FileEditorManager.getInstance(project).openFiles.asSequence() + EditorHistoryManager.getInstance(project).files.reversed()
+      files.filter { it.isValid && it.fileType == TerraformFileType }.mapNotNull { it.parent }.distinct().take(MAX_DIRECTORIES).toList()
+    }
+    for ((i, directory) in directories.withIndex()) {
+      indicator.checkCanceled()
+      indicator.text = "Resolving Terraform modules in ${directory.presentableUrl}"
+      indicator.isIndeterminate = false
+      indicator.fraction = i.toDouble() / directories.size
+      var attempt = 0
+      // Give way to write actions, retry afterwards
+      while (!ProgressManager.getInstance().runInReadActionWithWriteActionPriority({ warmUpDirectory(project, directory) }, indicator)) {
+        if (++attempt >= MAX_ATTEMPTS) break
+        ProgressIndicatorUtils.yieldToPendingWriteActions()
+      }
+    }
+  }
+
+  private fun warmUpDirectory(project: Project, directory: VirtualFile) {
+    if (project.isDisposed || !directory.isValid) return
+    val psiDirectory = PsiManager.getInstance(project).findDirectory(directory) ?: return
+    for (block in Module(psiDirectory).getDefinedModules()) {
+      ProgressManager.checkCanceled()
+      ModuleDetectionUtil.getAsModuleBlock(block)
+    }
+  }
+}
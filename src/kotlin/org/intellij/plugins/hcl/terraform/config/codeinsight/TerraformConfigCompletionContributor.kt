@@ -66,12 +66,12 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
   init {
 
     // Block first word
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(File)
         .andNot(psiElement().afterSiblingSkipping2(WhiteSpace, IdentifierOrStringLiteralOrSimple)),
         BlockKeywordCompletionProvider)
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Block)
@@ -80,31 +80,31 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
         BlockKeywordCompletionProvider)
 
     // Block type or name
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(FileOrBlock)
         .afterSiblingSkipping2(WhiteSpace, IdentifierOrStringLiteralOrSimple)
         , BlockTypeOrNameCompletionProvider)
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(psiElement().and(IdentifierOrStringLiteral).afterSiblingSkipping2(WhiteSpace, IdentifierOrStringLiteralOrSimple))
         .withSuperParent(2, FileOrBlock)
         , BlockTypeOrNameCompletionProvider)
 
     //region InBlock Property key
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(Object)
         .withSuperParent(2, Block)
         , BlockPropertiesCompletionProvider)
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Property)
         .withSuperParent(3, Object)
         .withSuperParent(4, Block)
         , BlockPropertiesCompletionProvider)
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Block)
@@ -119,7 +119,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
     //  provider {}
     //}
     //```
-    extend(CompletionType.BASIC, psiElement(HCLElementTypes.ID)
+    extendProvider(CompletionType.BASIC, psiElement(HCLElementTypes.ID)
         .inFile(TerraformConfigFile)
         .withParent(psiElement(HCLIdentifier::class.java).beforeLeafSkipping(Nothing, AtLeastOneEOL))
         .withSuperParent(2, Block)
@@ -129,7 +129,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
     //endregion
 
     //region InBlock Property value
-    extend(null, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(null, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Property)
@@ -137,7 +137,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
         .withSuperParent(4, Block)
         , PropertyValueCompletionProvider)
     // depends_on completion
-    extend(null, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(null, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Array)
@@ -152,7 +152,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
     // property = { "<caret>" }
     // property { <caret> }
     // property { "<caret>" }
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(Object)
         .withSuperParent(2, PropertyOrBlock)
@@ -163,7 +163,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
     // property = { "<caret>a"="" }
     // property { <caret>="" }
     // property { "<caret>"="" }
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformConfigFile)
         .withParent(IdentifierOrStringLiteral)
         .withSuperParent(2, Property)
@@ -176,7 +176,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
 
     //region .tfvars
     // Variables in .tvars files
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformVariablesFile)
         .andOr(
             psiElement()
@@ -186,7 +186,7 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
                 .withSuperParent(2, Property)
                 .withSuperParent(3, File)
         ), VariableNameTFVARSCompletionProvider)
-    extend(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
+    extendProvider(CompletionType.BASIC, psiElement().withElementType(HCLParserDefinition.IDENTIFYING_LITERALS)
         .inFile(TerraformVariablesFile)
         .andOr(
             psiElement()
@@ -524,8 +524,8 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
         if (parent !== pp.nameIdentifier) return
         module = parent.getTerraformModule()
       } else return
-      val variables = module.getAllVariables()
-      result.addAllElements(variables.map { create(it.second.name, false).withInsertHandler(ResourcePropertyInsertHandler) })
+      val variables = module.getVariables()
+      result.addAllElements(variables.names.map { create(it, false).withInsertHandler(ResourcePropertyInsertHandler) })
     }
   }
 
@@ -549,10 +549,10 @@ class TerraformConfigCompletionContributor : HCLCompletionContributor() {
 
       if (varProperty.parent !is HCLFile) return
 
-      val variable = varProperty.getTerraformModule().findVariable(varProperty.name) ?: return
-      val default = variable.second.`object`?.findProperty("default")?.value as? HCLObject ?: return
+      val variable = varProperty.getTerraformModule().getVariables()[varProperty.name] ?: return
+      val keys = variable.defaultKeys ?: return
 
-      result.addAllElements(default.propertyList.map { create(it.name).withInsertHandler(ResourcePropertyInsertHandler) })
+      result.addAllElements(keys.map { create(it).withInsertHandler(ResourcePropertyInsertHandler) })
     }
   }
 }
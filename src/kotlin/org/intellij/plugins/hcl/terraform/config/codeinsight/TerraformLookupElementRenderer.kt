@@ -18,11 +18,13 @@ package org.intellij.plugins.hcl.terraform.config.codeinsight
 import com.intellij.codeInsight.lookup.LookupElement
 import com.intellij.codeInsight.lookup.LookupElementPresentation
 import com.intellij.codeInsight.lookup.LookupElementRenderer
-import com.intellij.openapi.util.text.StringUtil
 import org.intellij.plugins.hcl.Icons
 import org.intellij.plugins.hcl.terraform.config.model.*
 import javax.swing.Icon
 
+/**
+ * Descriptions are not shown: they are stored compressed (see [DescriptionTable]) and decoded only by documentation provider.
+ */
 class TerraformLookupElementRenderer : LookupElementRenderer<LookupElement>() {
   override fun renderElement(element: LookupElement, presentation: LookupElementPresentation) {
     presentation.itemText = element.lookupString
@@ -32,22 +34,15 @@ class TerraformLookupElementRenderer : LookupElementRenderer<LookupElement>() {
         presentation.icon = Icons.Property
         presentation.isItemTextBold = obj.required
         presentation.isStrikeout = obj.deprecated != null
-        presentation.setTailText(trimDescription(obj.description), true)
         presentation.setTypeText(obj.type.name, getTypeIcon(obj.type))
       } else if (obj is BlockType) {
         presentation.icon = Icons.Object
         presentation.isItemTextBold = obj.required
         presentation.isStrikeout = obj.deprecated != null
-        presentation.setTailText(trimDescription(obj.description), true)
       }
     }
   }
 
-  private fun trimDescription(description: String?): String? {
-    if (description == null) return null
-    return " " + StringUtil.shortenTextWithEllipsis(description, 55, 0, true)
-  }
-
   @Suppress("UNUSED_PARAMETER")
   private fun getTypeIcon(type: Type): Icon? {
     // TODO: Implement
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.formatter
+
+import com.intellij.concurrency.JobLauncher
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.Consumer
+import com.intellij.util.Processor
+import org.intellij.plugins.hcl.formatter.HCLCanonicalFormatter
+import org.intellij.plugins.hcl.terraform.config.TerraformParserDefinition
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * In-process replacement for `terraform fmt`: uses [HCLCanonicalFormatter], which follows `terraform fmt` rules
+ * regardless of the project's HCL code style, so results are the same as running terraform itself.
+ */
+object TerraformFmt {
+  private val LOG = Logger.getInstance(TerraformFmt::class.java)
+
+  @JvmStatic
+  val formatter: HCLCanonicalFormatter = HCLCanonicalFormatter(TerraformParserDefinition.LexerCapabilities)
+
+  private class Formatted(val stamp: Long, val text: String)
+
+  /**
+   * Formats files in parallel, then applies all changes in a single write command and saves changed documents.
+   * Should not be called under read action.
+   * @return false if some file could not be formatted, e.g. due to syntax errors
+   */
+  @JvmStatic
+  fun formatFiles(project: Project, files: Collection<VirtualFile>, indicator: ProgressIndicator): Boolean {
+    val success = AtomicBoolean(true)
+    val results = ConcurrentHashMap<VirtualFile, Formatted>()
+    val manager = FileDocumentManager.getInstance()
+
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files.toList(), indicator, Processor { file ->
+      val document = ApplicationManager.getApplication().runReadAction<Document?> {
+        if (file.isValid) manager.getDocument(file) else null
+      }
+      if (document == null) {
+        success.set(false)
+        return@Processor true
+      }
+      val stamp = document.modificationStamp
+      val text = document.immutableCharSequence
+      val formatted = formatter.format(text)
+      if (formatted == null) {
+        LOG.debug("Cannot format file ${file.path}: there are syntax errors")
+        success.set(false)
+      } else if (!StringUtil.equals(formatted, text)) {
+        results[file] = Formatted(stamp, formatted)
+      }
+      true
+    })
+
+    if (results.isEmpty()) return success.get()
+
+    ApplicationManager.getApplication().invokeAndWait {
+      if (project.isDisposed) return@invokeAndWait
+      WriteCommandAction.runWriteCommandAction(project, "Terraform fmt", null, Runnable {
+        for ((file, formatted) in results) {
+          val document = manager.getDocument(file)
+          if (document == null || !document.isWritable || document.modificationStamp != formatted.stamp) {
+            success.set(false)
+            continue
+          }
+          document.setText(formatted.text)
+        }
+      })
+      for (file in results.keys) {
+        manager.getCachedDocument(file)?.let { manager.saveDocument(it) }
+      }
+    }
+    return success.get()
+  }
+
+  @JvmStatic
+  fun formatFilesInBackground(project: Project, files: Collection<VirtualFile>, title: String, consumer: Consumer<Boolean>) {
+    ProgressManager.getInstance().run(object : Task.Backgroundable(project, title, true) {
+      override fun run(indicator: ProgressIndicator) {
+        consumer.consume(formatFiles(project, files, indicator))
+      }
+    })
+  }
+}
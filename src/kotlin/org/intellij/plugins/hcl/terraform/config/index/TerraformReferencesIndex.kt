@@ -0,0 +1,205 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.index
+
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiElement
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.IElementType
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import org.intellij.plugins.hcl.HCLElementTypes.*
+import org.intellij.plugins.hcl.HCLLexer
+import org.intellij.plugins.hcl.psi.*
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.TerraformParserDefinition
+import org.intellij.plugins.hcl.terraform.config.model.ModuleDependencyGraph
+import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hil.psi.ILReferenceScanner
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Addresses referenced from `.tf` files with offsets of references: `var.x`, `local.y`, `module.m`, `module.m.out`,
+ * `data.type.name` and `type.name`. Built with lexers only: interpolations are found with [ILReferenceScanner],
+ * `depends_on` like plain strings are taken as is, arguments of `module` blocks are recorded as `var.<name>`
+ * except meta-arguments like `source` or `count`.
+ *
+ * Index is a superset of real references, it's used to skip files which do not mention declaration at all,
+ * see [TerraformReferencesSearcher] and [TerraformUseScopeOptimizer].
+ */
+class TerraformReferencesIndex : FileBasedIndexExtension<String, List<Int>>() {
+  companion object {
+    @JvmField
+    val NAME: ID<String, List<Int>> = ID.create("terraform.references")
+
+    private val ADDRESS = Regex("[a-zA-Z_][0-9a-zA-Z_\\-]*(\\.[0-9a-zA-Z_\\-*]+)+")
+    private val NON_ADDRESS_SCOPES = setOf("path", "self", "count", "terraform")
+    // Arguments of module block handled by Terraform itself, not passed to module variables
+    private val MODULE_META_ARGUMENTS = setOf("source", "version", "count", "providers", "depends_on")
+
+    /**
+     * @return address under which references to [element] are indexed, null if [element] is not a supported declaration
+     */
+    @JvmStatic
+    fun getDeclarationAddress(element: PsiElement): String? {
+      val parent = element.parent
+      if ((element is HCLStringLiteral || element is HCLIdentifier) && parent is HCLBlock && parent.nameIdentifier === element) {
+        return getDeclarationAddress(parent)
+      }
+      if (element is HCLBlock) {
+        if (element.parent !is HCLFile) return null
+        if (TerraformPatterns.VariableRootBlock.accepts(element)) {
+          return element.getNameElementUnquoted(1)?.let { "var.$it" }
+        }
+        return ModuleDependencyGraph.getAddress(element)
+      }
+      if (element is HCLProperty && parent is HCLObject) {
+        val block = parent.parent
+        if (block is HCLBlock && TerraformPatterns.LocalsRootBlock.accepts(block)) return "local.${element.name}"
+      }
+      return null
+    }
+
+    /**
+     * @return addresses referenced by select chain [parts], e.g. `module.m` and `module.m.out` for `module.m.out.id`
+     */
+    @JvmStatic
+    fun getReferencedAddresses(parts: List<String>): List<String> {
+      if (parts.size < 2) return emptyList()
+      val scope = parts[0]
+      return when (scope) {
+        "var", "local" -> listOf("$scope.${parts[1]}")
+        "module" -> if (parts.size >= 3) listOf("module.${parts[1]}", "module.${parts[1]}.${parts[2]}") else listOf("module.${parts[1]}")
+        "data" -> if (parts.size >= 3) listOf("data.${parts[1]}.${parts[2]}") else emptyList()
+        in NON_ADDRESS_SCOPES -> emptyList()
+        else -> listOf("$scope.${parts[1]}")
+      }
+    }
+
+    @JvmStatic
+    fun index(text: CharSequence): Map<String, List<Int>> {
+      val result = HashMap<String, MutableList<Int>>()
+      val consumer = { parts: List<String>, offset: Int ->
+        for (address in getReferencedAddresses(parts)) {
+          result.getOrPut(address) { ArrayList(2) }.add(offset)
+        }
+      }
+
+      val lexer = HCLLexer(TerraformParserDefinition.LexerCapabilities)
+      lexer.start(text)
+      var depth = 0
+      var moduleDepth = -1
+      var moduleHeader = false
+      var previous: IElementType? = null
+      var previousStart = 0
+      var previousEnd = 0
+      while (true) {
+        val type = lexer.tokenType ?: break
+        val start = lexer.tokenStart
+        val end = lexer.tokenEnd
+        when (type) {
+          L_CURLY, L_BRACKET -> {
+            depth++
+            if (moduleHeader && type == L_CURLY) moduleDepth = depth
+            moduleHeader = false
+          }
+          R_CURLY, R_BRACKET -> {
+            if (depth == moduleDepth) moduleDepth = -1
+            depth = Math.max(0, depth - 1)
+          }
+          ID -> if (depth == 0 && moduleDepth == -1) moduleHeader = StringUtil.equals(text.subSequence(start, end), "module")
+          EQUALS -> {
+            moduleHeader = false
+            if (depth == moduleDepth && depth > 0 && (previous == ID || previous == DOUBLE_QUOTED_STRING)) {
+              // Argument of module block, reference to variable of that module
+              val name = HCLPsiUtil.stripQuotes(text.subSequence(previousStart, previousEnd).toString())
+              if (name !in MODULE_META_ARGUMENTS) {
+                consumer(listOf("var", name), if (previous == ID) previousStart else previousStart + 1)
+              }
+            }
+          }
+          DOUBLE_QUOTED_STRING, SINGLE_QUOTED_STRING, HD_LINE -> {
+            val token = text.subSequence(start, end).toString()
+            if (token.contains("\${")) {
+              ILReferenceScanner.processInterpolations(token) { parts, offset -> consumer(parts, start + offset) }
+            } else if (type != HD_LINE && depth > 0) {
+              // E.g. depends_on = ["aws_instance.x"]
+              val value = HCLPsiUtil.stripQuotes(token)
+              if (ADDRESS.matches(value)) consumer(value.split('.'), start + 1)
+            }
+          }
+        }
+        if (type != TokenType.WHITE_SPACE && type != LINE_COMMENT && type != BLOCK_COMMENT) {
+          previous = type
+          previousStart = start
+          previousEnd = end
+        }
+        lexer.advance()
+      }
+      return result
+    }
+  }
+
+  override fun getName(): ID<String, List<Int>> = NAME
+
+  override fun getIndexer(): DataIndexer<String, List<Int>, FileContent> = DataIndexer { index(it.contentAsText) }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getValueExternalizer(): DataExternalizer<List<Int>> = OffsetsExternalizer
+
+  override fun getVersion(): Int = 2
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = object : DefaultFileTypeSpecificInputFilter(TerraformFileType) {
+    override fun acceptInput(file: VirtualFile): Boolean = isIndexed(file)
+  }
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  private object OffsetsExternalizer : DataExternalizer<List<Int>> {
+    override fun save(out: DataOutput, value: List<Int>) {
+      DataInputOutputUtil.writeINT(out, value.size)
+      var previous = 0
+      for (offset in value) {
+        DataInputOutputUtil.writeINT(out, offset - previous)
+        previous = offset
+      }
+    }
+
+    override fun read(input: DataInput): List<Int> {
+      val size = DataInputOutputUtil.readINT(input)
+      val result = ArrayList<Int>(size)
+      var previous = 0
+      for (i in 0 until size) {
+        previous += DataInputOutputUtil.readINT(input)
+        result.add(previous)
+      }
+      return result
+    }
+  }
+}
+
+/**
+ * Only `.tf` files are indexed, `.tfvars` cannot contain interpolations
+ */
+internal fun isIndexed(file: VirtualFile): Boolean {
+  return file.fileType == TerraformFileType && file.extension == TerraformFileType.DEFAULT_EXTENSION
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.index
+
+import com.intellij.lang.injection.InjectedLanguageManager
+import com.intellij.openapi.application.QueryExecutorBase
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiReference
+import com.intellij.psi.SyntaxTraverser
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.searches.ReferencesSearch
+import com.intellij.util.Processor
+import com.intellij.util.indexing.FileBasedIndex
+import org.intellij.plugins.hil.psi.ILIndexSelectExpression
+import org.intellij.plugins.hil.psi.ILSelectExpression
+
+/**
+ * Finds references to variables, locals, resources, data sources and modules using [TerraformReferencesIndex]:
+ * only files mentioning declaration address are opened and only elements at indexed offsets are resolved.
+ */
+class TerraformReferencesSearcher : QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters>(true) {
+  override fun processQuery(parameters: ReferencesSearch.SearchParameters, consumer: Processor<in PsiReference>) {
+    val target = parameters.elementToSearch
+    val address = TerraformReferencesIndex.getDeclarationAddress(target) ?: return
+    val scope = parameters.effectiveSearchScope as? GlobalSearchScope ?: return
+    val project = parameters.project
+    if (DumbService.isDumb(project)) return
+
+    val index = FileBasedIndex.getInstance()
+    val manager = PsiManager.getInstance(project)
+    for (file in index.getContainingFiles(TerraformReferencesIndex.NAME, address, scope)) {
+      ProgressManager.checkCanceled()
+      val psi = manager.findFile(file) ?: continue
+      val offsets = index.getValues(TerraformReferencesIndex.NAME, address, GlobalSearchScope.fileScope(psi)).flatten()
+      for (offset in offsets.distinct()) {
+        if (!processOffset(psi, offset, target, consumer)) return
+      }
+    }
+  }
+
+  private fun processOffset(file: PsiFile, offset: Int, target: PsiElement, consumer: Processor<in PsiReference>): Boolean {
+    // Reference in interpolation: check whole select chain started at offset
+    val injected = InjectedLanguageManager.getInstance(file.project).findInjectedElementAt(file, offset)
+    if (injected != null) {
+      var chain: PsiElement = injected.parent ?: injected
+      while (true) {
+        val parent = chain.parent
+        if ((parent is ILSelectExpression || parent is ILIndexSelectExpression) && parent.textRange.startOffset == chain.textRange.startOffset) {
+          chain = parent
+        } else break
+      }
+      for (element in SyntaxTraverser.psiTraverser(chain)) {
+        if (!processReferences(element, target, consumer)) return false
+      }
+      return true
+    }
+    // Reference in host file: 'depends_on' string or module argument name
+    var element = file.findElementAt(offset)
+    for (i in 0..1) {
+      val current = element ?: break
+      if (!processReferences(current, target, consumer)) return false
+      element = current.parent
+    }
+    return true
+  }
+
+  private fun processReferences(element: PsiElement, target: PsiElement, consumer: Processor<in PsiReference>): Boolean {
+    for (reference in element.references) {
+      if (reference.isReferenceTo(target) && !consumer.process(reference)) return false
+    }
+    return true
+  }
+}
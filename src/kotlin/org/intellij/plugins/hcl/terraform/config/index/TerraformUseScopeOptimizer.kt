@@ -0,0 +1,47 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.index
+
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiElement
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.UseScopeOptimizer
+
+/**
+ * Excludes all indexed `.tf` files from generic word-based reference search: references in them are found by
+ * [TerraformReferencesSearcher], which opens only files mentioning declaration address according to [TerraformReferencesIndex]
+ * and injects only interpolations at indexed offsets. Other files (e.g. `.tfvars`) are still searched by words.
+ */
+class TerraformUseScopeOptimizer : UseScopeOptimizer() {
+  override fun getScopeToExclude(element: PsiElement): GlobalSearchScope? {
+    TerraformReferencesIndex.getDeclarationAddress(element) ?: return null
+    val project = element.project
+    // Searcher does nothing in dumb mode, word search is the only option then
+    if (DumbService.isDumb(project)) return null
+
+    return object : GlobalSearchScope(project) {
+      override fun contains(file: VirtualFile): Boolean = isIndexed(file)
+
+      override fun compare(file1: VirtualFile, file2: VirtualFile): Int = 0
+
+      override fun isSearchInModuleContent(aModule: Module): Boolean = true
+
+      override fun isSearchInLibraries(): Boolean = true
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.inspection
+
+import com.intellij.concurrency.JobLauncher
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Computable
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileVisitor
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.Processor
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLElementGenerator
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.model.BlockType
+import org.intellij.plugins.hcl.terraform.config.model.PropertyType
+import org.intellij.plugins.hcl.terraform.config.model.getTerraformModule
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Bulk version of [AddResourcePropertiesFix]: adds missing required properties to all blocks in many files.
+ *
+ * Insertions are computed as text in parallel, each file in its own read action, then applied to documents
+ * in one write command and single commit per file, so no PSI is modified block by block.
+ */
+class AddMissingPropertiesProcessor(private val project: Project) {
+  companion object {
+    private val LOG = Logger.getInstance(AddMissingPropertiesProcessor::class.java)
+    const val TITLE = "Add Missing Properties"
+    private const val INDENT = "  "
+
+    /**
+     * @return Terraform files in [roots] and their subdirectories, except `.terraform` ones
+     */
+    @JvmStatic
+    fun collectFiles(roots: Collection<VirtualFile>): List<VirtualFile> {
+      val result = LinkedHashSet<VirtualFile>()
+      for (root in roots) {
+        VfsUtilCore.visitChildrenRecursively(root, object : VirtualFileVisitor<Any>() {
+          override fun visitFile(file: VirtualFile): Boolean {
+            if (file.isDirectory) return file == root || file.name != ".terraform"
+            if (file.fileType == TerraformFileType) result.add(file)
+            return true
+          }
+        })
+      }
+      return result.toList()
+    }
+  }
+
+  class Statistics(val files: Int, val blocks: Int)
+
+  private class Insertion(val offset: Int, val text: String)
+
+  private class FileEdits(val stamp: Long, val insertions: List<Insertion>)
+
+  /**
+   * Should not be called under read action
+   */
+  fun run(files: List<VirtualFile>, indicator: ProgressIndicator): Statistics {
+    val edits = ConcurrentHashMap<VirtualFile, FileEdits>()
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, Processor { file ->
+      ApplicationManager.getApplication().runReadAction(Computable { collect(file) })?.let { edits[file] = it }
+      true
+    })
+    if (edits.isEmpty()) return Statistics(0, 0)
+
+    val applied = AtomicInteger()
+    val blocks = AtomicInteger()
+    ApplicationManager.getApplication().invokeAndWait {
+      if (project.isDisposed) return@invokeAndWait
+      val manager = FileDocumentManager.getInstance()
+      for ((file, fileEdits) in edits) {
+        val document = manager.getDocument(file) ?: continue
+        if (!document.isWritable || document.modificationStamp != fileEdits.stamp) {
+          LOG.debug("Skipping ${file.path}: changed since properties were collected")
+          continue
+        }
+        WriteCommandAction.runWriteCommandAction(project, TITLE, null, Runnable {
+          apply(document, fileEdits.insertions)
+          PsiDocumentManager.getInstance(project).commitDocument(document)
+        })
+        applied.incrementAndGet()
+        blocks.addAndGet(fileEdits.insertions.size)
+      }
+    }
+    return Statistics(applied.get(), blocks.get())
+  }
+
+  private fun apply(document: Document, insertions: List<Insertion>) {
+    // From the end so earlier offsets stay valid
+    for (insertion in insertions.sortedByDescending { it.offset }) {
+      document.insertString(insertion.offset, insertion.text)
+    }
+  }
+
+  private fun collect(file: VirtualFile): FileEdits? {
+    if (project.isDisposed || !file.isValid) return null
+    val psi = PsiManager.getInstance(project).findFile(file) as? HCLFile ?: return null
+    val document = PsiDocumentManager.getInstance(project).getDocument(psi) ?: return null
+    if (!PsiDocumentManager.getInstance(project).isCommitted(document)) return null
+
+    val inspection = HCLBlockMissingPropertyInspection()
+    val module = psi.getTerraformModule()
+    val text = document.immutableCharSequence
+    val insertions = ArrayList<Insertion>()
+    for (block in PsiTreeUtil.findChildrenOfType(psi, HCLBlock::class.java)) {
+      val missing = HCLBlockMissingPropertyInspection.getMissingProperties(block)
+      if (missing.isEmpty() || inspection.isSuppressedFor(block)) continue
+      val closing = block.`object`?.lastChild ?: continue
+      if (closing.text != "}") continue
+
+      val offset = closing.textRange.startOffset
+      val blockIndent = getLineIndent(text, block.textRange.startOffset)
+      // Same text as AddResourcePropertiesFix creates
+      val lines = missing.map {
+        when (it) {
+          is PropertyType -> HCLElementGenerator.getPropertyText(it.name, HCLBlockMissingPropertyInspection.getInitialValue(it, module))
+          is BlockType -> HCLElementGenerator.getBlockText(it.name)
+          else -> it.name
+        }
+      }
+      val lineStart = StringUtil.lastIndexOf(text, '\n', 0, offset) + 1
+      val content = lines.joinToString("") { "$blockIndent$INDENT$it\n" }
+      if (StringUtil.isEmptyOrSpaces(text.subSequence(lineStart, offset))) {
+        insertions.add(Insertion(lineStart, content))
+      } else {
+        insertions.add(Insertion(offset, "\n$content$blockIndent"))
+      }
+    }
+    if (insertions.isEmpty()) return null
+    return FileEdits(document.modificationStamp, insertions)
+  }
+
+  private fun getLineIndent(text: CharSequence, offset: Int): String {
+    val lineStart = StringUtil.lastIndexOf(text, '\n', 0, offset) + 1
+    var end = lineStart
+    while (end < offset && (text[end] == ' ' || text[end] == '\t')) end++
+    return text.subSequence(lineStart, end).toString()
+  }
+}
@@ -30,6 +30,7 @@ import org.intellij.plugins.hcl.psi.HCLProperty
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
 import org.intellij.plugins.hcl.terraform.config.codeinsight.ModelHelper
 import org.intellij.plugins.hcl.terraform.config.model.PropertyOrBlockType
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 
 class HCLBlockConflictingPropertiesInspection : LocalInspectionTool() {
 
@@ -39,7 +40,7 @@ class HCLBlockConflictingPropertiesInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   override fun getID(): String {
@@ -22,6 +22,7 @@ import com.intellij.openapi.progress.ProgressIndicatorProvider
 import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementVisitor
+import com.intellij.psi.PsiFile
 import com.intellij.psi.TokenType
 import com.intellij.psi.util.PsiTreeUtil
 import org.intellij.plugins.hcl.psi.HCLBlock
@@ -35,12 +36,14 @@ import org.intellij.plugins.hcl.terraform.config.model.*
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.ConfigOverrideFile
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.ModuleWithEmptySource
 import org.intellij.plugins.hcl.terraform.config.psi.TerraformElementGenerator
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 
 class HCLBlockMissingPropertyInspection : LocalInspectionTool() {
 
   override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
-    return buildVisitor(holder, isOnTheFly, false)
+    return TerraformMetrics.instrument(this, buildVisitor(holder, isOnTheFly, false))
   }
 
   fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean, recursive: Boolean): PsiElementVisitor {
@@ -65,16 +68,8 @@ class HCLBlockMissingPropertyInspection : LocalInspectionTool() {
       ProgressIndicatorProvider.checkCanceled()
       block.getNameElementUnquoted(0) ?: return
       val obj = block.`object` ?: return
-      // TODO: Generify
-      if (ModuleWithEmptySource.accepts(block)) {
-        // Check 'source' and report missing one
-        doCheck(block, holder, TypeModel.Module.properties)
-        return
-      }
-      if (ConfigOverrideFile.accepts(block.containingFile)) return
-      val properties = ModelHelper.getBlockProperties(block)
-      doCheck(block, holder, properties)
-      if (recursive) {
+      doCheck(block, holder)
+      if (recursive && !ModuleWithEmptySource.accepts(block)) {
         visitElement(obj)
       }
     }
@@ -87,33 +82,85 @@ class HCLBlockMissingPropertyInspection : LocalInspectionTool() {
     }
   }
 
-  private fun doCheck(block: HCLBlock, holder: ProblemsHolder, properties: Array<out PropertyOrBlockType>) {
-    if (properties.isEmpty()) return
-    val obj = block.`object` ?: return
+  private fun doCheck(block: HCLBlock, holder: ProblemsHolder) {
+    val required = getMissingProperties(block)
+    if (required.isEmpty()) return
+
     ProgressIndicatorProvider.checkCanceled()
 
-    val candidates = ArrayList<PropertyOrBlockType>(properties.filter { it.required && !(it is PropertyType && it.has_default) })
-    if (candidates.isEmpty()) return
-    val all = ArrayList<String>()
-    all.addAll(obj.propertyList.map { it.name })
-    all.addAll(obj.blockList.map { it.name }) // TODO: Better block name selection
+    holder.registerProblem(block, "Missing required properties: ${required.joinToString(", ") { it.name }}", ProblemHighlightType.GENERIC_ERROR_OR_WARNING, AddResourcePropertiesFix(required))
+  }
 
-    ProgressIndicatorProvider.checkCanceled()
+  companion object {
+    private class RequiredCache(val model: TypeModel) {
+      val types = ConcurrentHashMap<String, List<PropertyOrBlockType>>()
+    }
 
-    var required = candidates.filterNot { it.name in all }
+    @Volatile
+    private var requiredCache: RequiredCache? = null
 
-    if (required.isEmpty()) return
+    /**
+     * @return required properties and blocks missing in [block]: properties sorted by name, then blocks sorted by name
+     */
+    @JvmStatic
+    fun getMissingProperties(block: HCLBlock): List<PropertyOrBlockType> {
+      val obj = block.`object` ?: return emptyList()
+      // TODO: Generify
+      val required = if (ModuleWithEmptySource.accepts(block)) {
+        // Check 'source' and report missing one
+        getRequired(TypeModel.Module.properties)
+      } else {
+        if (ConfigOverrideFile.accepts(block.containingFile)) return emptyList()
+        getRequired(block)
+      }
+      if (required.isEmpty()) return emptyList()
+      ProgressIndicatorProvider.checkCanceled()
 
-    val requiredProps = required.filterIsInstance<PropertyType>()
-    val requiredBlocks = required.filterIsInstance<BlockType>()
+      val all = HashSet<String>()
+      obj.propertyList.mapTo(all) { it.name }
+      obj.blockList.mapTo(all) { it.name } // TODO: Better block name selection
+      return required.filterNot { it.name in all }
+    }
 
-    required = requiredProps.sortedBy { it.name } + requiredBlocks.sortedBy { it.name }
+    /**
+     * Required properties of root resource, data source and provider blocks are cached per type until model reload
+     */
+    private fun getRequired(block: HCLBlock): List<PropertyOrBlockType> {
+      val kind = block.getNameElementUnquoted(0)
+      val type = block.getNameElementUnquoted(1)
+      if (type == null || block.parent !is PsiFile || (kind != "resource" && kind != "data" && kind != "provider")) {
+        return getRequired(ModelHelper.getBlockProperties(block))
+      }
+      val model = ModelHelper.getTypeModel(block.project)
+      var cache = requiredCache
+      if (cache == null || cache.model !== model) {
+        cache = RequiredCache(model)
+        requiredCache = cache
+      }
+      return cache.types.getOrPut("$kind.$type") { getRequired(ModelHelper.getBlockProperties(block)) }
+    }
 
-    ProgressIndicatorProvider.checkCanceled()
+    private fun getRequired(properties: Array<out PropertyOrBlockType>): List<PropertyOrBlockType> {
+      val candidates = properties.filter { it.required && !(it is PropertyType && it.has_default) }
+      return candidates.filterIsInstance<PropertyType>().sortedBy { it.name } + candidates.filterIsInstance<BlockType>().sortedBy { it.name }
+    }
 
-    holder.registerProblem(block, "Missing required properties: ${required.joinToString(", ") { it.name }}", ProblemHighlightType.GENERIC_ERROR_OR_WARNING, AddResourcePropertiesFix(required))
+    /**
+     * Value for newly added property: single suitable reference if model has a hint, placeholder for type otherwise
+     */
+    @JvmStatic
+    fun getInitialValue(property: PropertyType, module: Module): String {
+      ResourcePropertyInsertHandler.getProposedValueFromModelAndHint(property, module)?.first?.let { return it }
+      val type = property.type
+      // TODO: Use property 'default' value
+      return ResourcePropertyInsertHandler.getPlaceholderValue(type)?.first ?: when (type) {
+        Types.Boolean -> "false"
+        Types.Number -> "0"
+        Types.Null -> "null"
+        else -> "\"\""
+      }
+    }
   }
-
 }
 
 class AddResourcePropertiesFix(val add: Collection<PropertyOrBlockType>) : LocalQuickFixBase("Add properties: ${add.joinToString(", ") { it.name }}", "Add missing properties") {
@@ -123,22 +170,10 @@ class AddResourcePropertiesFix(val add: Collection<PropertyOrBlockType>) : Local
     object : WriteCommandAction<Any?>(project) {
       override fun run(result: Result<Any?>) {
         val generator = TerraformElementGenerator(project)
-        val elements = add.map {
-          if (it is PropertyType) {
-            val type = it.type
-            // TODO: Use property 'default' value
-            var value: String = ResourcePropertyInsertHandler.getPlaceholderValue(type)?.first ?: when (type) {
-              Types.Boolean -> "false"
-              Types.Number -> "0"
-              Types.Null -> "null"
-              else -> "\"\""
-            }
-
-            value = ResourcePropertyInsertHandler.getProposedValueFromModelAndHint(it, element.getTerraformModule())?.first ?: value
-
-            generator.createProperty(it.name, value)
-          } else generator.createBlock(it.name)
-        }
+        val module = element.getTerraformModule()
+        val properties = add.filterIsInstance<PropertyType>().map { it.name to HCLBlockMissingPropertyInspection.getInitialValue(it, module) }
+        // All properties (and all blocks) are created from a single parsed template
+        val elements = generator.createProperties(properties) + generator.createBlocks(add.filterIsInstance<BlockType>().map { it.name })
         for (it in elements) {
           obj.addBefore(it, obj.lastChild)
           obj.node.addLeaf(TokenType.WHITE_SPACE, "\n", obj.node.lastChildNode)
@@ -28,6 +28,7 @@ import org.intellij.plugins.hcl.terraform.config.codeinsight.ModelHelper
 import org.intellij.plugins.hcl.terraform.config.model.BlockType
 import org.intellij.plugins.hcl.terraform.config.model.PropertyOrBlockType
 import org.intellij.plugins.hcl.terraform.config.model.PropertyType
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import java.util.*
 
 class HCLDeprecatedElementInspection : LocalInspectionTool() {
@@ -38,7 +39,7 @@ class HCLDeprecatedElementInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   inner class MyEV(val holder: ProblemsHolder) : HCLElementVisitor() {
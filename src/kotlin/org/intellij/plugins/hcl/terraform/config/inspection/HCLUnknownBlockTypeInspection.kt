@@ -38,6 +38,7 @@ import org.intellij.plugins.hcl.terraform.config.codeinsight.TerraformConfigComp
 import org.intellij.plugins.hcl.terraform.config.model.BlockType
 import org.intellij.plugins.hcl.terraform.config.model.TypeModel
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 
 class HCLUnknownBlockTypeInspection : LocalInspectionTool() {
 
@@ -47,7 +48,7 @@ class HCLUnknownBlockTypeInspection : LocalInspectionTool() {
             return super.buildVisitor(holder, isOnTheFly)
         }
 
-        return MyEV(holder)
+        return TerraformMetrics.instrument(this, MyEV(holder))
     }
 
     inner class MyEV(val holder: ProblemsHolder) : HCLElementVisitor() {
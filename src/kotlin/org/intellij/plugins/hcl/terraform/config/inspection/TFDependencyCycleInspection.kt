@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.inspection
+
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.codeInspection.ProblemHighlightType
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.codeInspection.SuppressQuickFix
+import com.intellij.openapi.progress.ProgressIndicatorProvider
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiElementVisitor
+import com.intellij.psi.util.PsiTreeUtil
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLElementVisitor
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.model.ModuleDependencyGraph
+import org.intellij.plugins.hcl.terraform.config.model.getTerraformModule
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+
+/**
+ * Reports resources, data sources and modules which (transitively) depend on themselves, see [ModuleDependencyGraph.cycles]
+ */
+class TFDependencyCycleInspection : LocalInspectionTool() {
+
+  override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
+    val ft = holder.file.fileType
+    if (ft != TerraformFileType) {
+      return super.buildVisitor(holder, isOnTheFly)
+    }
+
+    return TerraformMetrics.instrument(this, MyEV(holder))
+  }
+
+  override fun getBatchSuppressActions(element: PsiElement?): Array<SuppressQuickFix> {
+    return super.getBatchSuppressActions(PsiTreeUtil.getParentOfType(element, HCLBlock::class.java, false))
+  }
+
+  inner class MyEV(val holder: ProblemsHolder) : HCLElementVisitor() {
+    override fun visitBlock(block: HCLBlock) {
+      ProgressIndicatorProvider.checkCanceled()
+      if (block.parent !is HCLFile) return
+      ModuleDependencyGraph.getAddress(block) ?: return
+      val graph = block.getTerraformModule().getDependencyGraph()
+      val node = graph.findNode(block) ?: return
+      val cycle = graph.getCycle(node) ?: return
+      val message = if (cycle.size == 1) "'${node.address}' depends on itself"
+      else "'${node.address}' is part of dependency cycle: ${cycle.joinToString(", ") { it.address }}"
+      val anchor = block.nameElements.lastOrNull() ?: block
+      holder.registerProblem(anchor, message, ProblemHighlightType.GENERIC_ERROR_OR_WARNING)
+    }
+  }
+}
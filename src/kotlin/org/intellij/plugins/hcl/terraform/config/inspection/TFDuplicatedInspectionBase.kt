@@ -37,6 +37,7 @@ import com.intellij.util.Consumer
 import com.intellij.util.NullableFunction
 import org.intellij.plugins.hcl.terraform.config.model.getTerraformSearchScope
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.jetbrains.annotations.NotNull
 
 
@@ -47,7 +48,7 @@ abstract class TFDuplicatedInspectionBase : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return createVisitor(holder)
+    return TerraformMetrics.instrument(this, createVisitor(holder))
   }
 
   companion object {
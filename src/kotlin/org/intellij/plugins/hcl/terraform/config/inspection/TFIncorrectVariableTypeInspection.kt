@@ -24,6 +24,7 @@ import org.intellij.plugins.hcl.terraform.config.model.TypeModel
 import org.intellij.plugins.hcl.terraform.config.model.Types
 import org.intellij.plugins.hcl.terraform.config.model.getValueType
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 
 class TFIncorrectVariableTypeInspection : LocalInspectionTool() {
   override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
@@ -32,7 +33,7 @@ class TFIncorrectVariableTypeInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   inner class MyEV(val holder: ProblemsHolder) : HCLElementVisitor() {
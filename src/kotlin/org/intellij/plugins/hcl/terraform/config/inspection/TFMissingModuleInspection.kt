@@ -36,6 +36,7 @@ import org.intellij.plugins.hcl.psi.getNameElementUnquoted
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
 import org.intellij.plugins.hcl.terraform.config.model.ModuleDetectionUtil
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hcl.terraform.run.TerraformConfigurationType
 import org.intellij.plugins.hcl.terraform.run.TerraformRunConfiguration
 
@@ -47,7 +48,7 @@ class TFMissingModuleInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   override fun getID(): String {
@@ -31,6 +31,7 @@ import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.Modu
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.ResourceRootBlock
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.TerraformRootBlock
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns.VariableRootBlock
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.ILLanguageInjector
 import java.util.*
 
@@ -41,7 +42,7 @@ class TFNoInterpolationsAllowedInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   companion object {
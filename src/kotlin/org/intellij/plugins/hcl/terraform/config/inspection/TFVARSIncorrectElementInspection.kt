@@ -24,24 +24,53 @@ import com.intellij.psi.PsiElementVisitor
 import com.intellij.psi.PsiFile
 import org.intellij.plugins.hcl.psi.*
 import org.intellij.plugins.hcl.psi.impl.HCLStringLiteralMixin
-import org.intellij.plugins.hcl.terraform.config.model.TypeModel
+import org.intellij.plugins.hcl.terraform.config.model.Module
+import org.intellij.plugins.hcl.terraform.config.model.ModuleVariables
 import org.intellij.plugins.hcl.terraform.config.model.Types
 import org.intellij.plugins.hcl.terraform.config.model.getTerraformModule
 import org.intellij.plugins.hcl.terraform.config.model.getValueType
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 
 class TFVARSIncorrectElementInspection : LocalInspectionTool() {
+  companion object {
+    /**
+     * Checks that root [property] of `.tfvars` file sets a declared variable with value of expected type.
+     * [variables] are expected to be obtained once per file, see [Module.getVariables].
+     */
+    fun checkVariable(property: HCLProperty, variables: ModuleVariables, consumer: (PsiElement, String, ProblemHighlightType) -> Unit) {
+      val value = property.value ?: return
+      val vName = property.name.substringBefore('.')
+      val variable = variables[vName]
+      if (variable == null) {
+        // TODO: Add 'Define variable' quick fix.
+        consumer(property.nameElement, "Undefined variable '$vName'", ProblemHighlightType.LIKE_UNKNOWN_SYMBOL)
+      } else if (!property.name.contains('.')) {
+        val expected = variable.type
+        val actual = value.getValueType()
+        if ((expected == "string" && actual !in Types.SimpleValueTypes)
+            || (expected == "list" && actual != Types.Array)
+            || (expected == "map" && actual != Types.Object)) {
+          val e = if (expected == "string") "simple value (string or number)" else "'$expected'"
+          consumer(value, "Incorrect variable value type, expected $e", ProblemHighlightType.GENERIC_ERROR_OR_WARNING)
+        }
+      }
+    }
+  }
+
   override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
     val file = holder.file
     if (!TerraformPatterns.TerraformVariablesFile.accepts(file)) {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder, file as HCLFile))
   }
 
 
-  inner class MyEV(val holder: ProblemsHolder) : HCLElementVisitor() {
+  inner class MyEV(val holder: ProblemsHolder, file: HCLFile) : HCLElementVisitor() {
+    private val variables by lazy(LazyThreadSafetyMode.NONE) { file.getTerraformModule().getVariables() }
+
     override fun visitBlock(block: HCLBlock) {
       ProgressIndicatorProvider.checkCanceled()
       if (block.parent !is HCLFile) return
@@ -56,21 +85,7 @@ class TFVARSIncorrectElementInspection : LocalInspectionTool() {
             holder.registerProblem(value, "Property value should be either number, double quoted string, list or object", *getQuoteFix(value))
           }
         }
-        val vName = property.name.substringBefore('.')
-        val variable = property.getTerraformModule().findVariable(vName)
-        if (variable == null) {
-          // TODO: Add 'Define variable' quick fix.
-          holder.registerProblem(property.nameElement, "Undefined variable '$vName'", ProblemHighlightType.LIKE_UNKNOWN_SYMBOL)
-        } else if (!property.name.contains('.')) {
-          val expected = variable.second.`object`?.findProperty(TypeModel.Variable_Type.name)?.value?.name ?: "string"
-          val actual = value.getValueType()
-          if ((expected == "string" && actual !in Types.SimpleValueTypes)
-              || (expected == "list" && actual != Types.Array)
-              || (expected == "map" && actual != Types.Object)) {
-            val e = if (expected == "string") "simple value (string or number)" else "'$expected'"
-            holder.registerProblem(value, "Incorrect variable value type, expected $e")
-          }
-        }
+        checkVariable(property, variables) { element, message, type -> holder.registerProblem(element, message, type) }
       }
     }
   }
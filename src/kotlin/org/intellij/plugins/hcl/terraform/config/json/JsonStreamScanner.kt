@@ -0,0 +1,269 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.json
+
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.ReadableByteChannel
+
+class MalformedJsonException(message: String) : IOException(message)
+
+/**
+ * Single forward pass over JSON without building a tree: callers walk objects and arrays with [forEachField] and
+ * [forEachElement], decode only keys they need with [readString] and skip everything else with [skipValue].
+ *
+ * Offsets ([position]) are in units of the underlying source, i.e. chars for [CharSequenceJsonScanner]
+ * and bytes for [ChannelJsonScanner].
+ */
+abstract class JsonStreamScanner {
+  var position = 0
+    private set
+
+  /**
+   * Start of data that should stay available for [text], -1 if nothing should be retained behind [position]
+   */
+  protected var mark = -1
+    private set
+
+  /**
+   * @return character (or unsigned byte) at [index] or -1 at the end of input
+   */
+  protected abstract fun charAt(index: Int): Int
+
+  /**
+   * Decoded source between [start] and [end], [start] is never before [mark]
+   */
+  protected abstract fun text(start: Int, end: Int): String
+
+  inline fun forEachField(action: (name: String, offset: Int) -> Unit) {
+    expect('{')
+    if (consume('}')) return
+    while (true) {
+      skipWhitespace()
+      val offset = position + 1
+      val name = readString()
+      expect(':')
+      action(name, offset)
+      if (consume(',')) continue
+      if (consume('}')) return
+      throw error("',' or '}' expected")
+    }
+  }
+
+  inline fun forEachElement(action: () -> Unit) {
+    expect('[')
+    if (consume(']')) return
+    while (true) {
+      action()
+      if (consume(',')) continue
+      if (consume(']')) return
+      throw error("',' or ']' expected")
+    }
+  }
+
+  fun readString(): String {
+    skipWhitespace()
+    val start = position
+    mark = start
+    try {
+      skipString()
+      return unescape(text(start + 1, position - 1))
+    } finally {
+      mark = -1
+    }
+  }
+
+  /**
+   * Text of the next value as is, e.g. `"a"` for string or `[1, 2]` for array
+   */
+  fun readRawValue(): String {
+    skipWhitespace()
+    val start = position
+    mark = start
+    try {
+      skipValue()
+      return text(start, position)
+    } finally {
+      mark = -1
+    }
+  }
+
+  fun skipValue() {
+    when (peek()) {
+      '"'.toInt() -> skipString()
+      '{'.toInt(), '['.toInt() -> skipContainer()
+      -1 -> throw error("Value expected")
+      else -> {
+        while (true) {
+          val c = charAt(position)
+          if (c < 0 || isDelimiter(c)) return
+          position++
+        }
+      }
+    }
+  }
+
+  private fun skipString() {
+    expect('"')
+    while (true) {
+      when (charAt(position)) {
+        -1 -> throw error("Unterminated string")
+        '\\'.toInt() -> position += 2
+        '"'.toInt() -> {
+          position++
+          return
+        }
+        else -> position++
+      }
+    }
+  }
+
+  private fun skipContainer() {
+    var depth = 0
+    while (true) {
+      when (charAt(position)) {
+        -1 -> throw error("Unterminated object or array")
+        '"'.toInt() -> {
+          skipString()
+          continue
+        }
+        '{'.toInt(), '['.toInt() -> depth++
+        '}'.toInt(), ']'.toInt() -> {
+          depth--
+          if (depth == 0) {
+            position++
+            return
+          }
+        }
+      }
+      position++
+    }
+  }
+
+  fun expect(c: Char) {
+    if (!consume(c)) throw error("'$c' expected")
+  }
+
+  fun consume(c: Char): Boolean {
+    if (peek() != c.toInt()) return false
+    position++
+    return true
+  }
+
+  fun peek(): Int {
+    skipWhitespace()
+    return charAt(position)
+  }
+
+  fun skipWhitespace() {
+    while (true) {
+      when (charAt(position)) {
+        ' '.toInt(), '\n'.toInt(), '\r'.toInt(), '\t'.toInt(), '\uFEFF'.toInt() -> position++
+        else -> return
+      }
+    }
+  }
+
+  private fun isDelimiter(c: Int): Boolean {
+    return c == ','.toInt() || c == '}'.toInt() || c == ']'.toInt() || c == ' '.toInt() || c == '\n'.toInt() || c == '\r'.toInt() || c == '\t'.toInt()
+  }
+
+  private fun unescape(raw: String): String {
+    if (raw.indexOf('\\') < 0) return raw
+    val sb = StringBuilder(raw.length)
+    var i = 0
+    while (i < raw.length) {
+      val c = raw[i++]
+      if (c != '\\' || i == raw.length) {
+        sb.append(c)
+        continue
+      }
+      val e = raw[i++]
+      when (e) {
+        'n' -> sb.append('\n')
+        't' -> sb.append('\t')
+        'r' -> sb.append('\r')
+        'b' -> sb.append('\b')
+        'f' -> sb.append('\u000C')
+        'u' -> {
+          val code = (if (i + 4 <= raw.length) raw.substring(i, i + 4).toIntOrNull(16) else null) ?: throw error("Incorrect unicode escape")
+          sb.append(code.toChar())
+          i += 4
+        }
+        else -> sb.append(e)
+      }
+    }
+    return sb.toString()
+  }
+
+  fun error(message: String) = MalformedJsonException("$message at offset $position")
+}
+
+class CharSequenceJsonScanner(private val text: CharSequence) : JsonStreamScanner() {
+  override fun charAt(index: Int): Int = if (index < text.length) text[index].toInt() else -1
+
+  override fun text(start: Int, end: Int): String = text.subSequence(start, end).toString()
+}
+
+/**
+ * Reads UTF-8 JSON from [channel] through a window of [bufferSize] bytes, the window grows only while a string
+ * longer than it is being read. Structural characters are ASCII, so multi-byte sequences are never split by the scanner.
+ */
+class ChannelJsonScanner(private val channel: ReadableByteChannel, bufferSize: Int = 64 * 1024) : JsonStreamScanner() {
+  private var buffer = ByteBuffer.allocate(bufferSize)
+  /**
+   * Source offset of the first byte in [buffer]
+   */
+  private var bufferStart = 0
+  private var eof = false
+
+  init {
+    buffer.limit(0)
+  }
+
+  override fun charAt(index: Int): Int {
+    while (index - bufferStart >= buffer.limit()) {
+      if (!fill(index)) return -1
+    }
+    return buffer.get(index - bufferStart).toInt() and 0xFF
+  }
+
+  override fun text(start: Int, end: Int): String {
+    return String(buffer.array(), start - bufferStart, end - start, Charsets.UTF_8)
+  }
+
+  private fun fill(index: Int): Boolean {
+    if (eof) return false
+    val end = bufferStart + buffer.limit()
+    val keep = Math.min(end, if (mark < 0) index else mark)
+    val retained = end - keep
+    if (retained * 2 > buffer.capacity()) {
+      val grown = ByteBuffer.allocate(buffer.capacity() * 2)
+      grown.put(buffer.array(), keep - bufferStart, retained)
+      buffer = grown
+    } else {
+      System.arraycopy(buffer.array(), keep - bufferStart, buffer.array(), 0, retained)
+      buffer.clear()
+      buffer.position(retained)
+    }
+    bufferStart = keep
+    buffer.limit(buffer.capacity())
+    val read = channel.read(buffer)
+    if (read < 0) eof = true
+    buffer.flip()
+    return read >= 0 || index - bufferStart < buffer.limit()
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.json
+
+import com.intellij.openapi.fileEditor.OpenFileDescriptor
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.FakePsiElement
+import org.intellij.plugins.hcl.psi.HCLElement
+
+/**
+ * Resolve target for declarations from `.tf.json` files. Points to the declaration name in file text,
+ * so resolving and navigation do not require PSI of (possibly huge) JSON file.
+ */
+class TerraformJsonDeclarationElement(private val project: Project,
+                                      val file: VirtualFile,
+                                      val declaration: TerraformJsonDeclaration) : FakePsiElement(), HCLElement {
+  override fun getParent(): PsiElement? = containingFile
+
+  override fun getContainingFile(): PsiFile? = if (file.isValid) PsiManager.getInstance(project).findFile(file) else null
+
+  override fun getProject(): Project = project
+
+  override fun getManager(): PsiManager = PsiManager.getInstance(project)
+
+  override fun getName(): String = declaration.name
+
+  override fun getPresentableText(): String = listOfNotNull(declaration.kind, declaration.type, declaration.name).joinToString(" ")
+
+  override fun getLocationString(): String = file.name
+
+  override fun getTextOffset(): Int = declaration.offset
+
+  override fun getTextRange(): TextRange = TextRange.from(declaration.offset, declaration.name.length)
+
+  override fun isValid(): Boolean = file.isValid
+
+  override fun canNavigate(): Boolean = file.isValid
+
+  override fun canNavigateToSource(): Boolean = file.isValid
+
+  override fun navigate(requestFocus: Boolean) {
+    OpenFileDescriptor(project, file, declaration.offset).navigate(requestFocus)
+  }
+
+  override fun equals(other: Any?): Boolean {
+    if (this === other) return true
+    if (other !is TerraformJsonDeclarationElement) return false
+    return file == other.file && declaration == other.declaration
+  }
+
+  override fun hashCode(): Int = 31 * file.hashCode() + declaration.hashCode()
+}
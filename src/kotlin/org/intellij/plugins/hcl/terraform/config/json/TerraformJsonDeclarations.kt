@@ -0,0 +1,93 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.json
+
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.vfs.VirtualFile
+
+/**
+ * Top-level declaration from Terraform JSON configuration (`.tf.json`) file.
+ * [type] is set only for `resource` and `data` declarations, [offset] points to the first character of [name] in file text.
+ */
+data class TerraformJsonDeclaration(val kind: String, val type: String?, val name: String, val offset: Int)
+
+/**
+ * Extracts top-level `resource`, `data`, `variable`, `output`, `module` and `locals` declarations from `.tf.json` files
+ * with a single forward pass over file text, so even huge generated files are never parsed into PSI.
+ *
+ * Results are stored in [TerraformJsonDeclarationsIndex].
+ */
+object TerraformJsonDeclarations {
+  private val LOG = Logger.getInstance(TerraformJsonDeclarations::class.java)
+
+  const val EXTENSION = ".tf.json"
+
+  /**
+   * Declaration kind mapped to number of names in declaration, e.g. `resource.TYPE.NAME` vs `variable.NAME`
+   */
+  private val KINDS = mapOf("resource" to 2, "data" to 2, "variable" to 1, "output" to 1, "module" to 1, "locals" to 1)
+
+  @JvmStatic
+  fun isTerraformJsonFile(file: VirtualFile): Boolean {
+    return !file.isDirectory && file.name.endsWith(EXTENSION)
+  }
+
+  /**
+   * Declarations found before first syntax error are returned for malformed JSON.
+   */
+  @JvmStatic
+  fun extract(text: CharSequence): List<TerraformJsonDeclaration> {
+    val result = ArrayList<TerraformJsonDeclaration>()
+    try {
+      DeclarationsScanner(text, result).scan()
+    } catch (e: MalformedJsonException) {
+      LOG.debug("Malformed Terraform JSON: ${e.message}")
+    }
+    return result
+  }
+
+  private class DeclarationsScanner(text: CharSequence, private val result: MutableList<TerraformJsonDeclaration>) {
+    private val scanner = CharSequenceJsonScanner(text)
+
+    fun scan() {
+      if (scanner.peek() < 0) return
+      scanner.forEachField { kind, _ ->
+        val names = KINDS[kind]
+        if (names == null) scanner.skipValue() else scanNames(kind, null, names)
+      }
+    }
+
+    /**
+     * Blocks could be defined either as an object or as an array of objects on each level
+     */
+    private fun scanNames(kind: String, type: String?, remaining: Int) {
+      when (scanner.peek()) {
+        '['.toInt() -> scanner.forEachElement { scanNames(kind, type, remaining) }
+        '{'.toInt() -> scanner.forEachField { name, offset ->
+          if (remaining == 1) {
+            ProgressManager.checkCanceled()
+            result.add(TerraformJsonDeclaration(kind, type, name, offset))
+            scanner.skipValue()
+          } else {
+            scanNames(kind, name, remaining - 1)
+          }
+        }
+        else -> scanner.skipValue()
+      }
+    }
+  }
+}
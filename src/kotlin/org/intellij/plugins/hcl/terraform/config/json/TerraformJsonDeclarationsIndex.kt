@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.json
+
+import com.intellij.json.JsonFileType
+import com.intellij.openapi.fileTypes.FileType
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Top-level declarations of `.tf.json` files grouped by declaration kind (`resource`, `variable`, etc.),
+ * extracted with [TerraformJsonDeclarations.extract], so PSI of JSON files is never built for that.
+ */
+class TerraformJsonDeclarationsIndex : FileBasedIndexExtension<String, List<TerraformJsonDeclaration>>() {
+  companion object {
+    @JvmField
+    val NAME: ID<String, List<TerraformJsonDeclaration>> = ID.create("terraform.json.declarations")
+  }
+
+  override fun getName(): ID<String, List<TerraformJsonDeclaration>> = NAME
+
+  override fun getIndexer(): DataIndexer<String, List<TerraformJsonDeclaration>, FileContent> = DataIndexer { content ->
+    TerraformMetrics.JsonDeclarations.measure {
+      TerraformJsonDeclarations.extract(content.contentAsText).groupBy { it.kind }
+    }
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getValueExternalizer(): DataExternalizer<List<TerraformJsonDeclaration>> = DeclarationsExternalizer
+
+  override fun getVersion(): Int = 1
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = object : DefaultFileTypeSpecificInputFilter(JsonFileType.INSTANCE) {
+    override fun acceptInput(file: VirtualFile): Boolean = TerraformJsonDeclarations.isTerraformJsonFile(file)
+  }
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  // Generated configurations are often bigger than the IDE limit for files with code insight
+  override fun getFileTypesWithSizeLimitNotApplicable(): Collection<FileType> = listOf(JsonFileType.INSTANCE)
+
+  private object DeclarationsExternalizer : DataExternalizer<List<TerraformJsonDeclaration>> {
+    override fun save(out: DataOutput, value: List<TerraformJsonDeclaration>) {
+      DataInputOutputUtil.writeINT(out, value.size)
+      for (declaration in value) {
+        IOUtil.writeUTF(out, declaration.kind)
+        out.writeBoolean(declaration.type != null)
+        declaration.type?.let { IOUtil.writeUTF(out, it) }
+        IOUtil.writeUTF(out, declaration.name)
+        DataInputOutputUtil.writeINT(out, declaration.offset)
+      }
+    }
+
+    override fun read(input: DataInput): List<TerraformJsonDeclaration> {
+      val size = DataInputOutputUtil.readINT(input)
+      val result = ArrayList<TerraformJsonDeclaration>(size)
+      for (i in 0 until size) {
+        val kind = IOUtil.readUTF(input)
+        val type = if (input.readBoolean()) IOUtil.readUTF(input) else null
+        result.add(TerraformJsonDeclaration(kind, type, IOUtil.readUTF(input), DataInputOutputUtil.readINT(input)))
+      }
+      return result
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model
+
+import org.jetbrains.annotations.TestOnly
+import java.io.ByteArrayOutputStream
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+/**
+ * Storage for descriptions of model types, which are the biggest part of the loaded model.
+ *
+ * Texts are appended into blocks, each full block is deflate-compressed. Model types keep only an int id and the table,
+ * text is decoded on demand (see [BaseModelType.description]), few last decoded blocks are cached.
+ * Equal texts get the same id. Each [TypeModelLoader] fills its own table, so the table is released together with the model.
+ *
+ * Descriptions of the bundled model are not stored here, they are referenced with ids returned by [bundled].
+ */
+class DescriptionTable @TestOnly internal constructor(private val hasher: (String) -> Long) {
+  constructor() : this({ hash(it) })
+
+  companion object {
+    const val NONE = -1
+
+    private const val BLOCK_CHARS = 32 * 1024
+    private const val ENTRY_BITS = 12
+    private const val MAX_ENTRIES = 1 shl ENTRY_BITS
+    private const val CACHED_BLOCKS = 4
+
+    /**
+     * Table for descriptions declared in code, e.g. in [TypeModel] companion, its content does not depend on loaded model
+     */
+    @JvmField
+    val STATIC = DescriptionTable()
+
+    /**
+     * @return id referring to [ModelDescriptions] entry
+     */
+    @JvmStatic
+    fun bundled(id: Int): Int = -id - 2
+
+    private fun hash(text: String): Long {
+      var fnv = -0x7ee3623b // FNV-1a offset basis
+      for (c in text) {
+        fnv = (fnv xor c.toInt()) * 0x01000193
+      }
+      return (text.hashCode().toLong() shl 32) or (fnv.toLong() and 0xffffffffL)
+    }
+  }
+
+  private class Block(val data: ByteArray, val length: Int, val offsets: IntArray)
+
+  private val blocks = ArrayList<Block>()
+  private val current = StringBuilder()
+  private var currentOffsets = IntArray(MAX_ENTRIES + 1)
+  private var currentEntries = 0
+
+  private val decoded = object : LinkedHashMap<Int, String>(CACHED_BLOCKS, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, String>?): Boolean = size > CACHED_BLOCKS
+  }
+
+  // Open addressing map from 64-bit text hash to id, texts are compared on hash match
+  private var keys = LongArray(1024)
+  private var values = IntArray(1024)
+  private var size = 0
+
+  @Synchronized
+  fun add(text: String?): Int {
+    if (text == null) return NONE
+    // Zero marks empty slot
+    val hash = hasher(text).let { if (it == 0L) 1L else it }
+    val existing = find(hash, text)
+    if (existing != NONE) return existing
+
+    if (current.length + text.length > BLOCK_CHARS && currentEntries > 0 || currentEntries == MAX_ENTRIES) {
+      flush()
+    }
+    val id = (blocks.size shl ENTRY_BITS) or currentEntries
+    current.append(text)
+    currentEntries++
+    currentOffsets[currentEntries] = current.length
+    put(hash, id)
+    return id
+  }
+
+  fun get(id: Int): String? {
+    if (id == NONE) return null
+    if (id < NONE) return ModelDescriptions.get(-id - 2)
+    return getOwn(id)
+  }
+
+  @Synchronized
+  private fun getOwn(id: Int): String? {
+    val block = id ushr ENTRY_BITS
+    val entry = id and (MAX_ENTRIES - 1)
+    if (block == blocks.size) {
+      return current.substring(currentOffsets[entry], currentOffsets[entry + 1])
+    }
+    val offsets = blocks[block].offsets
+    return decode(block).substring(offsets[entry], offsets[entry + 1])
+  }
+
+  /**
+   * @return number of bytes used by compressed blocks, for diagnostics
+   */
+  @Synchronized
+  fun getCompressedSize(): Long = blocks.fold(0L) { acc, block -> acc + block.data.size + block.offsets.size * 4 }
+
+  @Synchronized
+  fun getUncompressedSize(): Long = blocks.fold(0L) { acc, block -> acc + block.length } + current.length * 2
+
+  private fun flush() {
+    val bytes = current.toString().toByteArray(Charsets.UTF_8)
+    val deflater = Deflater(Deflater.BEST_COMPRESSION)
+    try {
+      deflater.setInput(bytes)
+      deflater.finish()
+      val out = ByteArrayOutputStream(bytes.size / 3)
+      val buffer = ByteArray(8192)
+      while (!deflater.finished()) {
+        val n = deflater.deflate(buffer)
+        out.write(buffer, 0, n)
+      }
+      blocks.add(Block(out.toByteArray(), bytes.size, currentOffsets.copyOf(currentEntries + 1)))
+    } finally {
+      deflater.end()
+    }
+    current.setLength(0)
+    currentOffsets = IntArray(MAX_ENTRIES + 1)
+    currentEntries = 0
+  }
+
+  private fun decode(index: Int): String {
+    decoded[index]?.let { return it }
+    val block = blocks[index]
+    val bytes = ByteArray(block.length)
+    val inflater = Inflater()
+    try {
+      inflater.setInput(block.data)
+      var read = 0
+      while (read < bytes.size && !inflater.finished()) {
+        read += inflater.inflate(bytes, read, bytes.size - read)
+      }
+    } finally {
+      inflater.end()
+    }
+    val text = String(bytes, Charsets.UTF_8)
+    decoded[index] = text
+    return text
+  }
+
+  private fun find(hash: Long, text: String): Int {
+    val mask = keys.size - 1
+    var i = mix(hash) and mask
+    while (true) {
+      val key = keys[i]
+      if (key == 0L) return NONE
+      // Different texts with the same hash are kept as separate entries
+      if (key == hash && getOwn(values[i]) == text) return values[i]
+      i = (i + 1) and mask
+    }
+  }
+
+  private fun put(hash: Long, id: Int) {
+    if ((size + 1) * 2 > keys.size) {
+      val oldKeys = keys
+      val oldValues = values
+      keys = LongArray(oldKeys.size * 2)
+      values = IntArray(oldKeys.size * 2)
+      for (i in oldKeys.indices) {
+        if (oldKeys[i] != 0L) insert(oldKeys[i], oldValues[i])
+      }
+    }
+    insert(hash, id)
+    size++
+  }
+
+  private fun insert(hash: Long, id: Int) {
+    val mask = keys.size - 1
+    var i = mix(hash) and mask
+    while (keys[i] != 0L) i = (i + 1) and mask
+    keys[i] = hash
+    values[i] = id
+  }
+
+  private fun mix(hash: Long): Int {
+    val h = hash xor (hash ushr 32)
+    return (h xor (h ushr 16)).toInt()
+  }
+}
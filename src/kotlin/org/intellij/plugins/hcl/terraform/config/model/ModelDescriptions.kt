@@ -0,0 +1,149 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model
+
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.io.StreamUtil
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.IOException
+import java.util.*
+import java.util.zip.InflaterInputStream
+
+/**
+ * Descriptions of the bundled model, moved by the build out of model json files into compressed '/terraform/model/descriptions.bin'
+ * (see `processResources` in build.gradle). Model types refer to them with 'DescriptionId'.
+ *
+ * The file is read on first access only, decoded blocks are kept in a small LRU cache.
+ * Loading the model, completion (see [org.intellij.plugins.hcl.terraform.config.codeinsight.TerraformLookupElementRenderer])
+ * and inspections never touch description texts, they are decoded by documentation provider only.
+ */
+object ModelDescriptions {
+  private val LOG = Logger.getInstance(ModelDescriptions::class.java)
+
+  const val RESOURCE = "/terraform/model/descriptions.bin"
+  private const val MAGIC = 0x54464453
+  private const val VERSION = 1
+  private const val CACHE_SIZE = 16
+
+  private class Block(val fqns: Array<String>, val texts: Array<String>)
+
+  private class Data(val count: Int, val entriesPerBlock: Int, val firstFqns: Array<String>, val offsets: IntArray, val compressed: ByteArray)
+
+  private val data: Data? by lazy { load() }
+
+  private val cache = object : LinkedHashMap<Int, Block>(CACHE_SIZE, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, Block>?): Boolean = size > CACHE_SIZE
+  }
+
+  @JvmStatic
+  val isAvailable: Boolean
+    get() = data != null
+
+  /**
+   * @param id value of 'DescriptionId' in the model
+   */
+  @JvmStatic
+  fun get(id: Int): String? {
+    val data = data ?: return null
+    if (id < 0 || id >= data.count) return null
+    return getBlock(data, id / data.entriesPerBlock)?.texts?.get(id % data.entriesPerBlock)
+  }
+
+  /**
+   * @param fqn '<kind>.<owner>.<path>', e.g. 'resource.aws_instance.ebs_block_device.device_name'
+   * @return description of [fqn], any of them if model files have different descriptions for it
+   */
+  @JvmStatic
+  fun getByFQN(fqn: ModelFQN): String? {
+    val data = data ?: return null
+    // Entries are sorted by string form of FQN, see `processResources` in build.gradle
+    val key = fqn.toString()
+    var index = Arrays.binarySearch(data.firstFqns, key)
+    if (index < 0) index = -index - 2
+    if (index < 0) return null
+    val block = getBlock(data, index) ?: return null
+    val entry = Arrays.binarySearch(block.fqns, key)
+    return if (entry >= 0) block.texts[entry] else null
+  }
+
+  private fun getBlock(data: Data, index: Int): Block? {
+    synchronized(cache) {
+      cache[index]?.let { return it }
+    }
+    val block = try {
+      decode(data, index)
+    } catch (e: IOException) {
+      LOG.warn("Cannot read block $index of '$RESOURCE'", e)
+      return null
+    }
+    synchronized(cache) {
+      cache[index] = block
+    }
+    return block
+  }
+
+  private fun decode(data: Data, index: Int): Block {
+    val start = data.offsets[index]
+    val length = data.offsets[index + 1] - start
+    val size = Math.min(data.entriesPerBlock, data.count - index * data.entriesPerBlock)
+    DataInputStream(InflaterInputStream(ByteArrayInputStream(data.compressed, start, length))).use { input ->
+      val fqns = Array(size) { "" }
+      val texts = Array(size) { "" }
+      for (i in 0 until size) {
+        fqns[i] = readString(input)
+        texts[i] = readString(input)
+      }
+      return Block(fqns, texts)
+    }
+  }
+
+  private fun load(): Data? {
+    val stream = TypeModelLoader.getResource(RESOURCE) ?: return null
+    try {
+      DataInputStream(stream.buffered()).use { input ->
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+          LOG.warn("Unsupported format of '$RESOURCE'")
+          return null
+        }
+        val count = input.readInt()
+        val entriesPerBlock = input.readInt()
+        val blocks = input.readInt()
+        val firstFqns = Array(blocks) { "" }
+        val offsets = IntArray(blocks + 1)
+        for (i in 0 until blocks) {
+          firstFqns[i] = readString(input)
+          offsets[i + 1] = offsets[i] + input.readInt()
+        }
+        val compressed = StreamUtil.loadFromStream(input)
+        if (compressed.size < offsets[blocks]) {
+          LOG.warn("'$RESOURCE' is truncated")
+          return null
+        }
+        return Data(count, entriesPerBlock, firstFqns, offsets, compressed)
+      }
+    } catch (e: IOException) {
+      LOG.warn("Cannot read '$RESOURCE'", e)
+      return null
+    }
+  }
+
+  private fun readString(input: DataInputStream): String {
+    val bytes = ByteArray(input.readInt())
+    input.readFully(bytes)
+    return String(bytes, Charsets.UTF_8)
+  }
+}
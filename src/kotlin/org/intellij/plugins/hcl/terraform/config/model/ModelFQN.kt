@@ -0,0 +1,74 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model
+
+import java.util.*
+
+/**
+ * Qualified name of model element as interned path segments, e.g. `[resource, aws_instance, ebs_block_device]`.
+ * Lookups in [TypeModel.getByFQN] go by segments, so no string concatenation or splitting is needed on resolve,
+ * string form is built once on first [toString].
+ */
+class ModelFQN private constructor(private val segments: Array<String>) {
+  companion object {
+    @JvmStatic
+    fun of(segments: List<String>): ModelFQN? {
+      if (segments.isEmpty()) return null
+      return ModelFQN(Array(segments.size) { segments[it].intern() })
+    }
+
+    @JvmStatic
+    fun parse(fqn: String): ModelFQN? {
+      if (fqn.isEmpty()) return null
+      return of(fqn.split('.'))
+    }
+  }
+
+  private val hash = Arrays.hashCode(segments)
+  private var text: String? = null
+
+  val size: Int
+    get() = segments.size
+
+  operator fun get(index: Int): String = segments[index]
+
+  operator fun plus(segment: String): ModelFQN {
+    return ModelFQN(Array(segments.size + 1) { if (it < segments.size) segments[it] else segment.intern() })
+  }
+
+  /**
+   * @return whether this name equals to [other] or is nested in it
+   */
+  fun startsWith(other: ModelFQN): Boolean {
+    if (other.size > size) return false
+    for (i in 0 until other.size) {
+      if (segments[i] != other.segments[i]) return false
+    }
+    return true
+  }
+
+  override fun equals(other: Any?): Boolean {
+    if (this === other) return true
+    if (other !is ModelFQN) return false
+    return hash == other.hash && Arrays.equals(segments, other.segments)
+  }
+
+  override fun hashCode(): Int = hash
+
+  override fun toString(): String {
+    return text ?: segments.joinToString(".").also { text = it }
+  }
+}
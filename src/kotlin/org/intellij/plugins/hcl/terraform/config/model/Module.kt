@@ -16,13 +16,20 @@
 package org.intellij.plugins.hcl.terraform.config.model
 
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.DumbService
 import com.intellij.psi.PsiDirectory
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiFileSystemItem
+import com.intellij.psi.search.GlobalSearchScopesCore
 import com.intellij.psi.search.PsiElementProcessor
+import com.intellij.util.indexing.FileBasedIndex
 import org.intellij.plugins.hcl.psi.*
 import org.intellij.plugins.hcl.terraform.config.TerraformLanguage
+import org.intellij.plugins.hcl.terraform.config.json.TerraformJsonDeclarationElement
+import org.intellij.plugins.hcl.terraform.config.json.TerraformJsonDeclarationsIndex
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
 import java.util.*
 
 class Module private constructor(val item: PsiFileSystemItem) {
@@ -87,6 +94,28 @@ class Module private constructor(val item: PsiFileSystemItem) {
     return visitor.collected.firstOrNull { it.first.name == name }
   }
 
+  /**
+   * Variables of this module by name, cached until PSI modification, see [ModuleVariables]
+   */
+  fun getVariables(): ModuleVariables {
+    return ModuleVariables.getVariables(item) {
+      val files = ArrayList<HCLFile>()
+      process(PsiElementProcessor { file -> files.add(file); true })
+      files
+    }
+  }
+
+  /**
+   * Dependencies between resources, data sources and modules, see [ModuleDependencyGraph]
+   */
+  fun getDependencyGraph(): ModuleDependencyGraph {
+    return ModuleDependencyGraph.getGraph(item) {
+      val files = ArrayList<HCLFile>()
+      process(PsiElementProcessor { file -> files.add(file); true })
+      files
+    }
+  }
+
   fun getAllLocals(): List<Pair<String, HCLProperty>> {
     val visitor = CollectLocalsVisitor()
     process(PsiElementProcessor { file -> file.acceptChildren(visitor); true })
@@ -103,7 +132,11 @@ class Module private constructor(val item: PsiFileSystemItem) {
   // helper.processAllFilesWithWord()
 
   private fun process(processor: PsiElementProcessor<HCLFile>): Boolean {
-    // TODO: Support json files (?)
+    return TerraformMetrics.ModuleProcess.measure { doProcess(processor) }
+  }
+
+  private fun doProcess(processor: PsiElementProcessor<HCLFile>): Boolean {
+    // JSON files are handled separately, see findJsonDeclarations
     if (item is HCLFile) {
       if (item.language == TerraformLanguage) {
         return processor.execute(item)
@@ -255,6 +288,29 @@ class Module private constructor(val item: PsiFileSystemItem) {
     return found
   }
 
+  /**
+   * Declarations of given [kind] (e.g. `resource` or `variable`) from `.tf.json` files of this module,
+   * taken from [TerraformJsonDeclarationsIndex], so nothing is found in dumb mode.
+   * [type] is checked only for resources and data sources, `null` [type] or [name] matches any.
+   */
+  fun findJsonDeclarations(kind: String, type: String? = null, name: String? = null): List<TerraformJsonDeclarationElement> {
+    if (item !is PsiDirectory) return emptyList()
+    val project = item.project
+    if (DumbService.isDumb(project)) return emptyList()
+    val found = ArrayList<TerraformJsonDeclarationElement>()
+    FileBasedIndex.getInstance().processValues(TerraformJsonDeclarationsIndex.NAME, kind, null, { file, declarations ->
+      for (declaration in declarations) {
+        if (type != null && type != declaration.type) continue
+        if (name != null && name != declaration.name) continue
+        found.add(TerraformJsonDeclarationElement(project, file, declaration))
+      }
+      true
+    }, GlobalSearchScopesCore.directoryScope(item, false))
+    // Index does not keep files order
+    found.sortWith(compareBy<TerraformJsonDeclarationElement>({ it.file.path }, { it.declaration.offset }))
+    return found
+  }
+
   val model: TypeModel
     get() = TypeModelProvider.getModel(item.project)
 
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model
+
+import com.intellij.psi.PsiFileSystemItem
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.psi.util.PsiTreeUtil
+import org.intellij.plugins.hcl.psi.*
+import org.intellij.plugins.hil.psi.ILReferenceScanner
+import java.util.*
+
+/**
+ * Dependencies between resources, data sources and modules of a module, defined by `depends_on` and interpolations
+ * like `${aws_instance.x.id}`. Nodes are identified by address: `type.name`, `data.type.name` or `module.name`.
+ *
+ * References are collected per file and cached until that file changes, so after a modification only changed file
+ * is rescanned, graph itself is assembled from cached references and cached on module until next PSI modification.
+ * Only references to nodes declared in module become edges.
+ */
+class ModuleDependencyGraph private constructor(declarations: List<Declaration>) {
+  class Node(val address: String, val blocks: List<HCLBlock>) {
+    override fun toString(): String = address
+  }
+
+  private class Declaration(val address: String, val block: HCLBlock, val references: Set<String>)
+
+  val nodes: List<Node>
+  private val indices: Map<String, Int>
+  private val dependencies: Array<IntArray>
+  private val dependents: Array<IntArray>
+
+  init {
+    val blocks = LinkedHashMap<String, MutableList<HCLBlock>>()
+    val references = HashMap<String, MutableSet<String>>()
+    for (declaration in declarations) {
+      blocks.getOrPut(declaration.address) { ArrayList(1) }.add(declaration.block)
+      references.getOrPut(declaration.address) { LinkedHashSet() }.addAll(declaration.references)
+    }
+    nodes = blocks.map { Node(it.key, it.value) }
+    indices = nodes.withIndex().associate { it.value.address to it.index }
+
+    val incoming = Array(nodes.size) { ArrayList<Int>() }
+    dependencies = Array(nodes.size) { i ->
+      val targets = references[nodes[i].address]!!.mapNotNull { indices[it] }.toIntArray()
+      for (target in targets) incoming[target].add(i)
+      targets
+    }
+    dependents = Array(nodes.size) { incoming[it].toIntArray() }
+  }
+
+  /**
+   * Strongly connected components which form cycles: with more than one node or with a node referencing itself
+   */
+  val cycles: List<List<Node>> by lazy { findCycles() }
+
+  private val cycleByNode: Map<String, List<Node>> by lazy {
+    val result = HashMap<String, List<Node>>()
+    for (cycle in cycles) {
+      for (node in cycle) result[node.address] = cycle
+    }
+    result
+  }
+
+  fun findNode(address: String): Node? = indices[address]?.let { nodes[it] }
+
+  fun findNode(block: HCLBlock): Node? {
+    val address = getAddress(block) ?: return null
+    return findNode(address)?.takeIf { block in it.blocks }
+  }
+
+  fun getDependencies(node: Node): List<Node> = dependencies[indices[node.address]!!].map { nodes[it] }
+
+  fun getDependents(node: Node): List<Node> = dependents[indices[node.address]!!].map { nodes[it] }
+
+  /**
+   * @return nodes of cycle [node] participates in, sorted by address, null if there's no such cycle
+   */
+  fun getCycle(node: Node): List<Node>? = cycleByNode[node.address]
+
+  fun toDot(name: String = "terraform"): String {
+    val sb = StringBuilder()
+    sb.append("digraph ").append(quote(name)).append(" {\n")
+    sb.append("  rankdir = \"RL\";\n")
+    for (node in nodes) {
+      sb.append("  ").append(quote(node.address))
+      if (node.address in cycleByNode) sb.append(" [color = \"red\"]")
+      sb.append(";\n")
+    }
+    for ((i, targets) in dependencies.withIndex()) {
+      for (target in targets) {
+        sb.append("  ").append(quote(nodes[i].address)).append(" -> ").append(quote(nodes[target].address)).append(";\n")
+      }
+    }
+    sb.append("}\n")
+    return sb.toString()
+  }
+
+  private fun quote(s: String) = '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"'
+
+  /**
+   * Iterative Tarjan's algorithm, linear in number of nodes and edges, explicit stack avoids stack overflow on long chains
+   */
+  private fun findCycles(): List<List<Node>> {
+    val count = nodes.size
+    val index = IntArray(count) { -1 }
+    val lowLink = IntArray(count)
+    val onStack = BooleanArray(count)
+    val stack = IntArray(count)
+    var stackSize = 0
+    val path = IntArray(count)
+    val nextEdge = IntArray(count)
+    var counter = 0
+    val result = ArrayList<List<Node>>()
+
+    for (root in 0 until count) {
+      if (index[root] != -1) continue
+      index[root] = counter
+      lowLink[root] = counter
+      counter++
+      stack[stackSize++] = root
+      onStack[root] = true
+      var depth = 0
+      path[0] = root
+      nextEdge[0] = 0
+
+      while (depth >= 0) {
+        val v = path[depth]
+        val edges = dependencies[v]
+        if (nextEdge[depth] < edges.size) {
+          val w = edges[nextEdge[depth]++]
+          if (index[w] == -1) {
+            index[w] = counter
+            lowLink[w] = counter
+            counter++
+            stack[stackSize++] = w
+            onStack[w] = true
+            depth++
+            path[depth] = w
+            nextEdge[depth] = 0
+          } else if (onStack[w]) {
+            lowLink[v] = Math.min(lowLink[v], index[w])
+          }
+          continue
+        }
+        if (lowLink[v] == index[v]) {
+          val component = ArrayList<Node>()
+          do {
+            val w = stack[--stackSize]
+            onStack[w] = false
+            component.add(nodes[w])
+          } while (w != v)
+          if (component.size > 1 || v in edges) {
+            result.add(component.sortedBy { it.address })
+          }
+        }
+        depth--
+        if (depth >= 0) {
+          val parent = path[depth]
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[v])
+        }
+      }
+    }
+    return result
+  }
+
+  companion object {
+    private val NON_RESOURCE_SCOPES = setOf("var", "local", "path", "self", "count", "terraform")
+
+    fun getGraph(item: PsiFileSystemItem, files: () -> List<HCLFile>): ModuleDependencyGraph {
+      return CachedValuesManager.getCachedValue(item) {
+        CachedValueProvider.Result.create(ModuleDependencyGraph(files().flatMap { getDeclarations(it) }), PsiModificationTracker.MODIFICATION_COUNT)
+      }
+    }
+
+    /**
+     * @return address of resource, data source or module [block], null for other blocks
+     */
+    @JvmStatic
+    fun getAddress(block: HCLBlock): String? {
+      if (block.parent !is HCLFile) return null
+      return when (block.getNameElementUnquoted(0)) {
+        "resource" -> {
+          val type = block.getNameElementUnquoted(1) ?: return null
+          val name = block.getNameElementUnquoted(2) ?: return null
+          "$type.$name"
+        }
+        "data" -> {
+          val type = block.getNameElementUnquoted(1) ?: return null
+          val name = block.getNameElementUnquoted(2) ?: return null
+          "data.$type.$name"
+        }
+        "module" -> {
+          val name = block.getNameElementUnquoted(1) ?: return null
+          "module.$name"
+        }
+        else -> null
+      }
+    }
+
+    private fun getDeclarations(file: HCLFile): List<Declaration> {
+      return CachedValuesManager.getCachedValue(file) {
+        CachedValueProvider.Result.create(collectDeclarations(file), file)
+      }
+    }
+
+    private fun collectDeclarations(file: HCLFile): List<Declaration> {
+      val result = ArrayList<Declaration>()
+      var child = file.firstChild
+      while (child != null) {
+        if (child is HCLBlock) {
+          val address = getAddress(child)
+          if (address != null) {
+            result.add(Declaration(address, child, collectReferences(child)))
+          }
+        }
+        child = child.nextSibling
+      }
+      return result
+    }
+
+    private fun collectReferences(block: HCLBlock): Set<String> {
+      val result = LinkedHashSet<String>()
+      val dependsOn = block.`object`?.findProperty("depends_on")?.value as? HCLArray
+      dependsOn?.valueList?.forEach { value ->
+        if (value is HCLStringLiteral) getAddress(value.value.split('.'))?.let { result.add(it) }
+      }
+      for (host in PsiTreeUtil.findChildrenOfAnyType(block, HCLStringLiteral::class.java, HCLHeredocContent::class.java)) {
+        if (!host.text.contains("\${")) continue
+        val fragments = when (host) {
+          is HCLStringLiteral -> host.textFragments
+          is HCLHeredocContent -> host.textFragments
+          else -> continue
+        }
+        for (pair in fragments) {
+          ILReferenceScanner.processInterpolations(pair.second) { parts, _ -> getAddress(parts)?.let { result.add(it) } }
+        }
+      }
+      return result
+    }
+
+    private fun getAddress(parts: List<String>): String? {
+      val scope = parts.firstOrNull() ?: return null
+      return when {
+        scope == "data" -> if (parts.size >= 3) "data.${parts[1]}.${parts[2]}" else null
+        scope == "module" -> if (parts.size >= 2) "module.${parts[1]}" else null
+        scope in NON_RESOURCE_SCOPES -> null
+        parts.size >= 2 -> "$scope.${parts[1]}"
+        else -> null
+      }
+    }
+  }
+}
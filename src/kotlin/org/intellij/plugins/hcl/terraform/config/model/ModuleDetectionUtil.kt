@@ -40,6 +40,8 @@ import org.intellij.plugins.hcl.psi.getNameElementUnquoted
 import org.intellij.plugins.hcl.terraform.config.model.version.MalformedConstraintException
 import org.intellij.plugins.hcl.terraform.config.model.version.Version
 import org.intellij.plugins.hcl.terraform.config.model.version.VersionConstraint
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
 import java.util.*
 
 object ModuleDetectionUtil {
@@ -67,7 +69,7 @@ object ModuleDetectionUtil {
 
   class ModuleCachedValueProvider(private val block: HCLBlock) : CachedValueProvider<Pair<Module?, String?>> {
     override fun compute(): CachedValueProvider.Result<Pair<Module?, String?>>? {
-      return doGetAsModuleBlock(block)
+      return TerraformMetrics.ModuleDetection.measure { doGetAsModuleBlock(block) }
     }
   }
 
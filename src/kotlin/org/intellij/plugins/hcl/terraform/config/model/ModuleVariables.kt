@@ -0,0 +1,75 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model
+
+import com.intellij.psi.PsiFileSystemItem
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import org.intellij.plugins.hcl.psi.*
+
+/**
+ * Variables declared in a module by name, collected in a single pass over module files.
+ * Cached on module directory until next PSI modification, so checking or completing many `.tfvars` keys
+ * does not walk module files for each key.
+ */
+class ModuleVariables private constructor(private val declarations: Map<String, Declaration>) {
+  /**
+   * @param[type] value of 'type' property, 'string' if not specified
+   * @param[defaultKeys] keys of 'default' value if it is an object, null otherwise
+   */
+  class Declaration(val name: String, val block: HCLBlock, val type: String, val defaultKeys: List<String>?)
+
+  val names: Set<String>
+    get() = declarations.keys
+
+  val all: Collection<Declaration>
+    get() = declarations.values
+
+  operator fun get(name: String): Declaration? = declarations[name]
+
+  companion object {
+    fun getVariables(item: PsiFileSystemItem, files: () -> List<HCLFile>): ModuleVariables {
+      return CachedValuesManager.getCachedValue(item) {
+        CachedValueProvider.Result.create(build(files()), PsiModificationTracker.MODIFICATION_COUNT)
+      }
+    }
+
+    private fun build(files: List<HCLFile>): ModuleVariables {
+      val result = LinkedHashMap<String, Declaration>()
+      for (file in files) {
+        var child = file.firstChild
+        while (child != null) {
+          if (child is HCLBlock && child.getNameElementUnquoted(0) == "variable") {
+            val name = child.getNameElementUnquoted(1)
+            if (name != null && name !in result) {
+              result[name] = createDeclaration(name, child)
+            }
+          }
+          child = child.nextSibling
+        }
+      }
+      return ModuleVariables(result)
+    }
+
+    private fun createDeclaration(name: String, block: HCLBlock): Declaration {
+      val obj = block.`object`
+      val type = obj?.findProperty(TypeModel.Variable_Type.name)?.value?.name ?: "string"
+      val default = obj?.findProperty(TypeModel.Variable_Default.name)?.value as? HCLObject
+      return Declaration(name, block, type, default?.propertyList?.map { it.name })
+    }
+  }
+}
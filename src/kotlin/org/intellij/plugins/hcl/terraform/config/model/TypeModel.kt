@@ -21,7 +21,8 @@ class TypeModel(
     val providers: Map<String, ProviderType> = LinkedHashMap(),
     val provisioners: Map<String, ProvisionerType> = LinkedHashMap(),
     val backends: Map<String, BackendType> = LinkedHashMap(),
-    val functions: Map<String, Function> = LinkedHashMap()
+    val functions: Map<String, Function> = LinkedHashMap(),
+    val descriptions: DescriptionTable = DescriptionTable.STATIC
 ) {
   @Suppress("MemberVisibilityCanBePrivate")
   companion object {
@@ -145,29 +146,37 @@ class TypeModel(
   }
 
   fun getByFQN(fqn: String): Any? {
-    val parts = fqn.split('.')
-    if (parts.size < 2) return null
-    val root = parts[0]
-    val second = when (root) {
+    return getByFQN(ModelFQN.parse(fqn) ?: return null)
+  }
+
+  fun getByFQN(fqn: ModelFQN): Any? {
+    if (fqn.size < 2) return null
+    val second = when (fqn[0]) {
       "resource" -> {
-        getResourceType(parts[1])
+        getResourceType(fqn[1])
       }
       "data" -> {
-        getDataSourceType(parts[1])
+        getDataSourceType(fqn[1])
       }
       else -> null
     } ?: return null
-    if (parts.size == 2) return second
-    return find(second, parts.subList(2, parts.size))
+    if (fqn.size == 2) return second
+    return find(second, fqn, 2)
   }
 
-  private fun find(block: BlockType, parts: List<String>): Any? {
-    if (parts.isEmpty()) return null
-    val pobt = block.properties.find { it.name == parts[0] } ?: return null
-    if (pobt is PropertyType) {
-      return if (parts.size == 1) pobt else null
-    } else if (pobt is BlockType) {
-      return if (parts.size == 1) pobt else find(pobt, parts.subList(1, parts.size))
+  private fun find(block: BlockType, fqn: ModelFQN, index: Int): Any? {
+    var current = block
+    for (i in index until fqn.size) {
+      val pobt = current.properties.find { it.name == fqn[i] } ?: return null
+      val last = i == fqn.size - 1
+      if (pobt is PropertyType) {
+        return if (last) pobt else null
+      } else if (pobt is BlockType) {
+        if (last) return pobt
+        current = pobt
+      } else {
+        return null
+      }
     }
     return null
   }
@@ -23,6 +23,8 @@ import com.intellij.openapi.util.SystemInfo
 import com.intellij.openapi.util.io.FileUtil
 import com.intellij.util.SystemProperties
 import org.intellij.plugins.hcl.terraform.config.Constants
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
 import java.io.File
 import java.io.FileInputStream
 import java.io.InputStream
@@ -40,6 +42,11 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
 
   val loaded: MutableMap<String, String> = linkedMapOf()
 
+  /**
+   * Descriptions of external models, bundled ones are in [ModelDescriptions]
+   */
+  val descriptions: DescriptionTable = DescriptionTable()
+
   fun load(): TypeModel? {
     val application = ApplicationManager.getApplication()
     try {
@@ -60,7 +67,8 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
           this.providers.associateBy { it.type },
           this.provisioners.associateBy { it.type },
           this.backends.associateBy { it.type },
-          this.functions.associateBy { it.name }
+          this.functions.associateBy { it.name },
+          descriptions
       )
     } catch(e: Exception) {
       logErrorAndFailInInternalMode(application, "Failed to load Terraform Model", e)
@@ -98,6 +106,10 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
   }
 
   private fun loadOne(application: Application, file: String, stream: InputStream) {
+    TerraformMetrics.ModelLoadFile.measure { doLoadOne(application, file, stream) }
+  }
+
+  private fun doLoadOne(application: Application, file: String, stream: InputStream) {
     val json: JsonObject?
     try {
       json = stream.use {
@@ -426,7 +438,7 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
       // ?? return BlockType(name).toPOBT()
     }
 
-    val conflicts: List<String>? = value.array<String>("ConflictsWith")?.map { it.pool() }
+    val conflicts: Array<String>? = value.array<String>("ConflictsWith")?.map { it.pool() }?.pool()
 
     val deprecated = value.string("Deprecated")
     val has_default: Boolean = value.obj("Default")?.isNotEmpty() ?: false
@@ -443,7 +455,9 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
       isBlock = true
     }
 
+    // Bundled model descriptions are moved to ModelDescriptions by the build
     val description = additional.description ?: value.string("Description")
+    val descriptionRef = value.int("DescriptionId")?.let { DescriptionTable.bundled(it) } ?: DescriptionTable.NONE
 
     // External description and hint overrides one from model
     if (isBlock) {
@@ -457,6 +471,8 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
           computed = computed,
           description = description?.pool(),
           conflictsWith = conflicts,
+          descriptionRef = descriptionRef,
+          descriptions = descriptions,
           properties = *bh).pool()
     }
     return PropertyType(name.pool(), type, hint = additional.hint ?: hint,
@@ -465,7 +481,9 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
         deprecated = deprecated?.pool(),
         computed = computed,
         conflictsWith = conflicts,
-        has_default = has_default || has_default_function).pool()
+        has_default = has_default || has_default_function,
+        descriptionRef = descriptionRef,
+        descriptions = descriptions).pool()
   }
 
   private fun parseType(string: String?): Type {
@@ -502,6 +520,7 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
   private val properties: MutableMap<PropertyType, PropertyType> = HashMap()
   private val blocks: MutableMap<BlockType, BlockType> = HashMap()
   private val hints: MutableMap<Hint, Hint> = HashMap()
+  private val arrays: MutableMap<List<String>, Array<String>> = HashMap()
 
   private fun String.pool(): String {
     var ret = strings[this]
@@ -511,6 +530,11 @@ class TypeModelLoader(val external: Map<String, TypeModelProvider.Additional>) {
     return ret
   }
 
+  private fun List<String>.pool(): Array<String>? {
+    if (isEmpty()) return null
+    return arrays.getOrPut(this) { toTypedArray() }
+  }
+
   private fun PropertyType.pool(): PropertyType {
     var ret = properties[this]
     if (ret != null) return ret
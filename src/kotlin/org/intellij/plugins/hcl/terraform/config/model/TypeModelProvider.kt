@@ -17,12 +17,15 @@ package org.intellij.plugins.hcl.terraform.config.model
 
 import com.beust.klaxon.*
 import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.components.ServiceManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.Disposer
+import org.intellij.plugins.hcl.terraform.config.TerraformDocumentationCache
 import org.intellij.plugins.resettableLazy
 import java.util.*
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
 class TypeModelProvider {
   private val _model_lazy = resettableLazy {
@@ -30,8 +33,15 @@ class TypeModelProvider {
   }
   private val _model: TypeModel by _model_lazy
 
+  private val backgroundLoaders = AtomicInteger()
+  @Volatile
+  private var partialModelReturned = false
+
   val external: Map<String, Additional> by lazy { loadExternalInformation() }
   val ignored_references: Set<String> by lazy { loadIgnoredReferences() }
+  private val ignoredReferencesFQNs: Set<ModelFQN> by lazy { ignored_references.mapNotNull { ModelFQN.parse(it) }.toSet() }
+
+  fun isIgnoredReference(fqn: ModelFQN?): Boolean = fqn != null && fqn in ignoredReferencesFQNs
 
   companion object {
     /**
@@ -43,7 +53,36 @@ class TypeModelProvider {
     @JvmStatic fun getModel(project: Project): TypeModel {
       val model = ourModels[project]
       if (model != null) return model
-      return ServiceManager.getService(TypeModelProvider::class.java)._model
+      val service = ServiceManager.getService(TypeModelProvider::class.java)
+      if (service.backgroundLoaders.get() > 0 && !service._model_lazy.isInitialized() && ApplicationManager.getApplication().isDispatchThread) {
+        // Do not block EDT while model is loaded by TerraformWarmUpActivity, answer with root blocks only
+        service.partialModelReturned = true
+        return PartialModel
+      }
+      return service._model
+    }
+
+    private val PartialModel = TypeModel()
+
+    @JvmStatic
+    fun isModelLoaded(): Boolean = ServiceManager.getService(TypeModelProvider::class.java)._model_lazy.isInitialized()
+
+    /**
+     * Loads model on current (non EDT) thread, meanwhile [getModel] called on EDT does not wait for the model.
+     * @return whether partial model was returned to someone, so caches and highlighting should be refreshed
+     */
+    internal fun loadInBackground(): Boolean {
+      val service = ServiceManager.getService(TypeModelProvider::class.java)
+      if (service._model_lazy.isInitialized()) return false
+      service.backgroundLoaders.incrementAndGet()
+      try {
+        service._model
+      } finally {
+        service.backgroundLoaders.decrementAndGet()
+      }
+      val partial = service.partialModelReturned
+      service.partialModelReturned = false
+      return partial
     }
 
     /**
@@ -70,6 +109,7 @@ class TypeModelProvider {
       ourModels.clear()
       val service = ServiceManager.getService(TypeModelProvider::class.java)
       service._model_lazy.reset()
+      TerraformDocumentationCache.clear()
 
       // Load, global way
       ServiceManager.getService(TypeModelProvider::class.java)._model
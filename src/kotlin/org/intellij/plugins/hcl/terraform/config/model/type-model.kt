@@ -25,31 +25,74 @@ open class Type(val name: String) {
   }
 }
 
-open class BaseModelType(val description: String? = null,
-                         val required: Boolean = false,
+/**
+ * Loaded model contains lots of instances, so they are kept compact: boolean attributes are packed into [flags],
+ * description is stored in [DescriptionTable] and decoded on demand, hash code is cached as instances are pooled in [TypeModelLoader].
+ *
+ * @param descriptionRef id of description already stored in [descriptions], used when [description] is null
+ * @param descriptions table of the model being loaded, [DescriptionTable.STATIC] for types declared in code
+ */
+open class BaseModelType(description: String? = null,
+                         required: Boolean = false,
                          val deprecated: String? = null,
-                         val computed: Boolean = false,
-                         val conflictsWith: List<String>? = null
+                         computed: Boolean = false,
+                         conflictsWith: Array<String>? = null,
+                         extraFlags: Int = 0,
+                         descriptionRef: Int = DescriptionTable.NONE,
+                         descriptions: DescriptionTable = DescriptionTable.STATIC
 ) {
+  companion object {
+    const val REQUIRED = 1
+    const val COMPUTED = 1 shl 1
+    const val INJECTION_ALLOWED = 1 shl 2
+    const val HAS_DEFAULT = 1 shl 3
+  }
+
+  protected val flags: Int = extraFlags or (if (required) REQUIRED else 0) or (if (computed) COMPUTED else 0)
+  private val descriptionTable: DescriptionTable = descriptions
+  private val descriptionId: Int = if (description != null) descriptions.add(description) else descriptionRef
+  private val conflicts: Array<String>? = conflictsWith
+  private var hash: Int = 0
+
+  val description: String?
+    get() = descriptionTable.get(descriptionId)
+
+  val required: Boolean
+    get() = flags and REQUIRED != 0
+
+  val computed: Boolean
+    get() = flags and COMPUTED != 0
+
+  val conflictsWith: List<String>?
+    get() = conflicts?.asList()
+
   override fun equals(other: Any?): Boolean {
     if (this === other) return true
     if (other !is BaseModelType) return false
 
-    if (description != other.description) return false
-    if (required != other.required) return false
+    if (flags != other.flags) return false
+    if (descriptionId != other.descriptionId) return false
+    if (descriptionId > DescriptionTable.NONE && descriptionTable !== other.descriptionTable) return false
     if (deprecated != other.deprecated) return false
-    if (computed != other.computed) return false
-    if (conflictsWith != other.conflictsWith) return false
+    if (!Arrays.equals(conflicts, other.conflicts)) return false
 
     return true
   }
 
-  override fun hashCode(): Int {
-    var result = description?.hashCode() ?: 0
-    result = 31 * result + required.hashCode()
+  final override fun hashCode(): Int {
+    var result = hash
+    if (result == 0) {
+      result = computeHashCode()
+      hash = result
+    }
+    return result
+  }
+
+  protected open fun computeHashCode(): Int {
+    var result = descriptionId
+    result = 31 * result + flags
     result = 31 * result + (deprecated?.hashCode() ?: 0)
-    result = 31 * result + computed.hashCode()
-    result = 31 * result + (conflictsWith?.hashCode() ?: 0)
+    result = 31 * result + Arrays.hashCode(conflicts)
     return result
   }
 }
@@ -70,12 +113,23 @@ open class SimpleValueHint(vararg hint: String) : SimpleHint(*hint)
 // TODO: Support 'default' values for certain types
 open class PropertyType(override val name: String, val type: Type,
                         val hint: Hint? = null,
-                        val injectionAllowed: Boolean = true,
+                        injectionAllowed: Boolean = true,
                         description: String? = null,
                         required: Boolean = false, deprecated: String? = null, computed: Boolean = false,
-                        conflictsWith: List<String>? = null,
-                        val has_default: Boolean = false
-) : BaseModelType(description = description, required = required, deprecated = deprecated, computed = computed, conflictsWith = conflictsWith), PropertyOrBlockType {
+                        conflictsWith: Array<String>? = null,
+                        has_default: Boolean = false,
+                        descriptionRef: Int = DescriptionTable.NONE,
+                        descriptions: DescriptionTable = DescriptionTable.STATIC
+) : BaseModelType(description = description, required = required, deprecated = deprecated, computed = computed, conflictsWith = conflictsWith,
+    extraFlags = (if (injectionAllowed) INJECTION_ALLOWED else 0) or (if (has_default) HAS_DEFAULT else 0), descriptionRef = descriptionRef,
+    descriptions = descriptions), PropertyOrBlockType {
+
+  val injectionAllowed: Boolean
+    get() = flags and INJECTION_ALLOWED != 0
+
+  @Suppress("PropertyName")
+  val has_default: Boolean
+    get() = flags and HAS_DEFAULT != 0
 
   override fun toString(): String {
     return "PropertyType(name='$name', type='$type')"
@@ -91,19 +145,15 @@ open class PropertyType(override val name: String, val type: Type,
     if (name != other.name) return false
     if (type != other.type) return false
     if (hint != other.hint) return false
-    if (injectionAllowed != other.injectionAllowed) return false
-    if (has_default != other.has_default) return false
 
     return true
   }
 
-  override fun hashCode(): Int {
-    var result = super.hashCode()
+  override fun computeHashCode(): Int {
+    var result = super.computeHashCode()
     result = 31 * result + name.hashCode()
     result = 31 * result + type.hashCode()
     result = 31 * result + (hint?.hashCode() ?: 0)
-    result = 31 * result + injectionAllowed.hashCode()
-    result = 31 * result + has_default.hashCode()
     return result
   }
 
@@ -112,9 +162,12 @@ open class PropertyType(override val name: String, val type: Type,
 open class BlockType(val literal: String, val args: Int = 0,
                      description: String? = null,
                      required: Boolean = false, deprecated: String? = null, computed: Boolean = false,
-                     conflictsWith: List<String>? = null,
+                     conflictsWith: Array<String>? = null,
+                     descriptionRef: Int = DescriptionTable.NONE,
+                     descriptions: DescriptionTable = DescriptionTable.STATIC,
                      vararg properties: PropertyOrBlockType = emptyArray()
-) : BaseModelType(description = description, required = required, deprecated = deprecated, computed = computed, conflictsWith = conflictsWith), PropertyOrBlockType {
+) : BaseModelType(description = description, required = required, deprecated = deprecated, computed = computed, conflictsWith = conflictsWith,
+    descriptionRef = descriptionRef, descriptions = descriptions), PropertyOrBlockType {
   override val name: String
     get() = literal
 
@@ -138,8 +191,8 @@ open class BlockType(val literal: String, val args: Int = 0,
     return true
   }
 
-  override fun hashCode(): Int {
-    var result = super.hashCode()
+  override fun computeHashCode(): Int {
+    var result = super.computeHashCode()
     result = 31 * result + literal.hashCode()
     result = 31 * result + args
     result = 31 * result + properties.contentHashCode()
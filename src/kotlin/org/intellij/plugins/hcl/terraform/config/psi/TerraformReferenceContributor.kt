@@ -171,15 +171,16 @@ class DependsOnLazyReference(element: HCLStringLiteral) : HCLElementLazyReferenc
       return module.getDeclaredResources().filter { "${it.getNameElementUnquoted(1)}.${it.name}" != current }
           .plus(module.getDeclaredDataSources().filter { "data.${it.getNameElementUnquoted(1)}.${it.name}" != current })
           .map { it.nameIdentifier as HCLElement }
+          .plus(module.findJsonDeclarations("resource") + module.findJsonDeclarations("data"))
     } else {
       val split = value.split('.')
 
       return if (split.size != 2) {
         emptyList()
       } else if (isDataSource) {
-        module.findDataSource(split[0], split[1]).map { it.nameIdentifier as HCLElement }
+        module.findDataSource(split[0], split[1]).map { it.nameIdentifier as HCLElement } + module.findJsonDeclarations("data", split[0], split[1])
       } else {
-        module.findResources(split[0], split[1]).map { it.nameIdentifier as HCLElement }
+        module.findResources(split[0], split[1]).map { it.nameIdentifier as HCLElement } + module.findJsonDeclarations("resource", split[0], split[1])
       }
     }
   }
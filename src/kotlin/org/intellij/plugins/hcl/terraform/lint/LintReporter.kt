@@ -0,0 +1,153 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.lint
+
+import com.google.gson.stream.JsonWriter
+import com.intellij.openapi.vfs.VirtualFile
+import java.io.Closeable
+import java.io.Writer
+
+/**
+ * Receives lint results. [report] is called concurrently from worker threads, once per analyzed module directory.
+ */
+interface LintReporter : Closeable {
+  fun start(root: VirtualFile, rules: List<LintRule>)
+  fun report(directory: VirtualFile, problems: List<LintProblem>)
+  fun finish(statistics: LintStatistics)
+}
+
+/**
+ * Writes one JSON object per problem per line, flushing after each module.
+ */
+class JsonLinesLintReporter(private val writer: Writer) : LintReporter {
+  override fun start(root: VirtualFile, rules: List<LintRule>) {
+  }
+
+  @Synchronized
+  override fun report(directory: VirtualFile, problems: List<LintProblem>) {
+    for (problem in problems) {
+      val json = JsonWriter(writer)
+      json.beginObject()
+      json.name("file").value(problem.file)
+      json.name("line").value(problem.line)
+      json.name("column").value(problem.column)
+      json.name("inspection").value(problem.inspection)
+      json.name("level").value(problem.level)
+      json.name("message").value(problem.message)
+      json.endObject()
+      json.flush()
+      writer.write("\n")
+    }
+    writer.flush()
+  }
+
+  override fun finish(statistics: LintStatistics) {
+  }
+
+  override fun close() {
+    writer.close()
+  }
+}
+
+/**
+ * Writes SARIF 2.1.0 log with a single run. Results are streamed into the 'results' array as modules complete.
+ */
+class SarifLintReporter(private val writer: Writer) : LintReporter {
+  private val json = JsonWriter(writer)
+
+  override fun start(root: VirtualFile, rules: List<LintRule>) {
+    json.setIndent("  ")
+    json.beginObject()
+    json.name("version").value("2.1.0")
+    json.name("\$schema").value("https://schemastore.azurewebsites.net/schemas/json/sarif-2.1.0.json")
+    json.name("runs").beginArray()
+    json.beginObject()
+
+    json.name("tool").beginObject()
+    json.name("driver").beginObject()
+    json.name("name").value("intellij-hcl")
+    json.name("rules").beginArray()
+    for (rule in rules) {
+      json.beginObject()
+      json.name("id").value(rule.id)
+      json.name("shortDescription").beginObject().name("text").value(rule.name).endObject()
+      json.endObject()
+    }
+    json.endArray()
+    json.endObject()
+    json.endObject()
+
+    json.name("originalUriBaseIds").beginObject()
+    json.name("SRCROOT").beginObject().name("uri").value(root.url.removeSuffix("/") + "/").endObject()
+    json.endObject()
+
+    json.name("results").beginArray()
+    json.flush()
+  }
+
+  @Synchronized
+  override fun report(directory: VirtualFile, problems: List<LintProblem>) {
+    for (problem in problems) {
+      json.beginObject()
+      json.name("ruleId").value(problem.inspection)
+      json.name("level").value(getSarifLevel(problem.level))
+      json.name("message").beginObject().name("text").value(problem.message).endObject()
+      json.name("locations").beginArray().beginObject()
+      json.name("physicalLocation").beginObject()
+      json.name("artifactLocation").beginObject()
+      json.name("uri").value(problem.file)
+      json.name("uriBaseId").value("SRCROOT")
+      json.endObject()
+      json.name("region").beginObject()
+      json.name("startLine").value(problem.line)
+      json.name("startColumn").value(problem.column)
+      json.endObject()
+      json.endObject()
+      json.endObject().endArray()
+      json.endObject()
+    }
+    json.flush()
+  }
+
+  override fun finish(statistics: LintStatistics) {
+    json.endArray()
+    json.name("invocations").beginArray().beginObject()
+    json.name("executionSuccessful").value(true)
+    json.name("properties").beginObject()
+    json.name("modules").value(statistics.modules)
+    json.name("files").value(statistics.files)
+    json.name("elapsedMillis").value(statistics.elapsedMillis)
+    json.name("filesPerSecond").value(statistics.filesPerSecond)
+    json.endObject()
+    json.endObject().endArray()
+    json.endObject()
+    json.endArray()
+    json.endObject()
+    json.flush()
+  }
+
+  override fun close() {
+    json.close()
+  }
+
+  private fun getSarifLevel(level: String): String {
+    return when (level) {
+      "ERROR" -> "error"
+      "WARNING" -> "warning"
+      else -> "note"
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.lint
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileVisitor
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiManager
+import org.intellij.plugins.hcl.HCLBundle
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.psi.HCLProperty
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.inspection.TFVARSIncorrectElementInspection
+import org.intellij.plugins.hcl.terraform.config.model.getTerraformModule
+import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Checks every `.tfvars` file below some root for keys of undefined variables and values of incorrect type,
+ * same as [TFVARSIncorrectElementInspection] does in editor.
+ *
+ * Directories are checked in parallel on the same bounded executor as [TerraformLintRunner] uses, at most [threads] at a time.
+ * Variables of each module directory are collected once and shared by all its files.
+ * Problems of a directory are passed to [reporter] when all its files are checked.
+ */
+class TFVARSBatchValidator @JvmOverloads constructor(private val project: Project,
+                                                     private val reporter: LintReporter,
+                                                     threads: Int = TerraformLintRunner.DEFAULT_THREADS) {
+  companion object {
+    private val LOG = Logger.getInstance(TFVARSBatchValidator::class.java)
+
+    const val INSPECTION = "TFVARSIncorrectElement"
+    private const val LEVEL = "WARNING"
+
+    private val SKIPPED_DIRECTORIES = setOf(".terraform", ".git", ".idea")
+
+    fun collectVariablesFiles(root: VirtualFile): List<VirtualFile> {
+      val result = ArrayList<VirtualFile>()
+      VfsUtilCore.visitChildrenRecursively(root, object : VirtualFileVisitor<Any>() {
+        override fun visitFile(file: VirtualFile): Boolean {
+          if (!file.isDirectory) {
+            if (file.extension == TerraformFileType.TFVARS_EXTENSION) result.add(file)
+            return false
+          }
+          return file == root || file.name !in SKIPPED_DIRECTORIES
+        }
+      })
+      return result
+    }
+  }
+
+  private val executor: ExecutorService = TerraformLintRunner.createExecutor(threads)
+
+  fun run(root: VirtualFile, indicator: ProgressIndicator): LintStatistics {
+    val start = System.nanoTime()
+    val files = collectVariablesFiles(root)
+    val directories = files.groupByTo(LinkedHashMap()) { it.parent }
+    val problems = AtomicInteger()
+
+    reporter.start(root, listOf(LintRule(INSPECTION, HCLBundle.message("tfvars.unsupported.element.inspection.display.name"))))
+    try {
+      val futures = directories.map { (directory, directoryFiles) ->
+        executor.submit(Callable {
+          val result = ArrayList<LintProblem>()
+          for (file in directoryFiles) {
+            indicator.checkCanceled()
+            try {
+              result.addAll(ApplicationManager.getApplication().runReadAction<List<LintProblem>> { validate(root, file) })
+            } catch (e: Exception) {
+              LOG.warn("Failed to check file ${file.path}", e)
+            }
+          }
+          problems.addAndGet(result.size)
+          reporter.report(directory, result)
+        })
+      }
+      for (future in futures) {
+        future.get()
+      }
+    } finally {
+      executor.shutdown()
+      executor.awaitTermination(1, TimeUnit.MINUTES)
+    }
+
+    val statistics = LintStatistics(directories.size, files.size, problems.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+    reporter.finish(statistics)
+    return statistics
+  }
+
+  private fun validate(root: VirtualFile, file: VirtualFile): List<LintProblem> {
+    val psi = PsiManager.getInstance(project).findFile(file) as? HCLFile ?: return emptyList()
+    val document = PsiDocumentManager.getInstance(project).getDocument(psi) ?: return emptyList()
+    val path = VfsUtilCore.getRelativePath(file, root) ?: file.path
+    val variables = psi.getTerraformModule().getVariables()
+
+    val result = ArrayList<LintProblem>()
+    for (property in psi.children) {
+      if (property !is HCLProperty) continue
+      TFVARSIncorrectElementInspection.checkVariable(property, variables) { element, message, _ ->
+        val offset = element.textRange.startOffset
+        val line = document.getLineNumber(offset)
+        result.add(LintProblem(path, line + 1, offset - document.getLineStartOffset(line) + 1, INSPECTION, LEVEL, message))
+      }
+    }
+    return result
+  }
+}
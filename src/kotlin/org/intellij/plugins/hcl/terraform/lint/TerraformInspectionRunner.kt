@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.lint
+
+import com.intellij.codeInspection.*
+import com.intellij.lang.Language
+import com.intellij.lang.injection.InjectedLanguageManager
+import com.intellij.openapi.extensions.Extensions
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiLanguageInjectionHost
+import com.intellij.psi.util.PsiTreeUtil
+
+/**
+ * Runs Terraform and HIL inspections over a file and HIL injected into it, without highlighting passes.
+ * Should be called under read action, could be used from several threads at once.
+ */
+class TerraformInspectionRunner(private val project: Project) {
+  companion object {
+    private val INSPECTION_PACKAGES = listOf(
+        "org.intellij.plugins.hcl.terraform.config.inspection.",
+        "org.intellij.plugins.hil.inspection."
+    )
+  }
+
+  private class Tool(val ep: LocalInspectionEP, val tool: LocalInspectionTool, val language: Language?) {
+    val rule = LintRule(ep.getShortName(), ep.displayName ?: ep.getShortName())
+    val level = ep.level ?: "WARNING"
+  }
+
+  private val tools: List<Tool> by lazy { loadTools() }
+
+  val rules: List<LintRule>
+    get() = tools.map { it.rule }
+
+  /**
+   * @param consumer receives inspection, its level as declared in plugin.xml, range in [file] and message of each problem
+   */
+  fun inspect(file: PsiFile, consumer: (LintRule, String, TextRange, String) -> Unit) {
+    val injectedManager = InjectedLanguageManager.getInstance(project)
+    val collect: (PsiFile) -> Unit = { psi ->
+      runTools(psi) { tool, descriptor ->
+        val element = descriptor.psiElement ?: return@runTools
+        val range = descriptor.textRangeInElement?.shiftRight(element.textRange.startOffset) ?: element.textRange
+        val start = Math.min(injectedManager.injectedToHost(element, range.startOffset), file.textLength)
+        val end = Math.max(start, Math.min(injectedManager.injectedToHost(element, range.endOffset), file.textLength))
+        consumer(tool.rule, tool.level, TextRange(start, end), ProblemDescriptorUtil.renderDescriptionMessage(descriptor, element))
+      }
+    }
+
+    collect(file)
+    PsiTreeUtil.processElements(file) { element ->
+      if (element is PsiLanguageInjectionHost) {
+        injectedManager.enumerate(element) { injected, _ -> collect(injected) }
+      }
+      true
+    }
+  }
+
+  private fun runTools(file: PsiFile, consumer: (Tool, ProblemDescriptor) -> Unit) {
+    val manager = InspectionManager.getInstance(project)
+    for (tool in tools) {
+      if (tool.language != null && !file.language.isKindOf(tool.language)) continue
+      val holder = ProblemsHolder(manager, file, false)
+      val visitor = tool.tool.buildVisitor(holder, false)
+      PsiTreeUtil.processElements(file) { it.accept(visitor); true }
+      for (descriptor in holder.results) {
+        val element = descriptor.psiElement
+        if (element != null && tool.tool.isSuppressedFor(element)) continue
+        consumer(tool, descriptor)
+      }
+    }
+  }
+
+  private fun loadTools(): List<Tool> {
+    return Extensions.getExtensions(LocalInspectionEP.LOCAL_INSPECTION)
+        .filter { ep -> INSPECTION_PACKAGES.any { ep.implementationClass?.startsWith(it) == true } }
+        .mapNotNull { ep ->
+          val tool = ep.instantiateTool() as? LocalInspectionTool ?: return@mapNotNull null
+          Tool(ep, tool, ep.language?.let { Language.findLanguageByID(it) })
+        }
+  }
+}
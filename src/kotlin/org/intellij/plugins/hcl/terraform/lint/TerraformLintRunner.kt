@@ -0,0 +1,145 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.lint
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileVisitor
+import com.intellij.psi.*
+import com.intellij.util.concurrency.AppExecutorUtil
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs Terraform and HIL inspections over every Terraform module directory below some root without any UI.
+ * Directories are analyzed in parallel, each one is reported to [reporter] as soon as it is done.
+ */
+class TerraformLintRunner(private val project: Project,
+                          private val reporter: LintReporter,
+                          threads: Int = DEFAULT_THREADS) {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformLintRunner::class.java)
+
+    val DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1)
+
+    private val SKIPPED_DIRECTORIES = setOf(".terraform", ".git", ".idea")
+
+    fun createExecutor(threads: Int): ExecutorService {
+      return AppExecutorUtil.createBoundedApplicationPoolExecutor("Terraform Lint", threads)
+    }
+
+    fun collectModuleDirectories(root: VirtualFile): List<VirtualFile> {
+      val result = ArrayList<VirtualFile>()
+      VfsUtilCore.visitChildrenRecursively(root, object : VirtualFileVisitor<Any>() {
+        override fun visitFile(file: VirtualFile): Boolean {
+          if (!file.isDirectory) return false
+          if (file != root && file.name in SKIPPED_DIRECTORIES) return false
+          if (file.children.any { !it.isDirectory && it.fileType == TerraformFileType }) {
+            result.add(file)
+          }
+          return true
+        }
+      })
+      return result
+    }
+  }
+
+  private val inspectionRunner = TerraformInspectionRunner(project)
+  private val executor: ExecutorService = createExecutor(threads)
+
+  val inspections: List<String>
+    get() = inspectionRunner.rules.map { it.id }
+
+  fun run(root: VirtualFile): LintStatistics {
+    // Build the model once, before the workers start to compete for it
+    TypeModelProvider.getModel(project)
+
+    val directories = collectModuleDirectories(root)
+    val files = AtomicInteger()
+    val problems = AtomicInteger()
+    val start = System.nanoTime()
+
+    reporter.start(root, inspectionRunner.rules)
+    try {
+      val futures = directories.map { directory ->
+        executor.submit(Callable {
+          val found = ApplicationManager.getApplication().runReadAction<List<LintProblem>> {
+            analyzeDirectory(root, directory, files)
+          }
+          problems.addAndGet(found.size)
+          reporter.report(directory, found)
+        })
+      }
+      for (future in futures) {
+        future.get()
+      }
+    } finally {
+      executor.shutdown()
+      executor.awaitTermination(1, TimeUnit.MINUTES)
+    }
+
+    val statistics = LintStatistics(directories.size, files.get(), problems.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+    reporter.finish(statistics)
+    return statistics
+  }
+
+  private fun analyzeDirectory(root: VirtualFile, directory: VirtualFile, counter: AtomicInteger): List<LintProblem> {
+    val psiDirectory = PsiManager.getInstance(project).findDirectory(directory) ?: return emptyList()
+    val result = ArrayList<LintProblem>()
+    for (file in psiDirectory.files) {
+      if (file !is HCLFile || file.fileType != TerraformFileType) continue
+      counter.incrementAndGet()
+      try {
+        analyzeFile(root, file, result)
+      } catch (e: Exception) {
+        LOG.warn("Failed to analyze file ${file.virtualFile?.path}", e)
+      }
+    }
+    return result
+  }
+
+  private fun analyzeFile(root: VirtualFile, file: HCLFile, result: MutableList<LintProblem>) {
+    val path = file.virtualFile?.let { VfsUtilCore.getRelativePath(it, root) ?: it.path } ?: file.name
+    val document = PsiDocumentManager.getInstance(project).getDocument(file) ?: return
+    inspectionRunner.inspect(file) { rule, level, range, message ->
+      val line = document.getLineNumber(range.startOffset)
+      val column = range.startOffset - document.getLineStartOffset(line)
+      result.add(LintProblem(path, line + 1, column + 1, rule.id, level, message))
+    }
+  }
+}
+
+data class LintRule(val id: String, val name: String)
+
+/**
+ * @param[line] 1-based line in the file
+ * @param[column] 1-based column in the line
+ * @param[level] inspection level as declared in plugin.xml, e.g. 'ERROR' or 'WEAK WARNING'
+ */
+data class LintProblem(val file: String, val line: Int, val column: Int, val inspection: String, val level: String, val message: String)
+
+data class LintStatistics(val modules: Int, val files: Int, val problems: Int, val elapsedMillis: Long) {
+  val filesPerSecond: Double
+    get() = if (elapsedMillis == 0L) files.toDouble() else files * 1000.0 / elapsedMillis
+}
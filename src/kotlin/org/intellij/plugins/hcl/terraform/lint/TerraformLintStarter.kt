@@ -0,0 +1,111 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.lint
+
+import com.intellij.ide.impl.ProjectUtil
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ApplicationStarterEx
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.LocalFileSystem
+import java.io.File
+
+/**
+ * Headless entry point, usage:
+ * `idea terraform-lint [--format=jsonl|sarif] [--output=<file>] [--threads=<n>] [--tfvars] <directory>`
+ *
+ * With `--tfvars` only keys of `.tfvars` files are checked against declared variables, see [TFVARSBatchValidator].
+ *
+ * Exit code is 0 when no problems were found, 1 when there are problems, 2 on failure.
+ */
+class TerraformLintStarter : ApplicationStarterEx() {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformLintStarter::class.java)
+    const val COMMAND = "terraform-lint"
+  }
+
+  override fun getCommandName(): String = COMMAND
+
+  override fun isHeadless(): Boolean = true
+
+  override fun premain(args: Array<out String>) {
+  }
+
+  override fun main(args: Array<out String>) {
+    // main() is called on EDT: run on a pooled thread, so indexing can finish while we wait for smart mode
+    ApplicationManager.getApplication().executeOnPooledThread {
+      val code = try {
+        run(args.drop(1))
+      } catch (e: Throwable) {
+        LOG.error("Terraform lint failed", e)
+        System.err.println("Terraform lint failed: ${e.message}")
+        2
+      }
+      System.exit(code)
+    }
+  }
+
+  private fun run(args: List<String>): Int {
+    var format = "jsonl"
+    var output: String? = null
+    var threads = TerraformLintRunner.DEFAULT_THREADS
+    var directory: String? = null
+    var tfvars = false
+    for (arg in args) {
+      when {
+        arg.startsWith("--format=") -> format = arg.removePrefix("--format=")
+        arg.startsWith("--output=") -> output = arg.removePrefix("--output=")
+        arg == "--tfvars" -> tfvars = true
+        arg.startsWith("--threads=") -> threads = arg.removePrefix("--threads=").toIntOrNull() ?: return usage("Incorrect threads count: $arg")
+        arg.startsWith("--") -> return usage("Unknown option: $arg")
+        else -> directory = arg
+      }
+    }
+    if (directory == null) return usage("Directory not specified")
+    if (format != "jsonl" && format != "sarif") return usage("Unknown format: $format")
+
+    val path = File(directory).absoluteFile
+    val root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(path)
+    if (root == null || !root.isDirectory) return usage("Not a directory: $path")
+
+    var opened: Project? = null
+    ApplicationManager.getApplication().invokeAndWait { opened = ProjectUtil.openOrImport(path.path, null, false) }
+    val project = opened ?: return usage("Cannot open project in $path")
+    try {
+      DumbService.getInstance(project).waitForSmartMode()
+      val out = File(output ?: "$COMMAND.$format").absoluteFile
+      val writer = out.bufferedWriter(Charsets.UTF_8)
+      val reporter = if (format == "sarif") SarifLintReporter(writer) else JsonLinesLintReporter(writer)
+      val statistics = reporter.use {
+        if (tfvars) TFVARSBatchValidator(project, it, threads).run(root, EmptyProgressIndicator())
+        else TerraformLintRunner(project, it, threads).run(root)
+      }
+      println("Analyzed ${statistics.files} files in ${statistics.modules} modules in ${statistics.elapsedMillis} ms " +
+          "(${String.format("%.1f", statistics.filesPerSecond)} files/sec), found ${statistics.problems} problems, report written to $out")
+      return if (statistics.problems == 0) 0 else 1
+    } finally {
+      ApplicationManager.getApplication().invokeAndWait { ProjectUtil.closeAndDispose(project) }
+    }
+  }
+
+  private fun usage(error: String): Int {
+    System.err.println(error)
+    System.err.println("Usage: $COMMAND [--format=jsonl|sarif] [--output=<file>] [--threads=<n>] [--tfvars] <directory>")
+    return 2
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls
+
+import com.google.gson.JsonElement
+import com.google.gson.JsonNull
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import java.io.BufferedInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * JSON-RPC 2.0 messages with 'Content-Length' header framing, as used by Language Server Protocol.
+ * Messages are read from a single thread, sending is synchronized and could be done from any thread.
+ */
+class LspConnection(input: InputStream, private val output: OutputStream) {
+  companion object {
+    const val PARSE_ERROR = -32700
+    const val INVALID_REQUEST = -32600
+    const val METHOD_NOT_FOUND = -32601
+    const val INTERNAL_ERROR = -32603
+    const val SERVER_NOT_INITIALIZED = -32002
+    const val REQUEST_CANCELLED = -32800
+
+    private const val CONTENT_LENGTH = "Content-Length:"
+  }
+
+  private val input = BufferedInputStream(input)
+
+  /**
+   * @return next message, or null when input is closed
+   * @throws IOException when message is malformed
+   */
+  fun read(): JsonObject? {
+    var length = -1
+    while (true) {
+      val line = readLine() ?: return null
+      if (line.isEmpty()) {
+        if (length >= 0) break
+        continue
+      }
+      if (line.regionMatches(0, CONTENT_LENGTH, 0, CONTENT_LENGTH.length, true)) {
+        length = line.substring(CONTENT_LENGTH.length).trim().toIntOrNull() ?: throw IOException("Incorrect header: $line")
+      }
+      // Other headers, i.e. 'Content-Type', are ignored: only utf-8 is supported
+    }
+    val bytes = ByteArray(length)
+    var read = 0
+    while (read < length) {
+      val count = input.read(bytes, read, length - read)
+      if (count < 0) return null
+      read += count
+    }
+    val json = try {
+      JsonParser().parse(String(bytes, Charsets.UTF_8))
+    } catch (e: RuntimeException) {
+      throw IOException("Incorrect message: ${e.message}", e)
+    }
+    return json as? JsonObject ?: throw IOException("Message is not an object")
+  }
+
+  private fun readLine(): String? {
+    val buffer = ByteArrayOutputStream()
+    while (true) {
+      val c = input.read()
+      if (c < 0) return if (buffer.size() == 0) null else buffer.toString("US-ASCII")
+      if (c == '\n'.toInt()) break
+      if (c != '\r'.toInt()) buffer.write(c)
+    }
+    return buffer.toString("US-ASCII")
+  }
+
+  fun send(message: JsonObject) {
+    message.addProperty("jsonrpc", "2.0")
+    val bytes = message.toString().toByteArray(Charsets.UTF_8)
+    synchronized(output) {
+      output.write("$CONTENT_LENGTH ${bytes.size}\r\n\r\n".toByteArray(Charsets.US_ASCII))
+      output.write(bytes)
+      output.flush()
+    }
+  }
+
+  fun respond(id: JsonElement, result: JsonElement?) {
+    val message = JsonObject()
+    message.add("id", id)
+    message.add("result", result ?: JsonNull.INSTANCE)
+    send(message)
+  }
+
+  fun respondError(id: JsonElement, code: Int, text: String) {
+    val error = JsonObject()
+    error.addProperty("code", code)
+    error.addProperty("message", text)
+    val message = JsonObject()
+    message.add("id", id)
+    message.add("error", error)
+    send(message)
+  }
+
+  fun notify(method: String, params: JsonElement) {
+    val message = JsonObject()
+    message.addProperty("method", method)
+    message.add("params", params)
+    send(message)
+  }
+}
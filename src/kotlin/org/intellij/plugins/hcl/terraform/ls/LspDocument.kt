@@ -0,0 +1,107 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls
+
+import com.google.gson.JsonArray
+import com.google.gson.JsonObject
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiFile
+import gnu.trove.TIntArrayList
+
+/**
+ * Text of a document opened by client, kept in sync with client with incremental or full changes.
+ * Every change produces new immutable [Snapshot], analysis always works with some snapshot.
+ */
+class LspDocument(val uri: String, version: Int, text: String) {
+  @Volatile
+  var snapshot: Snapshot = Snapshot(version, text)
+    private set
+
+  class Snapshot(val version: Int, val text: String) {
+    val lines: LineIndex by lazy { LineIndex(text) }
+
+    /**
+     * Parsed file, created once per snapshot by [TerraformLanguageFeatures]
+     */
+    @Volatile
+    var psi: PsiFile? = null
+  }
+
+  /**
+   * @param changes 'contentChanges' of 'textDocument/didChange' notification, applied in order
+   */
+  @Synchronized
+  fun applyChanges(version: Int, changes: JsonArray) {
+    var text = snapshot.text
+    for (change in changes) {
+      change as JsonObject
+      val newText = change.get("text").asString
+      val range = change.getAsJsonObject("range")
+      text = if (range == null) {
+        newText
+      } else {
+        val lines = LineIndex(text)
+        val start = lines.getOffset(range.getAsJsonObject("start"))
+        val end = Math.max(start, lines.getOffset(range.getAsJsonObject("end")))
+        text.substring(0, start) + newText + text.substring(end)
+      }
+    }
+    snapshot = Snapshot(version, text)
+  }
+}
+
+/**
+ * Conversion between offsets and LSP positions: zero-based line and character offset in UTF-16 code units
+ * (same as Java chars) in the line.
+ */
+class LineIndex(private val text: CharSequence) {
+  private val starts = TIntArrayList()
+
+  init {
+    starts.add(0)
+    for (i in 0 until text.length) {
+      if (text[i] == '\n') starts.add(i + 1)
+    }
+  }
+
+  fun getOffset(line: Int, character: Int): Int {
+    if (line < 0) return 0
+    if (line >= starts.size()) return text.length
+    val start = starts[line]
+    var end = if (line + 1 < starts.size()) starts[line + 1] - 1 else text.length
+    if (end > start && text[end - 1] == '\r') end--
+    return Math.min(start + Math.max(0, character), Math.max(start, end))
+  }
+
+  fun getOffset(position: JsonObject): Int = getOffset(position.get("line").asInt, position.get("character").asInt)
+
+  fun getPosition(offset: Int): JsonObject {
+    val clamped = Math.max(0, Math.min(offset, text.length))
+    var line = starts.binarySearch(clamped)
+    if (line < 0) line = -line - 2
+    val position = JsonObject()
+    position.addProperty("line", line)
+    position.addProperty("character", clamped - starts[line])
+    return position
+  }
+
+  fun getRange(range: TextRange): JsonObject {
+    val result = JsonObject()
+    result.add("start", getPosition(range.startOffset))
+    result.add("end", getPosition(range.endOffset))
+    return result
+  }
+}
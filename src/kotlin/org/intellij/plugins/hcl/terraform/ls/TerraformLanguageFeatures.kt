@@ -0,0 +1,310 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls
+
+import com.google.gson.JsonArray
+import com.google.gson.JsonObject
+import com.intellij.codeInsight.completion.*
+import com.intellij.codeInsight.lookup.LookupElement
+import com.intellij.codeInsight.lookup.LookupElementPresentation
+import com.intellij.lang.injection.InjectedLanguageManager
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileTypes.LanguageFileType
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.*
+import com.intellij.psi.impl.source.PsiFileImpl
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.psi.util.PsiUtilCore
+import com.intellij.util.Consumer
+import com.intellij.util.LocalTimeCounter
+import org.intellij.plugins.hcl.HCLFileType
+import org.intellij.plugins.hcl.psi.*
+import org.intellij.plugins.hcl.terraform.config.TerraformDocumentationProvider
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.config.model.BlockType
+import org.intellij.plugins.hcl.terraform.config.model.Function
+import org.intellij.plugins.hcl.terraform.config.model.PropertyType
+import org.intellij.plugins.hcl.terraform.lint.TerraformInspectionRunner
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.net.URI
+
+/**
+ * Language features served by [TerraformLanguageServer], built on plugin PSI, type model and module queries.
+ *
+ * Each document snapshot is parsed into a non-physical copy of the file on disk (if any), so module queries
+ * and references see the directory of the document, as they do for completion copies in IDE.
+ * Other files of the module are seen as they are on disk.
+ *
+ * All methods should be called under read action.
+ */
+class TerraformLanguageFeatures(private val project: Project) {
+  companion object {
+    // CompletionItemKind
+    private const val KIND_FUNCTION = 3
+    private const val KIND_CLASS = 7
+    private const val KIND_PROPERTY = 10
+
+    // DiagnosticSeverity
+    private const val SEVERITY_ERROR = 1
+    private const val SEVERITY_WARNING = 2
+    private const val SEVERITY_INFORMATION = 3
+
+    private val PARAMETERS_CONSTRUCTOR = CompletionParameters::class.java.declaredConstructors.maxBy { it.parameterCount }!!.apply { isAccessible = true }
+
+    private val NO_PROCESS = CompletionProcess { false }
+
+    private val NO_EDITOR = Proxy.newProxyInstance(Editor::class.java.classLoader, arrayOf(Editor::class.java), InvocationHandler { proxy, method, args ->
+      when (method.name) {
+        "equals" -> proxy === args?.get(0)
+        "hashCode" -> System.identityHashCode(proxy)
+        "toString" -> "NoEditor"
+        else -> throw UnsupportedOperationException("Language server completion has no editor, ${method.name} is not supported")
+      }
+    }) as Editor
+
+    fun getFileType(uri: String): LanguageFileType? {
+      val name = uri.substringAfterLast('/')
+      return when {
+        name.endsWith(".tf") || name.endsWith(".tfvars") -> TerraformFileType
+        name.endsWith(".hcl") -> HCLFileType
+        else -> null
+      }
+    }
+
+    fun findFile(uri: String): VirtualFile? {
+      VirtualFileManager.getInstance().findFileByUrl(uri)?.let { return it }
+      val path = try {
+        URI(uri).path
+      } catch (e: Exception) {
+        null
+      } ?: return null
+      return LocalFileSystem.getInstance().findFileByPath(path)
+    }
+  }
+
+  private val inspectionRunner = TerraformInspectionRunner(project)
+  private val documentationProvider = TerraformDocumentationProvider()
+
+  fun getPsi(document: LspDocument, snapshot: LspDocument.Snapshot): PsiFile? {
+    snapshot.psi?.let { return it }
+    val psi = createCopy(document, snapshot.text) ?: return null
+    snapshot.psi = psi
+    return psi
+  }
+
+  private fun createCopy(document: LspDocument, text: String): PsiFile? {
+    val type = getFileType(document.uri) ?: return null
+    val name = document.uri.substringAfterLast('/')
+    val psi = PsiFileFactory.getInstance(project).createFileFromText(name, type, text, LocalTimeCounter.currentTime(), false)
+    val original = findFile(document.uri)?.let { PsiManager.getInstance(project).findFile(it) }
+    if (original != null && psi is PsiFileImpl) {
+      psi.setOriginalFile(original)
+    }
+    return psi
+  }
+
+  //region Diagnostics
+  fun getDiagnostics(psi: PsiFile, lines: LineIndex): JsonArray {
+    val result = JsonArray()
+    PsiTreeUtil.processElements(psi) { element ->
+      if (element is PsiErrorElement) {
+        ProgressManager.checkCanceled()
+        result.add(createDiagnostic(lines, element.textRange, SEVERITY_ERROR, "syntax", element.errorDescription))
+      }
+      true
+    }
+    inspectionRunner.inspect(psi) { rule, level, range, message ->
+      ProgressManager.checkCanceled()
+      val severity = when (level) {
+        "ERROR" -> SEVERITY_ERROR
+        "WARNING" -> SEVERITY_WARNING
+        else -> SEVERITY_INFORMATION
+      }
+      result.add(createDiagnostic(lines, range, severity, rule.id, message))
+    }
+    return result
+  }
+
+  private fun createDiagnostic(lines: LineIndex, range: TextRange, severity: Int, code: String, message: String): JsonObject {
+    val diagnostic = JsonObject()
+    diagnostic.add("range", lines.getRange(range))
+    diagnostic.addProperty("severity", severity)
+    diagnostic.addProperty("code", code)
+    diagnostic.addProperty("source", "terraform")
+    diagnostic.addProperty("message", message)
+    return diagnostic
+  }
+  //endregion
+
+  //region Completion
+  /**
+   * Runs completion contributors of the plugin, as basic completion in IDE does, on a copy of [snapshot] with dummy identifier at [offset].
+   *
+   * Completion handler of the platform needs an editor on EDT, so contributors are called directly.
+   * Only contributors of the plugin are used: they depend on position and original file only, not on the editor.
+   */
+  fun getCompletion(document: LspDocument, snapshot: LspDocument.Snapshot, offset: Int): JsonArray {
+    val items = JsonArray()
+    val original = getPsi(document, snapshot) ?: return items
+    val text = snapshot.text
+    val caret = Math.min(offset, text.length)
+    val copy = createCopy(document, text.substring(0, caret) + CompletionUtilCore.DUMMY_IDENTIFIER_TRIMMED + text.substring(caret)) ?: return items
+    (copy as? PsiFileImpl)?.setOriginalFile(original)
+
+    val manager = InjectedLanguageManager.getInstance(project)
+    val injected = manager.findInjectedElementAt(copy, caret)
+    val position = injected ?: copy.findElementAt(caret) ?: return items
+    val originalFile = if (injected == null) original else {
+      // Caret could be at the end of injected fragment, e.g. `${var.|}`
+      (manager.findInjectedElementAt(original, caret) ?: manager.findInjectedElementAt(original, caret - 1))?.containingFile ?: position.containingFile
+    }
+    val local = if (injected == null) caret else injected.textRange.startOffset + (caret - getHostRange(injected).startOffset)
+    val parameters = createParameters(position, originalFile, local)
+
+    val language = PsiUtilCore.getLanguageAtOffset(position.containingFile, local)
+    val service = CompletionService.getCompletionService()
+    for (contributor in CompletionContributor.forLanguage(language)) {
+      if (contributor.javaClass.classLoader != javaClass.classLoader) continue
+      ProgressManager.checkCanceled()
+      contributor.fillCompletionVariants(parameters, service.createResultSet(parameters, Consumer { items.add(createItem(it.lookupElement)) }, contributor))
+    }
+    return items
+  }
+
+  private fun createParameters(position: PsiElement, originalFile: PsiFile, offset: Int): CompletionParameters {
+    // Constructor is package-private, other parameters are not used by contributors of the plugin
+    var ints = 0
+    val arguments = PARAMETERS_CONSTRUCTOR.parameterTypes.map {
+      when (it) {
+        PsiElement::class.java -> position
+        PsiFile::class.java -> originalFile
+        CompletionType::class.java -> CompletionType.BASIC
+        Int::class.javaPrimitiveType -> if (ints++ == 0) offset else 1
+        Editor::class.java -> NO_EDITOR
+        CompletionProcess::class.java -> NO_PROCESS
+        else -> throw IllegalStateException("Unexpected CompletionParameters constructor parameter: $it")
+      }
+    }
+    return PARAMETERS_CONSTRUCTOR.newInstance(*arguments.toTypedArray()) as CompletionParameters
+  }
+
+  private fun createItem(element: LookupElement): JsonObject {
+    val presentation = LookupElementPresentation()
+    element.renderElement(presentation)
+    val item = JsonObject()
+    item.addProperty("label", element.lookupString)
+    val kind = when (element.`object`) {
+      is Function -> KIND_FUNCTION
+      is PropertyType -> KIND_PROPERTY
+      is BlockType -> KIND_CLASS
+      else -> null
+    }
+    if (kind != null) item.addProperty("kind", kind)
+    val detail = presentation.typeText ?: presentation.tailText
+    if (detail != null && detail.isNotBlank()) item.addProperty("detail", StringUtil.first(detail.trim(), 100, true))
+    return item
+  }
+  //endregion
+
+  //region Hover
+  fun getHover(psi: PsiFile, offset: Int, lines: LineIndex): JsonObject? {
+    val leaf = psi.findElementAt(offset) ?: return null
+    val target = resolve(psi, offset).firstOrNull() ?: getDeclaration(leaf) ?: return null
+    val doc = documentationProvider.generateDoc(target, leaf) ?: return null
+
+    val contents = JsonObject()
+    contents.addProperty("kind", "plaintext")
+    contents.addProperty("value", StringUtil.unescapeXml(StringUtil.removeHtmlTags(doc.replace("<br/>", "\n"))))
+    val hover = JsonObject()
+    hover.add("contents", contents)
+    val host = InjectedLanguageManager.getInstance(project).findInjectedElementAt(psi, offset)?.let { getHostRange(it) }
+    hover.add("range", lines.getRange(host ?: leaf.textRange))
+    return hover
+  }
+
+  private fun getDeclaration(leaf: PsiElement): PsiElement? {
+    val parent = PsiTreeUtil.getParentOfType(leaf, HCLProperty::class.java, HCLBlock::class.java) ?: return null
+    val name = (parent as PsiNameIdentifierOwner).nameIdentifier ?: return null
+    return if (PsiTreeUtil.isAncestor(name, leaf, false)) parent else null
+  }
+  //endregion
+
+  //region Definition
+  fun getDefinition(psi: PsiFile, offset: Int, uri: String, lines: LineIndex): JsonArray {
+    val result = JsonArray()
+    for (target in resolve(psi, offset)) {
+      getLocation(target, psi, uri, lines)?.let { result.add(it) }
+    }
+    return result
+  }
+
+  private fun resolve(psi: PsiFile, offset: Int): List<PsiElement> {
+    val injected = InjectedLanguageManager.getInstance(project).findInjectedElementAt(psi, offset)
+    val leaf = injected ?: psi.findElementAt(offset) ?: return emptyList()
+    val local = if (injected == null) offset else {
+      val hostStart = getHostRange(injected).startOffset
+      injected.textRange.startOffset + (offset - hostStart)
+    }
+
+    val targets = LinkedHashSet<PsiElement>()
+    var element: PsiElement? = leaf
+    while (element != null && element !is PsiFile && targets.isEmpty()) {
+      for (reference in element.references) {
+        if (!reference.rangeInElement.shiftRight(element.textRange.startOffset).containsOffset(local)) continue
+        if (reference is PsiPolyVariantReference) {
+          reference.multiResolve(false).mapNotNullTo(targets) { it.element }
+        } else {
+          reference.resolve()?.let { targets.add(it) }
+        }
+      }
+      element = element.parent
+    }
+    return targets.toList()
+  }
+
+  private fun getHostRange(injected: PsiElement): TextRange {
+    val manager = InjectedLanguageManager.getInstance(project)
+    val range = injected.textRange
+    return TextRange(manager.injectedToHost(injected, range.startOffset), manager.injectedToHost(injected, range.endOffset))
+  }
+
+  private fun getLocation(target: PsiElement, psi: PsiFile, uri: String, lines: LineIndex): JsonObject? {
+    val element = (target as? PsiNameIdentifierOwner)?.nameIdentifier ?: target
+    val file = InjectedLanguageManager.getInstance(project).getTopLevelFile(element) ?: return null
+    val range = if (file === element.containingFile) element.textRange else getHostRange(element)
+
+    val location = JsonObject()
+    if (file === psi) {
+      location.addProperty("uri", uri)
+      location.add("range", lines.getRange(range))
+      return location
+    }
+    val virtualFile = file.virtualFile ?: return null
+    val document = FileDocumentManager.getInstance().getDocument(virtualFile) ?: return null
+    location.addProperty("uri", virtualFile.url)
+    location.add("range", LineIndex(document.immutableCharSequence).getRange(range))
+    return location
+  }
+  //endregion
+}
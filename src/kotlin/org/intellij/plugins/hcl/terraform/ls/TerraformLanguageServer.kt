@@ -0,0 +1,266 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls
+
+import com.google.gson.JsonArray
+import com.google.gson.JsonElement
+import com.google.gson.JsonNull
+import com.google.gson.JsonObject
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Computable
+import com.intellij.openapi.vfs.VfsUtil
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Language Server Protocol server for Terraform files, see [TerraformLanguageServerStarter].
+ *
+ * Messages are read on the calling thread of [run]. Document notifications are handled right there,
+ * requests are computed on a bounded pool under read action, each with its own progress indicator,
+ * which is cancelled by `$/cancelRequest`. Diagnostics of a document are recomputed after [diagnosticsDelay] ms
+ * without changes, changed document cancels diagnostics being computed for its previous version.
+ *
+ * @param projectProvider opens project for workspace root path from 'initialize' request, path is null if client has no workspace
+ */
+class TerraformLanguageServer(private val connection: LspConnection,
+                              threads: Int,
+                              private val projectProvider: (String?) -> Project,
+                              private val diagnosticsDelay: Long = DEFAULT_DIAGNOSTICS_DELAY) {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformLanguageServer::class.java)
+
+    const val DEFAULT_DIAGNOSTICS_DELAY = 300L
+
+    // TextDocumentSyncKind.Incremental
+    private const val SYNC_INCREMENTAL = 2
+  }
+
+  private val executor: ExecutorService = AppExecutorUtil.createBoundedApplicationPoolExecutor("Terraform Language Server", threads)
+  private val documents = ConcurrentHashMap<String, LspDocument>()
+  private val requests = ConcurrentHashMap<String, ProgressIndicator>()
+  private val diagnostics = ConcurrentHashMap<String, ProgressIndicator>()
+
+  @Volatile
+  private var features: TerraformLanguageFeatures? = null
+  private var shutdown = false
+
+  /**
+   * Serves messages until 'exit' notification or end of input. Should not be called on EDT.
+   * @return process exit code: 0 if 'shutdown' was requested before exit, 1 otherwise
+   */
+  fun run(): Int {
+    try {
+      while (true) {
+        val message = try {
+          connection.read()
+        } catch (e: IOException) {
+          LOG.warn("Cannot read message", e)
+          connection.respondError(JsonNull.INSTANCE, LspConnection.PARSE_ERROR, e.message ?: "Cannot read message")
+          continue
+        } ?: break
+        if (message.get("method")?.asString == "exit") break
+        try {
+          handle(message)
+        } catch (e: Exception) {
+          LOG.warn("Cannot handle message $message", e)
+          message.get("id")?.let { connection.respondError(it, LspConnection.INTERNAL_ERROR, e.message ?: e.javaClass.name) }
+        }
+      }
+    } finally {
+      diagnostics.values.forEach { it.cancel() }
+      requests.values.forEach { it.cancel() }
+      executor.shutdown()
+      executor.awaitTermination(1, TimeUnit.MINUTES)
+    }
+    return if (shutdown) 0 else 1
+  }
+
+  private fun handle(message: JsonObject) {
+    val method = message.get("method")?.asString
+    val id = message.get("id")
+    val params = message.getAsJsonObject("params") ?: JsonObject()
+    if (method == null) {
+      // Response to server request, server sends none
+      return
+    }
+
+    if (method == "initialize") {
+      initialize(id ?: return, params)
+      return
+    }
+    val features = features
+    if (features == null) {
+      id?.let { connection.respondError(it, LspConnection.SERVER_NOT_INITIALIZED, "Server is not initialized") }
+      return
+    }
+
+    when (method) {
+      "initialized" -> {
+      }
+      "shutdown" -> {
+        shutdown = true
+        connection.respond(id ?: return, null)
+      }
+      "\$/cancelRequest" -> requests[params.get("id").toString()]?.cancel()
+      "textDocument/didOpen" -> {
+        val item = params.getAsJsonObject("textDocument")
+        val document = LspDocument(item.get("uri").asString, item.get("version").asInt, item.get("text").asString)
+        documents[document.uri] = document
+        scheduleDiagnostics(features, document)
+      }
+      "textDocument/didChange" -> {
+        val item = params.getAsJsonObject("textDocument")
+        val document = documents[item.get("uri").asString] ?: return
+        document.applyChanges(item.get("version").asInt, params.getAsJsonArray("contentChanges"))
+        scheduleDiagnostics(features, document)
+      }
+      "textDocument/didClose" -> {
+        val uri = params.getAsJsonObject("textDocument").get("uri").asString
+        documents.remove(uri)
+        diagnostics.remove(uri)?.cancel()
+        publishDiagnostics(uri, null, JsonArray())
+      }
+      "textDocument/didSave" -> {
+        // Module queries read other files from disk
+        val uri = params.getAsJsonObject("textDocument").get("uri").asString
+        TerraformLanguageFeatures.findFile(uri)?.let { VfsUtil.markDirtyAndRefresh(true, false, false, it) }
+      }
+      "textDocument/completion" -> submit(id ?: return, params) { document, snapshot, offset ->
+        features.getCompletion(document, snapshot, offset)
+      }
+      "textDocument/hover" -> submit(id ?: return, params) { document, snapshot, offset ->
+        val psi = features.getPsi(document, snapshot) ?: return@submit null
+        features.getHover(psi, offset, snapshot.lines)
+      }
+      "textDocument/definition" -> submit(id ?: return, params) { document, snapshot, offset ->
+        val psi = features.getPsi(document, snapshot) ?: return@submit JsonArray()
+        features.getDefinition(psi, offset, document.uri, snapshot.lines)
+      }
+      else -> id?.let { connection.respondError(it, LspConnection.METHOD_NOT_FOUND, "Unsupported method: $method") }
+    }
+  }
+
+  private fun initialize(id: JsonElement, params: JsonObject) {
+    val rootUri = params.get("rootUri")?.takeIf { it.isJsonPrimitive }?.asString
+    val root = rootUri?.let { TerraformLanguageFeatures.findFile(it)?.path }
+    features = TerraformLanguageFeatures(projectProvider(root))
+
+    val sync = JsonObject()
+    sync.addProperty("openClose", true)
+    sync.addProperty("change", SYNC_INCREMENTAL)
+    sync.addProperty("save", true)
+    val completion = JsonObject()
+    val triggers = JsonArray()
+    triggers.add(".")
+    completion.add("triggerCharacters", triggers)
+    val capabilities = JsonObject()
+    capabilities.add("textDocumentSync", sync)
+    capabilities.add("completionProvider", completion)
+    capabilities.addProperty("hoverProvider", true)
+    capabilities.addProperty("definitionProvider", true)
+    val info = JsonObject()
+    info.addProperty("name", "terraform-ls")
+    val result = JsonObject()
+    result.add("capabilities", capabilities)
+    result.add("serverInfo", info)
+    connection.respond(id, result)
+  }
+
+  /**
+   * Computes response to a 'textDocument/...' request with 'textDocument' and 'position' parameters
+   */
+  private fun submit(id: JsonElement, params: JsonObject, compute: (LspDocument, LspDocument.Snapshot, Int) -> JsonElement?) {
+    val document = documents[params.getAsJsonObject("textDocument").get("uri").asString]
+    if (document == null) {
+      connection.respondError(id, LspConnection.INVALID_REQUEST, "Document is not opened")
+      return
+    }
+    val snapshot = document.snapshot
+    val position = params.getAsJsonObject("position")
+
+    val key = id.toString()
+    val indicator = EmptyProgressIndicator()
+    requests[key] = indicator
+    executor.execute {
+      try {
+        val offset = snapshot.lines.getOffset(position)
+        val result = runReadAction(indicator) { compute(document, snapshot, offset) }
+        connection.respond(id, result)
+      } catch (e: ProcessCanceledException) {
+        connection.respondError(id, LspConnection.REQUEST_CANCELLED, "Request cancelled")
+      } catch (e: Exception) {
+        LOG.warn("Cannot compute response to request $key", e)
+        connection.respondError(id, LspConnection.INTERNAL_ERROR, e.message ?: e.javaClass.name)
+      } finally {
+        requests.remove(key)
+      }
+    }
+  }
+
+  private fun scheduleDiagnostics(features: TerraformLanguageFeatures, document: LspDocument) {
+    val indicator = EmptyProgressIndicator()
+    diagnostics.put(document.uri, indicator)?.cancel()
+    val snapshot = document.snapshot
+    val task = Runnable {
+      if (indicator.isCanceled) return@Runnable
+      try {
+        val result = runReadAction(indicator) {
+          val psi = features.getPsi(document, snapshot) ?: return@runReadAction null
+          features.getDiagnostics(psi, snapshot.lines)
+        }
+        if (result != null && !indicator.isCanceled) {
+          publishDiagnostics(document.uri, snapshot.version, result)
+        }
+      } catch (e: ProcessCanceledException) {
+        // Newer version is already scheduled
+      } catch (e: Exception) {
+        LOG.warn("Cannot compute diagnostics for ${document.uri}", e)
+      } finally {
+        diagnostics.remove(document.uri, indicator)
+      }
+    }
+    if (diagnosticsDelay <= 0) {
+      executor.execute(task)
+    } else {
+      AppExecutorUtil.getAppScheduledExecutorService().schedule({
+        if (!indicator.isCanceled && !executor.isShutdown) executor.execute(task)
+      }, diagnosticsDelay, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  private fun publishDiagnostics(uri: String, version: Int?, result: JsonArray) {
+    val params = JsonObject()
+    params.addProperty("uri", uri)
+    if (version != null) params.addProperty("version", version)
+    params.add("diagnostics", result)
+    connection.notify("textDocument/publishDiagnostics", params)
+  }
+
+  private fun <T> runReadAction(indicator: ProgressIndicator, compute: () -> T): T {
+    return ProgressManager.getInstance().runProcess(Computable {
+      ApplicationManager.getApplication().runReadAction(Computable { compute() })
+    }, indicator)
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls
+
+import com.intellij.ide.impl.ProjectUtil
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ApplicationStarterEx
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.vfs.LocalFileSystem
+import org.intellij.plugins.hcl.terraform.config.model.TypeModelProvider
+import org.intellij.plugins.hcl.terraform.lint.TerraformLintRunner
+import java.io.File
+import java.io.OutputStream
+
+/**
+ * Headless entry point serving Language Server Protocol over stdin/stdout, usage:
+ * `idea terraform-ls [--threads=<n>]`
+ *
+ * Workspace from 'initialize' request is opened as a project, so module queries work as in IDE.
+ * Everything IDE prints to stdout is redirected to stderr, stdout is used for protocol messages only.
+ */
+class TerraformLanguageServerStarter : ApplicationStarterEx() {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformLanguageServerStarter::class.java)
+    const val COMMAND = "terraform-ls"
+  }
+
+  override fun getCommandName(): String = COMMAND
+
+  override fun isHeadless(): Boolean = true
+
+  override fun premain(args: Array<out String>) {
+  }
+
+  override fun main(args: Array<out String>) {
+    val out = System.out
+    System.setOut(System.err)
+
+    var threads = TerraformLintRunner.DEFAULT_THREADS
+    for (arg in args.drop(1)) {
+      when {
+        arg.startsWith("--threads=") -> threads = arg.removePrefix("--threads=").toIntOrNull() ?: return usage("Incorrect threads count: $arg")
+        else -> return usage("Unknown option: $arg")
+      }
+    }
+
+    // main() is called on EDT: serve on a pooled thread, so EDT keeps processing VFS refresh, indexing and invokeLater requests
+    ApplicationManager.getApplication().executeOnPooledThread {
+      System.exit(serve(out, threads))
+    }
+  }
+
+  private fun serve(out: OutputStream, threads: Int): Int {
+    var project: Project? = null
+    return try {
+      TerraformLanguageServer(LspConnection(System.`in`, out), threads, { root ->
+        val opened = root?.let { openProject(it) } ?: ProjectManager.getInstance().defaultProject
+        project = opened
+        opened
+      }).run()
+    } catch (e: Throwable) {
+      LOG.error("Terraform language server failed", e)
+      2
+    } finally {
+      project?.let { if (!it.isDefault) ApplicationManager.getApplication().invokeAndWait { ProjectUtil.closeAndDispose(it) } }
+    }
+  }
+
+  /**
+   * Called on server thread while handling 'initialize', so no requests are served until indexing is finished
+   */
+  private fun openProject(path: String): Project? {
+    if (LocalFileSystem.getInstance().refreshAndFindFileByIoFile(File(path))?.isDirectory != true) return null
+    var project: Project? = null
+    ApplicationManager.getApplication().invokeAndWait { project = ProjectUtil.openOrImport(path, null, false) }
+    val opened = project ?: return null
+    DumbService.getInstance(opened).waitForSmartMode()
+    // Build the model before first request
+    TypeModelProvider.getModel(opened)
+    return opened
+  }
+
+  private fun usage(error: String) {
+    System.err.println(error)
+    System.err.println("Usage: $COMMAND [--threads=<n>]")
+    System.exit(2)
+  }
+}
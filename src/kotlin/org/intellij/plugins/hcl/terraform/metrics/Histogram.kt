@@ -0,0 +1,108 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.metrics
+
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Lock-free latency histogram. Values are recorded in nanoseconds into log-linear buckets
+ * (8 sub-buckets per power of two), so percentiles are reported with at most 12.5% error.
+ */
+class Histogram(val name: String) {
+  companion object {
+    private const val SUB_BUCKET_BITS = 3
+    private const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+    private const val BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS
+
+    internal fun getBucket(value: Long): Int {
+      if (value < SUB_BUCKETS) return Math.max(0, value.toInt())
+      val msb = 63 - java.lang.Long.numberOfLeadingZeros(value)
+      val shift = msb - SUB_BUCKET_BITS
+      return (shift + 1) * SUB_BUCKETS + ((value ushr shift).toInt() and (SUB_BUCKETS - 1))
+    }
+
+    internal fun getBucketUpperBound(bucket: Int): Long {
+      if (bucket < SUB_BUCKETS) return bucket.toLong()
+      val shift = bucket / SUB_BUCKETS - 1
+      val lower = (SUB_BUCKETS + bucket % SUB_BUCKETS).toLong() shl shift
+      return lower + (1L shl shift) - 1
+    }
+  }
+
+  private val count = LongAdder()
+  private val total = LongAdder()
+  private val max = LongAccumulator(Math::max, 0)
+  private val buckets = AtomicLongArray(BUCKETS)
+
+  /**
+   * @return start mark to pass to [stop], or 0 if metrics are disabled
+   */
+  fun start(): Long = if (TerraformMetrics.isEnabled) System.nanoTime() else 0
+
+  fun stop(start: Long) {
+    if (start == 0L) return
+    record(System.nanoTime() - start)
+  }
+
+  fun record(nanos: Long) {
+    count.increment()
+    total.add(nanos)
+    max.accumulate(nanos)
+    buckets.incrementAndGet(getBucket(nanos))
+  }
+
+  fun reset() {
+    count.reset()
+    total.reset()
+    max.reset()
+    for (i in 0 until buckets.length()) {
+      buckets.set(i, 0)
+    }
+  }
+
+  /**
+   * Concurrent updates may be partially visible in a snapshot, which is fine for diagnostics.
+   */
+  fun snapshot(): Snapshot {
+    val counts = LongArray(BUCKETS) { buckets.get(it) }
+    return Snapshot(name, count.sum(), total.sum(), max.get(), percentile(counts, 0.5), percentile(counts, 0.99))
+  }
+
+  private fun percentile(counts: LongArray, percentile: Double): Long {
+    val all = counts.sum()
+    if (all == 0L) return 0
+    val threshold = Math.ceil(all * percentile).toLong()
+    var seen = 0L
+    for (i in counts.indices) {
+      seen += counts[i]
+      if (seen >= threshold) return getBucketUpperBound(i)
+    }
+    return getBucketUpperBound(counts.size - 1)
+  }
+
+  class Snapshot(val name: String, val count: Long, val totalNanos: Long, val maxNanos: Long, val p50Nanos: Long, val p99Nanos: Long)
+}
+
+inline fun <T> Histogram.measure(block: () -> T): T {
+  val start = start()
+  try {
+    return block()
+  } finally {
+    stop(start)
+  }
+}
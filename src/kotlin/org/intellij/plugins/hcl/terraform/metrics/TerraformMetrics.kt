@@ -0,0 +1,108 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.metrics
+
+import com.google.gson.stream.JsonWriter
+import com.intellij.codeInsight.completion.CompletionParameters
+import com.intellij.codeInsight.completion.CompletionProvider
+import com.intellij.codeInsight.completion.CompletionResultSet
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiElementVisitor
+import com.intellij.util.ProcessingContext
+import java.io.Writer
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Counters and timers for Terraform hot paths, see [TFDumpMetricsAction][org.intellij.plugins.hcl.terraform.actions.TFDumpMetricsAction].
+ * Could be turned off with `-Dterraform.metrics.disabled=true`.
+ */
+object TerraformMetrics {
+  @JvmStatic
+  val isEnabled: Boolean = !java.lang.Boolean.getBoolean("terraform.metrics.disabled")
+
+  private val histograms = ConcurrentHashMap<String, Histogram>()
+
+  @JvmField val ModelLoadFile = histogram("model.load.file")
+  @JvmField val ModuleDetection = histogram("module.detection")
+  @JvmField val ModuleProcess = histogram("module.process")
+  @JvmField val HILResolve = histogram("hil.resolve")
+  @JvmField val HILInjection = histogram("hil.injection")
+  @JvmField val JsonDeclarations = histogram("json.declarations")
+
+  @JvmStatic
+  fun histogram(name: String): Histogram = histograms.computeIfAbsent(name, ::Histogram)
+
+  @JvmStatic
+  fun reset() {
+    histograms.values.forEach(Histogram::reset)
+  }
+
+  @JvmStatic
+  fun writeJson(writer: Writer) {
+    val json = JsonWriter(writer)
+    json.setIndent("  ")
+    json.beginObject()
+    json.name("timestamp").value(System.currentTimeMillis())
+    json.name("enabled").value(isEnabled)
+    json.name("histograms").beginObject()
+    for (snapshot in histograms.values.map(Histogram::snapshot).sortedBy { it.name }) {
+      json.name(snapshot.name).beginObject()
+      json.name("count").value(snapshot.count)
+      json.name("totalMs").value(snapshot.totalNanos / 1000000)
+      json.name("meanUs").value(if (snapshot.count == 0L) 0 else snapshot.totalNanos / snapshot.count / 1000)
+      json.name("p50Us").value(snapshot.p50Nanos / 1000)
+      json.name("p99Us").value(snapshot.p99Nanos / 1000)
+      json.name("maxUs").value(snapshot.maxNanos / 1000)
+      json.endObject()
+    }
+    json.endObject()
+    json.endObject()
+    json.flush()
+  }
+
+  /**
+   * Wraps inspection visitor so time spent in every visited element is recorded into `inspection.<short name>` histogram.
+   */
+  @JvmStatic
+  fun instrument(inspection: LocalInspectionTool, visitor: PsiElementVisitor): PsiElementVisitor {
+    if (!isEnabled || visitor === PsiElementVisitor.EMPTY_VISITOR) return visitor
+    return InstrumentedVisitor(visitor, histogram("inspection." + inspection.shortName))
+  }
+
+  /**
+   * Wraps completion provider so its calls are recorded into `completion.<provider class name>` histogram.
+   */
+  @JvmStatic
+  fun instrument(provider: CompletionProvider<CompletionParameters>): CompletionProvider<CompletionParameters> {
+    if (!isEnabled) return provider
+    return InstrumentedCompletionProvider(provider, histogram("completion." + provider.javaClass.simpleName))
+  }
+
+  // Elements dispatch unknown visitors to visitElement, so all visit* calls of delegate are measured here
+  private class InstrumentedVisitor(private val delegate: PsiElementVisitor, private val histogram: Histogram) : PsiElementVisitor() {
+    override fun visitElement(element: PsiElement) {
+      histogram.measure { element.accept(delegate) }
+    }
+  }
+
+  private class InstrumentedCompletionProvider(private val delegate: CompletionProvider<CompletionParameters>,
+                                               private val histogram: Histogram) : CompletionProvider<CompletionParameters>() {
+    override fun addCompletions(parameters: CompletionParameters, context: ProcessingContext?, result: CompletionResultSet) {
+      histogram.measure { delegate.addCompletionVariants(parameters, context ?: ProcessingContext(), result) }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.plan
+
+import com.intellij.execution.process.ProcessAdapter
+import com.intellij.execution.process.ProcessEvent
+import com.intellij.execution.process.ProcessOutputTypes
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.Key
+import java.io.IOException
+import java.io.PipedReader
+import java.io.PipedWriter
+import java.io.Reader
+
+/**
+ * Streams standard output of process to [reader], so it can be consumed while process runs without storing it anywhere.
+ * [reader] should be read in another thread and closed once not needed anymore, otherwise process output is blocked.
+ * Reader reaches its end once process is terminated.
+ */
+class StdoutPipeListener : ProcessAdapter() {
+  companion object {
+    private val LOG = Logger.getInstance(StdoutPipeListener::class.java)
+    private const val BUFFER_SIZE = 64 * 1024
+  }
+
+  val reader: Reader = PipedReader(BUFFER_SIZE)
+  private var writer: PipedWriter? = PipedWriter(reader as PipedReader)
+
+  @Synchronized
+  override fun onTextAvailable(event: ProcessEvent, outputType: Key<*>) {
+    if (outputType != ProcessOutputTypes.STDOUT) return
+    try {
+      writer?.write(event.text)
+    } catch (e: IOException) {
+      // Reader was closed, rest of output is not needed
+      LOG.debug("Cannot pass process output: ${e.message}")
+      close()
+    }
+  }
+
+  @Synchronized
+  override fun processTerminated(event: ProcessEvent) {
+    close()
+  }
+
+  private fun close() {
+    try {
+      writer?.close()
+    } catch (e: IOException) {
+      LOG.warn(e)
+    }
+    writer = null
+  }
+}
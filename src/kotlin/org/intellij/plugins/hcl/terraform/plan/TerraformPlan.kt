@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.plan
+
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import com.intellij.openapi.progress.ProgressManager
+import java.io.IOException
+import java.io.Reader
+
+enum class ChangeKind(val description: String) {
+  CREATE("created"),
+  READ("read"),
+  UPDATE("updated in-place"),
+  REPLACE("replaced"),
+  DELETE("destroyed");
+
+  companion object {
+    /**
+     * @param actions 'actions' of change in plan JSON, e.g. '["delete", "create"]'
+     */
+    fun fromActions(actions: List<String>): ChangeKind? {
+      return when {
+        actions.contains("delete") && actions.contains("create") -> REPLACE
+        actions.contains("create") -> CREATE
+        actions.contains("delete") -> DELETE
+        actions.contains("update") -> UPDATE
+        actions.contains("read") -> READ
+        else -> null
+      }
+    }
+  }
+}
+
+/**
+ * Resource changes from `terraform show -json <planfile>` output. Only changed resources are kept,
+ * instances of resources with `count` or `for_each` are merged under the resource address, e.g. `aws_instance.web`.
+ */
+class TerraformPlan(private val changes: Map<String, Int>) {
+  companion object {
+    /**
+     * Streams over plan JSON, values before and after change are skipped without being read into memory.
+     */
+    @JvmStatic
+    @Throws(IOException::class)
+    fun parse(reader: Reader): TerraformPlan {
+      val changes = HashMap<String, Int>()
+      val json = JsonReader(reader)
+      json.beginObject()
+      while (json.hasNext()) {
+        if (json.nextName() != "resource_changes") {
+          json.skipValue()
+          continue
+        }
+        json.beginArray()
+        while (json.hasNext()) {
+          ProgressManager.checkCanceled()
+          readResourceChange(json)?.let { (address, kind) ->
+            val key = getResourceAddress(address)
+            changes[key] = (changes[key] ?: 0) or (1 shl kind.ordinal)
+          }
+        }
+        json.endArray()
+      }
+      json.endObject()
+      return TerraformPlan(changes)
+    }
+
+    private fun readResourceChange(json: JsonReader): Pair<String, ChangeKind>? {
+      var address: String? = null
+      var kind: ChangeKind? = null
+      json.beginObject()
+      while (json.hasNext()) {
+        when (json.nextName()) {
+          "address" -> address = json.nextString()
+          "change" -> {
+            json.beginObject()
+            while (json.hasNext()) {
+              if (json.nextName() == "actions" && json.peek() == JsonToken.BEGIN_ARRAY) {
+                val actions = ArrayList<String>(2)
+                json.beginArray()
+                while (json.hasNext()) actions.add(json.nextString())
+                json.endArray()
+                kind = ChangeKind.fromActions(actions)
+              } else {
+                json.skipValue()
+              }
+            }
+            json.endObject()
+          }
+          else -> json.skipValue()
+        }
+      }
+      json.endObject()
+      if (address == null || kind == null) return null
+      return address to kind
+    }
+
+    /**
+     * Removes instance key: 'aws_instance.web[0]' -> 'aws_instance.web', 'module.a["x"].aws_instance.web' is kept as is
+     */
+    @JvmStatic
+    fun getResourceAddress(address: String): String {
+      if (!address.endsWith(']')) return address
+      val start = address.lastIndexOf('[')
+      return if (start > 0) address.substring(0, start) else address
+    }
+  }
+
+  val size: Int
+    get() = changes.size
+
+  /**
+   * @param address resource address without instance key, e.g. 'data.aws_ami.ubuntu' or 'module.vpc.aws_subnet.public'
+   */
+  fun getChanges(address: String): Set<ChangeKind> {
+    val mask = changes[address] ?: return emptySet()
+    return ChangeKind.values().filterTo(LinkedHashSet()) { mask and (1 shl it.ordinal) != 0 }
+  }
+}
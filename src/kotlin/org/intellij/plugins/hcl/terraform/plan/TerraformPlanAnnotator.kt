@@ -0,0 +1,50 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.plan
+
+import com.intellij.lang.annotation.AnnotationHolder
+import com.intellij.lang.annotation.Annotator
+import com.intellij.openapi.diff.DiffColors
+import com.intellij.openapi.project.DumbAware
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLFile
+
+/**
+ * Marks headers of resource and data blocks which would be changed by plan loaded into [TerraformPlanService].
+ * Lookup is a single hash map access per block, so annotations follow edits without re-reading the plan.
+ */
+class TerraformPlanAnnotator : Annotator, DumbAware {
+  override fun annotate(element: PsiElement, holder: AnnotationHolder) {
+    if (element !is HCLBlock || element.parent !is HCLFile) return
+    val service = TerraformPlanService.getInstance(element.project)
+    if (!service.hasPlan) return
+    val changes = service.getChanges(element)
+    if (changes.isEmpty()) return
+
+    val names = element.nameElements
+    if (names.isEmpty()) return
+    val range = TextRange(names.first().textRange.startOffset, names.last().textRange.endOffset)
+    val message = "Plan: will be " + changes.joinToString(" or ") { it.description }
+    holder.createInfoAnnotation(range, message).textAttributes = when {
+      changes.size > 1 -> DiffColors.DIFF_MODIFIED
+      ChangeKind.CREATE in changes -> DiffColors.DIFF_INSERTED
+      ChangeKind.DELETE in changes || ChangeKind.REPLACE in changes -> DiffColors.DIFF_DELETED
+      else -> DiffColors.DIFF_MODIFIED
+    }
+  }
+}
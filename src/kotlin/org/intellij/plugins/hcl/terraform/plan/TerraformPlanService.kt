@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.plan
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.psi.HCLFile
+import org.intellij.plugins.hcl.psi.getNameElementUnquoted
+
+/**
+ * Holds the last loaded plan for [TerraformPlanAnnotator]. Plan is applied to files of its root module directory only.
+ */
+class TerraformPlanService(private val project: Project) {
+  companion object {
+    @JvmStatic
+    fun getInstance(project: Project): TerraformPlanService = ServiceManager.getService(project, TerraformPlanService::class.java)
+  }
+
+  private class LoadedPlan(val plan: TerraformPlan, val directory: VirtualFile)
+
+  @Volatile
+  private var loaded: LoadedPlan? = null
+
+  val hasPlan: Boolean
+    get() = loaded != null
+
+  fun setPlan(plan: TerraformPlan, directory: VirtualFile) {
+    loaded = LoadedPlan(plan, directory)
+    DaemonCodeAnalyzer.getInstance(project).restart()
+  }
+
+  fun clear() {
+    loaded = null
+    DaemonCodeAnalyzer.getInstance(project).restart()
+  }
+
+  fun getChanges(block: HCLBlock): Set<ChangeKind> {
+    val current = loaded ?: return emptySet()
+    val file = block.parent as? HCLFile ?: return emptySet()
+    if (file.originalFile.virtualFile?.parent != current.directory) return emptySet()
+    val type = block.getNameElementUnquoted(1) ?: return emptySet()
+    val name = block.getNameElementUnquoted(2) ?: return emptySet()
+    val address = when (block.getNameElementUnquoted(0)) {
+      "resource" -> "$type.$name"
+      "data" -> "data.$type.$name"
+      else -> return emptySet()
+    }
+    return current.plan.getChanges(address)
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.state
+
+import com.google.gson.JsonParser
+import com.intellij.openapi.progress.ProgressManager
+import org.intellij.plugins.hcl.terraform.config.json.ChannelJsonScanner
+import org.intellij.plugins.hcl.terraform.config.json.JsonStreamScanner
+import java.io.DataInput
+import java.io.DataOutput
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+/**
+ * Maps resource addresses (e.g. `aws_instance.web`, `data.aws_ami.ubuntu`, `module.vpc.aws_subnet.public.0`)
+ * to byte ranges of their attribute values in a state file. Values are read from the file on request only.
+ *
+ * Both state format used by Terraform 0.11 (version 3) and 0.12 (version 4) are supported.
+ */
+class TerraformStateIndex private constructor(val path: String,
+                                              val size: Long,
+                                              val modified: Long,
+                                              private val resources: Map<String, ResourceAttributes>) {
+  companion object {
+    private const val FORMAT_VERSION = 1
+    private const val MAX_VALUE_LENGTH = 1024
+
+    @JvmStatic
+    @Throws(IOException::class)
+    fun build(file: File): TerraformStateIndex {
+      val size = file.length()
+      val modified = file.lastModified()
+      if (size > Int.MAX_VALUE) throw IOException("State file is too big: ${file.path}")
+      val resources = FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+        StateScanner(ChannelJsonScanner(channel)).scan()
+      }
+      return TerraformStateIndex(file.absolutePath, size, modified, resources)
+    }
+
+    @JvmStatic
+    @Throws(IOException::class)
+    fun read(input: DataInput): TerraformStateIndex? {
+      if (input.readInt() != FORMAT_VERSION) return null
+      val path = input.readUTF()
+      val size = input.readLong()
+      val modified = input.readLong()
+      val names = Array(input.readInt()) { input.readUTF() }
+      val count = input.readInt()
+      val resources = HashMap<String, ResourceAttributes>(count)
+      repeat(count) {
+        val address = input.readUTF()
+        val n = input.readInt()
+        val attributeNames = Array(n) { names[input.readInt()] }
+        val starts = LongArray(n) { input.readLong() }
+        val lengths = IntArray(n) { input.readInt() }
+        resources[address] = ResourceAttributes(attributeNames, starts, lengths)
+      }
+      return TerraformStateIndex(path, size, modified, resources)
+    }
+  }
+
+  /**
+   * Attribute names with offsets and lengths of their JSON values, arrays are parallel
+   */
+  class ResourceAttributes(val names: Array<String>, internal val starts: LongArray, internal val lengths: IntArray)
+
+  val addresses: Set<String>
+    get() = resources.keys
+
+  fun isUpToDate(file: File): Boolean {
+    return file.absolutePath == path && file.length() == size && file.lastModified() == modified
+  }
+
+  /**
+   * Looks up resource by address. For resources with `count` first instance is returned if there's no exact match.
+   */
+  fun find(address: String): ResourceAttributes? {
+    return resources[address] ?: resources["$address.0"] ?: resources["$address[0]"]
+  }
+
+  /**
+   * Reads attribute values of resource from the state file, long values are truncated.
+   * @return null if there is no such resource or the file was changed since index was built
+   */
+  fun readAttributes(address: String, names: Collection<String>? = null): Map<String, String>? {
+    val attributes = find(address) ?: return null
+    val file = File(path)
+    if (!isUpToDate(file)) return null
+    val result = LinkedHashMap<String, String>()
+    try {
+      FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+        for (i in attributes.names.indices) {
+          val name = attributes.names[i]
+          if (names != null && name !in names) continue
+          result[name] = readValue(channel, attributes.starts[i], attributes.lengths[i])
+        }
+      }
+    } catch (e: IOException) {
+      return null
+    }
+    return result
+  }
+
+  fun readAttribute(address: String, name: String): String? {
+    return readAttributes(address, listOf(name))?.get(name)
+  }
+
+  private fun readValue(channel: FileChannel, start: Long, length: Int): String {
+    val truncated = length > MAX_VALUE_LENGTH
+    val buffer = ByteBuffer.allocate(Math.min(length, MAX_VALUE_LENGTH))
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, start + buffer.position()) < 0) break
+    }
+    val raw = String(buffer.array(), 0, buffer.position(), Charsets.UTF_8)
+    if (truncated) return "$raw..."
+    if (raw.startsWith('"')) {
+      return try {
+        JsonParser().parse(raw).asString
+      } catch (e: Exception) {
+        raw
+      }
+    }
+    return raw
+  }
+
+  @Throws(IOException::class)
+  fun write(output: DataOutput) {
+    output.writeInt(FORMAT_VERSION)
+    output.writeUTF(path)
+    output.writeLong(size)
+    output.writeLong(modified)
+
+    val names = LinkedHashMap<String, Int>()
+    for (attributes in resources.values) {
+      for (name in attributes.names) names.getOrPut(name) { names.size }
+    }
+    output.writeInt(names.size)
+    for (name in names.keys) output.writeUTF(name)
+
+    output.writeInt(resources.size)
+    for ((address, attributes) in resources) {
+      output.writeUTF(address)
+      output.writeInt(attributes.names.size)
+      for (name in attributes.names) output.writeInt(names[name]!!)
+      for (start in attributes.starts) output.writeLong(start)
+      for (length in attributes.lengths) output.writeInt(length)
+    }
+  }
+}
+
+/**
+ * Single forward pass over state JSON without materializing values, only keys needed for addresses are decoded.
+ */
+private class StateScanner(private val scanner: JsonStreamScanner) {
+  private val names = HashMap<String, String>()
+  private val result = HashMap<String, TerraformStateIndex.ResourceAttributes>()
+
+  fun scan(): Map<String, TerraformStateIndex.ResourceAttributes> {
+    scanner.forEachField { name, _ ->
+      when (name) {
+        // Version 3
+        "modules" -> scanner.forEachElement { scanModuleV3() }
+        // Version 4
+        "resources" -> scanner.forEachElement { scanResourceV4() }
+        else -> scanner.skipValue()
+      }
+    }
+    return result
+  }
+
+  private fun scanModuleV3() {
+    var prefix = ""
+    val resources = ArrayList<Pair<String, TerraformStateIndex.ResourceAttributes>>()
+    scanner.forEachField { name, _ ->
+      when (name) {
+        "path" -> {
+          val path = ArrayList<String>()
+          scanner.forEachElement { path.add(scanner.readString()) }
+          prefix = path.drop(1).joinToString("") { "module.$it." }
+        }
+        "resources" -> scanner.forEachField { address, _ ->
+          ProgressManager.checkCanceled()
+          var attributes: TerraformStateIndex.ResourceAttributes? = null
+          scanner.forEachField { field, _ ->
+            if (field == "primary") {
+              scanner.forEachField { key, _ -> if (key == "attributes") attributes = scanAttributes() else scanner.skipValue() }
+            } else {
+              scanner.skipValue()
+            }
+          }
+          attributes?.let { resources.add(address to it) }
+        }
+        else -> scanner.skipValue()
+      }
+    }
+    for ((address, attributes) in resources) {
+      result[prefix + address] = attributes
+    }
+  }
+
+  private fun scanResourceV4() {
+    ProgressManager.checkCanceled()
+    var mode: String? = null
+    var type: String? = null
+    var resourceName: String? = null
+    var module: String? = null
+    val instances = ArrayList<Pair<String?, TerraformStateIndex.ResourceAttributes>>()
+    scanner.forEachField { name, _ ->
+      when (name) {
+        "mode" -> mode = scanner.readString()
+        "type" -> type = scanner.readString()
+        "name" -> resourceName = scanner.readString()
+        "module" -> module = scanner.readString()
+        "instances" -> scanner.forEachElement {
+          var key: String? = null
+          var attributes: TerraformStateIndex.ResourceAttributes? = null
+          scanner.forEachField { field, _ ->
+            when (field) {
+              "index_key" -> key = scanner.readRawValue()
+              "attributes" -> attributes = scanAttributes()
+              else -> scanner.skipValue()
+            }
+          }
+          attributes?.let { instances.add(key to it) }
+        }
+        else -> scanner.skipValue()
+      }
+    }
+    if (type == null || resourceName == null) return
+    val address = buildString {
+      if (module != null) append(module).append('.')
+      if (mode == "data") append("data.")
+      append(type).append('.').append(resourceName)
+    }
+    for ((key, attributes) in instances) {
+      result[if (key == null) address else "$address[$key]"] = attributes
+    }
+  }
+
+  private fun scanAttributes(): TerraformStateIndex.ResourceAttributes {
+    val attributeNames = ArrayList<String>()
+    val starts = ArrayList<Long>()
+    val lengths = ArrayList<Int>()
+    scanner.forEachField { name, _ ->
+      scanner.skipWhitespace()
+      val start = scanner.position
+      scanner.skipValue()
+      // Same attribute names are repeated in every resource of same type
+      attributeNames.add(names.getOrPut(name) { name })
+      starts.add(start.toLong())
+      lengths.add(scanner.position - start)
+    }
+    return TerraformStateIndex.ResourceAttributes(attributeNames.toTypedArray(), starts.toLongArray(), lengths.toIntArray())
+  }
+}
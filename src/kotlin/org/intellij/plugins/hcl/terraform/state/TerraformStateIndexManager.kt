@@ -0,0 +1,105 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.state
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import java.io.*
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keeps [TerraformStateIndex] for state files in memory and in the IDE system directory, so they survive restarts.
+ * Index is rebuilt once state file size or modification time changes.
+ */
+class TerraformStateIndexManager {
+  companion object {
+    private val LOG = Logger.getInstance(TerraformStateIndexManager::class.java)
+
+    @JvmStatic
+    fun getInstance(): TerraformStateIndexManager = ServiceManager.getService(TerraformStateIndexManager::class.java)
+  }
+
+  // Both maps are keyed by absolute state file path
+  private val indices = ConcurrentHashMap<String, TerraformStateIndex>()
+  private val locks = ConcurrentHashMap<String, Any>()
+  private val storage: File by lazy { File(PathManager.getSystemPath(), "terraform/state-index") }
+
+  /**
+   * Returns index of state used in [directory], if there's one. Never builds index on EDT.
+   */
+  fun getIndex(directory: VirtualFile): TerraformStateIndex? {
+    if (!directory.isInLocalFileSystem) return null
+    val file = TerraformStateLocator.findStateFile(File(directory.path)) ?: return null
+    return getIndex(file)
+  }
+
+  fun getIndex(stateFile: File): TerraformStateIndex? {
+    val path = stateFile.absolutePath
+    indices[path]?.let { if (it.isUpToDate(stateFile)) return it }
+    if (ApplicationManager.getApplication().isDispatchThread) return null
+
+    // Only the same state file is indexed once at a time, different files are indexed in parallel
+    synchronized(locks.computeIfAbsent(path) { Any() }) {
+      indices[path]?.let { if (it.isUpToDate(stateFile)) return it }
+      val index = load(stateFile) ?: build(stateFile) ?: return null
+      indices[path] = index
+      return index
+    }
+  }
+
+  private fun build(stateFile: File): TerraformStateIndex? {
+    val index = try {
+      TerraformStateIndex.build(stateFile)
+    } catch (e: ProcessCanceledException) {
+      throw e
+    } catch (e: Exception) {
+      LOG.warn("Cannot index Terraform state ${stateFile.path}: ${e.message}")
+      return null
+    }
+    try {
+      val file = getStorageFile(stateFile)
+      FileUtil.createParentDirs(file)
+      DataOutputStream(BufferedOutputStream(FileOutputStream(file))).use { index.write(it) }
+    } catch (e: IOException) {
+      LOG.warn("Cannot save Terraform state index", e)
+    }
+    return index
+  }
+
+  private fun load(stateFile: File): TerraformStateIndex? {
+    val file = getStorageFile(stateFile)
+    if (!file.isFile) return null
+    return try {
+      DataInputStream(BufferedInputStream(FileInputStream(file))).use { TerraformStateIndex.read(it) }?.takeIf { it.isUpToDate(stateFile) }
+    } catch (e: IOException) {
+      LOG.debug("Cannot load Terraform state index from ${file.path}", e)
+      null
+    }
+  }
+
+  private fun getStorageFile(stateFile: File): File {
+    val path = FileUtil.toSystemIndependentName(stateFile.absolutePath)
+    val digest = MessageDigest.getInstance("SHA-1").digest(path.toByteArray(Charsets.UTF_8))
+    return File(storage, "${stateFile.name}-${StringUtil.toHexString(digest)}.idx")
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.state
+
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import com.intellij.openapi.diagnostic.Logger
+import java.io.File
+
+/**
+ * Finds local state file used by Terraform in some directory: `terraform.tfstate` of the current workspace
+ * or the file configured for `local` backend in `.terraform/terraform.tfstate`.
+ */
+object TerraformStateLocator {
+  private val LOG = Logger.getInstance(TerraformStateLocator::class.java)
+
+  const val DEFAULT_STATE_FILE = "terraform.tfstate"
+
+  fun findStateFile(directory: File): File? {
+    val workspace = getWorkspace(directory)
+    if (workspace != null) {
+      return File(directory, "terraform.tfstate.d/$workspace/$DEFAULT_STATE_FILE").takeIf { it.isFile }
+    }
+
+    val backendConfig = File(directory, ".terraform/$DEFAULT_STATE_FILE")
+    if (backendConfig.isFile) {
+      val backend = readBackend(backendConfig)
+      if (backend != null) {
+        if (backend.get("type")?.asString != "local") return null
+        val path = backend.getAsJsonObject("config")?.get("path")?.takeIf { it.isJsonPrimitive }?.asString
+        if (path != null) {
+          val file = File(path)
+          return (if (file.isAbsolute) file else File(directory, path)).takeIf { it.isFile }
+        }
+      }
+    }
+    return File(directory, DEFAULT_STATE_FILE).takeIf { it.isFile }
+  }
+
+  private fun getWorkspace(directory: File): String? {
+    val file = File(directory, ".terraform/environment")
+    if (!file.isFile) return null
+    val name = try {
+      file.readText().trim()
+    } catch (e: Exception) {
+      return null
+    }
+    return name.takeIf { it.isNotEmpty() && it != "default" }
+  }
+
+  private fun readBackend(file: File): JsonObject? {
+    // Small file: backend configuration and hash only
+    return try {
+      file.reader(Charsets.UTF_8).use { reader ->
+        val root = JsonParser().parse(reader)
+        if (root.isJsonObject) root.asJsonObject.get("backend")?.takeIf { it.isJsonObject }?.asJsonObject else null
+      }
+    } catch (e: Exception) {
+      LOG.debug("Cannot read backend configuration from ${file.path}", e)
+      null
+    }
+  }
+}
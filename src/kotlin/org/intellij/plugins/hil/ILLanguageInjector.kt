@@ -15,6 +15,7 @@
  */
 package org.intellij.plugins.hil
 
+import com.intellij.json.psi.JsonStringLiteral
 import com.intellij.openapi.util.TextRange
 import com.intellij.psi.InjectedLanguagePlaces
 import com.intellij.psi.LanguageInjector
@@ -23,7 +24,10 @@ import org.intellij.plugins.hcl.psi.HCLFile
 import org.intellij.plugins.hcl.psi.HCLHeredocContent
 import org.intellij.plugins.hcl.psi.HCLStringLiteral
 import org.intellij.plugins.hcl.psi.impl.HCLPsiImplUtils
+import org.intellij.plugins.hcl.terraform.config.json.TerraformJsonDeclarations
 import org.intellij.plugins.hcl.terraform.config.patterns.TerraformPatterns
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
 import org.intellij.plugins.hil.HILElementTypes.INTERPOLATION_END
 import org.intellij.plugins.hil.HILElementTypes.INTERPOLATION_START
 import org.intellij.plugins.hil.psi.HILLexer
@@ -31,11 +35,12 @@ import java.util.*
 
 class ILLanguageInjector : LanguageInjector {
   override fun getLanguagesToInject(host: PsiLanguageInjectionHost, places: InjectedLanguagePlaces) {
-    return Companion.getLanguagesToInject(host, places)
+    return TerraformMetrics.HILInjection.measure { Companion.getLanguagesToInject(host, places) }
   }
 
   companion object {
     fun getLanguagesToInject(host: PsiLanguageInjectionHost, places: InjectedLanguagePlaces) {
+      if (host is JsonStringLiteral) return getJsonStringLiteralInjections(host, places)
       if (host !is HCLStringLiteral && host !is HCLHeredocContent) return
       // Only .tf (Terraform config) files
       val file = host.containingFile
@@ -60,6 +65,22 @@ class ILLanguageInjector : LanguageInjector {
       }
     }
 
+    /**
+     * Injections depend only on literal text, so they are computed lazily, for literals of `.tf.json` files
+     * whose PSI is requested (e.g. highlighted), and do not require PSI of other JSON files.
+     */
+    fun getJsonStringLiteralInjections(host: JsonStringLiteral, places: InjectedLanguagePlaces) {
+      val text = host.text
+      if (!text.contains("\${")) return
+      val file = host.containingFile?.virtualFile ?: return
+      if (!TerraformJsonDeclarations.isTerraformJsonFile(file)) return
+      // Quotes are not part of the value
+      val content = TextRange(1, Math.max(1, text.length - 1))
+      for (range in getILRangesInText(content.substring(text))) {
+        places.addPlace(HILLanguage, range.shiftRight(content.startOffset), null, null)
+      }
+    }
+
     fun getHCLHeredocContentInjections(host: HCLHeredocContent, places: InjectedLanguagePlaces) {
       if (host.linesCount == 0) return
       val lines = HCLPsiImplUtils.getLinesInternal(host)
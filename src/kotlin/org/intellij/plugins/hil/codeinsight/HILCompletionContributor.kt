@@ -22,6 +22,8 @@ import com.intellij.codeInsight.lookup.LookupElementPresentation
 import com.intellij.codeInsight.lookup.LookupElementRenderer
 import com.intellij.icons.AllIcons
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.DumbAware
+import com.intellij.patterns.ElementPattern
 import com.intellij.patterns.PatternCondition
 import com.intellij.patterns.PlatformPatterns
 import com.intellij.psi.PsiElement
@@ -30,6 +32,7 @@ import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.util.ProcessingContext
 import com.intellij.util.SmartList
 import org.intellij.plugins.debug
+import org.intellij.plugins.hcl.codeinsight.DumbAwareCompletionProvider
 import org.intellij.plugins.hcl.navigation.HCLQualifiedNameProvider
 import org.intellij.plugins.hcl.psi.*
 import org.intellij.plugins.hcl.terraform.config.Constants
@@ -39,32 +42,37 @@ import org.intellij.plugins.hcl.terraform.config.codeinsight.TerraformConfigComp
 import org.intellij.plugins.hcl.terraform.config.codeinsight.TerraformLookupElementRenderer
 import org.intellij.plugins.hcl.terraform.config.model.*
 import org.intellij.plugins.hcl.terraform.config.model.Function
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.HILLanguage
 import org.intellij.plugins.hil.codeinsight.ReferenceCompletionHelper.findByFQNRef
 import org.intellij.plugins.hil.psi.*
 import org.intellij.plugins.hil.psi.impl.getHCLHost
 import java.util.*
 
-class HILCompletionContributor : CompletionContributor() {
+class HILCompletionContributor : CompletionContributor(), DumbAware {
   init {
-    extend(CompletionType.BASIC, METHOD_POSITION, MethodsCompletionProvider)
-    extend(CompletionType.BASIC, METHOD_POSITION, ResourceTypesCompletionProvider)
-    extend(null, METHOD_POSITION, FullReferenceCompletionProvider)
-    extend(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
+    extendProvider(CompletionType.BASIC, METHOD_POSITION, MethodsCompletionProvider)
+    extendProvider(CompletionType.BASIC, METHOD_POSITION, ResourceTypesCompletionProvider)
+    extendProvider(null, METHOD_POSITION, FullReferenceCompletionProvider)
+    extendProvider(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
         .withParent(ILVariable::class.java).withSuperParent(2, ILSE_FROM_KNOWN_SCOPE)
         , KnownScopeCompletionProvider)
-    extend(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
+    extendProvider(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
         .withParent(ILVariable::class.java).withSuperParent(2, ILSE_NOT_FROM_KNOWN_SCOPE)
         , SelectCompletionProvider)
-    extend(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
+    extendProvider(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
         .withParent(ILVariable::class.java).withSuperParent(2, ILSE_DATA_SOURCE)
         , SelectCompletionProvider)
 
-    extend(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
+    extendProvider(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(HILLanguage)
         .withParent(ILLiteralExpression::class.java).withSuperParent(2, ILISE_NOT_FROM_KNOWN_SCOPE)
         , SelectCompletionProvider)
   }
 
+  private fun extendProvider(type: CompletionType?, place: ElementPattern<out PsiElement>, provider: CompletionProvider<CompletionParameters>) {
+    extend(type, place, DumbAwareCompletionProvider(TerraformMetrics.instrument(provider)))
+  }
+
   override fun beforeCompletion(context: CompletionInitializationContext) {
     context.dummyIdentifier = CompletionUtilCore.DUMMY_IDENTIFIER_TRIMMED
   }
@@ -196,6 +204,7 @@ class HILCompletionContributor : CompletionContributor() {
       for (v in variables) {
         result.addElement(create(v.name))
       }
+      getTerraformModule(variable)?.findJsonDeclarations("variable")?.forEach { result.addElement(create(it.name)) }
     }
   }
 
@@ -244,6 +253,7 @@ class HILCompletionContributor : CompletionContributor() {
       for (v in variables) {
         result.addElement(create(v))
       }
+      getTerraformModule(variable)?.findJsonDeclarations("locals")?.forEach { result.addElement(create(it.name)) }
     }
   }
 
@@ -255,6 +265,7 @@ class HILCompletionContributor : CompletionContributor() {
         val name = m.getNameElementUnquoted(1)
         if (name != null) result.addElement(create(name))
       }
+      module.findJsonDeclarations("module").forEach { result.addElement(create(it.name)) }
     }
   }
 
@@ -264,6 +275,7 @@ class HILCompletionContributor : CompletionContributor() {
 
       val dataSources = module.getDeclaredDataSources()
       val types = dataSources.mapNotNull { it.getNameElementUnquoted(1) }.toSortedSet()
+      module.findJsonDeclarations("data").mapNotNullTo(types) { it.declaration.type }
       result.addAllElements(types.map { create(it) })
 
       if (parameters.isExtendedCompletion) {
@@ -331,9 +343,11 @@ class HILCompletionContributor : CompletionContributor() {
         if (HILCompletionContributor.ILSE_DATA_SOURCE.accepts(parent)) {
           val dataSources = module.findDataSource(expression.name, null)
           dataSources.mapNotNull { it.getNameElementUnquoted(2) }.toCollection(names)
+          module.findJsonDeclarations("data", expression.name).mapTo(names) { it.name }
         } else {
           val resources = module.findResources(expression.name, null)
           resources.mapNotNull { it.getNameElementUnquoted(2) }.toCollection(names)
+          module.findJsonDeclarations("resource", expression.name).mapTo(names) { it.name }
         }
         result.addAllElements(names.map { create(it) })
         // TODO: support 'module.MODULE_NAME.OUTPUT_NAME' references (in that or another provider)
@@ -389,6 +403,7 @@ class HILCompletionContributor : CompletionContributor() {
       val module = host.getTerraformModule()
       val resources = module.getDeclaredResources()
       val types = resources.mapNotNull { it.getNameElementUnquoted(1) }.toSortedSet()
+      module.findJsonDeclarations("resource").mapNotNullTo(types) { it.declaration.type }
       result.addAllElements(types.map { create(it) })
 
       if (parameters.isExtendedCompletion) {
@@ -18,6 +18,7 @@ package org.intellij.plugins.hil.codeinsight
 import com.intellij.lang.annotation.AnnotationHolder
 import com.intellij.lang.annotation.Annotator
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.project.DumbAware
 import com.intellij.psi.PsiElement
 import org.intellij.plugins.hcl.psi.HCLFile
 import org.intellij.plugins.hil.HILSyntaxHighlighterFactory
@@ -27,7 +28,7 @@ import org.intellij.plugins.hil.psi.ILVariable
 import org.intellij.plugins.hil.psi.getGoodLeftElement
 import org.intellij.plugins.hil.psi.impl.getHCLHost
 
-class HILVariableAnnotator : Annotator {
+class HILVariableAnnotator : Annotator, DumbAware {
   companion object {
     private val DEBUG = ApplicationManager.getApplication().isUnitTestMode
     val scopes = HILCompletionContributor.SCOPES
@@ -17,6 +17,7 @@ package org.intellij.plugins.hil.codeinsight
 
 import org.intellij.plugins.hcl.navigation.HCLQualifiedNameProvider
 import org.intellij.plugins.hcl.psi.HCLBlock
+import org.intellij.plugins.hcl.terraform.config.model.ModelFQN
 import org.intellij.plugins.hcl.terraform.config.model.Module
 
 object ReferenceCompletionHelper {
@@ -46,13 +47,14 @@ object ReferenceCompletionHelper {
       else -> null
     } ?: return null
     if (parts.size == 2) return second
-    return second.mapNotNull { find(it, parts.subList(2, parts.size), fqn) }
+    val modelFQN = ModelFQN.of(parts) ?: return null
+    return second.mapNotNull { find(it, parts.subList(2, parts.size), modelFQN) }
   }
 
   /**
    * @return either HCLProperty or HCLBlock or null
    */
-  private fun find(block: HCLBlock, parts: List<String>, fqn: String): Any? {
+  private fun find(block: HCLBlock, parts: List<String>, fqn: ModelFQN): Any? {
     if (parts.isEmpty()) return null
     val obj = block.`object` ?: return null
     val property = obj.findProperty(parts.first())
@@ -60,7 +62,7 @@ object ReferenceCompletionHelper {
       return if (parts.size == 1) property else null
     }
     // TODO: Support many blocks with same name
-    val blk = obj.blockList.find { HCLQualifiedNameProvider.getQualifiedModelName(it)?.let { it == fqn || fqn.startsWith(it + '.') } ?: false }
+    val blk = obj.blockList.find { HCLQualifiedNameProvider.getQualifiedModelFQN(it)?.let { fqn.startsWith(it) } ?: false }
     if (blk != null) {
       return if (parts.size == 1) blk else find(blk, parts.subList(1, parts.size), fqn)
     }
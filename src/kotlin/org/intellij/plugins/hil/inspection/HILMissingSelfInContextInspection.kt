@@ -22,6 +22,7 @@ import com.intellij.lang.injection.InjectedLanguageManager
 import com.intellij.openapi.progress.ProgressIndicatorProvider
 import com.intellij.psi.PsiElementVisitor
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.psi.*
 import org.intellij.plugins.hil.psi.impl.getHCLHost
 
@@ -33,7 +34,7 @@ class HILMissingSelfInContextInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   inner class MyEV(val holder: ProblemsHolder) : ILElementVisitor() {
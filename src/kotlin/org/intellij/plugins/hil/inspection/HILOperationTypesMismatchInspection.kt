@@ -24,6 +24,7 @@ import com.intellij.psi.PsiElementVisitor
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
 import org.intellij.plugins.hcl.terraform.config.model.Type
 import org.intellij.plugins.hcl.terraform.config.model.Types
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.GoUtil
 import org.intellij.plugins.hil.HILElementTypes
 import org.intellij.plugins.hil.HILElementTypes.IL_BINARY_EQUALITY_EXPRESSION
@@ -39,7 +40,7 @@ class HILOperationTypesMismatchInspection : LocalInspectionTool() {
     if (ft != TerraformFileType) {
       return super.buildVisitor(holder, isOnTheFly)
     }
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   inner class MyEV(val holder: ProblemsHolder) : ILElementVisitor() {
@@ -24,6 +24,7 @@ import com.intellij.psi.PsiElementVisitor
 import org.intellij.plugins.hcl.psi.HCLElement
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
 import org.intellij.plugins.hcl.terraform.config.model.getTerraformModule
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.codeinsight.HILCompletionContributor
 import org.intellij.plugins.hil.psi.ILElementVisitor
 import org.intellij.plugins.hil.psi.ILSelectExpression
@@ -38,7 +39,7 @@ class HILUnknownResourceTypeReferencedInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   inner class MyEV(val holder: ProblemsHolder) : ILElementVisitor() {
@@ -63,5 +64,5 @@ class HILUnknownResourceTypeReferencedInspection : LocalInspectionTool() {
 fun isExistingResourceType(element: ILVariable, host: HCLElement): Boolean {
   val name = element.name
   val module = host.getTerraformModule()
-  return module.findResources(name, null).isNotEmpty()
+  return module.findResources(name, null).isNotEmpty() || module.findJsonDeclarations("resource", name).isNotEmpty()
 }
@@ -29,6 +29,7 @@ import com.intellij.psi.PsiReference
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.FileReferenceOwner
 import com.intellij.xml.util.AnchorReference
 import org.intellij.plugins.hcl.terraform.config.TerraformFileType
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
 import org.intellij.plugins.hil.codeinsight.isResourceInstanceReference
 import org.intellij.plugins.hil.codeinsight.isResourcePropertyReference
 import org.intellij.plugins.hil.codeinsight.isScopeElementReference
@@ -45,7 +46,7 @@ class HILUnresolvedReferenceInspection : LocalInspectionTool() {
       return super.buildVisitor(holder, isOnTheFly)
     }
 
-    return MyEV(holder)
+    return TerraformMetrics.instrument(this, MyEV(holder))
   }
 
   companion object {
@@ -20,13 +20,15 @@ import com.intellij.psi.PsiElementResolveResult
 import com.intellij.psi.PsiReferenceBase
 import com.intellij.psi.ResolveResult
 import org.intellij.plugins.hcl.psi.HCLElement
+import org.intellij.plugins.hcl.terraform.metrics.TerraformMetrics
+import org.intellij.plugins.hcl.terraform.metrics.measure
 import org.intellij.plugins.hil.inspection.PsiFakeAwarePolyVariantReference
 
 abstract class HCLElementLazyReferenceBase<T : PsiElement>(from: T, soft: Boolean) : PsiReferenceBase.Poly<T>(from, soft), PsiFakeAwarePolyVariantReference {
   abstract fun resolve(incompleteCode: Boolean, includeFake: Boolean): List<HCLElement>
 
   override fun multiResolve(incompleteCode: Boolean, includeFake: Boolean): Array<out ResolveResult> {
-    return PsiElementResolveResult.createResults(resolve(incompleteCode, includeFake))
+    return TerraformMetrics.HILResolve.measure { PsiElementResolveResult.createResults(resolve(incompleteCode, includeFake)) }
   }
 
   override fun multiResolve(incompleteCode: Boolean): Array<out ResolveResult> {
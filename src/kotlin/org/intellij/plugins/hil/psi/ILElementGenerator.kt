@@ -15,13 +15,32 @@
  */
 package org.intellij.plugins.hil.psi
 
+import com.intellij.lang.ASTFactory
 import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiErrorElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.source.DummyHolderFactory
+import com.intellij.psi.util.PsiTreeUtil
+import org.intellij.plugins.hil.HILElementTypes
 import org.intellij.plugins.hil.HILFileType
 
 open class ILElementGenerator(val project: Project) {
+  companion object {
+    private val ID_PATTERN = Regex("[a-zA-Z_][0-9a-zA-Z\\-_*]*")
+    private val KEYWORDS = setOf("true", "false", "null")
+  }
+
   fun createILVariable(text: String): ILVariable {
+    if (ID_PATTERN.matches(text) && text !in KEYWORDS) {
+      // Single identifier token, no need to parse
+      val holder = DummyHolderFactory.createHolder(PsiManager.getInstance(project), null).treeElement
+      val variable = ASTFactory.composite(HILElementTypes.IL_VARIABLE)
+      holder.rawAddChildren(variable)
+      variable.rawAddChildren(ASTFactory.leaf(HILElementTypes.ID, holder.charTable.intern(text)))
+      return variable.psi as ILVariable
+    }
     val file = createDummyFile(text)
     val firstChild = file.firstChild
     if (firstChild is ILExpressionHolder) {
@@ -39,6 +58,33 @@ open class ILElementGenerator(val project: Project) {
     return firstChild as ILSelectExpression
   }
 
+  fun createVarReferences(names: List<String>): List<ILSelectExpression> {
+    @Suppress("UNCHECKED_CAST")
+    return createILExpressions(names.map { "var.$it" }) as List<ILSelectExpression>
+  }
+
+  /**
+   * Creates expressions from [texts], all of them are parsed from a single dummy file as arguments of one method call.
+   * Falls back to parsing each expression separately if some text is not a correct single expression.
+   */
+  fun createILExpressions(texts: List<String>): List<ILExpression> {
+    if (texts.size > 1) {
+      val file = createDummyFile(texts.joinToString(", ", "f(", ")"))
+      val call = (file.firstChild as? ILExpressionHolder)?.ilExpression as? ILMethodCallExpression
+      val parameters = call?.parameterList?.parameters
+      if (parameters != null && parameters.size == texts.size && !PsiTreeUtil.hasErrorElements(file)) return parameters
+    }
+    return texts.map { createILExpression(it) }
+  }
+
+  private fun createILExpression(text: String): ILExpression {
+    val firstChild = createDummyFile(text).firstChild
+    if (firstChild is ILExpressionHolder) {
+      return firstChild.ilExpression!!
+    }
+    return firstChild as ILExpression
+  }
+
   open fun createDummyFile(content: String): PsiFile {
     var code = content
     if (!code.startsWith("\${") && !code.endsWith("}")) {
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hil.psi
+
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.IElementType
+import org.intellij.plugins.hil.HILElementTypes.*
+import org.intellij.plugins.hil.ILLanguageInjector
+
+/**
+ * Finds select chains like `var.x`, `aws_instance.x.*.id` or `module.m.out` in interpolations using only [HILLexer],
+ * without PSI and language injection, so it's cheap enough for indexing and bulk analysis.
+ */
+object ILReferenceScanner {
+  /**
+   * Processes select chains in all interpolations found in [text]
+   * @param consumer receives chain segments and chain start offset in [text]
+   */
+  fun processInterpolations(text: String, consumer: (List<String>, Int) -> Unit) {
+    if (!text.contains("\${")) return
+    for (range in ILLanguageInjector.getILRangesInText(text)) {
+      processChains(text, range.startOffset, range.endOffset, consumer)
+    }
+  }
+
+  /**
+   * Processes select chains in interpolation located in [text] between [start] and [end]
+   */
+  fun processChains(text: CharSequence, start: Int, end: Int, consumer: (List<String>, Int) -> Unit) {
+    val lexer = HILLexer()
+    lexer.start(text, start, end)
+    var previous: IElementType? = null
+    while (lexer.tokenType != null) {
+      if (lexer.tokenType == ID && previous != OP_DOT) {
+        val offset = lexer.tokenStart
+        val parts = ArrayList<String>(4)
+        parts.add(lexer.tokenText)
+        lexer.advance()
+        while (lexer.tokenType == OP_DOT) {
+          lexer.advance()
+          val type = lexer.tokenType
+          if (type != ID && type != NUMBER && type != OP_MUL) break
+          parts.add(lexer.tokenText)
+          lexer.advance()
+        }
+        consumer(parts, offset)
+        previous = null
+        continue
+      }
+      if (lexer.tokenType != TokenType.WHITE_SPACE) previous = lexer.tokenType
+      lexer.advance()
+    }
+  }
+}
@@ -85,14 +85,15 @@ object ILSelectFromScopeReferenceProvider : PsiReferenceProvider() {
       }
       "module" -> {
         return arrayOf(HCLElementLazyReference(element, false) { _, _ ->
-          this.element.getHCLHost()?.getTerraformModule()?.findModules(this.element.name)?.map { it.nameIdentifier as HCLElement } ?: emptyList()
+          val module = this.element.getHCLHost()?.getTerraformModule() ?: return@HCLElementLazyReference emptyList()
+          module.findModules(this.element.name).map { it.nameIdentifier as HCLElement } + module.findJsonDeclarations("module", name = this.element.name)
         })
       }
       "local" -> {
         return arrayOf(HCLElementLazyReference(element, false) { _, _ ->
-          this.element.getHCLHost()?.getTerraformModule()?.getAllLocals()
-              ?.filter { this.element.name == it.first }?.map { it.second.nameElement }
-              ?: emptyList()
+          val module = this.element.getHCLHost()?.getTerraformModule() ?: return@HCLElementLazyReference emptyList()
+          module.getAllLocals().filter { this.element.name == it.first }.map { it.second.nameElement } +
+              module.findJsonDeclarations("locals", name = this.element.name)
         })
       }
     }
@@ -100,7 +101,9 @@ object ILSelectFromScopeReferenceProvider : PsiReferenceProvider() {
   }
 
   class VariableReference(element: ILVariableMixin) : HCLElementLazyReference<ILVariableMixin>(element, false, { _, _ ->
-    listOfNotNull(this.element.getHCLHost()?.getTerraformModule()?.findVariable(this.element.name)?.second?.nameIdentifier as HCLElement?)
+    val module = this.element.getHCLHost()?.getTerraformModule()
+    val variable = module?.findVariable(this.element.name)?.second?.nameIdentifier as HCLElement?
+    if (variable != null) listOf(variable) else module?.findJsonDeclarations("variable", name = this.element.name).orEmpty()
   }), LocalQuickFixProvider {
     override fun getQuickFixes() = arrayOf(AddVariableFix(this.element))
   }
@@ -28,6 +28,7 @@ import org.intellij.plugins.hcl.navigation.HCLQualifiedNameProvider
 import org.intellij.plugins.hcl.psi.*
 import org.intellij.plugins.hcl.terraform.config.Constants
 import org.intellij.plugins.hcl.terraform.config.codeinsight.ModelHelper
+import org.intellij.plugins.hcl.terraform.config.json.TerraformJsonDeclarationElement
 import org.intellij.plugins.hcl.terraform.config.model.*
 import org.intellij.plugins.hil.codeinsight.HILCompletionContributor
 import org.intellij.plugins.hil.inspection.PsiFakeAwarePolyVariantReference
@@ -82,22 +83,26 @@ object ILSelectFromSomethingReferenceProvider : PsiReferenceProvider() {
 
     if (HILCompletionContributor.ILSE_DATA_SOURCE.accepts(parent)) {
       return arrayOf(HCLElementLazyReference(element, false) { _, _ ->
-        val module = this.element.getHCLHost()?.getTerraformModule()
-        val dataSources = module?.findDataSource(ev, getSelectFieldText(element)!!) ?: emptyList()
-        dataSources.map { it.nameIdentifier as HCLElement }
+        val module = this.element.getHCLHost()?.getTerraformModule() ?: return@HCLElementLazyReference emptyList()
+        val name = getSelectFieldText(element)!!
+        module.findDataSource(ev, name).map { it.nameIdentifier as HCLElement } + module.findJsonDeclarations("data", ev, name)
       })
     }
 
     // TODO: get suitable resource/provider/etc
     return arrayOf(HCLElementLazyReference(element, false) { _, _ ->
-      val module = this.element.getHCLHost()?.getTerraformModule()
-      val resources = module?.findResources(ev, getSelectFieldText(element)!!) ?: emptyList()
-      resources.map { it.nameIdentifier as HCLElement }
+      val module = this.element.getHCLHost()?.getTerraformModule() ?: return@HCLElementLazyReference emptyList()
+      val name = getSelectFieldText(element)!!
+      module.findResources(ev, name).map { it.nameIdentifier as HCLElement } + module.findJsonDeclarations("resource", ev, name)
     })
   }
 
   private fun collectReferences(r: PsiElement, name: String, found: MutableList<HCLElement>, fake: Boolean) {
     when (r) {
+      is TerraformJsonDeclarationElement -> {
+        // Content of JSON declarations is not parsed, accept any attribute
+        found.add(FakeHCLProperty(name, r, true))
+      }
       is HCLStringLiteral, is HCLIdentifier -> {
         val p = r.parent
         if (p is HCLBlock && p.nameIdentifier === r) {
@@ -121,8 +126,8 @@ object ILSelectFromSomethingReferenceProvider : PsiReferenceProvider() {
         // TODO: Move this special support somewhere else
         val blockType = r.getNameElementUnquoted(0)
 
-        val fqn = HCLQualifiedNameProvider.getQualifiedModelName(r)
-        if (ServiceManager.getService(TypeModelProvider::class.java).ignored_references.contains(fqn)) {
+        val fqn = HCLQualifiedNameProvider.getQualifiedModelFQN(r)
+        if (ServiceManager.getService(TypeModelProvider::class.java).isIgnoredReference(fqn)) {
           if (fake) found.add(FakeHCLProperty(name, r))
         } else if ("module" == blockType) {
           val module = Module.getAsModuleBlock(r)
@@ -169,7 +174,7 @@ object ILSelectFromSomethingReferenceProvider : PsiReferenceProvider() {
               found.add(FakeHCLProperty(name, r, true))
               return
             }
-            val fqn = HCLQualifiedNameProvider.getQualifiedModelName(r)
+            val fqn = HCLQualifiedNameProvider.getQualifiedModelFQN(r)
             if (fqn != null) {
               val type = ModelHelper.getTypeModel(r.project).getByFQN(fqn)
               if (type is PropertyOrBlockType && type is BlockType && type.computed) {
@@ -177,7 +182,7 @@ object ILSelectFromSomethingReferenceProvider : PsiReferenceProvider() {
                 return
               }
             }
-            if (ServiceManager.getService(TypeModelProvider::class.java).ignored_references.contains(fqn)) {
+            if (ServiceManager.getService(TypeModelProvider::class.java).isIgnoredReference(fqn)) {
               found.add(FakeHCLProperty(name, r))
             }
           }
@@ -190,7 +195,7 @@ object ILSelectFromSomethingReferenceProvider : PsiReferenceProvider() {
               return
             }
             if (fake) {
-              val fqn = HCLQualifiedNameProvider.getQualifiedModelName(r)
+              val fqn = HCLQualifiedNameProvider.getQualifiedModelFQN(r)
               val type = fqn?.let { ModelHelper.getTypeModel(r.project).getByFQN(it) }
               if (type is PropertyOrBlockType && type is BlockType) {
                 // It's actually an incorrectly defined block, e.g. 'test = {}' instead of 'test {}'
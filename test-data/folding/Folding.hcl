@@ -0,0 +1,26 @@
+<fold text='//...'>// first
+// second</fold>
+a <fold text='{b = 1}'>{
+  b = 1
+}</fold>
+c = <fold text='[...]'>[
+  1,
+  2
+]</fold>
+single = <fold text='[3]'>[
+  3
+]</fold>
+d <fold text='{e {f = true}}'>{
+  e <fold text='{f = true}'>{
+    f = true
+  }</fold>
+}</fold>
+g <fold text='{...}'>{
+  <fold text='//...'># one
+  # two</fold>
+  h = 1
+  i = 2
+}</fold>
+<fold text='/*...*/'>/* multi
+line */</fold>
+empty = {}
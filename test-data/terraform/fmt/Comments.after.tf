@@ -0,0 +1,16 @@
+# Leading comment
+// Double slash comment
+/* Block
+   comment */
+variable "region" {
+  default = "us-east-1" # Trailing comment
+}
+
+resource "aws_instance" "web" {
+  # Instance type
+  instance_type = "t2.micro"
+  ami           = "ami-123"
+  /* Block comment inside */
+  count = 2
+  // Comment before closing brace
+}
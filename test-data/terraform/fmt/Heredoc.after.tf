@@ -0,0 +1,19 @@
+resource "aws_instance" "web" {
+  user_data = <<EOF
+#!/bin/bash
+  echo   "hello"   
+
+EOF
+
+  tags {
+    Name = "web"
+  }
+}
+
+variable "policy" {
+  default = <<POLICY
+{
+  "Version": "2012-10-17"
+}
+POLICY
+}
@@ -0,0 +1,24 @@
+variable "zones"{
+  default=["us-east-1a","us-east-1b" ]
+}
+
+variable "matrix" {
+  default = [ [1,2],[3,4] ]
+}
+
+resource "aws_instance" "web" {
+  count = 2
+
+  security_groups = [
+"${aws_security_group.a.id}",
+      "${aws_security_group.b.id}",
+  ]
+
+  tags = {
+    Name="web"
+  }
+}
+
+output "ips" {
+  value = [ "${aws_instance.web.*.private_ip}" ]
+}
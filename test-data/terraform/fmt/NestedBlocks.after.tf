@@ -0,0 +1,28 @@
+resource "aws_elb" "web" {
+  name     = "example-elb"
+  internal = false
+
+  listener {
+    instance_port     = 80
+    instance_protocol = "http"
+    lb_port           = 80
+  }
+
+  health_check {
+    healthy_threshold = 2
+    target            = "HTTP:80/"
+  }
+}
+
+resource "google_compute_instance" "vm" {
+  boot_disk {
+    initialize_params {
+      image = "debian-cloud/debian-9"
+    }
+  }
+}
+
+module "consul" {
+  source  = "hashicorp/consul/aws"
+  servers = 3
+}
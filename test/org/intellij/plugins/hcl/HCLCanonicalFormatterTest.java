@@ -0,0 +1,109 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.intellij.plugins.hcl.formatter.HCLCanonicalFormatter;
+import org.intellij.plugins.hcl.terraform.config.formatter.TerraformFmt;
+
+import java.io.File;
+import java.io.IOException;
+
+public class HCLCanonicalFormatterTest extends UsefulTestCase {
+  private final HCLCanonicalFormatter myFormatter = TerraformFmt.getFormatter();
+
+  public void testSimpleProperty() throws Exception {
+    doTest("a=1", "a = 1\n");
+  }
+
+  public void testBlockAlignment() throws Exception {
+    doTest("block x {\na=true\nbaz=42\n}", "block x {\n  a   = true\n  baz = 42\n}\n");
+  }
+
+  public void testAlignmentBrokenByEmptyLine() throws Exception {
+    doTest("a=1\nbaz=2\n\nlonger_name=3", "a   = 1\nbaz = 2\n\nlonger_name = 3\n");
+  }
+
+  public void testEmptyLinesCollapsed() throws Exception {
+    doTest("a=1\n\n\n\nb=2\n\n\n", "a = 1\n\nb = 2\n");
+  }
+
+  public void testListSpacing() throws Exception {
+    doTest("x = [ \"a\" ,\"b\" ]", "x = [\"a\", \"b\"]\n");
+  }
+
+  public void testEmptyBlock() throws Exception {
+    doTest("a \"b\"{ }", "a \"b\" {}\n");
+  }
+
+  public void testTrailingCommentKept() throws Exception {
+    doTest("a=1# comment  \n", "a = 1 # comment\n");
+  }
+
+  public void testHeredocNotTouched() throws Exception {
+    doTest("x {\nv=<<EOF\n  keep   this\n\n\nEOF\n}", "x {\n  v = <<EOF\n  keep   this\n\n\nEOF\n}\n");
+  }
+
+  public void testIncorrectTextNotFormatted() throws Exception {
+    assertNull(myFormatter.format("a = <<\n"));
+  }
+
+  public void testFmtComments() throws Exception {
+    doFileTest();
+  }
+
+  public void testFmtHeredoc() throws Exception {
+    doFileTest();
+  }
+
+  public void testFmtNestedBlocks() throws Exception {
+    doFileTest();
+  }
+
+  public void testFmtLists() throws Exception {
+    doFileTest();
+  }
+
+  public void testIdempotent() throws Exception {
+    File[] files = new File("test-data/psi").listFiles((dir, name) -> name.endsWith(".tf") || name.endsWith(".hcl"));
+    assertNotNull(files);
+    for (File file : files) {
+      String formatted = myFormatter.format(load(file));
+      if (formatted == null) continue;
+      assertEquals("Formatting is not idempotent for " + file.getName(), formatted, myFormatter.format(formatted));
+    }
+  }
+
+  private void doTest(String input, String expected) {
+    assertEquals(expected, myFormatter.format(input));
+  }
+
+  /**
+   * Expected files contain `terraform fmt` output for the corresponding source files
+   */
+  private void doFileTest() throws IOException {
+    String name = getTestName(false).substring("Fmt".length());
+    String source = load(new File("test-data/terraform/fmt/" + name + ".tf"));
+    String expected = load(new File("test-data/terraform/fmt/" + name + ".after.tf"));
+    assertEquals(expected, myFormatter.format(source));
+    assertEquals(expected, myFormatter.format(expected));
+  }
+
+  private static String load(File file) throws IOException {
+    return FileUtil.loadFile(file, "UTF-8", true);
+  }
+}
@@ -21,7 +21,9 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.testFramework.LexerTestCase;
 import org.intellij.plugins.BaseLexerTestCase;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -36,6 +38,12 @@ public class HCLLexerTest extends BaseLexerTestCase {
     return "data/hcl/lexer";
   }
 
+  @Override
+  protected void doTest(String text, @Nullable String expected) {
+    super.doTest(text, expected);
+    checkRestartFromRestartableStates(text);
+  }
+
   public void testSimple() throws Exception {
     doTest("a=1", "ID ('a')\n" +
         "= ('=')\n" +
@@ -676,6 +684,53 @@ public class HCLLexerTest extends BaseLexerTestCase {
         "");
   }
 
+  public void testHereDoc_RestartPoints() throws Exception {
+    StringBuilder text = new StringBuilder("a = <<-POLICY\n");
+    for (int i = 0; i < 50; i++) {
+      text.append("  \"Statement\": [{\"Resource\": \"${var.arn[").append(i).append("]}/*\", \"Effect\": 'Allow'}],\n");
+      if (i % 10 == 0) text.append("POLICYX\n\n");
+    }
+    text.append("  POLICY\nb = <<EOF\n\\\nEOF\nc = true\n");
+
+    int restartable = checkRestartFromRestartableStates(text.toString());
+    // Every token inside heredocs is a restart point
+    assertTrue(restartable > 2 * 55);
+  }
+
+  /**
+   * Checks that lexing started from any token with restartable state gives same tokens as lexing whole text.
+   * @return number of checked restart points
+   */
+  protected int checkRestartFromRestartableStates(String text) {
+    List<String> expected = getTokens(text, 0, 0);
+    Lexer lexer = createLexer();
+    lexer.start(text);
+    int index = 0;
+    int restartable = 0;
+    while (lexer.getTokenType() != null) {
+      int state = lexer.getState();
+      if (HCLLexer.isRestartableState(state)) {
+        restartable++;
+        List<String> actual = getTokens(text, lexer.getTokenStart(), state);
+        assertEquals("Restart from offset " + lexer.getTokenStart(), expected.subList(index, expected.size()), actual);
+      }
+      index++;
+      lexer.advance();
+    }
+    return restartable;
+  }
+
+  private List<String> getTokens(String text, int start, int state) {
+    Lexer lexer = createLexer();
+    lexer.start(text, start, text.length(), state);
+    List<String> tokens = new ArrayList<>();
+    while (lexer.getTokenType() != null) {
+      tokens.add(lexer.getTokenType() + " " + lexer.getTokenStart() + ":" + lexer.getTokenEnd());
+      lexer.advance();
+    }
+    return tokens;
+  }
+
   // From several 'panic' issues in HCL itself
   public void testBrokenInput() throws Exception {
     doTestNoException("{\"\\0"); // #194
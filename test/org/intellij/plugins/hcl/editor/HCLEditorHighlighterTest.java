@@ -0,0 +1,125 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.editor;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import com.intellij.openapi.editor.highlighter.EditorHighlighter;
+import com.intellij.openapi.editor.highlighter.HighlighterIterator;
+import com.intellij.openapi.fileTypes.SyntaxHighlighterFactory;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.HCLSyntaxHighlighterFactory;
+import org.intellij.plugins.hcl.terraform.config.TerraformFileType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HCLEditorHighlighterTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testTypingInHeredoc() throws Exception {
+    StringBuilder text = new StringBuilder("resource x y {\n  policy = <<-POLICY\n");
+    for (int i = 0; i < 100; i++) {
+      text.append("    {\"Resource\": \"${var.arn[").append(i).append("]}\"}\n");
+      if (i == 50) text.append("    <caret>\n");
+    }
+    text.append("  POLICY\n  name = \"a\"\n}\n");
+    myFixture.configureByText("a.tf", text.toString());
+    EditorHighlighter highlighter = ((EditorEx)myFixture.getEditor()).getHighlighter();
+    assertInstanceOf(highlighter, HCLEditorHighlighter.class);
+
+    myFixture.type("\"x\" = ${");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("\n  POLICY\n");
+    checkSameAsFullRelex(highlighter);
+    for (int i = 0; i < 9; i++) myFixture.type('\b');
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("<<EOF\n");
+    checkSameAsFullRelex(highlighter);
+  }
+
+  public void testTypingString() throws Exception {
+    myFixture.configureByText("a.tf", "a = <caret>\nb = \"c\"\n");
+    EditorHighlighter highlighter = ((EditorEx)myFixture.getEditor()).getHighlighter();
+    myFixture.type("\"abc\\n ${x}");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("\"");
+    checkSameAsFullRelex(highlighter);
+  }
+
+  public void testTypingInLongStringWithInterpolations() throws Exception {
+    StringBuilder text = new StringBuilder("a = \"");
+    for (int i = 0; i < 100; i++) {
+      text.append("x\\n${var.a[").append(i).append("]}-${lookup(var.m, \"k${i}\")}");
+      if (i == 50) text.append("<caret>");
+    }
+    text.append("\"\nb = 'c'\n");
+    myFixture.configureByText("a.tf", text.toString());
+    EditorHighlighter highlighter = ((EditorEx)myFixture.getEditor()).getHighlighter();
+    assertInstanceOf(highlighter, LexerEditorHighlighter.class);
+
+    myFixture.type("y");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("${z");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("}\\t");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type("\"");
+    checkSameAsFullRelex(highlighter);
+    myFixture.type('\b');
+    checkSameAsFullRelex(highlighter);
+    for (int i = 0; i < 6; i++) myFixture.type('\b');
+    checkSameAsFullRelex(highlighter);
+  }
+
+  public void testDocumentWithoutEditor() throws Exception {
+    HCLEditorHighlighter highlighter = new HCLEditorHighlighter(getSyntaxHighlighter(),
+                                                                EditorColorsManager.getInstance().getGlobalScheme());
+    DocumentImpl document = new DocumentImpl("a = 1\n");
+    highlighter.setText(document.getImmutableCharSequence());
+    try {
+      highlighter.createIterator(0).getDocument();
+      fail("Document is not known yet");
+    }
+    catch (IllegalStateException ignored) {
+    }
+
+    document.addDocumentListener(highlighter);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(0, "b = 2\n"));
+    assertSame(document, highlighter.createIterator(0).getDocument());
+  }
+
+  private void checkSameAsFullRelex(EditorHighlighter highlighter) {
+    CharSequence text = myFixture.getEditor().getDocument().getImmutableCharSequence();
+    HCLEditorHighlighter fresh = new HCLEditorHighlighter(getSyntaxHighlighter(),
+                                                          myFixture.getEditor().getColorsScheme());
+    fresh.setText(text);
+    assertEquals(getTokens(fresh), getTokens(highlighter));
+  }
+
+  private HCLSyntaxHighlighterFactory.MySyntaxHighlighter getSyntaxHighlighter() {
+    return (HCLSyntaxHighlighterFactory.MySyntaxHighlighter)SyntaxHighlighterFactory.getSyntaxHighlighter(TerraformFileType.INSTANCE, getProject(), null);
+  }
+
+  private static List<String> getTokens(EditorHighlighter highlighter) {
+    List<String> tokens = new ArrayList<>();
+    for (HighlighterIterator it = highlighter.createIterator(0); !it.atEnd(); it.advance()) {
+      tokens.add(it.getTokenType() + " " + it.getStart() + ":" + it.getEnd());
+    }
+    return tokens;
+  }
+}
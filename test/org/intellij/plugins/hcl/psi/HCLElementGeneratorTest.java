@@ -15,6 +15,7 @@
  */
 package org.intellij.plugins.hcl.psi;
 
+import com.intellij.lang.Language;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
@@ -116,6 +117,59 @@ public class HCLElementGeneratorTest extends LightPlatformTestCase {
     assertEquals(1, element.getNameElements().length);
   }
 
+  public void testCreateEscapedStringLiteral() throws Exception {
+    final HCLStringLiteral element = myElementGenerator.createStringLiteral("a \"b\"\nc", '"');
+    assertEquals("\"a \\\"b\\\"\\nc\"", element.getText());
+    assertEquals("a \"b\"\nc", element.getValue());
+  }
+
+  public void testCreateSingleQuotedStringLiteral() throws Exception {
+    final HCLStringLiteral element = myElementGenerator.createStringLiteral("it's \"b\"", '\'');
+    assertEquals("'it\\'s \"b\"'", element.getText());
+    assertEquals("it's \"b\"", element.getValue());
+  }
+
+  public void testUnparsedElementsHaveGeneratorLanguage() throws Exception {
+    final Language language = myElementGenerator.createDummyFile("").getLanguage();
+    assertEquals(language, myElementGenerator.createStringLiteral("a", '"').getContainingFile().getLanguage());
+    assertEquals(language, myElementGenerator.createIdentifier("id").getContainingFile().getLanguage());
+  }
+
+  public void testCreateProperties() throws Exception {
+    final List<HCLProperty> properties = myElementGenerator.createProperties(Arrays.asList(
+        new kotlin.Pair<>("a", "1"), new kotlin.Pair<>("b", "\"x\""), new kotlin.Pair<>("c d", "[]")));
+    assertEquals(3, properties.size());
+    assertEquals("a", properties.get(0).getName());
+    assertTrue(properties.get(0).getValue() instanceof HCLNumberLiteral);
+    assertEquals("b", properties.get(1).getName());
+    assertEquals("x", ((HCLStringLiteral) properties.get(1).getValue()).getValue());
+    assertEquals("c d", properties.get(2).getName());
+    assertTrue(properties.get(2).getValue() instanceof HCLArray);
+  }
+
+  public void testCreatePropertiesWithIncorrectValue() throws Exception {
+    final List<HCLProperty> properties = myElementGenerator.createProperties(Arrays.asList(
+        new kotlin.Pair<>("a", "{"), new kotlin.Pair<>("b", "2")));
+    assertEquals(2, properties.size());
+    assertEquals("a", properties.get(0).getName());
+    assertEquals("b", properties.get(1).getName());
+  }
+
+  public void testCreateValues() throws Exception {
+    final List<HCLValue> values = myElementGenerator.createValues(Arrays.asList("true", "'v'", "42"));
+    assertEquals(3, values.size());
+    assertTrue(values.get(0) instanceof HCLBooleanLiteral);
+    assertTrue(values.get(1) instanceof HCLStringLiteral);
+    assertTrue(values.get(2) instanceof HCLNumberLiteral);
+  }
+
+  public void testCreateBlocks() throws Exception {
+    final List<HCLBlock> blocks = myElementGenerator.createBlocks(Arrays.asList("x", "y"));
+    assertEquals(2, blocks.size());
+    assertEquals("x", blocks.get(0).getName());
+    assertEquals("y", blocks.get(1).getName());
+  }
+
 //  public void testCreateHereDocLines() throws Exception {
 //    final List<String> strings = Arrays.asList("A", "B", "C");
 //    final List<HCLHeredocLine> lines = myElementGenerator.createHeredocLines(strings);
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.structureView;
+
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.psi.HCLFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TerraformStructureViewTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testTopLevelGroups() throws Exception {
+    myFixture.configureByText("a.tf", "" +
+        "provider aws {}\n" +
+        "resource aws_instance a {}\n" +
+        "variable x {}\n" +
+        "resource aws_vpc v {}\n" +
+        "resource aws_instance b {}\n" +
+        "output o { value = 1 }\n" +
+        "variable y {}\n" +
+        "z = 1\n");
+    HCLStructureViewModel model = new HCLStructureViewModel((HCLFile) myFixture.getFile(), null);
+    try {
+      TreeElement[] children = model.getRoot().getChildren();
+      assertEquals(Arrays.asList("resource aws_instance:2", "variable:2", "resource aws_vpc:1", "output:1", "provider aws", "z"), getTexts(children));
+      assertEquals(Arrays.asList("resource aws_instance a", "resource aws_instance b"), getTexts(children[0].getChildren()));
+      assertEquals(Arrays.asList("value"), getTexts(children[3].getChildren()[0].getChildren()));
+    } finally {
+      model.dispose();
+    }
+  }
+
+  public void testNoGroupsInHCL() throws Exception {
+    myFixture.configureByText("a.hcl", "resource aws_instance a {}\nvariable x {}\n");
+    HCLStructureViewModel model = new HCLStructureViewModel((HCLFile) myFixture.getFile(), null);
+    try {
+      assertEquals(Arrays.asList("resource aws_instance a", "variable x"), getTexts(model.getRoot().getChildren()));
+    } finally {
+      model.dispose();
+    }
+  }
+
+  private static List<String> getTexts(TreeElement[] elements) {
+    List<String> result = new ArrayList<>();
+    for (TreeElement element : elements) {
+      assertTrue(element instanceof StructureViewTreeElement);
+      String text = element.getPresentation().getPresentableText();
+      if (element instanceof HCLStructureViewGroupElement) {
+        text += ":" + element.getPresentation().getLocationString();
+      }
+      result.add(text);
+    }
+    return result;
+  }
+}
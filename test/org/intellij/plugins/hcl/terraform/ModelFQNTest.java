@@ -23,6 +23,8 @@ import org.intellij.plugins.hcl.navigation.HCLQualifiedNameProvider;
 import org.intellij.plugins.hcl.psi.HCLBlock;
 import org.intellij.plugins.hcl.psi.HCLElementGenerator;
 import org.intellij.plugins.hcl.psi.HCLObject;
+import org.intellij.plugins.hcl.psi.HCLProperty;
+import org.intellij.plugins.hcl.terraform.config.model.*;
 import org.intellij.plugins.hcl.terraform.config.psi.TerraformElementGenerator;
 
 public class ModelFQNTest extends LightPlatformTestCase {
@@ -71,6 +73,39 @@ public class ModelFQNTest extends LightPlatformTestCase {
     checkFQN("data.consul_keys.var", vars);
   }
 
+  public void testStructuredFQNCached() throws Exception {
+    PsiFile file = myElementGenerator.createDummyFile("resource \"aws_instance\" \"x\" {\n" +
+        "  ebs_block_device {\n" +
+        "    device_name = \"a\"\n" +
+        "  }\n" +
+        "}\n");
+    HCLBlock resource = (HCLBlock) file.getFirstChild();
+    HCLObject object = resource.getObject();
+    assertNotNull(object);
+    HCLBlock device = PsiTreeUtil.getChildOfType(object, HCLBlock.class);
+    assertNotNull(device);
+    HCLObject deviceObject = device.getObject();
+    assertNotNull(deviceObject);
+    HCLProperty property = deviceObject.findProperty("device_name");
+    assertNotNull(property);
+
+    ModelFQN fqn = HCLQualifiedNameProvider.Companion.getQualifiedModelFQN(property);
+    assertNotNull(fqn);
+    assertEquals(4, fqn.getSize());
+    assertEquals("ebs_block_device", fqn.get(2));
+    assertEquals("resource.aws_instance.ebs_block_device.device_name", fqn.toString());
+    assertEquals(ModelFQN.parse("resource.aws_instance.ebs_block_device.device_name"), fqn);
+    assertTrue(fqn.startsWith(HCLQualifiedNameProvider.Companion.getQualifiedModelFQN(device)));
+    assertSame(fqn, HCLQualifiedNameProvider.Companion.getQualifiedModelFQN(property));
+
+    TypeModel model = TypeModelProvider.getModel(getProject());
+    Object type = model.getByFQN(fqn);
+    assertInstanceOf(type, PropertyType.class);
+    assertSame(type, model.getByFQN(fqn.toString()));
+    assertInstanceOf(model.getByFQN(HCLQualifiedNameProvider.Companion.getQualifiedModelFQN(device)), BlockType.class);
+    assertNull(model.getByFQN(ModelFQN.parse("resource.aws_instance.device_name")));
+  }
+
   private void checkFQN(String expected, PsiElement element) {
     String fqn = HCLQualifiedNameProvider.Companion.getQualifiedModelName(element);
     assertEquals(expected, fqn);
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.psi.HCLBlock;
+import org.intellij.plugins.hcl.psi.HCLProperty;
+import org.intellij.plugins.hcl.terraform.config.model.ModelFQN;
+
+public class TerraformDocumentationProviderTest extends LightPlatformCodeInsightFixtureTestCase {
+  private final TerraformDocumentationProvider myProvider = new TerraformDocumentationProvider();
+
+  public void testModelFQN() throws Exception {
+    myFixture.configureByText("a.tf", "" +
+        "resource aws_instance web { ebs_block_device { device_name = \"x\" } provisioner \"local-exec\" { connection {} } }\n" +
+        "module mod_x { source = \"./m\" }\n" +
+        "terraform { backend \"s3\" {} }\n");
+    assertEquals("resource.aws_instance", getFQN("web"));
+    assertEquals("resource.aws_instance.ebs_block_device", getFQN("ebs_block_device"));
+    assertEquals("resource.aws_instance.provisioner.local-exec", getFQN("local-exec"));
+    assertNull(getFQN("connection"));
+    assertNull(getFQN("mod_x"));
+    assertEquals("terraform.backend.s3", getFQN("s3"));
+  }
+
+  public void testCachedDocIsTheSameForSameType() throws Exception {
+    myFixture.configureByText("a.tf", "" +
+        "resource aws_instance a { ami = \"1\" }\n" +
+        "resource aws_instance b { ami = \"2\" }\n");
+    String first = myProvider.generateDoc(getProperty("\"1\""), null);
+    assertNotNull(first);
+    assertTrue(first, first.contains("ami"));
+    assertSame(first, myProvider.generateDoc(getProperty("\"2\""), null));
+  }
+
+  public void testPropertyAndBlockOfSameNameAreCachedSeparately() throws Exception {
+    myFixture.configureByText("a.tf", "" +
+        "resource aws_instance a { ebs_block_device { device_name = \"x\" } }\n" +
+        "resource aws_instance b { ebs_block_device = \"y\" }\n");
+    String block = myProvider.generateDoc(getBlock("ebs_block_device {"), null);
+    String property = myProvider.generateDoc(getProperty("\"y\""), null);
+    assertNotNull(block);
+    assertNotNull(property);
+    assertFalse(block, block.equals(property));
+  }
+
+  private HCLBlock getBlock(String text) {
+    PsiElement element = myFixture.getFile().findElementAt(myFixture.getFile().getText().indexOf(text));
+    HCLBlock block = PsiTreeUtil.getParentOfType(element, HCLBlock.class);
+    assertNotNull(block);
+    return block;
+  }
+
+  private String getFQN(String name) {
+    PsiElement element = myFixture.getFile().findElementAt(myFixture.getFile().getText().indexOf(name));
+    HCLBlock block = PsiTreeUtil.getParentOfType(element, HCLBlock.class);
+    assertNotNull(block);
+    ModelFQN fqn = TerraformDocumentationCache.INSTANCE.getModelFQN(block);
+    return fqn == null ? null : fqn.toString();
+  }
+
+  private HCLProperty getProperty(String value) {
+    PsiElement element = myFixture.getFile().findElementAt(myFixture.getFile().getText().indexOf(value));
+    HCLProperty property = PsiTreeUtil.getParentOfType(element, HCLProperty.class);
+    assertNotNull(property);
+    return property;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package org.intellij.plugins.hcl.terraform.config.codeinsight;
 
+import com.intellij.openapi.project.DumbServiceImpl;
 import com.intellij.util.BooleanFunction;
 import org.intellij.plugins.hcl.terraform.config.model.*;
 
@@ -44,6 +45,16 @@ public class TerraformConfigCompletionTest extends TFBaseCompletionTestCase {
     doBasicCompletionTest("a=1\n\"<caret> ", TerraformConfigCompletionContributor.ROOT_BLOCK_KEYWORDS);
   }
 
+  public void testCompletionInDumbMode() throws Exception {
+    DumbServiceImpl.getInstance(getProject()).setDumb(true);
+    try {
+      doBasicCompletionTest("<caret> {}", TerraformConfigCompletionContributor.ROOT_BLOCK_KEYWORDS);
+      doBasicCompletionTest("resource aws_instance x {\n<caret>\n}", "ami", "instance_type");
+    } finally {
+      DumbServiceImpl.getInstance(getProject()).setDumb(false);
+    }
+  }
+
   public void testNoBlockKeywordCompletion() throws Exception {
     doBasicCompletionTest("a={\n<caret>\n}", 0);
   }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.index;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.tree.injected.InjectedLanguageUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.intellij.plugins.hcl.psi.HCLBlock;
+import org.intellij.plugins.hcl.psi.HCLFile;
+
+import java.util.*;
+
+public class TerraformReferencesIndexTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testIndexedAddresses() throws Exception {
+    String text = "resource \"a\" \"x\" {\n" +
+        "  v = \"${var.name} ${module.m.out.id} ${data.t.n.id}\"\n" +
+        "  w = \"${path.module} ${count.index} ${b.y.*.id[0]}\"\n" +
+        "  depends_on = [\"c.z\"]\n" +
+        "}\n" +
+        "module \"m\" {\n" +
+        "  source = \"./m\"\n" +
+        "  version = \"1.0\"\n" +
+        "  count = 2\n" +
+        "  providers = {}\n" +
+        "  depends_on = []\n" +
+        "  input = \"${local.l}\"\n" +
+        "}\n";
+    Map<String, List<Integer>> index = TerraformReferencesIndex.index(text);
+    assertEquals(new TreeSet<>(Arrays.asList("var.name", "module.m", "module.m.out", "data.t.n", "b.y", "c.z", "var.input", "local.l")),
+        new TreeSet<>(index.keySet()));
+    assertEquals(Collections.singletonList(text.indexOf("var.name")), index.get("var.name"));
+    assertEquals(Collections.singletonList(text.indexOf("c.z")), index.get("c.z"));
+    assertEquals(Collections.singletonList(text.indexOf("input")), index.get("var.input"));
+  }
+
+  public void testDeclarationAddress() throws Exception {
+    HCLFile file = (HCLFile) myFixture.configureByText("main.tf",
+        "variable \"v\" {}\nresource \"a\" \"x\" {}\ndata \"t\" \"n\" {}\nmodule \"m\" {}\nlocals { l = 1 }\noutput \"o\" {}\n");
+    List<String> addresses = new ArrayList<>();
+    for (PsiElement child : file.getChildren()) {
+      if (child instanceof HCLBlock) addresses.add(TerraformReferencesIndex.getDeclarationAddress(child));
+    }
+    assertEquals(Arrays.asList("var.v", "a.x", "data.t.n", "module.m", null, null), addresses);
+  }
+
+  public void testFilesWithoutMentionSkipped() throws Exception {
+    myFixture.addFileToProject("main.tf", "variable \"name\" {}\n");
+    PsiFile user = myFixture.addFileToProject("user.tf", "resource \"a\" \"x\" { v = \"${var.name}\" }\n");
+    myFixture.addFileToProject("other.tf", "resource \"a\" \"y\" { v = \"${var.other}\" }\n");
+
+    Collection<VirtualFile> files = FileBasedIndex.getInstance()
+        .getContainingFiles(TerraformReferencesIndex.NAME, "var.name", GlobalSearchScope.allScope(getProject()));
+    assertEquals(Collections.singletonList(user.getVirtualFile()), new ArrayList<>(files));
+  }
+
+  public void testMentioningFileNotFullyInjected() throws Exception {
+    HCLFile file = (HCLFile) myFixture.addFileToProject("main.tf", "variable \"name\" {}\n");
+    PsiFile user = myFixture.addFileToProject("user.tf",
+        "resource \"a\" \"x\" {\n  v = \"${var.name}\"\n  w = \"${var.other}\"\n  z = \"${local.l}\"\n}\n");
+
+    Collection<PsiReference> references = ReferencesSearch.search(file.getFirstChild()).findAll();
+    assertEquals(1, references.size());
+    // Only the literal at indexed offset was injected, neither word search nor the searcher touched the others
+    assertEquals(1, InjectedLanguageUtil.getCachedInjectedDocuments(user).size());
+  }
+
+  public void testReferencesSearch() throws Exception {
+    HCLFile file = (HCLFile) myFixture.addFileToProject("main.tf", "variable \"name\" {}\n");
+    myFixture.addFileToProject("user.tf", "resource \"a\" \"x\" {\n  v = \"${var.name}\"\n  w = \"${var.name}-${var.other}\"\n}\n");
+    myFixture.addFileToProject("other.tf", "resource \"a\" \"y\" { v = \"${var.other}\" }\n");
+
+    HCLBlock variable = (HCLBlock) file.getFirstChild();
+    Collection<PsiReference> references = ReferencesSearch.search(variable).findAll();
+    assertEquals(2, references.size());
+    for (PsiReference reference : references) {
+      assertEquals("user.tf", reference.getElement().getContainingFile().getOriginalFile().getName());
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.inspection;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.psi.HCLElementGenerator;
+import org.intellij.plugins.hcl.terraform.config.psi.TerraformElementGenerator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AddMissingPropertiesProcessorTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testAddToAllFiles() throws Exception {
+    PsiFile first = myFixture.addFileToProject("stack/a.tf", "module \"m\" {}\n");
+    PsiFile second = myFixture.addFileToProject("stack/nested/b.tf", "  module \"n\" {\n    x = 1\n  }\n\nmodule \"ok\" {\n  source = \"./ok\"\n}\n");
+    PsiFile suppressed = myFixture.addFileToProject("stack/c.tf", "//noinspection MissingProperty\nmodule \"s\" {}\n");
+    myFixture.addFileToProject("stack/.terraform/modules/d.tf", "module \"d\" {}\n");
+
+    List<VirtualFile> files = AddMissingPropertiesProcessor.collectFiles(Collections.singletonList(myFixture.findFileInTempDir("stack")));
+    assertEquals(3, files.size());
+
+    AddMissingPropertiesProcessor.Statistics statistics = new AddMissingPropertiesProcessor(getProject()).run(files, new EmptyProgressIndicator());
+    assertEquals(2, statistics.getFiles());
+    assertEquals(2, statistics.getBlocks());
+
+    assertEquals("module \"m\" {\n  source = \"\"\n}\n", first.getText());
+    assertEquals("  module \"n\" {\n    x = 1\n    source = \"\"\n  }\n\nmodule \"ok\" {\n  source = \"./ok\"\n}\n", second.getText());
+    assertEquals("//noinspection MissingProperty\nmodule \"s\" {}\n", suppressed.getText());
+  }
+
+  public void testTextSameAsQuickFix() throws Exception {
+    TerraformElementGenerator generator = new TerraformElementGenerator(getProject());
+    for (String name : Arrays.asList("plain", "with-dash", "with.dot")) {
+      assertEquals(generator.createProperty(name, "1").getText(), HCLElementGenerator.getPropertyText(name, "1"));
+      assertEquals(generator.createBlock(name).getText(), HCLElementGenerator.getBlockText(name));
+    }
+    assertEquals("\"with-dash\" = 1", HCLElementGenerator.getPropertyText("with-dash", "1"));
+    assertEquals("\"block\" {}", HCLElementGenerator.getBlockText("block"));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.json;
+
+import com.intellij.json.psi.JsonStringLiteral;
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import kotlin.Unit;
+import org.intellij.plugins.hcl.terraform.config.model.Module;
+import org.intellij.plugins.hil.HILLanguage;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TerraformJsonDeclarationsTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testAllKinds() throws Exception {
+    doTest("{\n" +
+        "  \"resource\": {\"aws_instance\": {\"web\": {\"ami\": \"${var.ami}\", \"tags\": {\"a\": [1, {\"b\": null}]}}}},\n" +
+        "  \"data\": {\"aws_ami\": {\"ubuntu\": {}, \"centos\": {}}},\n" +
+        "  \"variable\": {\"ami\": {\"default\": \"x\"}},\n" +
+        "  \"output\": {\"ip\": {\"value\": \"${aws_instance.web.public_ip}\"}},\n" +
+        "  \"module\": {\"vpc\": {\"source\": \"./vpc\"}},\n" +
+        "  \"locals\": {\"count\": 3},\n" +
+        "  \"provider\": {\"aws\": {\"region\": \"us-east-1\"}}\n" +
+        "}",
+        "resource aws_instance web", "data aws_ami ubuntu", "data aws_ami centos", "variable ami", "output ip", "module vpc", "locals count");
+  }
+
+  public void testArraysOfObjects() throws Exception {
+    doTest("{\"resource\": [{\"aws_instance\": [{\"a\": {}}, {\"b\": {}}]}], \"locals\": [{\"x\": 1}, {\"y\": [2]}]}",
+        "resource aws_instance a", "resource aws_instance b", "locals x", "locals y");
+  }
+
+  public void testEscapedNames() throws Exception {
+    doTest("{\"variable\": {\"a\\u0062\\\"c\": {}}}", "variable ab\"c");
+  }
+
+  public void testChannelScannerWithSmallBuffer() throws Exception {
+    String text = "{\"a_rather_long_name\": [1, {\"x\": \"\u00e9t\u00e9\"}], \"\u00fcber\\n\": {\"v\": null}, \"k\": \"value\"}";
+    ChannelJsonScanner scanner = new ChannelJsonScanner(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), 4);
+    List<String> names = new ArrayList<>();
+    scanner.forEachField((name, offset) -> {
+      names.add(name);
+      names.add(scanner.readRawValue());
+      return Unit.INSTANCE;
+    });
+    assertEquals(-1, scanner.peek());
+    assertOrderedEquals(names, "a_rather_long_name", "[1, {\"x\": \"\u00e9t\u00e9\"}]", "\u00fcber\n", "{\"v\": null}", "k", "\"value\"");
+  }
+
+  public void testOffsets() throws Exception {
+    String text = "{\"variable\": {\"name\": {}}}";
+    List<TerraformJsonDeclaration> declarations = TerraformJsonDeclarations.extract(text);
+    assertEquals(1, declarations.size());
+    assertEquals(text.indexOf("name"), declarations.get(0).getOffset());
+  }
+
+  public void testMalformedKeepsFoundDeclarations() throws Exception {
+    doTest("{\"variable\": {\"a\": {}, \"b\" {}}}", "variable a");
+    doTest("");
+    doTest("[1, 2]");
+  }
+
+  public void testIndexedDeclarations() throws Exception {
+    PsiFile main = myFixture.addFileToProject("main.tf", "");
+    myFixture.addFileToProject("a.tf.json", "{\"resource\": {\"aws_instance\": {\"web\": {}}}, \"variable\": {\"x\": {}}}");
+    myFixture.addFileToProject("b.tf.json", "{\"variable\": {\"y\": {}}}");
+    myFixture.addFileToProject("sub/c.tf.json", "{\"variable\": {\"z\": {}}}");
+
+    Module module = Module.Companion.getModule(main);
+    List<String> names = new ArrayList<>();
+    for (TerraformJsonDeclarationElement element : module.findJsonDeclarations("variable", null, null)) {
+      names.add(element.getFile().getName() + ":" + element.getName());
+    }
+    assertEquals("a.tf.json:x\nb.tf.json:y", String.join("\n", names));
+    assertEquals(1, module.findJsonDeclarations("resource", "aws_instance", "web").size());
+    assertEmpty(module.findJsonDeclarations("resource", "aws_instance", "db"));
+  }
+
+  public void testInjectionDoesNotDependOnEditor() throws Exception {
+    PsiFile file = myFixture.addFileToProject("a.tf.json", "{\"output\": {\"o\": {\"value\": \"${var.x}\"}}}");
+    assertFalse(FileEditorManager.getInstance(getProject()).isFileOpen(file.getVirtualFile()));
+    JsonStringLiteral literal = null;
+    for (JsonStringLiteral candidate : PsiTreeUtil.findChildrenOfType(file, JsonStringLiteral.class)) {
+      if (candidate.getText().contains("${")) literal = candidate;
+    }
+    assertNotNull(literal);
+    List<Pair<PsiElement, TextRange>> injected = InjectedLanguageManager.getInstance(getProject()).getInjectedPsiFiles(literal);
+    assertNotNull(injected);
+    assertEquals(HILLanguage.INSTANCE, injected.get(0).first.getLanguage());
+  }
+
+  private static void doTest(String text, String... expected) {
+    List<String> actual = new ArrayList<>();
+    for (TerraformJsonDeclaration declaration : TerraformJsonDeclarations.extract(text)) {
+      actual.add(declaration.getKind() + (declaration.getType() != null ? " " + declaration.getType() : "") + " " + declaration.getName());
+    }
+    assertEquals(String.join("\n", expected), String.join("\n", actual));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.plugins.hcl.psi.HCLFile;
+import org.intellij.plugins.hcl.terraform.config.inspection.TFDependencyCycleInspection;
+
+import java.util.*;
+
+public class ModuleDependencyGraphTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testEdges() throws Exception {
+    myFixture.addFileToProject("stack/data.tf", "data \"aws_ami\" \"ubuntu\" {}\nmodule \"vpc\" { source = \"./vpc\" }\n");
+    HCLFile file = (HCLFile) myFixture.addFileToProject("stack/main.tf",
+        "resource \"aws_instance\" \"web\" {\n" +
+        "  ami = \"${data.aws_ami.ubuntu.id}\"\n" +
+        "  subnet_id = \"${element(module.vpc.subnets, 0)}\"\n" +
+        "  user_data = \"${var.x} ${aws_eip.ip.*.id[0]} ${unknown.thing.id}\"\n" +
+        "  depends_on = [\"aws_s3_bucket.logs\"]\n" +
+        "}\n" +
+        "resource \"aws_eip\" \"ip\" {}\n" +
+        "resource \"aws_s3_bucket\" \"logs\" {}\n");
+    ModuleDependencyGraph graph = ExtensionsKt.getTerraformModule(file).getDependencyGraph();
+
+    assertEquals(Arrays.asList("aws_eip.ip", "aws_instance.web", "aws_s3_bucket.logs", "data.aws_ami.ubuntu", "module.vpc"),
+        sorted(graph.getNodes()));
+    ModuleDependencyGraph.Node web = graph.findNode("aws_instance.web");
+    assertNotNull(web);
+    assertEquals(Arrays.asList("aws_eip.ip", "aws_s3_bucket.logs", "data.aws_ami.ubuntu", "module.vpc"), sorted(graph.getDependencies(web)));
+    assertEquals(Collections.singletonList("aws_instance.web"), sorted(graph.getDependents(graph.findNode("module.vpc"))));
+    assertEmpty(graph.getCycles());
+    assertSame(graph, ExtensionsKt.getTerraformModule(file).getDependencyGraph());
+  }
+
+  public void testCycles() throws Exception {
+    HCLFile file = (HCLFile) myFixture.addFileToProject("stack/main.tf",
+        "resource \"a\" \"x\" { v = \"${b.y.id}\" }\n" +
+        "resource \"b\" \"y\" { depends_on = [\"c.z\"] }\n" +
+        "resource \"c\" \"z\" { v = \"${a.x.id}\" }\n" +
+        "resource \"d\" \"self\" { v = \"${d.self.id}\" }\n" +
+        "resource \"e\" \"ok\" { v = \"${a.x.id}\" }\n");
+    ModuleDependencyGraph graph = ExtensionsKt.getTerraformModule(file).getDependencyGraph();
+    List<List<String>> cycles = ContainerUtil.map(graph.getCycles(), ModuleDependencyGraphTest::addresses);
+    assertEquals(2, cycles.size());
+    assertTrue(cycles.contains(Arrays.asList("a.x", "b.y", "c.z")));
+    assertTrue(cycles.contains(Collections.singletonList("d.self")));
+    assertNull(graph.getCycle(graph.findNode("e.ok")));
+
+    String dot = graph.toDot("stack");
+    assertTrue(dot, dot.startsWith("digraph \"stack\" {\n"));
+    assertTrue(dot, dot.contains("  \"a.x\" [color = \"red\"];\n"));
+    assertTrue(dot, dot.contains("  \"e.ok\";\n"));
+    assertTrue(dot, dot.contains("  \"e.ok\" -> \"a.x\";\n"));
+  }
+
+  public void testLongChain() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    int count = 5000;
+    for (int i = 0; i < count; i++) {
+      sb.append("resource \"r\" \"n").append(i).append("\" { v = \"${r.n").append((i + 1) % count).append(".id}\" }\n");
+    }
+    HCLFile file = (HCLFile) myFixture.addFileToProject("stack/main.tf", sb.toString());
+    ModuleDependencyGraph graph = ExtensionsKt.getTerraformModule(file).getDependencyGraph();
+    assertEquals(1, graph.getCycles().size());
+    assertEquals(count, graph.getCycles().get(0).size());
+  }
+
+  public void testUpdatedAfterChange() throws Exception {
+    myFixture.addFileToProject("stack/other.tf", "resource \"b\" \"y\" {}\n");
+    HCLFile file = (HCLFile) myFixture.addFileToProject("stack/main.tf", "resource \"a\" \"x\" {}\n");
+    Module module = ExtensionsKt.getTerraformModule(file);
+    assertEmpty(module.getDependencyGraph().getDependencies(module.getDependencyGraph().findNode("a.x")));
+
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText("resource \"a\" \"x\" { v = \"${b.y.id}\" }\n"));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    ModuleDependencyGraph graph = module.getDependencyGraph();
+    assertEquals(Collections.singletonList("b.y"), addresses(graph.getDependencies(graph.findNode("a.x"))));
+  }
+
+  public void testInspection() throws Exception {
+    myFixture.enableInspections(TFDependencyCycleInspection.class);
+    myFixture.configureByText("main.tf",
+        "resource \"a\" \"x\" { v = \"${b.y.id}\" }\n" +
+        "resource \"b\" \"y\" { v = \"${a.x.id}\" }\n" +
+        "resource \"c\" \"z\" { v = \"${a.x.id}\" }\n");
+    List<String> messages = new ArrayList<>();
+    for (HighlightInfo info : myFixture.doHighlighting()) {
+      if (info.getDescription() != null && info.getDescription().contains("dependency cycle")) messages.add(info.getDescription());
+    }
+    Collections.sort(messages);
+    assertEquals(Arrays.asList(
+        "'a.x' is part of dependency cycle: a.x, b.y",
+        "'b.y' is part of dependency cycle: a.x, b.y"
+    ), messages);
+  }
+
+  private static List<String> addresses(Collection<ModuleDependencyGraph.Node> nodes) {
+    return ContainerUtil.map(nodes, ModuleDependencyGraph.Node::getAddress);
+  }
+
+  private static List<String> sorted(Collection<ModuleDependencyGraph.Node> nodes) {
+    List<String> result = new ArrayList<>(addresses(nodes));
+    Collections.sort(result);
+    return result;
+  }
+}
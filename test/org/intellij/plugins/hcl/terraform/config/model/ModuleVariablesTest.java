@@ -0,0 +1,81 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.psi.HCLFile;
+import org.intellij.plugins.hcl.terraform.lint.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+public class ModuleVariablesTest extends LightPlatformCodeInsightFixtureTestCase {
+  public void testVariables() throws Exception {
+    myFixture.addFileToProject("stack/vars.tf", "variable a {}\nvariable b { type = \"map\" default = { x = 1 y = 2 } }\n");
+    HCLFile file = (HCLFile) myFixture.addFileToProject("stack/main.tf", "variable c { type = \"list\" }\nresource x y {}\n");
+    ModuleVariables variables = ExtensionsKt.getTerraformModule(file).getVariables();
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), variables.getNames());
+    assertEquals("string", variables.get("a").getType());
+    assertNull(variables.get("a").getDefaultKeys());
+    assertEquals("map", variables.get("b").getType());
+    assertEquals(Arrays.asList("x", "y"), variables.get("b").getDefaultKeys());
+    assertEquals("list", variables.get("c").getType());
+    assertSame(variables, ExtensionsKt.getTerraformModule(file).getVariables());
+  }
+
+  public void testBatchValidation() throws Exception {
+    myFixture.addFileToProject("stack/vars.tf", "variable a {}\nvariable b { type = \"map\" }\n");
+    myFixture.addFileToProject("stack/dev.tfvars", "a = \"1\"\nb = {}\n");
+    myFixture.addFileToProject("stack/prod.tfvars", "a = []\nc = \"3\"\n");
+    myFixture.addFileToProject("stack/.terraform/ignored.tfvars", "c = \"3\"\n");
+    VirtualFile root = myFixture.findFileInTempDir("stack");
+
+    CollectingReporter reporter = new CollectingReporter();
+    LintStatistics statistics = new TFVARSBatchValidator(getProject(), reporter).run(root, new EmptyProgressIndicator());
+    assertEquals(2, statistics.getFiles());
+    assertEquals(2, statistics.getProblems());
+    Collections.sort(reporter.myProblems);
+    assertEquals(Arrays.asList(
+        "prod.tfvars:1:5 Incorrect variable value type, expected simple value (string or number)",
+        "prod.tfvars:2:1 Undefined variable 'c'"
+    ), reporter.myProblems);
+  }
+
+  private static class CollectingReporter implements LintReporter {
+    private final List<String> myProblems = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void start(@NotNull VirtualFile root, @NotNull List<LintRule> rules) {
+    }
+
+    @Override
+    public void report(@NotNull VirtualFile directory, @NotNull List<LintProblem> problems) {
+      for (LintProblem problem : problems) {
+        myProblems.add(problem.getFile() + ":" + problem.getLine() + ":" + problem.getColumn() + " " + problem.getMessage());
+      }
+    }
+
+    @Override
+    public void finish(@NotNull LintStatistics statistics) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
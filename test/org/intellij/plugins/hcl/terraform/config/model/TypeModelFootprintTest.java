@@ -0,0 +1,145 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.config.model;
+
+import com.intellij.testFramework.LightPlatformTestCase;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+public class TypeModelFootprintTest extends LightPlatformTestCase {
+  public void testDescriptionsRoundTrip() throws Exception {
+    DescriptionTable table = new DescriptionTable();
+    List<String> texts = new ArrayList<>();
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      String text = "Description #" + i + " of some property, long enough to fill several blocks of the table";
+      texts.add(text);
+      ids.add(table.add(text));
+    }
+    assertEquals(ids.get(42).intValue(), table.add(texts.get(42)));
+    for (int i = texts.size() - 1; i >= 0; i--) {
+      assertEquals(texts.get(i), table.get(ids.get(i)));
+    }
+    assertNull(table.get(DescriptionTable.NONE));
+  }
+
+  public void testHashCollisionsKeepTexts() throws Exception {
+    DescriptionTable table = new DescriptionTable(text -> 42L);
+    int first = table.add("first");
+    int second = table.add("second");
+    assertFalse(first == second);
+    assertEquals(first, table.add("first"));
+    assertEquals(second, table.add("second"));
+    assertEquals("first", table.get(first));
+    assertEquals("second", table.get(second));
+  }
+
+  public void testPackedFlags() throws Exception {
+    PropertyType property = new PropertyType("p", Types.INSTANCE.getString(), null, false, "text", true, null, false, null, true, DescriptionTable.NONE, DescriptionTable.STATIC);
+    assertFalse(property.getInjectionAllowed());
+    assertTrue(property.getRequired());
+    assertFalse(property.getComputed());
+    assertTrue(property.getHas_default());
+    assertEquals("text", property.getDescription());
+    assertEquals(property, new PropertyType("p", Types.INSTANCE.getString(), null, false, "text", true, null, false, null, true, DescriptionTable.NONE, DescriptionTable.STATIC));
+    assertFalse(property.equals(new PropertyType("p", Types.INSTANCE.getString(), null, true, "text", true, null, false, null, true, DescriptionTable.NONE, DescriptionTable.STATIC)));
+  }
+
+  public void testBundledDescriptions() throws Exception {
+    assertTrue("No " + ModelDescriptions.RESOURCE + ", model resources were not processed by the build", ModelDescriptions.isAvailable());
+    String description = ModelDescriptions.getByFQN(ModelFQN.parse("provider.aws.region"));
+    assertNotNull(description);
+
+    ProviderType aws = TypeModelProvider.getModel(getProject()).getProviderType("aws");
+    assertNotNull(aws);
+    for (PropertyOrBlockType property : aws.getProperties()) {
+      if (property.getName().equals("region")) {
+        assertEquals(description, ((BaseModelType)property).getDescription());
+        return;
+      }
+    }
+    fail("No 'region' property in 'aws' provider");
+  }
+
+  public void testLoadedModelFootprint() throws Exception {
+    TypeModel model = TypeModelProvider.getModel(getProject());
+    assertFalse(model.getResources().isEmpty());
+
+    long bytes = estimateRetainedSize(model);
+    DescriptionTable descriptions = model.getDescriptions();
+    String stats = "Loaded model: " + model.getResources().size() + " resources, " + model.getDataSources().size() + " data sources, " +
+                   "retained " + bytes / 1024 + " KB, descriptions " + descriptions.getCompressedSize() / 1024 + " KB compressed from " +
+                   descriptions.getUncompressedSize() / 1024 + " KB";
+    // Bundled descriptions are not retained by the model, see ModelDescriptions
+    assertTrue(stats, bytes < 64 * 1024 * 1024);
+    assertTrue(stats, descriptions.getCompressedSize() <= descriptions.getUncompressedSize());
+  }
+
+  /**
+   * Rough shallow size sum of all objects reachable from root, assuming 64-bit JVM with compressed oops.
+   */
+  private static long estimateRetainedSize(Object root) throws IllegalAccessException {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> queue = new ArrayDeque<>();
+    queue.add(root);
+    long total = 0;
+    while (!queue.isEmpty()) {
+      Object o = queue.poll();
+      if (!visited.add(o)) continue;
+      Class<?> clazz = o.getClass();
+      if (clazz.isArray()) {
+        int length = Array.getLength(o);
+        Class<?> component = clazz.getComponentType();
+        total += align(16 + (long)length * sizeOf(component));
+        if (!component.isPrimitive()) {
+          for (int i = 0; i < length; i++) {
+            Object element = Array.get(o, i);
+            if (element != null) queue.add(element);
+          }
+        }
+        continue;
+      }
+      long size = 12;
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) continue;
+          size += sizeOf(field.getType());
+          if (field.getType().isPrimitive()) continue;
+          field.setAccessible(true);
+          Object value = field.get(o);
+          if (value != null && !(value instanceof Class)) queue.add(value);
+        }
+      }
+      total += align(size);
+    }
+    return total;
+  }
+
+  private static int sizeOf(Class<?> type) {
+    if (type == long.class || type == double.class) return 8;
+    if (type == int.class || type == float.class) return 4;
+    if (type == short.class || type == char.class) return 2;
+    if (type == byte.class || type == boolean.class) return 1;
+    return 4;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
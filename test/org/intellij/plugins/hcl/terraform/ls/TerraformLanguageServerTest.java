@@ -0,0 +1,201 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.ls;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import com.intellij.util.ui.UIUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Drives the server with a scripted client: all messages are written upfront, server runs until 'exit' on a pooled thread.
+ */
+public class TerraformLanguageServerTest extends LightPlatformCodeInsightFixtureTestCase {
+  private final StringBuilder myInput = new StringBuilder();
+  private int myLastId;
+
+  public void testRequests() throws Exception {
+    VirtualFile variables = myFixture.addFileToProject("variables.tf", "variable \"region\" {\n  default = \"us\"\n}\n").getVirtualFile();
+    String main = "" +
+        "provider \"aws\" {\n" +
+        "  region = \"${var.region}\"\n" +
+        "}\n" +
+        "resource \"aws_instance\" \"web\" {\n" +
+        "  \n" +
+        "}\n";
+    String uri = myFixture.addFileToProject("main.tf", main).getVirtualFile().getUrl();
+
+    request("initialize", object("rootUri", null));
+    notification("initialized", new JsonObject());
+    notification("textDocument/didOpen", object("textDocument", object("uri", uri, "languageId", "terraform", "version", 1, "text", main)));
+    int varCompletion = request("textDocument/completion", position(uri, 1, 18));
+    int propertyCompletion = request("textDocument/completion", position(uri, 4, 2));
+    int definition = request("textDocument/definition", position(uri, 1, 19));
+    int hover = request("textDocument/hover", position(uri, 1, 3));
+    int unknown = request("textDocument/rename", position(uri, 1, 3));
+    int shutdown = request("shutdown", null);
+    notification("exit", null);
+
+    List<JsonObject> messages = run();
+
+    JsonObject capabilities = getResult(messages, 1).getAsJsonObject().getAsJsonObject("capabilities");
+    assertEquals(2, capabilities.getAsJsonObject("textDocumentSync").get("change").getAsInt());
+
+    assertContainsElements(getLabels(getResult(messages, varCompletion)), "region");
+    assertContainsElements(getLabels(getResult(messages, propertyCompletion)), "ami", "instance_type");
+
+    JsonArray locations = getResult(messages, definition).getAsJsonArray();
+    assertEquals(1, locations.size());
+    assertEquals(variables.getUrl(), locations.get(0).getAsJsonObject().get("uri").getAsString());
+    assertEquals(0, locations.get(0).getAsJsonObject().getAsJsonObject("range").getAsJsonObject("start").get("line").getAsInt());
+
+    String doc = getResult(messages, hover).getAsJsonObject().getAsJsonObject("contents").get("value").getAsString();
+    assertTrue(doc, doc.startsWith("Property region"));
+
+    assertEquals(LspConnection.METHOD_NOT_FOUND, find(messages, unknown).getAsJsonObject("error").get("code").getAsInt());
+    assertTrue(find(messages, shutdown).has("result"));
+  }
+
+  public void testIncrementalChangesAndDiagnostics() throws Exception {
+    String uri = myFixture.addFileToProject("a.tf", "variable \"a\" {}\n").getVirtualFile().getUrl();
+
+    request("initialize", new JsonObject());
+    notification("textDocument/didOpen", object("textDocument", object("uri", uri, "languageId", "terraform", "version", 1, "text", "variable \"a\" {}\n")));
+    JsonObject range = object("start", object("line", 0, "character", 15), "end", object("line", 0, "character", 15));
+    JsonArray changes = new JsonArray();
+    changes.add(object("range", range, "text", "\nresource {"));
+    notification("textDocument/didChange", object("textDocument", object("uri", uri, "version", 2), "contentChanges", changes));
+    int completion = request("textDocument/completion", position(uri, 0, 0));
+    request("shutdown", null);
+    notification("exit", null);
+
+    List<JsonObject> messages = run();
+
+    JsonObject published = null;
+    for (JsonObject message : messages) {
+      if (message.has("method") && message.get("method").getAsString().equals("textDocument/publishDiagnostics") &&
+          message.getAsJsonObject("params").get("version").getAsInt() == 2) {
+        published = message.getAsJsonObject("params");
+      }
+    }
+    assertNotNull(published);
+    JsonArray diagnostics = published.getAsJsonArray("diagnostics");
+    boolean syntaxError = false;
+    for (JsonElement diagnostic : diagnostics) {
+      JsonObject object = diagnostic.getAsJsonObject();
+      if (object.get("code").getAsString().equals("syntax")) {
+        assertEquals(1, object.get("severity").getAsInt());
+        assertTrue(object.getAsJsonObject("range").getAsJsonObject("start").get("line").getAsInt() >= 1);
+        syntaxError = true;
+      }
+    }
+    assertTrue(diagnostics.toString(), syntaxError);
+
+    assertContainsElements(getLabels(getResult(messages, completion)), "resource", "variable");
+  }
+
+  private List<JsonObject> run() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    LspConnection connection = new LspConnection(new ByteArrayInputStream(myInput.toString().getBytes(StandardCharsets.UTF_8)), output);
+    TerraformLanguageServer server = new TerraformLanguageServer(connection, 2, root -> getProject(), 0);
+    // Keep EDT responsive while server runs, as it does in the command line starter
+    Future<Integer> code = ApplicationManager.getApplication().executeOnPooledThread(server::run);
+    while (!code.isDone()) {
+      UIUtil.dispatchAllInvocationEvents();
+      Thread.sleep(5);
+    }
+    assertEquals(0, code.get().intValue());
+
+    LspConnection reader = new LspConnection(new ByteArrayInputStream(output.toByteArray()), new ByteArrayOutputStream());
+    List<JsonObject> messages = new ArrayList<>();
+    JsonObject message;
+    while ((message = reader.read()) != null) {
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  private int request(String method, JsonObject params) {
+    int id = ++myLastId;
+    JsonObject message = object("jsonrpc", "2.0", "id", id, "method", method);
+    if (params != null) message.add("params", params);
+    write(message);
+    return id;
+  }
+
+  private void notification(String method, JsonObject params) {
+    JsonObject message = object("jsonrpc", "2.0", "method", method);
+    if (params != null) message.add("params", params);
+    write(message);
+  }
+
+  private void write(JsonObject message) {
+    String text = message.toString();
+    myInput.append("Content-Length: ").append(text.getBytes(StandardCharsets.UTF_8).length).append("\r\n\r\n").append(text);
+  }
+
+  private static JsonObject position(String uri, int line, int character) {
+    return object("textDocument", object("uri", uri), "position", object("line", line, "character", character));
+  }
+
+  private static JsonObject object(Object... pairs) {
+    JsonObject result = new JsonObject();
+    for (int i = 0; i < pairs.length; i += 2) {
+      String key = (String)pairs[i];
+      Object value = pairs[i + 1];
+      if (value instanceof JsonElement) {
+        result.add(key, (JsonElement)value);
+      } else if (value instanceof Number) {
+        result.addProperty(key, (Number)value);
+      } else if (value != null) {
+        result.addProperty(key, value.toString());
+      }
+    }
+    return result;
+  }
+
+  private static JsonObject find(List<JsonObject> messages, int id) {
+    for (JsonObject message : messages) {
+      if (message.has("id") && !message.get("id").isJsonNull() && message.get("id").getAsInt() == id) return message;
+    }
+    fail("No response to request " + id);
+    return null;
+  }
+
+  private static JsonElement getResult(List<JsonObject> messages, int id) {
+    JsonObject response = find(messages, id);
+    assertTrue(response.toString(), response.has("result"));
+    return response.get("result");
+  }
+
+  private static List<String> getLabels(JsonElement items) {
+    List<String> labels = new ArrayList<>();
+    for (JsonElement item : items.getAsJsonArray()) {
+      labels.add(item.getAsJsonObject().get("label").getAsString());
+    }
+    return labels;
+  }
+}
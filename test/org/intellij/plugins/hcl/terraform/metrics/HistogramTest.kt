@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.metrics
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.StringWriter
+
+class HistogramTest {
+  @Test
+  fun testBucketBounds() {
+    for (value in listOf(0L, 1L, 7L, 8L, 15L, 16L, 17L, 1000L, 123456789L, Long.MAX_VALUE)) {
+      val bucket = Histogram.getBucket(value)
+      assertTrue("$value", Histogram.getBucketUpperBound(bucket) >= value)
+      if (bucket > 0) assertTrue("$value", Histogram.getBucketUpperBound(bucket - 1) < value)
+    }
+  }
+
+  @Test
+  fun testSnapshot() {
+    val histogram = Histogram("test")
+    for (i in 1..1000) {
+      histogram.record(i * 1000L)
+    }
+    val snapshot = histogram.snapshot()
+    assertEquals(1000, snapshot.count)
+    assertEquals(500500000L, snapshot.totalNanos)
+    assertEquals(1000000L, snapshot.maxNanos)
+    assertEquals(500000.0, snapshot.p50Nanos.toDouble(), 500000 * 0.125)
+    assertEquals(990000.0, snapshot.p99Nanos.toDouble(), 990000 * 0.125)
+
+    histogram.reset()
+    assertEquals(0, histogram.snapshot().count)
+    assertEquals(0, histogram.snapshot().p99Nanos)
+  }
+
+  @Test
+  fun testJsonReport() {
+    TerraformMetrics.histogram("test.report").record(2000000)
+    val writer = StringWriter()
+    TerraformMetrics.writeJson(writer)
+    assertTrue(writer.toString(), writer.toString().contains("\"test.report\""))
+    TerraformMetrics.reset()
+    assertEquals(0, TerraformMetrics.histogram("test.report").snapshot().count)
+  }
+}
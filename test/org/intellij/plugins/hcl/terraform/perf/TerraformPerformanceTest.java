@@ -0,0 +1,158 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.perf;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupManager;
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import com.intellij.usageView.UsageInfo;
+import org.intellij.plugins.hcl.psi.HCLBlock;
+import org.intellij.plugins.hcl.psi.HCLElement;
+import org.intellij.plugins.hcl.psi.HCLPsiUtil;
+import org.intellij.plugins.hcl.psi.HCLStringLiteral;
+import org.intellij.plugins.hcl.terraform.config.inspection.*;
+import org.intellij.plugins.hil.inspection.HILOperationTypesMismatchInspection;
+import org.intellij.plugins.hil.inspection.HILUnresolvedReferenceInspection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * End-to-end editor performance tests over workspace generated by {@link TerraformWorkspaceGenerator}.
+ * Not a part of the default test run, use {@code ./gradlew performanceTest}.
+ * <p>
+ * Workspace size could be multiplied with {@code -Dterraform.perf.scale=<n>}, number of modules is multiplied while
+ * size of each module stays the same. Time budgets of operations over the whole workspace are scaled accordingly.
+ */
+public class TerraformPerformanceTest extends LightPlatformCodeInsightFixtureTestCase {
+  private static final int SCALE = Integer.getInteger("terraform.perf.scale", 1);
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    new TerraformWorkspaceGenerator()
+        .modules(10 * SCALE)
+        .resources(20)
+        .nesting(2)
+        .heredocLines(50)
+        .generate((path, text) -> myFixture.addFileToProject(path, text));
+  }
+
+  public void testHighlighting() throws Exception {
+    myFixture.enableInspections(new HILUnresolvedReferenceInspection(),
+                                new HILOperationTypesMismatchInspection(),
+                                new HCLBlockMissingPropertyInspection(),
+                                new HCLUnknownBlockTypeInspection(),
+                                new TFDuplicatedVariableInspection());
+    myFixture.configureFromTempProjectFile("main.tf");
+    PlatformTestUtil.startPerformanceTest("Highlighting of root module", 5000 * SCALE, () -> {
+      List<HighlightInfo> infos = myFixture.doHighlighting();
+      assertNotNull(infos);
+    }).setup(() -> PsiManager.getInstance(getProject()).dropPsiCaches()).attempts(3).assertTiming();
+  }
+
+  public void testCompletionInResourceBody() throws Exception {
+    myFixture.configureFromTempProjectFile("modules/m0/main.tf");
+    int offset = myFixture.getFile().getText().indexOf("  tags {");
+    assertTrue(offset > 0);
+    myFixture.getEditor().getCaretModel().moveToOffset(offset);
+    // Not scaled: completion works within a single module, its size does not depend on SCALE
+    PlatformTestUtil.startPerformanceTest("Completion in resource body", 2000, () -> {
+      LookupElement[] elements = myFixture.completeBasic();
+      assertNotNull(elements);
+      assertTrue(elements.length > 0);
+    }).setup(() -> {
+      LookupManager.getInstance(getProject()).hideActiveLookup();
+      PsiManager.getInstance(getProject()).dropResolveCaches();
+    }).attempts(5).assertTiming();
+  }
+
+  public void testHILResolve() throws Exception {
+    PsiFile file = myFixture.configureFromTempProjectFile("main.tf");
+    List<PsiFile> injected = getInjectedFiles(file);
+    assertFalse(injected.isEmpty());
+    PlatformTestUtil.startPerformanceTest("Resolve of all HIL references in root module", 3000 * SCALE, () -> {
+      int resolved = 0;
+      for (PsiFile injectedFile : injected) {
+        for (PsiElement element : PsiTreeUtil.findChildrenOfType(injectedFile, PsiElement.class)) {
+          for (PsiReference reference : element.getReferences()) {
+            if (reference instanceof PsiPolyVariantReference) {
+              resolved += ((PsiPolyVariantReference)reference).multiResolve(false).length;
+            } else if (reference.resolve() != null) {
+              resolved++;
+            }
+          }
+        }
+      }
+      assertTrue(resolved > 0);
+    }).setup(() -> ResolveCache.getInstance(getProject()).clearCache(true)).attempts(3).assertTiming();
+  }
+
+  public void testFindUsagesOfVariable() throws Exception {
+    myFixture.configureFromTempProjectFile("modules/m0/variables.tf");
+    HCLBlock variable = findVariable("environment");
+    PlatformTestUtil.startPerformanceTest("Find usages of module variable", 3000 * SCALE, () -> {
+      Collection<UsageInfo> usages = myFixture.findUsages(variable);
+      assertFalse(usages.isEmpty());
+    }).setup(() -> PsiManager.getInstance(getProject()).dropResolveCaches()).attempts(3).assertTiming();
+  }
+
+  public void testRenameVariable() throws Exception {
+    myFixture.configureFromTempProjectFile("modules/m0/variables.tf");
+    String[] names = {"environment", "environment_renamed"};
+    int[] current = {0};
+    PlatformTestUtil.startPerformanceTest("Rename of module variable", 5000 * SCALE, () -> {
+      HCLBlock variable = findVariable(names[current[0]]);
+      current[0] = 1 - current[0];
+      myFixture.renameElement(variable, names[current[0]]);
+    }).attempts(4).assertTiming();
+  }
+
+  @NotNull
+  private HCLBlock findVariable(@NotNull String name) {
+    for (HCLBlock block : PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HCLBlock.class)) {
+      HCLElement[] elements = block.getNameElements();
+      if (elements.length == 2 && "variable".equals(elements[0].getText()) && name.equals(HCLPsiUtil.INSTANCE.stripQuotes(elements[1].getText()))) {
+        return block;
+      }
+    }
+    throw new AssertionError("Variable '" + name + "' not found");
+  }
+
+  @NotNull
+  private List<PsiFile> getInjectedFiles(@NotNull PsiFile file) {
+    InjectedLanguageManager manager = InjectedLanguageManager.getInstance(getProject());
+    List<PsiFile> result = new ArrayList<>();
+    for (HCLStringLiteral literal : PsiTreeUtil.findChildrenOfType(file, HCLStringLiteral.class)) {
+      List<Pair<PsiElement, TextRange>> files = manager.getInjectedPsiFiles(literal);
+      if (files == null) continue;
+      for (Pair<PsiElement, TextRange> pair : files) {
+        result.add(pair.first.getContainingFile());
+      }
+    }
+    return result;
+  }
+}
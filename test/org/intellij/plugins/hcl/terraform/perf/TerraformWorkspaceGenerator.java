@@ -0,0 +1,202 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.perf;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates synthetic Terraform workspace: root module calling {@link #modules(int)} local modules,
+ * each with {@link #resources(int)} resources and a chain of {@link #nesting(int)} nested modules,
+ * plus '.terraform/modules/modules.json' describing all module calls.
+ * <p>
+ * Could be run from command line to generate workspace on disk:
+ * {@code TerraformWorkspaceGenerator <directory> [modules] [resources] [nesting] [heredoc lines]}
+ */
+public class TerraformWorkspaceGenerator {
+  public interface Sink {
+    void write(@NotNull String path, @NotNull String text) throws IOException;
+  }
+
+  public static final String[] VARIABLES = {"instance_type", "environment", "region", "ami", "tags"};
+
+  private int myModules = 10;
+  private int myResources = 20;
+  private int myNesting = 2;
+  private int myHeredocLines = 50;
+  private int myInterpolationsPerResource = 6;
+
+  public TerraformWorkspaceGenerator modules(int modules) {
+    myModules = modules;
+    return this;
+  }
+
+  public TerraformWorkspaceGenerator resources(int resources) {
+    myResources = resources;
+    return this;
+  }
+
+  public TerraformWorkspaceGenerator nesting(int nesting) {
+    myNesting = nesting;
+    return this;
+  }
+
+  public TerraformWorkspaceGenerator heredocLines(int lines) {
+    myHeredocLines = lines;
+    return this;
+  }
+
+  public TerraformWorkspaceGenerator interpolations(int perResource) {
+    myInterpolationsPerResource = perResource;
+    return this;
+  }
+
+  /**
+   * @return number of generated files
+   */
+  public int generate(@NotNull Sink sink) throws IOException {
+    List<String> manifest = new ArrayList<>();
+    int files = 0;
+
+    StringBuilder root = new StringBuilder();
+    for (int m = 0; m < myModules; m++) {
+      String name = "m" + m;
+      String source = "./modules/" + name;
+      root.append("module \"").append(name).append("\" {\n");
+      root.append("  source        = \"").append(source).append("\"\n");
+      root.append("  instance_type = \"${var.instance_type}\"\n");
+      root.append("  environment   = \"${var.environment}-").append(name).append("\"\n");
+      root.append("}\n\n");
+      manifest.add(manifestEntry("1." + name + ";" + source, source, "modules/" + name));
+
+      String directory = "modules/" + name;
+      String key = "1." + name + ";" + source;
+      files += writeModule(sink, directory, m, true);
+      for (int n = 0; n < myNesting; n++) {
+        String nestedSource = "./nested";
+        key = key + "|1.nested;" + nestedSource;
+        directory = directory + "/nested";
+        manifest.add(manifestEntry(key, nestedSource, directory));
+        files += writeModule(sink, directory, m, n + 1 < myNesting);
+      }
+    }
+    root.append(resources("root", myResources, true));
+    sink.write("main.tf", root.toString());
+    sink.write("variables.tf", variables());
+    sink.write("outputs.tf", outputs(myModules));
+    sink.write(".terraform/modules/modules.json", "{\"Modules\":[" + String.join(",", manifest) + "]}");
+    return files + 4;
+  }
+
+  private int writeModule(@NotNull Sink sink, @NotNull String directory, int index, boolean callsNested) throws IOException {
+    StringBuilder main = new StringBuilder();
+    if (callsNested) {
+      main.append("module \"nested\" {\n  source        = \"./nested\"\n  instance_type = \"${var.instance_type}\"\n")
+          .append("  environment   = \"${var.environment}\"\n}\n\n");
+    }
+    main.append(resources("m" + index, myResources, false));
+    sink.write(directory + "/main.tf", main.toString());
+    sink.write(directory + "/variables.tf", variables());
+    sink.write(directory + "/outputs.tf", "output \"id\" {\n  value = \"${aws_instance.r0.id}\"\n}\n");
+    return 3;
+  }
+
+  @NotNull
+  private String resources(@NotNull String prefix, int count, boolean root) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("data \"aws_ami\" \"ubuntu\" {\n  most_recent = true\n  owners      = [\"099720109477\"]\n}\n\n");
+    for (int r = 0; r < count; r++) {
+      sb.append("resource \"aws_instance\" \"r").append(r).append("\" {\n");
+      sb.append("  ami           = \"${data.aws_ami.ubuntu.id}\"\n");
+      sb.append("  instance_type = \"${var.instance_type}\"\n");
+      sb.append("  count         = \"${var.environment == \"prod\" ? 2 : 1}\"\n");
+      if (r > 0) {
+        sb.append("  depends_on    = [\"aws_instance.r").append(r - 1).append("\"]\n");
+      }
+      sb.append("  tags {\n");
+      sb.append("    Name = \"").append(prefix).append("-r").append(r).append("-${var.environment}\"\n");
+      for (int i = 0; i < myInterpolationsPerResource; i++) {
+        sb.append("    Tag").append(i).append(" = \"${lookup(var.tags, \"t").append(i).append("\", format(\"%s-%d\", var.region, ")
+            .append(i).append("))}\"\n");
+      }
+      if (root && r < myModules) {
+        sb.append("    Module = \"${module.m").append(r).append(".id}\"\n");
+      }
+      if (r > 0) {
+        sb.append("    Previous = \"${aws_instance.r").append(r - 1).append(".id}\"\n");
+      }
+      sb.append("  }\n");
+      if (myHeredocLines > 0 && r % 5 == 0) {
+        sb.append("  user_data = <<EOF\n#!/bin/bash\n");
+        for (int l = 0; l < myHeredocLines; l++) {
+          sb.append("echo \"${var.environment} line ").append(l).append(" ${upper(var.region)}\" >> /var/log/setup.log\n");
+        }
+        sb.append("EOF\n");
+      }
+      sb.append("}\n\n");
+    }
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String variables() {
+    StringBuilder sb = new StringBuilder();
+    for (String variable : VARIABLES) {
+      sb.append("variable \"").append(variable).append("\" {\n");
+      if (variable.equals("tags")) {
+        sb.append("  type    = \"map\"\n  default = {}\n");
+      } else {
+        sb.append("  default = \"").append(variable).append("\"\n");
+      }
+      sb.append("}\n\n");
+    }
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String outputs(int modules) {
+    StringBuilder sb = new StringBuilder();
+    for (int m = 0; m < modules; m++) {
+      sb.append("output \"m").append(m).append("_id\" {\n  value = \"${module.m").append(m).append(".id}\"\n}\n\n");
+    }
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String manifestEntry(@NotNull String key, @NotNull String source, @NotNull String dir) {
+    return "{\"Key\":\"" + key + "\",\"Source\":\"" + source + "\",\"Version\":\"\",\"Dir\":\"" + dir + "\",\"Root\":\"\"}";
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: TerraformWorkspaceGenerator <directory> [modules] [resources] [nesting] [heredoc lines]");
+      System.exit(2);
+    }
+    File directory = new File(args[0]);
+    TerraformWorkspaceGenerator generator = new TerraformWorkspaceGenerator();
+    if (args.length > 1) generator.modules(Integer.parseInt(args[1]));
+    if (args.length > 2) generator.resources(Integer.parseInt(args[2]));
+    if (args.length > 3) generator.nesting(Integer.parseInt(args[3]));
+    if (args.length > 4) generator.heredocLines(Integer.parseInt(args[4]));
+    int files = generator.generate((path, text) -> FileUtil.writeToFile(new File(directory, path), text));
+    System.out.println("Generated " + files + " files in " + directory.getAbsolutePath());
+  }
+}
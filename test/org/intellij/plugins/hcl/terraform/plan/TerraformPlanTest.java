@@ -0,0 +1,52 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.plan;
+
+import junit.framework.TestCase;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumSet;
+
+public class TerraformPlanTest extends TestCase {
+  public void testParse() throws Exception {
+    TerraformPlan plan;
+    try (Reader reader = Files.newBufferedReader(Paths.get("test-data/terraform/plan/plan.json"), StandardCharsets.UTF_8)) {
+      plan = TerraformPlan.parse(reader);
+    }
+    assertEquals(4, plan.getSize());
+    assertEquals(EnumSet.of(ChangeKind.UPDATE), plan.getChanges("aws_instance.web"));
+    assertEquals(EnumSet.of(ChangeKind.CREATE, ChangeKind.REPLACE), plan.getChanges("aws_instance.app"));
+    assertEquals(EnumSet.of(ChangeKind.READ), plan.getChanges("data.aws_ami.ubuntu"));
+    assertEquals(EnumSet.of(ChangeKind.DELETE), plan.getChanges("module.vpc.aws_subnet.public"));
+    assertEquals(Collections.emptySet(), plan.getChanges("aws_s3_bucket.logs"));
+  }
+
+  public void testEmptyPlan() throws Exception {
+    TerraformPlan plan = TerraformPlan.parse(new StringReader("{\"format_version\": \"0.1\"}"));
+    assertEquals(0, plan.getSize());
+  }
+
+  public void testResourceAddress() throws Exception {
+    assertEquals("aws_instance.web", TerraformPlan.getResourceAddress("aws_instance.web[10]"));
+    assertEquals("module.a[0].aws_instance.web", TerraformPlan.getResourceAddress("module.a[0].aws_instance.web"));
+    assertEquals("module.a[0].aws_instance.web", TerraformPlan.getResourceAddress("module.a[0].aws_instance.web[\"x\"]"));
+  }
+}
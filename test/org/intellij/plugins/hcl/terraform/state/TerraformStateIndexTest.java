@@ -0,0 +1,77 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.state;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.LightPlatformTestCase;
+
+import java.io.*;
+import java.util.Map;
+
+public class TerraformStateIndexTest extends LightPlatformTestCase {
+  private static final String DATA = "test-data/terraform/state/";
+
+  public void testVersion3() throws Exception {
+    TerraformStateIndex index = TerraformStateIndex.build(new File(DATA + "v3/terraform.tfstate"));
+    assertSameElements(index.getAddresses(),
+        "aws_instance.web", "data.aws_ami.ubuntu", "module.vpc.aws_subnet.public.0", "module.vpc.aws_subnet.public.1");
+    Map<String, String> attributes = index.readAttributes("aws_instance.web", null);
+    assertNotNull(attributes);
+    assertEquals("ami-12345678", attributes.get("ami"));
+    assertEquals("t2.micro", attributes.get("instance_type"));
+    assertEquals("web \"server\"", attributes.get("tags.Name"));
+    assertEquals("true", index.readAttribute("data.aws_ami.ubuntu", "most_recent"));
+    assertEquals("10.0.1.0/24", index.readAttribute("module.vpc.aws_subnet.public", "cidr_block"));
+    assertNull(index.readAttributes("aws_instance.unknown", null));
+  }
+
+  public void testVersion4() throws Exception {
+    TerraformStateIndex index = TerraformStateIndex.build(new File(DATA + "v4/terraform.tfstate"));
+    assertSameElements(index.getAddresses(), "aws_instance.web", "module.vpc.data.aws_availability_zones.all[0]");
+    assertEquals("ami-12345678", index.readAttribute("aws_instance.web", "ami"));
+    assertEquals("2", index.readAttribute("aws_instance.web", "count"));
+    assertEquals("[\"a\", \"b\"]", index.readAttribute("aws_instance.web", "security_groups"));
+    assertEquals("null", index.readAttribute("aws_instance.web", "user_data"));
+    assertEquals("[\"eu-west-1a\"]", index.readAttribute("module.vpc.data.aws_availability_zones.all", "names"));
+  }
+
+  public void testPersistence() throws Exception {
+    TerraformStateIndex index = TerraformStateIndex.build(new File(DATA + "v3/terraform.tfstate"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    index.write(new DataOutputStream(bytes));
+    TerraformStateIndex loaded = TerraformStateIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertNotNull(loaded);
+    assertSameElements(loaded.getAddresses(), index.getAddresses());
+    assertEquals(index.readAttributes("aws_instance.web", null), loaded.readAttributes("aws_instance.web", null));
+  }
+
+  public void testInvalidatedOnChange() throws Exception {
+    File file = FileUtil.createTempFile("terraform", ".tfstate", true);
+    FileUtil.copy(new File(DATA + "v3/terraform.tfstate"), file);
+    TerraformStateIndex index = TerraformStateIndex.build(file);
+    assertTrue(index.isUpToDate(file));
+    FileUtil.appendToFile(file, "\n");
+    assertFalse(index.isUpToDate(file));
+    assertNull(index.readAttribute("aws_instance.web", "ami"));
+  }
+
+  public void testLocalBackend() throws Exception {
+    File state = TerraformStateLocator.INSTANCE.findStateFile(new File(DATA + "backend"));
+    assertNotNull(state);
+    assertEquals(new File(DATA + "v3/terraform.tfstate").getCanonicalPath(), state.getCanonicalPath());
+    assertNull(TerraformStateLocator.INSTANCE.findStateFile(new File(DATA)));
+  }
+}
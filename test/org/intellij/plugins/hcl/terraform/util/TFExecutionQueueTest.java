@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.util;
+
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.intellij.plugins.hcl.terraform.TerraformToolProjectSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TFExecutionQueueTest extends LightPlatformCodeInsightFixtureTestCase {
+  private int myOldLimit;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myOldLimit = TerraformToolProjectSettings.getInstance(getProject()).getMaxConcurrentProcesses();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      TerraformToolProjectSettings.getInstance(getProject()).setMaxConcurrentProcesses(myOldLimit);
+    } finally {
+      super.tearDown();
+    }
+  }
+
+  public void testConcurrencyLimit() throws Exception {
+    TFExecutionQueue queue = createQueue(2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger max = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Thread thread = new Thread(() -> {
+        queue.acquire();
+        try {
+          max.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(20);
+        } catch (InterruptedException ignored) {
+        } finally {
+          running.decrementAndGet();
+          queue.release();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(10000);
+      assertFalse(thread.isAlive());
+    }
+    assertEquals(2, max.get());
+  }
+
+  public void testWaitingRunsStartInOrder() throws Exception {
+    TFExecutionQueue queue = createQueue(1);
+    List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = new ArrayList<>();
+    queue.acquire();
+    for (int i = 0; i < 5; i++) {
+      int id = i;
+      Thread thread = new Thread(() -> {
+        queue.acquire();
+        started.add(id);
+        queue.release();
+      });
+      threads.add(thread);
+      thread.start();
+      waitForWaiting(queue, i + 1);
+    }
+    assertEmpty(started);
+    queue.release();
+    for (Thread thread : threads) {
+      thread.join(10000);
+      assertFalse(thread.isAlive());
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), started);
+  }
+
+  public void testLimitChangeApplied() throws Exception {
+    TFExecutionQueue queue = createQueue(1);
+    queue.acquire();
+    TerraformToolProjectSettings.getInstance(getProject()).setMaxConcurrentProcesses(2);
+    queue.acquire();
+    queue.release();
+    queue.release();
+    assertEquals(0, queue.getWaitingCount());
+  }
+
+  private TFExecutionQueue createQueue(int limit) {
+    TerraformToolProjectSettings.getInstance(getProject()).setMaxConcurrentProcesses(limit);
+    TFExecutionQueue queue = new TFExecutionQueue(getProject());
+    Disposer.register(getTestRootDisposable(), queue);
+    return queue;
+  }
+
+  private static void waitForWaiting(TFExecutionQueue queue, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (queue.getWaitingCount() < count) {
+      assertTrue("Run was not queued in time", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+}
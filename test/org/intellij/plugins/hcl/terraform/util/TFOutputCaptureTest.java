@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.plugins.hcl.terraform.util;
+
+import com.intellij.execution.process.*;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TFOutputCaptureTest extends TestCase {
+  private final ProcessHandler myHandler = new NopProcessHandler();
+
+  public void testLinesSplitBetweenChunks() throws Exception {
+    List<String> lines = new ArrayList<>();
+    LineSplittingProcessListener listener = new LineSplittingProcessListener((line, type) -> lines.add(line));
+    text(listener, "Refreshing state... (ID: a)\nRefre", ProcessOutputTypes.STDOUT);
+    text(listener, "shing state... (ID: b)\r", ProcessOutputTypes.STDOUT);
+    text(listener, "\n\nPlan: 1 to add", ProcessOutputTypes.STDOUT);
+    assertEquals(3, lines.size());
+    listener.processTerminated(new ProcessEvent(myHandler, 0));
+    assertEquals(4, lines.size());
+    assertEquals("Refreshing state... (ID: b)", lines.get(1));
+    assertEquals("", lines.get(2));
+    assertEquals("Plan: 1 to add", lines.get(3));
+  }
+
+  public void testStreamsAreSeparated() throws Exception {
+    List<String> lines = new ArrayList<>();
+    LineSplittingProcessListener listener = new LineSplittingProcessListener((line, type) -> lines.add(type + ":" + line));
+    text(listener, "out", ProcessOutputTypes.STDOUT);
+    text(listener, "err\n", ProcessOutputTypes.STDERR);
+    text(listener, "put\n", ProcessOutputTypes.STDOUT);
+    assertEquals(2, lines.size());
+    assertEquals(ProcessOutputTypes.STDERR + ":err", lines.get(0));
+    assertEquals(ProcessOutputTypes.STDOUT + ":output", lines.get(1));
+  }
+
+  public void testHistoryIsBounded() throws Exception {
+    File spill = FileUtil.createTempFile("terraform-output", ".log", true);
+    HistoryProcessListener history = new HistoryProcessListener(10, spill, 1024);
+    for (int i = 0; i < 100; i++) {
+      text(history, "line " + i + "\n", ProcessOutputTypes.STDOUT);
+    }
+    history.processTerminated(new ProcessEvent(myHandler, 0));
+    assertTrue(history.hasStdout());
+    assertFalse(history.hasStderr());
+
+    StringBuilder replayed = new StringBuilder();
+    ProcessHandler console = new NopProcessHandler();
+    console.addProcessListener(new ProcessAdapter() {
+      @Override
+      public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+        if (outputType != ProcessOutputTypes.SYSTEM) replayed.append(event.getText());
+      }
+    });
+    history.apply(console);
+    assertEquals("line 99\n", replayed.toString());
+    assertTrue(FileUtil.loadFile(spill).startsWith("line 0\n"));
+    assertTrue(FileUtil.loadFile(spill).endsWith("line 99\n"));
+  }
+
+  public void testSpillFilesDeletedOnDispose() throws Exception {
+    HistoryProcessListener history = HistoryProcessListener.withSpillFile();
+    File spill = history.getSpillFile();
+    assertNotNull(spill);
+    for (int i = 0; i < 3; i++) {
+      text(history, StringUtil.repeat("x", HistoryProcessListener.DEFAULT_MEMORY_LIMIT) + "\n", ProcessOutputTypes.STDOUT);
+    }
+    history.processTerminated(new ProcessEvent(myHandler, 0));
+    assertTrue(spill.exists());
+    Disposer.dispose(history);
+    assertFalse(spill.exists());
+    assertFalse(new File(spill.getPath() + ".1").exists());
+  }
+
+  private void text(@NotNull ProcessListener listener, @NotNull String text, @NotNull Key type) {
+    listener.onTextAvailable(new ProcessEvent(myHandler, text), type);
+  }
+}
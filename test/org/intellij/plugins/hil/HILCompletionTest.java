@@ -68,6 +68,12 @@ public class HILCompletionTest extends CompletionTestCase {
     return result;
   }
 
+  public void testVariableCompletionFromJsonConfig() throws Exception {
+    myFixture.addFileToProject("generated.tf.json", "{\"variable\": {\"y\": {}}, \"locals\": [{\"z\": 1}]}");
+    doBasicCompletionTest("variable 'x' {}\na='${var.<caret>}'", 2, "x", "y");
+    doBasicCompletionTest("a='${local.<caret>}'", 1, "z");
+  }
+
   public void testNoMethodCompletion_InSelect() throws Exception {
     doBasicCompletionTest("a='${foo.<caret>}'", 0);
   }